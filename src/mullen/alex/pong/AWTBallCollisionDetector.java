@@ -1,6 +1,7 @@
 package mullen.alex.pong;
 
 import java.awt.geom.Ellipse2D;
+
 import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
 
 /**
@@ -12,42 +13,45 @@ import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
  *
  */
 public class AWTBallCollisionDetector implements BallCollisionDetector {
+    /** Holds the collisions for the game they were last created for. */
+    private final CollisionCache cache;
     /**
      * Creates a new instance.
      */
     public AWTBallCollisionDetector() {
-        // Intentionally empty.
+        cache = new CollisionCache();
     }
     @Override
     public final Collision check(final Game context) {
         final Ball ball = context.getBall();
         final World2D world = context.getWorld();
         final Ellipse2D.Float ballTransform = ball.getTransform();
+        cache.update(context);
         ////////////////////////////////////////////////////////////////////////
         // Check for world collisions.
         if (ballTransform.y < 0) {
             // Collided with top of the world.
-            return new WorldCollision(ball, world, Edge.TOP);
+            return cache.getWorldCollision(Edge.TOP);
         } else if (ballTransform.y + ballTransform.height
                 > world.getHeight()) {
             // Collided with bottom of the world.
-            return new WorldCollision(ball, world, Edge.BOTTOM);
+            return cache.getWorldCollision(Edge.BOTTOM);
         } else if (ballTransform.x <= 0) {
             // Collided with left side of the world.
-            return new WorldCollision(ball, world, Edge.LEFT);
+            return cache.getWorldCollision(Edge.LEFT);
         } else if (ballTransform.x + ballTransform.width >= world.getWidth()) {
             // Collided with right side of the world.
-            return new WorldCollision(ball, world, Edge.RIGHT);
+            return cache.getWorldCollision(Edge.RIGHT);
         }
         ////////////////////////////////////////////////////////////////////////
         // Check for paddle collisions.
         final Paddle leftPaddle = context.getLeftPaddle();
         if (ballTransform.intersects(leftPaddle.getTransform())) {
-            return new PaddleCollision(ball, leftPaddle);
+            return cache.getLeftPaddleCollision();
         }
         final Paddle rightPaddle = context.getRightPaddle();
         if (ballTransform.intersects(rightPaddle.getTransform())) {
-            return new PaddleCollision(ball, rightPaddle);
+            return cache.getRightPaddleCollision();
         }
         // No collision detected.
         return null;
@@ -6,17 +6,37 @@ import mullen.alex.jge.Vector2f;
 
 /**
  * Represents a ball.
+ * <p>
+ * A ball can be created in fixed-point mode, in which its movement is
+ * calculated with integer arithmetic. Positions are then always multiples of
+ * <code>1 / 2^{@value #POSITION_FRACTION_BITS}</code>, which floats hold
+ * exactly. Only the ball's movement is fixed-point: paddles move in whole
+ * units and collisions are still detected and resolved in
+ * <code>strictfp</code> floating point, which gives the same results on any
+ * JVM, and the resolver only places the ball against whole-unit edges. So
+ * two copies of a game fed the same inputs stay bit-for-bit identical on any
+ * JVM.
  *
  * @author  Alex Mullen
  *
  */
-public class Ball {
+public strictfp class Ball {
+    /** The number of fractional bits positions are held to in fixed-point. */
+    public static final int POSITION_FRACTION_BITS = 8;
+    /** The number of fractional bits velocities are held to in fixed-point. */
+    public static final int VELOCITY_FRACTION_BITS = 16;
+    /** Holds the fixed-point scale of positions. */
+    private static final float POSITION_ONE = 1 << POSITION_FRACTION_BITS;
+    /** Holds the fixed-point scale of velocities. */
+    private static final float VELOCITY_ONE = 1 << VELOCITY_FRACTION_BITS;
     /** Holds the transform for this ball. */
     private final Ellipse2D.Float transform;
     /** Holds the ball's velocity vector. */
     private final Vector2f velocity;
     /** Holds the speed of the ball. */
     private int speed;
+    /** Holds whether the ball moves using fixed-point arithmetic. */
+    private final boolean fixedPoint;
     /**
      * Creates a deep copy of the specified ball.
      *
@@ -28,6 +48,7 @@ public class Ball {
                 srcTransform.y, srcTransform.width, srcTransform.height);
         velocity = new Vector2f(srcBall.velocity);
         speed = srcBall.speed;
+        fixedPoint = srcBall.fixedPoint;
     }
     /**
      * Creates a new instance that has the initial X and Y velocities and speed.
@@ -38,9 +59,23 @@ public class Ball {
      */
     public Ball(final float initialVelocityX, final float initialVelocityY,
             final int initialSpeed) {
+        this(initialVelocityX, initialVelocityY, initialSpeed, false);
+    }
+    /**
+     * Creates a new instance that has the initial X and Y velocities and speed
+     * and that optionally moves using fixed-point arithmetic.
+     *
+     * @param initialVelocityX  the initial X axis velocity
+     * @param initialVelocityY  the initial Y axis velocity
+     * @param initialSpeed      the initial speed
+     * @param useFixedPoint     whether to move using fixed-point arithmetic
+     */
+    public Ball(final float initialVelocityX, final float initialVelocityY,
+            final int initialSpeed, final boolean useFixedPoint) {
         transform = new Ellipse2D.Float();
         velocity = new Vector2f(initialVelocityX, initialVelocityY);
         speed = initialSpeed;
+        fixedPoint = useFixedPoint;
     }
     /**
      * Gets the transform for this ball.
@@ -74,17 +109,206 @@ public class Ball {
     public final void setSpeed(final int newSpeed) {
         speed = newSpeed;
     }
+    /**
+     * Gets whether the ball moves using fixed-point arithmetic.
+     *
+     * @return  <code>true</code> if it does; <code>false</code> otherwise
+     */
+    public final boolean isFixedPoint() {
+        return fixedPoint;
+    }
+    /**
+     * Places the top left corner of the ball at the specified coordinates,
+     * rounded down onto the fixed-point grid if the ball moves in
+     * fixed-point.
+     *
+     * @param x  the X coordinate
+     * @param y  the Y coordinate
+     */
+    public final void setPosition(final float x, final float y) {
+        if (fixedPoint) {
+            transform.x = toFixedPointGrid(x);
+            transform.y = toFixedPointGrid(y);
+        } else {
+            transform.x = x;
+            transform.y = y;
+        }
+    }
     /**
      * Moves the ball one step.
+     * <p>
+     * The velocity is normalised in place rather than through
+     * {@link Vector2f#normalize()} so that no garbage is produced every tick.
      */
     public final void move() {
-        final Vector2f normVelocity = velocity.normalize();
-        transform.x += normVelocity.x * speed;
-        transform.y += normVelocity.y * speed;
+        if (fixedPoint) {
+            advance(1);
+            return;
+        }
+        final float length = getVelocityLength();
+        transform.x += velocity.x / length * speed;
+        transform.y += velocity.y / length * speed;
     }
+    /**
+     * Moves the ball the specified number of steps, which may be fractional.
+     *
+     * @param scale  the number of steps to move
+     */
     public final void move(final double scale) {
-        final Vector2f normVelocity = velocity.normalize();
-        transform.x += normVelocity.x * speed * scale;
-        transform.y += normVelocity.y * speed * scale; 
+        if (fixedPoint) {
+            final long length = getFixedVelocityLength();
+            transform.x = toFloat(toFixed(transform.x) + Math.round(
+                    getFixedStep(velocity.x, length) * scale));
+            transform.y = toFloat(toFixed(transform.y) + Math.round(
+                    getFixedStep(velocity.y, length) * scale));
+            return;
+        }
+        final float length = getVelocityLength();
+        transform.x += velocity.x / length * speed * scale;
+        transform.y += velocity.y / length * speed * scale;
+    }
+    /**
+     * Moves the ball the specified whole number of steps.
+     * <p>
+     * The result is bit-for-bit the same as calling {@link #move()} that many
+     * times, but the velocity is only normalised once. In fixed-point mode the
+     * steps add up exactly, so they are multiplied out and the cost does not
+     * depend on the number of steps. Otherwise the step is still added once
+     * per step, two additions each, since adding it in one go would round
+     * differently, so the cost grows with the number of steps.
+     *
+     * @param steps  the number of steps to move
+     */
+    public final void advance(final long steps) {
+        if (fixedPoint) {
+            // Integer steps add up exactly so they can simply be multiplied.
+            final long length = getFixedVelocityLength();
+            transform.x = toFloat(toFixed(transform.x)
+                    + getFixedStep(velocity.x, length) * steps);
+            transform.y = toFloat(toFixed(transform.y)
+                    + getFixedStep(velocity.y, length) * steps);
+            return;
+        }
+        final float stepX = getStepX();
+        final float stepY = getStepY();
+        float x = transform.x;
+        float y = transform.y;
+        for (long i = 0; i < steps; i++) {
+            x += stepX;
+            y += stepY;
+        }
+        transform.x = x;
+        transform.y = y;
+    }
+    /**
+     * Gets how far the ball moves along the X axis in one step.
+     *
+     * @return  the distance
+     */
+    public final float getStepX() {
+        if (fixedPoint) {
+            return toFloat(getFixedStep(velocity.x, getFixedVelocityLength()));
+        }
+        return velocity.x / getVelocityLength() * speed;
+    }
+    /**
+     * Gets how far the ball moves along the Y axis in one step.
+     *
+     * @return  the distance
+     */
+    public final float getStepY() {
+        if (fixedPoint) {
+            return toFloat(getFixedStep(velocity.y, getFixedVelocityLength()));
+        }
+        return velocity.y / getVelocityLength() * speed;
+    }
+    /**
+     * Gets the length of the velocity vector.
+     *
+     * @return  the length
+     */
+    private float getVelocityLength() {
+        return (float) Math.sqrt(
+                velocity.x * velocity.x + velocity.y * velocity.y);
+    }
+    /**
+     * Gets the length of the velocity vector in fixed-point.
+     *
+     * @return  the length
+     */
+    private long getFixedVelocityLength() {
+        final long vx = toFixedVelocity(velocity.x);
+        final long vy = toFixedVelocity(velocity.y);
+        return sqrt(vx * vx + vy * vy);
+    }
+    /**
+     * Gets the fixed-point distance moved in one step along the axis of the
+     * specified velocity component.
+     *
+     * @param component  the velocity component
+     * @param length     the fixed-point length of the velocity vector
+     * @return           the distance, or zero if the ball is not moving
+     */
+    private long getFixedStep(final float component, final long length) {
+        if (length == 0) {
+            return 0;
+        }
+        return (toFixedVelocity(component) * speed << POSITION_FRACTION_BITS)
+                / length;
+    }
+    /**
+     * Rounds a coordinate to the nearest fixed-point position.
+     *
+     * @param value  the coordinate
+     * @return       the fixed-point position
+     */
+    private static long toFixed(final float value) {
+        return Math.round(value * POSITION_ONE);
+    }
+    /**
+     * Converts a fixed-point position back to a coordinate, which is exact
+     * for any position within a world less than 65536 units across.
+     *
+     * @param value  the fixed-point position
+     * @return       the coordinate
+     */
+    private static float toFloat(final long value) {
+        return value / POSITION_ONE;
+    }
+    /**
+     * Rounds a velocity component to the nearest fixed-point value.
+     *
+     * @param value  the velocity component
+     * @return       the fixed-point value
+     */
+    private static long toFixedVelocity(final float value) {
+        return Math.round((double) value * VELOCITY_ONE);
+    }
+    /**
+     * Rounds a coordinate down to the nearest value a fixed-point ball can
+     * hold, such as for sizing a fixed-point ball.
+     *
+     * @param value  the coordinate
+     * @return       the rounded coordinate
+     */
+    public static float toFixedPointGrid(final float value) {
+        return (float) Math.floor(value * POSITION_ONE) / POSITION_ONE;
+    }
+    /**
+     * Gets the integer square root of a number, rounded down.
+     *
+     * @param value  the number, which must not be negative
+     * @return       the square root
+     */
+    static long sqrt(final long value) {
+        long root = (long) Math.sqrt(value);
+        // Correct for the precision lost converting to and from a double.
+        while (root * root > value) {
+            root--;
+        }
+        while ((root + 1) * (root + 1) <= value) {
+            root++;
+        }
+        return root;
     }
 }
@@ -1,10 +1,12 @@
 package mullen.alex.pong;
 
+import java.awt.Rectangle;
 import java.util.Objects;
 
 /**
  * Defines an interface for a class that detects when a {@link Ball} collides
- * with the bounds of the world or with a {@link Paddle}.
+ * with the bounds of the world, with a {@link Paddle} or with one of the
+ * game's obstacles.
  *
  * @author  Alex Mullen
  *
@@ -42,7 +44,9 @@ public interface BallCollisionDetector {
             /** Ball collided with the world bounds. */
             WORLD,
             /** Ball collided with a paddle. */
-            PADDLE
+            PADDLE,
+            /** Ball collided with an obstacle. */
+            OBSTACLE
         }
         /**
          * Creates a new instance.
@@ -106,6 +110,38 @@ public interface BallCollisionDetector {
             return paddle;
         }
     }
+    /**
+     * An extension to {@link Collision} that describes a collision with one
+     * of the game's obstacles.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    class ObstacleCollision extends Collision {
+        /** The obstacle that the ball collided with. */
+        private final Rectangle obstacle;
+        /**
+         * Creates a new instance.
+         *
+         * @param b  the ball involved in the collision
+         * @param o  the obstacle that the ball collided with
+         *
+         * @throws   NullPointerException  if <code>b</code> or <code>o</code>
+         *                                 is <code>null</code>
+         */
+        ObstacleCollision(final Ball b, final Rectangle o) {
+            super(b, With.OBSTACLE);
+            obstacle = Objects.requireNonNull(o);
+        }
+        /**
+         * Gets the obstacle that the ball collided with.
+         *
+         * @return  the obstacle
+         */
+        public final Rectangle getObstacle() {
+            return obstacle;
+        }
+    }
     /**
      * An extension to {@link Collision} that describes a collision with the
      * world borders.
@@ -0,0 +1,196 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+
+/**
+ * Predicts where and when the ball will reach a paddle without simulating
+ * the ticks in between.
+ * <p>
+ * The ball's path is unfolded: instead of bouncing off the top and bottom of
+ * the world, it is treated as carrying on in a straight line through mirror
+ * images of the world. The point it reaches is then folded back into the
+ * world, which gives the same position as bouncing off each edge in turn.
+ * The cost is therefore the same however many bounces there are. Paddles and
+ * the sides of the world are not taken into account along the way.
+ * <p>
+ * The results of the last prediction are held by the instance, so predicting
+ * every tick produces no garbage.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class BallInterceptPredictor {
+    /** Holds the X coordinate of the ball when it reaches the paddle. */
+    private float interceptX;
+    /** Holds the Y coordinate of the ball when it reaches the paddle. */
+    private float interceptY;
+    /** Holds the number of steps until the ball reaches the paddle. */
+    private float steps;
+    /** Holds the number of bounces made before the ball reaches the paddle. */
+    private long bounces;
+    /** Holds the diameter of the ball the last prediction was made for. */
+    private float ballDiameter;
+    /**
+     * Creates a new instance.
+     */
+    public BallInterceptPredictor() {
+        // Intentionally empty.
+    }
+    /**
+     * Predicts where the ball will be when it reaches the face of the
+     * specified paddle.
+     *
+     * @param ball    the ball
+     * @param world   the world the ball is within
+     * @param paddle  the paddle
+     * @return        <code>true</code> if the ball is heading towards the
+     *                paddle and a prediction was made; <code>false</code>
+     *                otherwise, in which case the previous prediction is kept
+     */
+    public final boolean predict(final Ball ball, final World2D world,
+            final Paddle paddle) {
+        final Ellipse2D.Float ballTransform = ball.getTransform();
+        final Rectangle paddleTransform = paddle.getTransform();
+        final float dx = ball.getStepX();
+        final float ballCentreX = ballTransform.x + ballTransform.width / 2;
+        final float paddleCentreX =
+                paddleTransform.x + paddleTransform.width / 2.0f;
+        final float contactX;
+        if (dx > 0 && ballCentreX < paddleCentreX) {
+            contactX = paddleTransform.x - ballTransform.width;
+        } else if (dx < 0 && ballCentreX > paddleCentreX) {
+            contactX = paddleTransform.x + paddleTransform.width;
+        } else {
+            return false;
+        }
+        steps = Math.max(0, (contactX - ballTransform.x) / dx);
+        interceptX = contactX;
+        interceptY = fold(ballTransform.y + (double) ball.getStepY() * steps,
+                world.getHeight() - ballTransform.height);
+        ballDiameter = ballTransform.height;
+        return true;
+    }
+    /**
+     * Moves the ball the specified number of steps along its path, bouncing
+     * it off the top and bottom of the world on the way.
+     * <p>
+     * A negative number of steps moves the ball backwards along its path,
+     * such as to put it where it was a moment ago.
+     *
+     * @param ball         the ball
+     * @param world        the world the ball is within
+     * @param stepsToMove  the number of steps, which may be fractional
+     */
+    public final void advance(final Ball ball, final World2D world,
+            final double stepsToMove) {
+        final Ellipse2D.Float ballTransform = ball.getTransform();
+        final float dx = ball.getStepX();
+        final float dy = ball.getStepY();
+        ballTransform.x += dx * stepsToMove;
+        ballTransform.y = fold(ballTransform.y + dy * stepsToMove,
+                world.getHeight() - ballTransform.height);
+        if (bounces % 2 != 0) {
+            ball.getVelocity().y = -ball.getVelocity().y;
+        }
+    }
+    /**
+     * Gets the X coordinate of the ball's bounds when it reaches the paddle.
+     *
+     * @return  the X coordinate
+     */
+    public final float getInterceptX() {
+        return interceptX;
+    }
+    /**
+     * Gets the Y coordinate of the ball's bounds when it reaches the paddle.
+     *
+     * @return  the Y coordinate
+     */
+    public final float getInterceptY() {
+        return interceptY;
+    }
+    /**
+     * Gets the Y coordinate of the ball's centre when it reaches the paddle.
+     *
+     * @return  the Y coordinate
+     */
+    public final float getInterceptCentreY() {
+        return interceptY + ballDiameter / 2;
+    }
+    /**
+     * Gets the number of steps until the ball reaches the paddle.
+     *
+     * @return  the number of steps, which may be fractional
+     */
+    public final float getSteps() {
+        return steps;
+    }
+    /**
+     * Gets the number of times the ball bounces off the top or bottom of the
+     * world before it reaches the paddle, or whilst it was last advanced.
+     *
+     * @return  the number of bounces
+     */
+    public final long getBounceCount() {
+        return bounces;
+    }
+    /**
+     * Gets where the top of the specified paddle needs to be for the
+     * predicted ball to hit the middle of the specified deflection segment.
+     * <p>
+     * Segments are numbered from the top of the paddle as they are by
+     * {@link BasicBallCollisionResolver}, so the lowest and highest segments
+     * send the ball back at the steepest angles.
+     *
+     * @param paddle   the paddle
+     * @param world    the world the paddle is within
+     * @param segment  the segment
+     * @return         the Y coordinate, kept within the world
+     *
+     * @throws IllegalArgumentException  if <code>segment</code> is not a
+     *                                   valid segment
+     */
+    public final int getPaddleYForSegment(final Paddle paddle,
+            final World2D world, final int segment) {
+        if (segment < 0 || segment >= getSegmentCount()) {
+            throw new IllegalArgumentException("Invalid segment: " + segment);
+        }
+        final int paddleHeight = paddle.getTransform().height;
+        final int segmentSpacing = paddleHeight / getSegmentCount();
+        final float paddleY = getInterceptCentreY()
+                - (segment + 0.5f) * segmentSpacing;
+        return Math.max(0, Math.min(world.getHeight() - paddleHeight,
+                Math.round(paddleY)));
+    }
+    /**
+     * Gets the number of deflection segments each paddle is divided into.
+     *
+     * @return  the number of segments
+     */
+    public static int getSegmentCount() {
+        return BasicBallCollisionResolver.PADDLE_DEFLECTION_ANGLES.length;
+    }
+    /**
+     * Folds an unfolded coordinate back into the range it bounces within and
+     * records how many bounces that took.
+     *
+     * @param unfolded  the unfolded coordinate
+     * @param range     the largest coordinate before bouncing, the smallest
+     *                  being zero
+     * @return          the folded coordinate
+     */
+    private float fold(final double unfolded, final float range) {
+        if (range <= 0) {
+            bounces = 0;
+            return 0;
+        }
+        final double period = 2.0 * range;
+        double folded = unfolded % period;
+        if (folded < 0) {
+            folded += period;
+        }
+        bounces = Math.abs((long) Math.floor(unfolded / range));
+        return (float) (folded <= range ? folded : period - folded);
+    }
+}
@@ -0,0 +1,452 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
+
+/**
+ * Holds any number of balls as parallel arrays of primitives rather than as
+ * {@link Ball} objects.
+ * <p>
+ * Each ball is identified by its index, which is between zero and
+ * {@link #size()}. Positions are the centre of each ball rather than the top
+ * left corner of its bounds. Moving and checking every ball walks the arrays
+ * in a single loop, so the cost per ball is a few array elements rather than
+ * several objects spread around the heap. Removing a ball moves the last ball
+ * into its index.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class BallStore {
+    /** Holds the capacity of an empty store. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** Holds the X coordinate of each ball's centre. */
+    private float[] x;
+    /** Holds the Y coordinate of each ball's centre. */
+    private float[] y;
+    /** Holds the X component of each ball's velocity. */
+    private float[] vx;
+    /** Holds the Y component of each ball's velocity. */
+    private float[] vy;
+    /** Holds the radius of each ball. */
+    private float[] radius;
+    /** Holds the speed of each ball. */
+    private int[] speed;
+    /** Holds the distance each ball moves along the X axis per step. */
+    private float[] stepX;
+    /** Holds the distance each ball moves along the Y axis per step. */
+    private float[] stepY;
+    /** Holds the number of balls held. */
+    private int size;
+    /**
+     * Creates a new empty instance.
+     */
+    public BallStore() {
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * Creates a new empty instance with room for the specified number of
+     * balls before the arrays need to grow.
+     *
+     * @param initialCapacity  the initial capacity
+     *
+     * @throws IllegalArgumentException  if <code>initialCapacity</code> is
+     *                                   negative
+     */
+    public BallStore(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(
+                    "initialCapacity must not be negative");
+        }
+        x = new float[initialCapacity];
+        y = new float[initialCapacity];
+        vx = new float[initialCapacity];
+        vy = new float[initialCapacity];
+        radius = new float[initialCapacity];
+        speed = new int[initialCapacity];
+        stepX = new float[initialCapacity];
+        stepY = new float[initialCapacity];
+    }
+    /**
+     * Adds a ball.
+     *
+     * @param centreX     the X coordinate of the ball's centre
+     * @param centreY     the Y coordinate of the ball's centre
+     * @param ballRadius  the radius of the ball
+     * @param velocityX   the X component of the ball's velocity
+     * @param velocityY   the Y component of the ball's velocity
+     * @param ballSpeed   the speed of the ball
+     * @return            the index of the added ball
+     */
+    public final int add(final float centreX, final float centreY,
+            final float ballRadius, final float velocityX,
+            final float velocityY, final int ballSpeed) {
+        if (size == x.length) {
+            grow();
+        }
+        final int index = size++;
+        x[index] = centreX;
+        y[index] = centreY;
+        radius[index] = ballRadius;
+        vx[index] = velocityX;
+        vy[index] = velocityY;
+        speed[index] = ballSpeed;
+        updateStep(index);
+        return index;
+    }
+    /**
+     * Removes the ball at the specified index by moving the last ball into
+     * its place.
+     *
+     * @param index  the index of the ball
+     *
+     * @throws IndexOutOfBoundsException  if <code>index</code> is out of
+     *                                    range
+     */
+    public final void remove(final int index) {
+        checkIndex(index);
+        final int last = --size;
+        x[index] = x[last];
+        y[index] = y[last];
+        radius[index] = radius[last];
+        vx[index] = vx[last];
+        vy[index] = vy[last];
+        speed[index] = speed[last];
+        stepX[index] = stepX[last];
+        stepY[index] = stepY[last];
+    }
+    /**
+     * Removes every ball.
+     */
+    public final void clear() {
+        size = 0;
+    }
+    /**
+     * Gets the number of balls held.
+     *
+     * @return  the number of balls
+     */
+    public final int size() {
+        return size;
+    }
+    /**
+     * Gets whether no balls are held.
+     *
+     * @return  <code>true</code> if it is empty; <code>false</code> otherwise
+     */
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+    /**
+     * Gets the X coordinate of a ball's centre.
+     *
+     * @param index  the index of the ball
+     * @return       the X coordinate
+     */
+    public final float getX(final int index) {
+        checkIndex(index);
+        return x[index];
+    }
+    /**
+     * Gets the Y coordinate of a ball's centre.
+     *
+     * @param index  the index of the ball
+     * @return       the Y coordinate
+     */
+    public final float getY(final int index) {
+        checkIndex(index);
+        return y[index];
+    }
+    /**
+     * Gets the radius of a ball.
+     *
+     * @param index  the index of the ball
+     * @return       the radius
+     */
+    public final float getRadius(final int index) {
+        checkIndex(index);
+        return radius[index];
+    }
+    /**
+     * Gets the X component of a ball's velocity.
+     *
+     * @param index  the index of the ball
+     * @return       the X component
+     */
+    public final float getVelocityX(final int index) {
+        checkIndex(index);
+        return vx[index];
+    }
+    /**
+     * Gets the Y component of a ball's velocity.
+     *
+     * @param index  the index of the ball
+     * @return       the Y component
+     */
+    public final float getVelocityY(final int index) {
+        checkIndex(index);
+        return vy[index];
+    }
+    /**
+     * Gets the speed of a ball.
+     *
+     * @param index  the index of the ball
+     * @return       the speed
+     */
+    public final int getSpeed(final int index) {
+        checkIndex(index);
+        return speed[index];
+    }
+    /**
+     * Sets the centre of a ball.
+     *
+     * @param index    the index of the ball
+     * @param centreX  the X coordinate of the centre
+     * @param centreY  the Y coordinate of the centre
+     */
+    public final void setPosition(final int index, final float centreX,
+            final float centreY) {
+        checkIndex(index);
+        x[index] = centreX;
+        y[index] = centreY;
+    }
+    /**
+     * Sets the velocity of a ball.
+     *
+     * @param index      the index of the ball
+     * @param velocityX  the X component of the velocity
+     * @param velocityY  the Y component of the velocity
+     */
+    public final void setVelocity(final int index, final float velocityX,
+            final float velocityY) {
+        checkIndex(index);
+        vx[index] = velocityX;
+        vy[index] = velocityY;
+        updateStep(index);
+    }
+    /**
+     * Sets the speed of a ball.
+     *
+     * @param index     the index of the ball
+     * @param newSpeed  the new speed
+     */
+    public final void setSpeed(final int index, final int newSpeed) {
+        checkIndex(index);
+        speed[index] = newSpeed;
+        updateStep(index);
+    }
+    /**
+     * Moves every ball one step in the same way as {@link Ball#move()}.
+     * <p>
+     * The distance each ball moves per step is kept up to date whenever its
+     * velocity or speed changes, so this is just two additions per ball.
+     */
+    public final void moveAll() {
+        final float[] px = x;
+        final float[] py = y;
+        final float[] sx = stepX;
+        final float[] sy = stepY;
+        for (int i = 0; i < size; i++) {
+            px[i] += sx[i];
+            py[i] += sy[i];
+        }
+    }
+    /**
+     * Moves every ball the specified number of steps, which may be
+     * fractional.
+     *
+     * @param steps  the number of steps to move
+     */
+    public final void moveAll(final float steps) {
+        final float[] px = x;
+        final float[] py = y;
+        final float[] sx = stepX;
+        final float[] sy = stepY;
+        for (int i = 0; i < size; i++) {
+            px[i] += sx[i] * steps;
+            py[i] += sy[i] * steps;
+        }
+    }
+    /**
+     * Moves every ball one step and bounces any that pass the top or bottom
+     * of the world, with the same results as {@link #moveAll()} followed by
+     * the top and bottom checks of {@link #checkAndResolveAll}.
+     * <p>
+     * This is meant for workloads that step thousands of independent rallies
+     * and only care about paddles and sides occasionally. It is a single loop
+     * over the arrays with no calls, using the step kept for each ball rather
+     * than a square root and two divisions. Bounces are rare, so their
+     * branches are well predicted: a branch-free version that writes every
+     * ball's velocity and step each time ran at about half the speed.
+     *
+     * @param world  the world the balls are within
+     */
+    public final void moveAndBounceAll(final World2D world) {
+        final float height = world.getHeight();
+        final float[] px = x;
+        final float[] py = y;
+        final float[] pvy = vy;
+        final float[] sx = stepX;
+        final float[] sy = stepY;
+        final float[] pr = radius;
+        for (int i = 0; i < size; i++) {
+            px[i] += sx[i];
+            py[i] += sy[i];
+            final float r = pr[i];
+            if (py[i] - r < 0) {
+                py[i] = r;
+                pvy[i] = -pvy[i];
+                sy[i] = -sy[i];
+            } else if (py[i] + r > height) {
+                py[i] = height - r;
+                pvy[i] = -pvy[i];
+                sy[i] = -sy[i];
+            }
+        }
+    }
+    /**
+     * Checks every ball for a collision with the world edges and the paddles
+     * and resolves them in the same way as {@link BasicBallCollisionResolver}.
+     * <p>
+     * Each ball is checked once per call, in the same order as
+     * {@link AWTBallCollisionDetector}: the top, bottom, left and right edges
+     * then the left and right paddles. A ball reaching the left or right edge
+     * is not resolved but reported to the listener, which may remove that
+     * ball from this store. The balls are walked from the last index down so
+     * such a removal does not cause any ball to be skipped.
+     *
+     * @param world        the world the balls are within
+     * @param leftPaddle   the left paddle
+     * @param rightPaddle  the right paddle
+     * @param listener     the listener notified of the collisions
+     */
+    public final void checkAndResolveAll(final World2D world,
+            final Paddle leftPaddle, final Paddle rightPaddle,
+            final Listener listener) {
+        final int worldWidth = world.getWidth();
+        final int worldHeight = world.getHeight();
+        for (int i = size - 1; i >= 0; i--) {
+            final float r = radius[i];
+            if (y[i] - r < 0) {
+                y[i] = r;
+                vy[i] = -vy[i];
+                stepY[i] = -stepY[i];
+            } else if (y[i] + r > worldHeight) {
+                y[i] = worldHeight - r;
+                vy[i] = -vy[i];
+                stepY[i] = -stepY[i];
+            }
+            if (x[i] - r < 0) {
+                listener.onBallReachedSide(i, Edge.LEFT);
+            } else if (x[i] + r > worldWidth) {
+                listener.onBallReachedSide(i, Edge.RIGHT);
+            } else if (checkAndResolvePaddle(i, leftPaddle.getTransform())) {
+                listener.onBallHitPaddle(i, leftPaddle);
+            } else if (checkAndResolvePaddle(i, rightPaddle.getTransform())) {
+                listener.onBallHitPaddle(i, rightPaddle);
+            }
+        }
+    }
+    /**
+     * Checks whether a ball overlaps a paddle and, if it does, deflects it.
+     *
+     * @param i       the index of the ball
+     * @param paddle  the paddle's transform
+     * @return        <code>true</code> if the ball was deflected;
+     *                <code>false</code> otherwise
+     */
+    private boolean checkAndResolvePaddle(final int i, final Rectangle paddle) {
+        final float r = radius[i];
+        // Distance from the centre to the closest point on the paddle.
+        final float dx = x[i] - Math.max(paddle.x,
+                Math.min(x[i], paddle.x + paddle.width));
+        final float dy = y[i] - Math.max(paddle.y,
+                Math.min(y[i], paddle.y + paddle.height));
+        if (dx * dx + dy * dy >= r * r) {
+            return false;
+        }
+        final float direction;
+        if (vx[i] > 0) {
+            // Ball was heading right so reflect it back to the left.
+            x[i] = paddle.x - r;
+            direction = -1.0f;
+        } else if (vx[i] < 0) {
+            // Ball was heading left so reflect it back to the right.
+            x[i] = paddle.x + paddle.width + r;
+            direction = 1.0f;
+        } else {
+            return false;
+        }
+        final int segment = BasicBallCollisionResolver.getDeflectionSegment(
+                paddle.height, y[i] - paddle.y);
+        vx[i] = direction * BasicBallCollisionResolver.DEFLECTION_X[segment];
+        vy[i] = BasicBallCollisionResolver.DEFLECTION_Y[segment];
+        updateStep(i);
+        return true;
+    }
+    /**
+     * Works out how far a ball moves per step from its velocity and speed,
+     * in the same way as {@link Ball#move()}.
+     *
+     * @param i  the index of the ball
+     */
+    private void updateStep(final int i) {
+        final float length = (float) Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+        stepX[i] = vx[i] / length * speed[i];
+        stepY[i] = vy[i] / length * speed[i];
+    }
+    /**
+     * Doubles the capacity of the arrays.
+     */
+    private void grow() {
+        final int capacity = Math.max(DEFAULT_CAPACITY, x.length * 2);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        radius = Arrays.copyOf(radius, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        stepX = Arrays.copyOf(stepX, capacity);
+        stepY = Arrays.copyOf(stepY, capacity);
+    }
+    /**
+     * Checks that the specified index refers to a ball.
+     *
+     * @param index  the index
+     *
+     * @throws IndexOutOfBoundsException  if <code>index</code> is out of
+     *                                    range
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + size);
+        }
+    }
+    /**
+     * Defines an interface for a class that is notified of the collisions
+     * found by {@link BallStore#checkAndResolveAll}.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public interface Listener {
+        /**
+         * Invoked after a ball has hit a paddle and been deflected.
+         *
+         * @param index   the index of the ball
+         * @param paddle  the paddle that was hit
+         */
+        void onBallHitPaddle(int index, Paddle paddle);
+        /**
+         * Invoked when a ball has reached the left or right edge of the
+         * world.
+         *
+         * @param index  the index of the ball
+         * @param edge   the edge reached
+         */
+        void onBallReachedSide(int index, Edge edge);
+    }
+}
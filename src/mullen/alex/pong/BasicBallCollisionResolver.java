@@ -1,22 +1,35 @@
 package mullen.alex.pong;
 
 import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
 
-import mullen.alex.jge.Vector2f;
 import mullen.alex.pong.BallCollisionDetector.Collision;
+import mullen.alex.pong.BallCollisionDetector.ObstacleCollision;
 import mullen.alex.pong.BallCollisionDetector.PaddleCollision;
 import mullen.alex.pong.BallCollisionDetector.WorldCollision;
 
 /**
  * A basic ball collision resolver.
+ * <p>
+ * The deflection vectors are computed once with {@link StrictMath} so they
+ * are identical on every JVM.
  *
  * @author  Alex Mullen
  *
  */
-public class BasicBallCollisionResolver implements BallCollisionResolver {
+public strictfp class BasicBallCollisionResolver
+        implements BallCollisionResolver {
     /** Holds the segment reflection angles (in degrees) for the paddles. */
-    private static final int[] PADDLE_DEFLECTION_ANGLES =
+    static final int[] PADDLE_DEFLECTION_ANGLES =
         {45, 25, 15, 360, 345, 335, 315};
+    /**
+     * Holds the X component of the unit deflection vector for each segment,
+     * for a ball deflected to the right. Pre-computed so no trigonometry or
+     * garbage is needed per hit.
+     */
+    static final float[] DEFLECTION_X = computeDeflectionX();
+    /** Holds the Y component of the unit deflection vector for each segment. */
+    static final float[] DEFLECTION_Y = computeDeflectionY();
     /**
      * Creates a new instance.
      */
@@ -32,6 +45,9 @@ public class BasicBallCollisionResolver implements BallCollisionResolver {
             case PADDLE:
                 handlePaddleCollision((PaddleCollision) collision);
                 break;
+            case OBSTACLE:
+                handleObstacleCollision((ObstacleCollision) collision);
+                break;
             default:
                 throw new IllegalStateException("Unhandled case: "
                         + collision.getWith());
@@ -71,73 +87,115 @@ public class BasicBallCollisionResolver implements BallCollisionResolver {
      */
     private static void handlePaddleCollision(final PaddleCollision pc) {
         final Ball ball = pc.getBall();
-        final Paddle paddle = pc.getPaddle();
+        final Rectangle paddleTransform = pc.getPaddle().getTransform();
+        final Ellipse2D.Float ballTransform = ball.getTransform();
+        final float direction;
         if (ball.getVelocity().x > 0) {
-            ball.getTransform().x = paddle.getTransform().x - ball.getTransform().width;
-            // Ball was heading right.
-            // Convert ball coordinates into "paddle space" coordinates.
-            final Rectangle rightPaddleTransform = paddle.getTransform();
-            final Vector2f ballPaddleSpaceCoords =
-                    new Vector2f(ball.getTransform().x - rightPaddleTransform.x,
-                                 ball.getTransform().y
-                                 // Use the middle height of the ball as centre.
-                                 + (ball.getTransform().height / 2)
-                                 - rightPaddleTransform.y);
-            final int segmentSpaceing =
-                    rightPaddleTransform.height
-                            / PADDLE_DEFLECTION_ANGLES.length;
-            int reflectionAngleIndex =
-                    (int) (ballPaddleSpaceCoords.y / segmentSpaceing);
-            /*
-             * Constrain the index within valid bounds. Invalid bounds can occur
-             * when the ball hits the paddle at the lower or upper bound due to
-             * integer division.
-             */
-            reflectionAngleIndex = Math.max(0, reflectionAngleIndex);
-            reflectionAngleIndex = Math.min(
-                    PADDLE_DEFLECTION_ANGLES.length - 1,
-                    reflectionAngleIndex);
-            final int reflectionAngle =
-                    PADDLE_DEFLECTION_ANGLES[reflectionAngleIndex];
-            // Reflect the ball at the segment's specified angle.
-            ball.getVelocity().x =
-                    -(float) Math.cos(Math.toRadians(reflectionAngle));
-            // Negate since the Y axis increases downwards.
-            ball.getVelocity().y =
-                    -(float) Math.sin(Math.toRadians(reflectionAngle));
+            // Ball was heading right so reflect it back to the left.
+            ballTransform.x = paddleTransform.x - ballTransform.width;
+            direction = -1.0f;
         } else if (ball.getVelocity().x < 0) {
-            ball.getTransform().x = paddle.getTransform().x + paddle.getTransform().width;
-            // Ball was heading left.
-            // Convert ball coordinates into "paddle space" coordinates.
-            final Rectangle leftPaddleTransform = paddle.getTransform();
-            final Vector2f ballPaddleSpaceCoords =
-                    new Vector2f(ball.getTransform().x - leftPaddleTransform.x,
-                                 ball.getTransform().y
-                                 // Use the middle height of the ball as centre.
-                                 + (ball.getTransform().height / 2)
-                                 - leftPaddleTransform.y);
-            final int segmentSpaceing =
-                    leftPaddleTransform.height
-                            / PADDLE_DEFLECTION_ANGLES.length;
-            int reflectionAngleIndex =
-                    (int) (ballPaddleSpaceCoords.y / segmentSpaceing);
-            /*
-             * Constrain the index within valid bounds. Invalid bounds can occur
-             * when the ball hits the paddle at the lower or upper bound due to
-             * integer division.
-             */
-            reflectionAngleIndex = Math.max(0, reflectionAngleIndex);
-            reflectionAngleIndex = Math.min(
-                    PADDLE_DEFLECTION_ANGLES.length - 1,
-                    reflectionAngleIndex);
-            final int reflectionAngle =
-                    PADDLE_DEFLECTION_ANGLES[reflectionAngleIndex];
-            // Reflect the ball at the segment's specified angle.
-            ball.getVelocity().x =
-                    (float) Math.cos(Math.toRadians(reflectionAngle));
+            // Ball was heading left so reflect it back to the right.
+            ballTransform.x = paddleTransform.x + paddleTransform.width;
+            direction = 1.0f;
+        } else {
+            return;
+        }
+        // Convert the middle height of the ball into "paddle space".
+        final float ballPaddleSpaceY = ballTransform.y
+                + (ballTransform.height / 2) - paddleTransform.y;
+        final int segment =
+                getDeflectionSegment(paddleTransform.height, ballPaddleSpaceY);
+        // Reflect the ball at the segment's specified angle.
+        ball.getVelocity().x = direction * DEFLECTION_X[segment];
+        ball.getVelocity().y = DEFLECTION_Y[segment];
+    }
+    /**
+     * Handles an obstacle collision by pushing the ball out through the side
+     * of the obstacle it overlaps the least and bouncing it off that side.
+     *
+     * @param oc  the obstacle collision
+     */
+    private static void handleObstacleCollision(final ObstacleCollision oc) {
+        final Ball ball = oc.getBall();
+        final Ellipse2D.Float ballTransform = ball.getTransform();
+        final Rectangle obstacle = oc.getObstacle();
+        final float overlapLeft =
+                ballTransform.x + ballTransform.width - obstacle.x;
+        final float overlapRight =
+                obstacle.x + obstacle.width - ballTransform.x;
+        final float overlapTop =
+                ballTransform.y + ballTransform.height - obstacle.y;
+        final float overlapBottom =
+                obstacle.y + obstacle.height - ballTransform.y;
+        final float overlapX = Math.min(overlapLeft, overlapRight);
+        final float overlapY = Math.min(overlapTop, overlapBottom);
+        if (overlapX < overlapY) {
+            if (overlapLeft < overlapRight) {
+                ballTransform.x = obstacle.x - ballTransform.width;
+                ball.getVelocity().x = -Math.abs(ball.getVelocity().x);
+            } else {
+                ballTransform.x = obstacle.x + obstacle.width;
+                ball.getVelocity().x = Math.abs(ball.getVelocity().x);
+            }
+        } else {
+            if (overlapTop < overlapBottom) {
+                ballTransform.y = obstacle.y - ballTransform.height;
+                ball.getVelocity().y = -Math.abs(ball.getVelocity().y);
+            } else {
+                ballTransform.y = obstacle.y + obstacle.height;
+                ball.getVelocity().y = Math.abs(ball.getVelocity().y);
+            }
+        }
+    }
+    /**
+     * Gets the index of the paddle segment that a ball hitting the paddle at
+     * the specified offset from its top falls within.
+     *
+     * @param paddleHeight  the height of the paddle
+     * @param offsetY       the offset from the top of the paddle
+     * @return              the segment index
+     */
+    static int getDeflectionSegment(final int paddleHeight,
+            final float offsetY) {
+        final int segmentSpacing =
+                paddleHeight / PADDLE_DEFLECTION_ANGLES.length;
+        int reflectionAngleIndex = (int) (offsetY / segmentSpacing);
+        /*
+         * Constrain the index within valid bounds. Invalid bounds can occur
+         * when the ball hits the paddle at the lower or upper bound due to
+         * integer division.
+         */
+        reflectionAngleIndex = Math.max(0, reflectionAngleIndex);
+        reflectionAngleIndex = Math.min(
+                PADDLE_DEFLECTION_ANGLES.length - 1, reflectionAngleIndex);
+        return reflectionAngleIndex;
+    }
+    /**
+     * Computes the X components of the deflection vectors.
+     *
+     * @return  the X components
+     */
+    private static float[] computeDeflectionX() {
+        final float[] components = new float[PADDLE_DEFLECTION_ANGLES.length];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = (float) StrictMath.cos(
+                    StrictMath.toRadians(PADDLE_DEFLECTION_ANGLES[i]));
+        }
+        return components;
+    }
+    /**
+     * Computes the Y components of the deflection vectors.
+     *
+     * @return  the Y components
+     */
+    private static float[] computeDeflectionY() {
+        final float[] components = new float[PADDLE_DEFLECTION_ANGLES.length];
+        for (int i = 0; i < components.length; i++) {
             // Negate since the Y axis increases downwards.
-            ball.getVelocity().y =
-                    -(float) Math.sin(Math.toRadians(reflectionAngle));
+            components[i] = -(float) StrictMath.sin(
+                    StrictMath.toRadians(PADDLE_DEFLECTION_ANGLES[i]));
         }
+        return components;
     }
 }
@@ -0,0 +1,79 @@
+package mullen.alex.pong;
+
+import mullen.alex.pong.BallCollisionDetector.PaddleCollision;
+import mullen.alex.pong.BallCollisionDetector.WorldCollision;
+import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
+
+/**
+ * Holds one instance of every collision that can occur within a game so that
+ * detectors can return them without allocating on every check.
+ * <p>
+ * Collisions are immutable and a game never swaps its ball, paddles or world,
+ * so the instances are only re-created when a detector is used with a
+ * different game. Anything that differs between checks, such as a
+ * {@link ContinuousBallCollisionDetector}'s time of impact, is held by the
+ * detector instead.
+ *
+ * @author  Alex Mullen
+ *
+ */
+final class CollisionCache {
+    /** Holds the world collisions indexed by the ordinal of their edge. */
+    private final WorldCollision[] worldCollisions;
+    /** Holds the game the cached collisions were created for. */
+    private Game game;
+    /** Holds the collision between the ball and the left paddle. */
+    private PaddleCollision leftPaddleCollision;
+    /** Holds the collision between the ball and the right paddle. */
+    private PaddleCollision rightPaddleCollision;
+    /**
+     * Creates a new empty cache.
+     */
+    CollisionCache() {
+        worldCollisions = new WorldCollision[Edge.values().length];
+    }
+    /**
+     * Makes sure the cached collisions are the ones for the specified game.
+     *
+     * @param context  the game about to be checked
+     */
+    void update(final Game context) {
+        if (context != game) {
+            final Ball ball = context.getBall();
+            for (final Edge edge : Edge.values()) {
+                worldCollisions[edge.ordinal()] =
+                        new WorldCollision(ball, context.getWorld(), edge);
+            }
+            leftPaddleCollision =
+                    new PaddleCollision(ball, context.getLeftPaddle());
+            rightPaddleCollision =
+                    new PaddleCollision(ball, context.getRightPaddle());
+            game = context;
+        }
+    }
+    /**
+     * Gets the collision with the specified edge of the world.
+     *
+     * @param edge  the edge
+     * @return      the collision
+     */
+    WorldCollision getWorldCollision(final Edge edge) {
+        return worldCollisions[edge.ordinal()];
+    }
+    /**
+     * Gets the collision with the left paddle.
+     *
+     * @return  the collision
+     */
+    PaddleCollision getLeftPaddleCollision() {
+        return leftPaddleCollision;
+    }
+    /**
+     * Gets the collision with the right paddle.
+     *
+     * @return  the collision
+     */
+    PaddleCollision getRightPaddleCollision() {
+        return rightPaddleCollision;
+    }
+}
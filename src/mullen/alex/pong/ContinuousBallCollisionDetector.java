@@ -0,0 +1,43 @@
+package mullen.alex.pong;
+
+/**
+ * Defines an interface for a {@link BallCollisionDetector} that can find
+ * collisions along the path of the ball before it moves, rather than only
+ * detecting overlaps after the ball has moved.
+ * <p>
+ * This prevents a fast ball from tunnelling through a paddle within a single
+ * step and lets each step be resolved in as many passes as there are actual
+ * contacts.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public interface ContinuousBallCollisionDetector extends BallCollisionDetector {
+    /**
+     * Finds the earliest collision along the path the ball would travel over
+     * the specified number of steps from where it currently is. The ball is
+     * not moved.
+     *
+     * @param context  the game context to check for collisions on
+     * @param steps    the number of steps of movement to check, which may be
+     *                 fractional
+     *
+     * @return  a {@link Collision} instance, <code>null</code> if the ball
+     *          does not collide with anything within the specified number of
+     *          steps
+     *
+     * @throws IllegalArgumentException  if <code>steps</code> is not finite
+     */
+    Collision sweep(Game context, float steps);
+    /**
+     * Gets how many steps of the ball's movement occur before it makes
+     * contact in the collision last returned by
+     * {@link #sweep(Game, float)}.
+     * <p>
+     * The time of impact is held by the detector rather than the collision,
+     * since detectors may hand out the same collision instances every sweep.
+     *
+     * @return  the number of steps, which may be fractional
+     */
+    float getTimeOfImpact();
+}
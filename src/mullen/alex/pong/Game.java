@@ -1,5 +1,9 @@
 package mullen.alex.pong;
 
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.Random;
 
@@ -7,7 +11,7 @@ import java.util.Random;
  * Represents the Pong game simulation model.
  *
  * @author  Alex Mullen
- * strictfp?
+ *
  */
 public class Game {
     /** Holds the random number generator this uses. */
@@ -20,6 +24,10 @@ public class Game {
     private final Paddle leftPaddle;
     /** Holds the right paddle. */
     private final Paddle rightPaddle;
+    /** Holds any balls in play besides the main ball. */
+    private final BallStore extraBalls;
+    /** Holds the static obstacles within the arena. */
+    private final List<Rectangle> obstacles;
     /** Holds the ball collision detector implementation used in this game. */
     private final BallCollisionDetector collisionDetector;
     /** Holds the ball collision resolver implementation used in this game. */
@@ -30,6 +38,8 @@ public class Game {
     private int leftSideScore;
     /** Holds the score for the right side. */
     private int rightSideScore;
+    /** Holds the number of ticks that have been simulated. */
+    private long tick;
     /**
      * A class for holding the required constructor arguments required for
      * instantiating the outer class.
@@ -51,6 +61,16 @@ public class Game {
         public Paddle leftPaddle;
         /** The paddle instance to use for the right side player. */
         public Paddle rightPaddle;
+        /**
+         * The store of any balls in play besides the main ball, which may be
+         * <code>null</code> for an empty store.
+         */
+        public BallStore extraBalls;
+        /**
+         * The static obstacles within the arena, which may be
+         * <code>null</code> for none.
+         */
+        public List<Rectangle> obstacles;
         /** The collision detector implementation to use. */
         public BallCollisionDetector collisionDetector;
         /** The collision resolver implementation to use. */
@@ -63,8 +83,8 @@ public class Game {
      *
      * @param  args  the arguments
      *
-     * @throws NullPointerException  if <code>args</code> or any of its fields
-     *                               are <code>null</code>
+     * @throws NullPointerException  if <code>args</code> or any of its
+     *                               required fields are <code>null</code>
      */
     public Game(final ConstructorArgs args) {
         Objects.requireNonNull(args);
@@ -73,6 +93,20 @@ public class Game {
         ball = Objects.requireNonNull(args.ball);
         leftPaddle = Objects.requireNonNull(args.leftPaddle);
         rightPaddle = Objects.requireNonNull(args.rightPaddle);
+        if (args.extraBalls != null) {
+            extraBalls = args.extraBalls;
+        } else {
+            extraBalls = new BallStore(0);
+        }
+        if (args.obstacles != null) {
+            final List<Rectangle> copies = new ArrayList<>();
+            for (final Rectangle obstacle : args.obstacles) {
+                copies.add(new Rectangle(obstacle));
+            }
+            obstacles = Collections.unmodifiableList(copies);
+        } else {
+            obstacles = Collections.emptyList();
+        }
         collisionDetector = Objects.requireNonNull(args.collisionDetector);
         collisionResolver = Objects.requireNonNull(args.collisionResolver);
         endChecker = Objects.requireNonNull(args.endChecker);
@@ -117,6 +151,26 @@ public class Game {
     public final Paddle getRightPaddle() {
         return rightPaddle;
     }
+    /**
+     * Gets the store of any balls in play besides the main ball, such as
+     * for modes with many balls at once.
+     *
+     * @return  the store
+     */
+    public final BallStore getExtraBalls() {
+        return extraBalls;
+    }
+    /**
+     * Gets the static obstacles within the arena.
+     * <p>
+     * Obstacles are only collided with when the game's detector checks for
+     * them, such as a {@link GridBallCollisionDetector}.
+     *
+     * @return  an unmodifiable list of the obstacles
+     */
+    public final List<Rectangle> getObstacles() {
+        return obstacles;
+    }
     /**
      * Gets the ball collision detector instance this game uses.
      *
@@ -173,6 +227,22 @@ public class Game {
     public final void setRightSideScore(final int score) {
         rightSideScore = score;
     }
+    /**
+     * Gets how many ticks have been simulated.
+     *
+     * @return  the number of ticks
+     */
+    public final long getTick() {
+        return tick;
+    }
+    /**
+     * Sets how many ticks have been simulated.
+     *
+     * @param value  the new tick value
+     */
+    public final void setTick(final long value) {
+        tick = value;
+    }
     /**
      * Defines an interface for a class that constructs {@link Game} instances.
      *
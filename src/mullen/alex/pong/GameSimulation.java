@@ -0,0 +1,397 @@
+package mullen.alex.pong;
+
+import java.util.Objects;
+import java.util.Random;
+
+import mullen.alex.pong.BallCollisionDetector.Collision;
+import mullen.alex.pong.BallCollisionDetector.Collision.With;
+import mullen.alex.pong.BallCollisionDetector.PaddleCollision;
+import mullen.alex.pong.BallCollisionDetector.WorldCollision;
+import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
+
+/**
+ * Steps a {@link Game} forward one tick at a time using the game's own
+ * collision detector and resolver.
+ * <p>
+ * This holds no threads, timers or rendering resources so it can be driven by
+ * the server at a fixed rate or as fast as possible for offline simulations.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public strictfp class GameSimulation {
+    /**
+     * The most collisions handled within a single step. This guards against
+     * a ball that is wedged between a paddle and the world edge being
+     * resolved forever.
+     */
+    private static final int MAX_CONTACTS_PER_STEP = 8;
+    /** Holds the game being simulated. */
+    private final Game game;
+    /** Holds the listener notified of simulation events. */
+    private final Listener listener;
+    /** Holds the listener for collisions of the game's extra balls. */
+    private final ExtraBallListener extraBallListener;
+    /**
+     * Creates a new instance that simulates the specified game and notifies
+     * the specified listener of events.
+     *
+     * @param simulatedGame    the game to simulate
+     * @param eventListener    the listener
+     *
+     * @throws NullPointerException  if any argument is <code>null</code>
+     */
+    public GameSimulation(final Game simulatedGame,
+            final Listener eventListener) {
+        game = Objects.requireNonNull(simulatedGame);
+        listener = Objects.requireNonNull(eventListener);
+        extraBallListener = new ExtraBallListener();
+    }
+    /**
+     * Gets the game being simulated.
+     *
+     * @return  the game
+     */
+    public final Game getGame() {
+        return game;
+    }
+    /**
+     * Performs a full tick by applying the specified input to each paddle then
+     * stepping the ball.
+     *
+     * @param leftInput   the input for the left paddle
+     * @param rightInput  the input for the right paddle
+     */
+    public final void tick(final Paddle.Input leftInput,
+            final Paddle.Input rightInput) {
+        game.getLeftPaddle().move(leftInput);
+        game.getRightPaddle().move(rightInput);
+        step();
+    }
+    /**
+     * Moves the ball one step, resolves any collisions it causes and advances
+     * the tick counter. Paddle inputs are expected to have already been
+     * applied for this tick.
+     */
+    public final void step() {
+        moveBallAndHandleAnyCollisions(1.0f, true);
+        game.setTick(game.getTick() + 1);
+    }
+    /**
+     * Moves the ball the specified number of steps, which may be fractional,
+     * and resolves any collisions it causes, without advancing the tick
+     * counter.
+     * <p>
+     * This is for driving the game at a rate other than one step per tick,
+     * such as a server that ticks more often than the game is stepped, which
+     * moves the ball a fraction of a step each time and advances the tick
+     * counter itself once a whole step has been made. Moving a whole step is
+     * the same as {@link #step()} without advancing the tick counter.
+     *
+     * @param steps  the number of steps to move
+     */
+    public final void move(final float steps) {
+        moveBallAndHandleAnyCollisions(steps, true);
+    }
+    /**
+     * Advances the simulation by the specified number of ticks whilst each
+     * paddle holds the specified input.
+     * <p>
+     * When the game's detector supports sweeping, there are no extra balls
+     * and neither paddle is able to move, the ball jumps straight to the tick
+     * before its next contact rather than being stepped through every idle
+     * tick in between. Collision checks are then only made once per contact,
+     * yet the outcome is identical to stepping one tick at a time. See
+     * {@link Ball#advance(long)} for what the skipped ticks themselves cost.
+     * Otherwise the ticks are stepped normally.
+     *
+     * @param ticks       the number of ticks to advance
+     * @param leftInput   the input held by the left paddle
+     * @param rightInput  the input held by the right paddle
+     *
+     * @throws IllegalArgumentException  if <code>ticks</code> is negative
+     */
+    public final void fastForward(final long ticks,
+            final Paddle.Input leftInput, final Paddle.Input rightInput) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative");
+        }
+        final BallCollisionDetector collDetector = game.getCollisionDetector();
+        final Paddle leftPaddle = game.getLeftPaddle();
+        final Paddle rightPaddle = game.getRightPaddle();
+        long remaining = ticks;
+        while (remaining > 0) {
+            if (!(collDetector instanceof ContinuousBallCollisionDetector)
+                    || !game.getExtraBalls().isEmpty()
+                    || leftPaddle.isMovedBy(leftInput)
+                    || rightPaddle.isMovedBy(rightInput)) {
+                tick(leftInput, rightInput);
+                remaining--;
+                continue;
+            }
+            // Keeps the paddles' velocities the same as when stepping.
+            leftPaddle.move(leftInput);
+            rightPaddle.move(rightInput);
+            final ContinuousBallCollisionDetector sweeper =
+                    (ContinuousBallCollisionDetector) collDetector;
+            final Collision collision = sweeper.sweep(game, remaining);
+            /*
+             * Skip every tick before the one the contact happens within. The
+             * contact time is estimated from further away than a single step
+             * would, so keep a tick in hand in case rounding puts the contact
+             * a tick earlier when stepped.
+             */
+            final long idleTicks = collision == null ? remaining
+                    : Math.max(0, (long) Math.ceil(
+                            sweeper.getTimeOfImpact()) - 2);
+            if (idleTicks == 0) {
+                step();
+                remaining--;
+            } else {
+                game.getBall().advance(idleTicks);
+                game.setTick(game.getTick() + idleTicks);
+                remaining -= idleTicks;
+            }
+        }
+    }
+    /**
+     * Moves the ball one step as a prediction of what the authoritative
+     * simulation will do, then advances the tick counter.
+     * <p>
+     * Collisions with the top and bottom of the world and with the paddles
+     * are resolved, but a ball reaching the left or right side is left
+     * untouched since only the authoritative simulation may decide the score.
+     * This goes for extra balls too, which are neither scored nor removed and
+     * so carry on beyond the side until the authoritative simulation
+     * removes them.
+     */
+    public final void predictStep() {
+        moveBallAndHandleAnyCollisions(1.0f, false);
+        game.setTick(game.getTick() + 1);
+    }
+    /**
+     * Moves any extra balls the specified number of steps and checks them as
+     * a batch, then moves the ball the same number of steps and handles the
+     * collisions it causes, using a sweep when the game's detector supports
+     * it.
+     *
+     * @param steps          the number of steps to move, which may be
+     *                       fractional
+     * @param authoritative  whether the ball reaching either side scores
+     */
+    private void moveBallAndHandleAnyCollisions(final float steps,
+            final boolean authoritative) {
+        final BallStore extraBalls = game.getExtraBalls();
+        if (!extraBalls.isEmpty()) {
+            if (steps == 1.0f) {
+                extraBalls.moveAll();
+            } else {
+                extraBalls.moveAll(steps);
+            }
+            extraBallListener.authoritative = authoritative;
+            extraBalls.checkAndResolveAll(game.getWorld(),
+                    game.getLeftPaddle(), game.getRightPaddle(),
+                    extraBallListener);
+        }
+        final BallCollisionDetector collDetector = game.getCollisionDetector();
+        if (collDetector instanceof ContinuousBallCollisionDetector) {
+            sweepBall((ContinuousBallCollisionDetector) collDetector, steps,
+                    authoritative);
+        } else {
+            if (steps == 1.0f) {
+                game.getBall().move();
+            } else {
+                game.getBall().move(steps);
+            }
+            checkForAndHandleAnyCollisions(collDetector, authoritative);
+        }
+    }
+    /**
+     * Moves the ball along its path for the specified number of steps,
+     * stopping at each contact to handle it before carrying on with the
+     * remaining movement.
+     *
+     * @param collDetector   the detector to sweep with
+     * @param steps          the number of steps to move
+     * @param authoritative  whether the ball reaching either side scores
+     */
+    private void sweepBall(final ContinuousBallCollisionDetector collDetector,
+            final float steps, final boolean authoritative) {
+        final Ball ball = game.getBall();
+        float remaining = steps;
+        for (int contacts = 0; contacts < MAX_CONTACTS_PER_STEP; contacts++) {
+            final Collision collision = collDetector.sweep(game, remaining);
+            if (collision == null) {
+                ball.move(remaining);
+                return;
+            }
+            final float timeOfImpact = collDetector.getTimeOfImpact();
+            ball.move(timeOfImpact);
+            remaining -= timeOfImpact;
+            if (!handleCollision(collision, authoritative)) {
+                return;
+            }
+        }
+    }
+    /**
+     * Checks for collisions and handles them until the ball is no longer
+     * colliding with anything.
+     *
+     * @param collDetector   the detector to check with
+     * @param authoritative  whether the ball reaching either side scores
+     */
+    private void checkForAndHandleAnyCollisions(
+            final BallCollisionDetector collDetector,
+            final boolean authoritative) {
+        Collision collision = collDetector.check(game);
+        for (int contacts = 0; collision != null
+                && contacts < MAX_CONTACTS_PER_STEP; contacts++) {
+            if (!handleCollision(collision, authoritative)) {
+                return;
+            }
+            // Check if collisions have been resolved.
+            collision = collDetector.check(game);
+        }
+    }
+    /**
+     * Handles a single collision.
+     *
+     * @param collision      the collision
+     * @param authoritative  whether the ball reaching either side scores
+     * @return               <code>true</code> if the ball carries on moving;
+     *                       <code>false</code> if it was re-spawned or left
+     *                       for the authoritative simulation to decide
+     */
+    private boolean handleCollision(final Collision collision,
+            final boolean authoritative) {
+        final BallCollisionResolver collResolver = game.getCollisionResolver();
+        if (collision.getWith() == With.WORLD) {
+            final WorldCollision wc = (WorldCollision) collision;
+            if (wc.getEdge() == Edge.LEFT || wc.getEdge() == Edge.RIGHT) {
+                if (!authoritative) {
+                    return false;
+                }
+                if (wc.getEdge() == Edge.LEFT) {
+                    // Right side has scored.
+                    game.setRightSideScore(game.getRightSideScore() + 1);
+                } else {
+                    // Left side has scored.
+                    game.setLeftSideScore(game.getLeftSideScore() + 1);
+                }
+                listener.onScoreChanged();
+                centreBallWithRandomVelocity();
+                listener.onBallSpawned();
+                return false;
+            }
+            // We hit the top or bottom edge so resolve.
+            collResolver.resolve(collision);
+        } else {
+            collResolver.resolve(collision);
+            if (collision.getWith() == With.PADDLE) {
+                listener.onBallHitPaddle(
+                        ((PaddleCollision) collision).getPaddle());
+            }
+        }
+        return true;
+    }
+    /**
+     * Centres the ball and gives it a random direction velocity.
+     */
+    private void centreBallWithRandomVelocity() {
+        final Ball ball = game.getBall();
+        final World2D world = game.getWorld();
+        final Random rng = game.getRng();
+        // Centre the ball.
+        ball.setPosition(world.getCentreX() - ball.getTransform().width / 2,
+                world.getCentreY() - ball.getTransform().width / 2);
+        final float endX;
+        // Randomly decide to initially direct the ball left or right.
+        if (rng.nextBoolean()) {
+            endX = 0.0f;
+        } else {
+            endX = world.getWidth();
+        }
+        // Multiply the world height by two to allow initial bounces.
+        final float endY = rng.nextInt(world.getHeight() * 2);
+        ball.getVelocity().x = endX - ball.getTransform().x;
+        ball.getVelocity().y = endY - ball.getTransform().y;
+    }
+    /**
+     * Handles the collisions of the game's extra balls. An extra ball that
+     * reaches either side scores and is removed from play rather than being
+     * re-spawned, but only when the simulation is authoritative.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    private final class ExtraBallListener implements BallStore.Listener {
+        /** Whether the ball reaching either side scores. */
+        boolean authoritative;
+        @Override
+        public void onBallHitPaddle(final int index, final Paddle paddle) {
+            listener.onBallHitPaddle(paddle);
+        }
+        @Override
+        public void onBallReachedSide(final int index, final Edge edge) {
+            if (!authoritative) {
+                return;
+            }
+            if (edge == Edge.LEFT) {
+                game.setRightSideScore(game.getRightSideScore() + 1);
+            } else {
+                game.setLeftSideScore(game.getLeftSideScore() + 1);
+            }
+            game.getExtraBalls().remove(index);
+            listener.onScoreChanged();
+        }
+    }
+    /**
+     * Defines an interface for a class that is notified of the events that
+     * occur whilst a game is being simulated.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public interface Listener {
+        /**
+         * Invoked after the ball has hit a paddle and been deflected.
+         *
+         * @param paddle  the paddle that was hit
+         */
+        void onBallHitPaddle(Paddle paddle);
+        /**
+         * Invoked after either side's score has changed.
+         */
+        void onScoreChanged();
+        /**
+         * Invoked after the ball has been re-spawned in the centre.
+         */
+        void onBallSpawned();
+    }
+    /**
+     * A {@link Listener} implementation that ignores every event.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public static final class NullListener implements Listener {
+        /**
+         * Creates a new instance.
+         */
+        public NullListener() {
+            // Intentionally empty.
+        }
+        @Override
+        public void onBallHitPaddle(final Paddle paddle) {
+            // Intentionally empty.
+        }
+        @Override
+        public void onScoreChanged() {
+            // Intentionally empty.
+        }
+        @Override
+        public void onBallSpawned() {
+            // Intentionally empty.
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.util.List;
+
+import mullen.alex.pong.BallCollisionDetector.ObstacleCollision;
+
+/**
+ * A {@link BallCollisionDetector} implementation that also checks the ball
+ * against the game's obstacles, using a {@link SpatialGrid} as a broadphase.
+ * <p>
+ * The world edges and paddles are checked first through an
+ * {@link AWTBallCollisionDetector}. The grid then narrows the obstacles down
+ * to those near the ball and only those candidates are tested exactly, so an
+ * arena with thousands of obstacles costs about the same to check as one with
+ * a handful spread evenly across it. The grid is built the first time the
+ * detector checks a game, since obstacles never move.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class GridBallCollisionDetector implements BallCollisionDetector {
+    /** Holds the default width and height of each grid cell. */
+    public static final int DEFAULT_CELL_SIZE = 64;
+    /** Holds the width and height of each grid cell. */
+    private final int cellSize;
+    /** Holds the detector used for the world edges and paddles. */
+    private final AWTBallCollisionDetector edgeAndPaddleDetector;
+    /** Holds the game the grid was built for. */
+    private Game game;
+    /** Holds the grid of the game's obstacles. */
+    private SpatialGrid grid;
+    /** Holds the collision with each obstacle, indexed by grid ID. */
+    private ObstacleCollision[] obstacleCollisions;
+    /**
+     * Creates a new instance that uses the default cell size.
+     */
+    public GridBallCollisionDetector() {
+        this(DEFAULT_CELL_SIZE);
+    }
+    /**
+     * Creates a new instance that uses the specified cell size. Cells a few
+     * times the diameter of the ball work best; a single cell covering the
+     * whole world tests every obstacle on every check.
+     *
+     * @param size  the width and height of each grid cell
+     *
+     * @throws IllegalArgumentException  if <code>size</code> is not positive
+     */
+    public GridBallCollisionDetector(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        cellSize = size;
+        edgeAndPaddleDetector = new AWTBallCollisionDetector();
+    }
+    @Override
+    public final Collision check(final Game context) {
+        final Collision collision = edgeAndPaddleDetector.check(context);
+        if (collision != null) {
+            return collision;
+        }
+        update(context);
+        final Ellipse2D.Float ballTransform = context.getBall().getTransform();
+        final int candidates = grid.query(ballTransform.x, ballTransform.y,
+                ballTransform.x + ballTransform.width,
+                ballTransform.y + ballTransform.height);
+        for (int i = 0; i < candidates; i++) {
+            final int id = grid.getCandidate(i);
+            if (ballTransform.intersects(grid.get(id))) {
+                return obstacleCollisions[id];
+            }
+        }
+        // No collision detected.
+        return null;
+    }
+    /**
+     * Makes sure the grid is the one for the specified game.
+     *
+     * @param context  the game about to be checked
+     */
+    private void update(final Game context) {
+        if (context != game) {
+            final List<Rectangle> obstacles = context.getObstacles();
+            grid = new SpatialGrid(context.getWorld(), cellSize);
+            obstacleCollisions = new ObstacleCollision[obstacles.size()];
+            for (final Rectangle obstacle : obstacles) {
+                obstacleCollisions[grid.add(obstacle)] =
+                        new ObstacleCollision(context.getBall(), obstacle);
+            }
+            game = context;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mullen.alex.pong.Game.Builder;
+import mullen.alex.pong.Game.ConstructorArgs;
+
+/**
+ * A game builder implementation for constructing the game built by
+ * {@link StandardGameBuilder} with static obstacles placed within the arena.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class ObstacleGameBuilder implements Builder {
+    /** Holds the obstacles to place within each game. */
+    private final List<Rectangle> obstacles;
+    /** Holds the cell size of the detector's broadphase grid. */
+    private final int cellSize;
+    /**
+     * Creates a new instance that places the specified obstacles.
+     *
+     * @param arenaObstacles  the obstacles, which are copied
+     * @param gridCellSize    the cell size of the detector's broadphase grid
+     */
+    public ObstacleGameBuilder(final List<Rectangle> arenaObstacles,
+            final int gridCellSize) {
+        obstacles = new ArrayList<>(arenaObstacles);
+        cellSize = gridCellSize;
+    }
+    @Override
+    public final Game createGame() {
+        final Game.ConstructorArgs args = new ConstructorArgs();
+        args.rng = new Random();
+        args.worldDimensions = new World2D(1024, 768);
+        args.collisionDetector = new GridBallCollisionDetector(cellSize);
+        args.collisionResolver = new BasicBallCollisionResolver();
+        args.endChecker = StandardGameBuilder.initEndChecker();
+        args.ball = StandardGameBuilder.initBall(args.worldDimensions, false);
+        args.leftPaddle =
+                StandardGameBuilder.initLeftPaddle(args.worldDimensions);
+        args.rightPaddle =
+                StandardGameBuilder.initRightPaddle(args.worldDimensions);
+        args.obstacles = obstacles;
+        return new Game(args);
+    }
+}
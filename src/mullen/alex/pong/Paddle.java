@@ -119,6 +119,23 @@ public class Paddle {
             transform.y = world.getHeight() - transform.height;
         }
     }
+    /**
+     * Gets whether applying the specified input would change the position of
+     * the paddle, which it would not if there is no input or the paddle is
+     * already against the world edge it would move towards.
+     *
+     * @param paddleInput  the input
+     * @return             <code>true</code> if the paddle would move;
+     *                     <code>false</code> if not
+     */
+    public final boolean isMovedBy(final Input paddleInput) {
+        if (paddleInput == Input.MOVE_UP) {
+            return transform.y > 0;
+        } else if (paddleInput == Input.MOVE_DOWN) {
+            return transform.y + transform.height < world.getHeight();
+        }
+        return false;
+    }
     /**
      * An enumeration to represent the valid inputs that can be applied to a
      * {@link Paddle}.
@@ -0,0 +1,203 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * A broadphase index that divides the world into a uniform grid of square
+ * cells and records which cells each static rectangle overlaps.
+ * <p>
+ * Querying an area only visits the cells it overlaps, so the number of
+ * candidates returned depends on how crowded that part of the world is rather
+ * than on how many rectangles there are in total. Candidates may not actually
+ * overlap the queried area and should be confirmed with an exact test.
+ * Queries reuse internal buffers and so produce no garbage.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class SpatialGrid {
+    /** Holds the number of rectangles and candidates there is room for. */
+    private static final int INITIAL_CAPACITY = 16;
+    /** Holds the capacity each cell starts with once it is first used. */
+    private static final int INITIAL_CELL_CAPACITY = 4;
+    /** Holds the width and height of each cell. */
+    private final int cellSize;
+    /** Holds the number of columns of cells. */
+    private final int columns;
+    /** Holds the number of rows of cells. */
+    private final int rows;
+    /** Holds the IDs of the rectangles overlapping each cell. */
+    private final int[][] cells;
+    /** Holds the number of rectangles overlapping each cell. */
+    private final int[] cellSizes;
+    /** Holds the rectangles indexed by their ID. */
+    private Rectangle[] rectangles;
+    /** Holds the number of rectangles added. */
+    private int size;
+    /** Holds, for each rectangle, the last query that returned it. */
+    private int[] lastQueries;
+    /** Holds the number of queries made, used to avoid duplicates. */
+    private int queryCount;
+    /** Holds the candidates found by the last query. */
+    private int[] candidates;
+    /** Holds the number of candidates found by the last query. */
+    private int candidateCount;
+    /**
+     * Creates a new empty grid covering the specified world.
+     *
+     * @param world  the world
+     * @param size   the width and height of each cell
+     *
+     * @throws IllegalArgumentException  if <code>size</code> is not positive
+     */
+    public SpatialGrid(final World2D world, final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        cellSize = size;
+        columns = (world.getWidth() + size - 1) / size;
+        rows = (world.getHeight() + size - 1) / size;
+        cells = new int[columns * rows][];
+        cellSizes = new int[columns * rows];
+        rectangles = new Rectangle[INITIAL_CAPACITY];
+        lastQueries = new int[INITIAL_CAPACITY];
+        candidates = new int[INITIAL_CAPACITY];
+    }
+    /**
+     * Adds a rectangle to the grid. Parts of the rectangle outside the world
+     * are treated as being within the nearest cell.
+     *
+     * @param bounds  the rectangle, which must not be moved once added
+     * @return        the ID of the rectangle
+     */
+    public final int add(final Rectangle bounds) {
+        if (size == rectangles.length) {
+            rectangles = Arrays.copyOf(rectangles, size * 2);
+            lastQueries = Arrays.copyOf(lastQueries, size * 2);
+        }
+        final int id = size++;
+        rectangles[id] = bounds;
+        final int minColumn = toColumn(bounds.x);
+        final int maxColumn = toColumn(bounds.x + bounds.width);
+        final int minRow = toRow(bounds.y);
+        final int maxRow = toRow(bounds.y + bounds.height);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                addToCell(row * columns + column, id);
+            }
+        }
+        return id;
+    }
+    /**
+     * Gets the rectangle with the specified ID.
+     *
+     * @param id  the ID
+     * @return    the rectangle
+     */
+    public final Rectangle get(final int id) {
+        return rectangles[id];
+    }
+    /**
+     * Gets the number of rectangles added.
+     *
+     * @return  the number of rectangles
+     */
+    public final int size() {
+        return size;
+    }
+    /**
+     * Finds the rectangles that may overlap the specified area. Each
+     * rectangle is returned at most once.
+     *
+     * @param minX  the left of the area
+     * @param minY  the top of the area
+     * @param maxX  the right of the area
+     * @param maxY  the bottom of the area
+     * @return      the number of candidates found, which can then be read
+     *              through {@link #getCandidate(int)}
+     */
+    public final int query(final float minX, final float minY,
+            final float maxX, final float maxY) {
+        candidateCount = 0;
+        if (++queryCount == 0) {
+            // The counter has wrapped so forget every previous query.
+            Arrays.fill(lastQueries, 0);
+            queryCount = 1;
+        }
+        final int minColumn = toColumn(minX);
+        final int maxColumn = toColumn(maxX);
+        final int minRow = toRow(minY);
+        final int maxRow = toRow(maxY);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                final int cell = row * columns + column;
+                final int[] ids = cells[cell];
+                for (int i = 0; i < cellSizes[cell]; i++) {
+                    final int id = ids[i];
+                    if (lastQueries[id] != queryCount) {
+                        lastQueries[id] = queryCount;
+                        addCandidate(id);
+                    }
+                }
+            }
+        }
+        return candidateCount;
+    }
+    /**
+     * Gets a candidate found by the last query.
+     *
+     * @param index  the index of the candidate, less than the count returned
+     *               by the query
+     * @return       the ID of the candidate rectangle
+     */
+    public final int getCandidate(final int index) {
+        return candidates[index];
+    }
+    /**
+     * Adds a rectangle's ID to a cell.
+     *
+     * @param cell  the index of the cell
+     * @param id    the ID
+     */
+    private void addToCell(final int cell, final int id) {
+        int[] ids = cells[cell];
+        if (ids == null) {
+            ids = new int[INITIAL_CELL_CAPACITY];
+            cells[cell] = ids;
+        } else if (cellSizes[cell] == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            cells[cell] = ids;
+        }
+        ids[cellSizes[cell]++] = id;
+    }
+    /**
+     * Adds an ID to the candidates found by the current query.
+     *
+     * @param id  the ID
+     */
+    private void addCandidate(final int id) {
+        if (candidateCount == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        }
+        candidates[candidateCount++] = id;
+    }
+    /**
+     * Gets the column of cells containing the specified X coordinate.
+     *
+     * @param x  the X coordinate
+     * @return   the column, clamped to the grid
+     */
+    private int toColumn(final float x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x / cellSize)));
+    }
+    /**
+     * Gets the row of cells containing the specified Y coordinate.
+     *
+     * @param y  the Y coordinate
+     * @return   the row, clamped to the grid
+     */
+    private int toRow(final float y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+}
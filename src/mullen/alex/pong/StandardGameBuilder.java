@@ -25,28 +25,41 @@ public class StandardGameBuilder implements Builder {
         final Game.ConstructorArgs args = new ConstructorArgs();
         args.rng = new Random();
         args.worldDimensions = new World2D(1024, 768);
-        args.collisionDetector = new AWTBallCollisionDetector();
+        args.collisionDetector = new SweptBallCollisionDetector();
         args.collisionResolver = new BasicBallCollisionResolver();
-        args.endChecker = g -> false;   // TODO: Replace this with actual.
-        args.ball = initBall(args.worldDimensions);
+        args.endChecker = initEndChecker();
+        args.ball = initBall(args.worldDimensions, false);
         args.leftPaddle = initLeftPaddle(args.worldDimensions);
         args.rightPaddle = initRightPaddle(args.worldDimensions);
         return new Game(args);
     }
+    /**
+     * Initialises the checker for whether the game has ended.
+     *
+     * @return  the created end checker instance
+     */
+    static GameEndChecker initEndChecker() {
+        return g -> false;   // TODO: Replace this with actual.
+    }
     /**
      * Initialises the ball.
      *
-     * @param w2d  the virtual world coordinate space
-     * @return     the created ball instance
+     * @param w2d         the virtual world coordinate space
+     * @param fixedPoint  whether the ball moves using fixed-point arithmetic
+     * @return            the created ball instance
      */
-    private static Ball initBall(final World2D w2d) {
-        final float ballDiameter = w2d.getHeight() / 40.0f;
-        final Ball newBall = new Ball(-2.5f, 2.0f, w2d.getHeight() / 400);
+    static Ball initBall(final World2D w2d, final boolean fixedPoint) {
+        float ballDiameter = w2d.getHeight() / 40.0f;
+        if (fixedPoint) {
+            ballDiameter = Ball.toFixedPointGrid(ballDiameter);
+        }
+        final Ball newBall =
+                new Ball(-2.5f, 2.0f, w2d.getHeight() / 400, fixedPoint);
         newBall.getTransform().width = ballDiameter;
         newBall.getTransform().height = ballDiameter;
         final Point worldCentre = w2d.getCentre();
-        newBall.getTransform().x = worldCentre.x - ballDiameter / 2;
-        newBall.getTransform().y = worldCentre.y - ballDiameter / 2;
+        newBall.setPosition(worldCentre.x - ballDiameter / 2,
+                worldCentre.y - ballDiameter / 2);
         return newBall;
     }
     /**
@@ -55,7 +68,7 @@ public class StandardGameBuilder implements Builder {
      * @param w2d  the virtual world coordinate space
      * @return     the created left paddle instance
      */
-    private static Paddle initLeftPaddle(final World2D w2d) {
+    static Paddle initLeftPaddle(final World2D w2d) {
         final Paddle lPaddle = new Paddle(w2d);
         final int paddleWidth = w2d.getWidth() / 40;
         final int paddleHeight = w2d.getHeight() / 5;
@@ -73,7 +86,7 @@ public class StandardGameBuilder implements Builder {
      * @param w2d  the virtual world coordinate space
      * @return     the created right paddle instance
      */
-    private static Paddle initRightPaddle(final World2D w2d) {
+    static Paddle initRightPaddle(final World2D w2d) {
         final Paddle rPaddle = new Paddle(w2d);
         final int paddleWidth = w2d.getWidth() / 40;
         final int paddleHeight = w2d.getHeight() / 5;
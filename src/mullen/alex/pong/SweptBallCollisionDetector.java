@@ -0,0 +1,230 @@
+package mullen.alex.pong;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+
+import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
+
+/**
+ * A {@link ContinuousBallCollisionDetector} implementation that sweeps the
+ * ball's circle along its path and finds the time of impact with the world
+ * edges and the paddles' rectangles analytically.
+ * <p>
+ * Paddles are tested by tracing the ball's centre against each paddle's
+ * rectangle grown by the ball's radius, with rounded corners. Overlap checks
+ * through {@link #check(Game)} are delegated to an
+ * {@link AWTBallCollisionDetector}.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public strictfp class SweptBallCollisionDetector
+        implements ContinuousBallCollisionDetector {
+    /** Represents no contact being found. */
+    private static final float NO_CONTACT = Float.POSITIVE_INFINITY;
+    /** Holds the detector used for plain overlap checks. */
+    private final AWTBallCollisionDetector overlapDetector;
+    /** Holds the collisions for the game they were last created for. */
+    private final CollisionCache cache;
+    /** Holds the time of impact of the collision last swept. */
+    private float timeOfImpact;
+    /**
+     * Creates a new instance.
+     */
+    public SweptBallCollisionDetector() {
+        overlapDetector = new AWTBallCollisionDetector();
+        cache = new CollisionCache();
+    }
+    @Override
+    public final Collision check(final Game context) {
+        return overlapDetector.check(context);
+    }
+    @Override
+    public final Collision sweep(final Game context, final float steps) {
+        if (Float.isNaN(steps) || Float.isInfinite(steps)) {
+            throw new IllegalArgumentException(
+                    "steps must be finite: " + steps);
+        }
+        final Ball ball = context.getBall();
+        final World2D world = context.getWorld();
+        final Ellipse2D.Float ballTransform = ball.getTransform();
+        final float dx = ball.getStepX();
+        final float dy = ball.getStepY();
+        cache.update(context);
+        Collision earliest = null;
+        float earliestTime = NO_CONTACT;
+        ////////////////////////////////////////////////////////////////////////
+        // Check for world collisions.
+        float time = timeToReach(ballTransform.y, dy, 0);
+        if (time < earliestTime && dy < 0) {
+            earliest = cache.getWorldCollision(Edge.TOP);
+            earliestTime = time;
+        }
+        time = timeToReach(ballTransform.y + ballTransform.height, dy,
+                world.getHeight());
+        if (time < earliestTime && dy > 0) {
+            earliest = cache.getWorldCollision(Edge.BOTTOM);
+            earliestTime = time;
+        }
+        time = timeToReach(ballTransform.x, dx, 0);
+        if (time < earliestTime && dx < 0) {
+            earliest = cache.getWorldCollision(Edge.LEFT);
+            earliestTime = time;
+        }
+        time = timeToReach(ballTransform.x + ballTransform.width, dx,
+                world.getWidth());
+        if (time < earliestTime && dx > 0) {
+            earliest = cache.getWorldCollision(Edge.RIGHT);
+            earliestTime = time;
+        }
+        ////////////////////////////////////////////////////////////////////////
+        // Check for paddle collisions.
+        time = sweepAgainstPaddle(ballTransform, dx, dy,
+                context.getLeftPaddle().getTransform());
+        if (time < earliestTime) {
+            earliest = cache.getLeftPaddleCollision();
+            earliestTime = time;
+        }
+        time = sweepAgainstPaddle(ballTransform, dx, dy,
+                context.getRightPaddle().getTransform());
+        if (time < earliestTime) {
+            earliest = cache.getRightPaddleCollision();
+            earliestTime = time;
+        }
+        if (earliest == null || earliestTime > steps) {
+            // Nothing is reached within the requested movement.
+            return null;
+        }
+        timeOfImpact = earliestTime;
+        return earliest;
+    }
+    @Override
+    public final float getTimeOfImpact() {
+        return timeOfImpact;
+    }
+    /**
+     * Gets how many steps it takes for a coordinate moving at the specified
+     * rate to reach the specified boundary.
+     *
+     * @param position  the current coordinate
+     * @param delta     the distance moved per step
+     * @param boundary  the boundary coordinate
+     * @return          the number of steps, zero if the coordinate is already
+     *                  beyond the boundary, or {@link #NO_CONTACT} if it is
+     *                  not moving
+     */
+    private static float timeToReach(final float position, final float delta,
+            final float boundary) {
+        if (delta == 0) {
+            return NO_CONTACT;
+        }
+        // A negative time means it is already beyond the boundary.
+        return Math.max((boundary - position) / delta, 0);
+    }
+    /**
+     * Sweeps the ball's circle against a paddle's rectangle.
+     * <p>
+     * Only contacts made whilst travelling towards the face of the paddle that
+     * the ball would be deflected from are reported, so a ball that has just
+     * been deflected does not collide with the same paddle again.
+     *
+     * @param ballTransform  the ball's current transform
+     * @param dx             the distance the ball moves per step on the X axis
+     * @param dy             the distance the ball moves per step on the Y axis
+     * @param paddle         the paddle's transform
+     * @return               the number of steps until contact or
+     *                       {@link #NO_CONTACT} if the ball does not make
+     *                       contact
+     */
+    private static float sweepAgainstPaddle(
+            final Ellipse2D.Float ballTransform, final float dx,
+            final float dy, final Rectangle paddle) {
+        final float radius = ballTransform.width / 2;
+        final float cx = ballTransform.x + radius;
+        final float cy = ballTransform.y + ballTransform.height / 2;
+        final float paddleCentreX = paddle.x + paddle.width / 2.0f;
+        if (!(dx > 0 && cx < paddleCentreX || dx < 0 && cx > paddleCentreX)) {
+            return NO_CONTACT;
+        }
+        // Trace the centre against the rectangle grown by the radius.
+        final float minX = paddle.x - radius;
+        final float maxX = paddle.x + paddle.width + radius;
+        final float minY = paddle.y - radius;
+        final float maxY = paddle.y + paddle.height + radius;
+        float enter = Float.NEGATIVE_INFINITY;
+        float exit = Float.POSITIVE_INFINITY;
+        if (dx == 0) {
+            if (cx < minX || cx > maxX) {
+                return NO_CONTACT;
+            }
+        } else {
+            final float t1 = (minX - cx) / dx;
+            final float t2 = (maxX - cx) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (dy == 0) {
+            if (cy < minY || cy > maxY) {
+                return NO_CONTACT;
+            }
+        } else {
+            final float t1 = (minY - cy) / dy;
+            final float t2 = (maxY - cy) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+        }
+        if (enter > exit || exit < 0) {
+            return NO_CONTACT;
+        }
+        final float time = Math.max(enter, 0);
+        final float hitX = cx + dx * time;
+        final float hitY = cy + dy * time;
+        // Work out whether the contact point is beside a rounded corner.
+        final float cornerX;
+        if (hitX < paddle.x) {
+            cornerX = paddle.x;
+        } else if (hitX > paddle.x + paddle.width) {
+            cornerX = paddle.x + paddle.width;
+        } else {
+            return time;
+        }
+        final float cornerY;
+        if (hitY < paddle.y) {
+            cornerY = paddle.y;
+        } else if (hitY > paddle.y + paddle.height) {
+            cornerY = paddle.y + paddle.height;
+        } else {
+            return time;
+        }
+        return sweepAgainstCorner(cx - cornerX, cy - cornerY, dx, dy, radius);
+    }
+    /**
+     * Sweeps a point against a circle centred on a paddle corner.
+     *
+     * @param offsetX  the X offset of the ball's centre from the corner
+     * @param offsetY  the Y offset of the ball's centre from the corner
+     * @param dx       the distance the ball moves per step on the X axis
+     * @param dy       the distance the ball moves per step on the Y axis
+     * @param radius   the radius of the ball
+     * @return         the number of steps until contact or
+     *                 {@link #NO_CONTACT} if the ball does not make contact
+     */
+    private static float sweepAgainstCorner(final float offsetX,
+            final float offsetY, final float dx, final float dy,
+            final float radius) {
+        final float c = offsetX * offsetX + offsetY * offsetY
+                - radius * radius;
+        if (c <= 0) {
+            // Already touching the corner.
+            return 0;
+        }
+        final float a = dx * dx + dy * dy;
+        final float b = 2 * (offsetX * dx + offsetY * dy);
+        final float discriminant = b * b - 4 * a * c;
+        if (a == 0 || b >= 0 || discriminant < 0) {
+            // Not moving, moving away or passing by the corner.
+            return NO_CONTACT;
+        }
+        return (float) ((-b - Math.sqrt(discriminant)) / (2 * a));
+    }
+}
@@ -132,6 +132,26 @@ public class World2D {
      * @return  the centre coordinates
      */
     public final Point getCentre() {
-        return new Point(width / 2, height / 2);
+        return new Point(getCentreX(), getCentreY());
+    }
+    /**
+     * Gets the X coordinate of the centre of the world without creating a
+     * new {@link Point}.
+     *
+     * @return  the centre X coordinate
+     * @see     #getCentre()
+     */
+    public final int getCentreX() {
+        return width / 2;
+    }
+    /**
+     * Gets the Y coordinate of the centre of the world without creating a
+     * new {@link Point}.
+     *
+     * @return  the centre Y coordinate
+     * @see     #getCentre()
+     */
+    public final int getCentreY() {
+        return height / 2;
     }
 }
@@ -11,22 +11,24 @@ import java.util.logging.Logger;
 
 import mullen.alex.jge.input.KeyboardService;
 import mullen.alex.pong.Ball;
+import mullen.alex.pong.BallInterceptPredictor;
 import mullen.alex.pong.Game;
-import mullen.alex.pong.BallCollisionDetector.Collision;
-import mullen.alex.pong.BallCollisionDetector.WorldCollision;
-import mullen.alex.pong.BallCollisionDetector.Collision.With;
-import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
+import mullen.alex.pong.GameSimulation;
 import mullen.alex.pong.Paddle.Input;
 import mullen.alex.pong.StandardGameBuilder;
 import mullen.alex.pong.World2D;
 import mullen.alex.pong.engine.PongActivity;
 import mullen.alex.pong.engine.PongEngine;
 import mullen.alex.pong.gui.GameRenderer;
+import mullen.alex.pong.net.ConnectionThreads;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.PongFrame.Type;
 import mullen.alex.pong.net.PongPlayer;
 import mullen.alex.pong.net.Role;
+import mullen.alex.pong.net.SnapshotDelta;
+import mullen.alex.pong.net.client.InputSender;
 import mullen.alex.pong.net.client.PongClient;
+import mullen.alex.pong.net.client.SnapshotReceiver;
 
 /**
  * Represents the activity where we have connected to a remote server and are
@@ -41,6 +43,10 @@ public class ConnectedGameActivity implements PongActivity {
             Logger.getLogger(ConnectedGameActivity.class.getName());
     /** Holds the game context. */
     private final Game gameContext;
+    /** Holds the simulation used to predict the ball's movement. */
+    private final GameSimulation simulation;
+    /** Holds the predictor used to place the ball along its path. */
+    private final BallInterceptPredictor ballPredictor;
     /** Holds the game renderer. */
     private final GameRenderer gameRenderer;
     /** Holds the engine reference. */
@@ -59,6 +65,12 @@ public class ConnectedGameActivity implements PongActivity {
     private final PaddleAnimator opponentPaddleAnimator;
     /** Holds whether the tab key was pressed last tick. */
     private boolean tabPressed;
+    /** Holds the sender of our paddle inputs to the server. */
+    private final InputSender inputSender;
+    /** Holds the receiver of the server's snapshots. */
+    private final SnapshotReceiver snapshotReceiver;
+    /** Holds the server tick the ball was last placed from. */
+    private long ballTick;
     /**
      * A class for holding the required constructor arguments required for
      * instantiating the outer class.
@@ -88,9 +100,14 @@ public class ConnectedGameActivity implements PongActivity {
         Objects.requireNonNull(args);
         engine = Objects.requireNonNull(args.engine);
         client = Objects.requireNonNull(args.client);
+        inputSender = new InputSender(client);
+        snapshotReceiver = new SnapshotReceiver(inputSender);
         role = Objects.requireNonNull(args.clientRole);
         players = Objects.requireNonNull(args.players);
         gameContext = new StandardGameBuilder().createGame();   // TODO: Hardcoded!
+        simulation = new GameSimulation(gameContext,
+                new GameSimulation.NullListener());
+        ballPredictor = new BallInterceptPredictor();
         gameRenderer = new GameRenderer(gameContext);
         opponnentPaddleInputs = new ArrayDeque<>();
         if (role == Role.LEFT_PADDLE) {
@@ -107,7 +124,8 @@ public class ConnectedGameActivity implements PongActivity {
     }
     @Override
     public final void onActivityStarted(final Context context) {
-        final Thread recvThread = new Thread(() -> {
+        final Thread recvThread = ConnectionThreads.newThread(
+                "ConnectedGameActivity::recvThread", () -> {
             boolean continueReceiving = true;
             do {
                 final PongFrame frame = client.recvFrameFromServer();
@@ -157,21 +175,18 @@ public class ConnectedGameActivity implements PongActivity {
      */
     private void performInput() {
         paddleAnimator.finish();
-        // Send inputs to server every tick.
-        final PongFrame inputFrame = new PongFrame(Type.INPUT);
+        final Input input;
         if (role == Role.LEFT_PADDLE) {
-            inputFrame.input = getPaddleInput(KeyEvent.VK_W, KeyEvent.VK_S);
-            // Smoothly predict the move.
-            paddleAnimator.start(inputFrame.input);
+            input = getPaddleInput(KeyEvent.VK_W, KeyEvent.VK_S);
         } else if (role == Role.RIGHT_PADDLE) {
-            inputFrame.input = getPaddleInput(KeyEvent.VK_UP, KeyEvent.VK_DOWN);
-            // Smoothly predict the move.
-            paddleAnimator.start(inputFrame.input);
+            input = getPaddleInput(KeyEvent.VK_UP, KeyEvent.VK_DOWN);
         } else {
             throw new IllegalStateException("Unhandled role: " + role);
         }
-        // Send the frame.
-        client.sendFrameToServer(inputFrame);
+        // Smoothly predict the move.
+        paddleAnimator.start(input);
+        // Send the input to the server if it has changed.
+        inputSender.send(input);
         // Check if the tab key is currently pressed.
         tabPressed = engine.getKeyboardService().isPressed(KeyEvent.VK_TAB)
                 ? true : false;
@@ -180,37 +195,11 @@ public class ConnectedGameActivity implements PongActivity {
      * Move the ball and handle any collisions.
      */
     private void moveBall() {
-        gameContext.getBall().move();
-        Collision collision =
-                gameContext.getCollisionDetector().check(gameContext);
-        // TODO: This might be getting stuck within an infinite loop.
-        boolean ballCollidedWithPaddle = false;
-        while (collision != null) {
-            if (collision.getWith() == With.WORLD) {
-                final WorldCollision wc = (WorldCollision) collision;
-                if (wc.getEdge() != Edge.LEFT && wc.getEdge() != Edge.RIGHT) {
-                    /*
-                     * We can resolve ceiling and floor collisions but server
-                     * should have final say on whether it the ball collided
-                     * with sides.
-                     */
-                    gameContext.getCollisionResolver().resolve(collision);
-                } else {
-                    // TODO: What do we do in the meantime...
-                    break;
-                }
-            } else {
-                // Paddle collision.
-                gameContext.getCollisionResolver().resolve(collision);
-                ballCollidedWithPaddle = true;
-            }
-            collision = gameContext.getCollisionDetector().check(gameContext);
-        }
-        if (ballCollidedWithPaddle) {
-            // If it wasn't out paddle then send ball hit event...
-            
-            
-        }
+        /*
+         * We can resolve ceiling, floor and paddle collisions but the server
+         * should have final say on whether the ball collided with the sides.
+         */
+        simulation.predictStep();
     }
     @Override
     public final void render(final Graphics2D g, final Dimension size,
@@ -253,6 +242,7 @@ public class ConnectedGameActivity implements PongActivity {
                 handlePing(frame);
                 break;
             case SNAPSHOT:
+                handleSnapshot(frame);
                 break;
             //$CASES-OMITTED$
             default:
@@ -269,9 +259,10 @@ public class ConnectedGameActivity implements PongActivity {
         if ("PADDLE_MOVE_EVENT".equals(eventType)) {
             handlePaddleMoveEvent(frame);
         } else if ("BALL_HIT_EVENT".equals(eventType)) {
-            engine.execute(() ->
-                copyBallPosAndVelocityFromFrame(frame)
-            );
+            engine.execute(() -> {
+                copyBallPosAndVelocityFromFrame(frame);
+                ballTick = Math.max(ballTick, frame.tick);
+            });
         } else if ("SCORE_UPDATE_EVENT".equals(eventType)) {
             handleScoreUpdateEvent(frame);
         } else if ("BALL_SPAWN_EVENT".equals(eventType)) {
@@ -281,15 +272,20 @@ public class ConnectedGameActivity implements PongActivity {
         }
     }
     /**
-     * Handles a received PADDLE_MOVE_EVENT frame.
+     * Handles a received PADDLE_MOVE_EVENT frame, which stands for as many
+     * moves as its REPEAT argument if the server merged several of them.
      *
      * @param frame  the received frame
      */
     private void handlePaddleMoveEvent(final PongFrame frame) {
         if (role != frame.role) {
-            engine.execute(() ->
-                opponnentPaddleInputs.add(frame.input)
-            );
+            final String repeat = frame.args.get("REPEAT");
+            final int moves = repeat == null ? 1 : Integer.parseInt(repeat);
+            engine.execute(() -> {
+                for (int i = 0; i < moves; i++) {
+                    opponnentPaddleInputs.add(frame.input);
+                }
+            });
         }
     }
     /**
@@ -321,29 +317,68 @@ public class ConnectedGameActivity implements PongActivity {
          *      position the ball in its past position (opponent latency + our latency)
          */
         engine.execute(() -> {
-
+            ballTick = Math.max(ballTick, frame.tick);
             final Ball ball = gameContext.getBall();
             ball.getTransform().x = frame.destPositionFloat.x;
             ball.getTransform().y = frame.destPositionFloat.y;
             ball.getVelocity().x = frame.velocity.x;
             ball.getVelocity().y = frame.velocity.y;
             
+            /*
+             * Move the ball along its path, bouncing off the top and bottom
+             * on the way, rather than in a straight line that could leave it
+             * outside of the world.
+             */
             if (isBallHeadingForUs(frame.velocity.x)) {
                 // Position the ball in its future position.
-                ball.move(getOurPing());
+                ballPredictor.advance(ball, gameContext.getWorld(),
+                        getOurPing());
             } else {
                 // Position the ball in its past position.
                 long oursPlusOpponentsLatencyMs =
                         (players.get(Role.LEFT_PADDLE).getPing() / 2)
                         + (players.get(Role.RIGHT_PADDLE).getPing() / 2);
-                ball.getVelocity().x = -ball.getVelocity().x;
-                ball.getVelocity().y = -ball.getVelocity().y;
-                ball.move(oursPlusOpponentsLatencyMs);
-                ball.getVelocity().x = -ball.getVelocity().x;
-                ball.getVelocity().y = -ball.getVelocity().y;
+                ballPredictor.advance(ball, gameContext.getWorld(),
+                        -oursPlusOpponentsLatencyMs);
             }
         });
     }
+    /**
+     * Handles a received SNAPSHOT frame, which corrects the score and the
+     * ball. The ball is only placed from the snapshot if no ball event from
+     * a later tick has placed it already, and is moved on along its path by
+     * the time the snapshot took to reach us. The opponent's paddle is left
+     * to its animator, which is driven by the paddle move events.
+     *
+     * @param frame  the received frame
+     */
+    private void handleSnapshot(final PongFrame frame) {
+        final int[] snapshot = snapshotReceiver.receive(frame);
+        if (snapshot == null) {
+            return;
+        }
+        engine.execute(() -> {
+            gameContext.setLeftSideScore(
+                    snapshot[SnapshotDelta.LEFT_SCORE]);
+            gameContext.setRightSideScore(
+                    snapshot[SnapshotDelta.RIGHT_SCORE]);
+            if (frame.tick <= ballTick) {
+                return;
+            }
+            ballTick = frame.tick;
+            final Ball ball = gameContext.getBall();
+            ball.getTransform().x =
+                    SnapshotDelta.dequantise(snapshot, SnapshotDelta.BALL_X);
+            ball.getTransform().y =
+                    SnapshotDelta.dequantise(snapshot, SnapshotDelta.BALL_Y);
+            ball.getVelocity().x = SnapshotDelta.dequantise(snapshot,
+                    SnapshotDelta.BALL_VELOCITY_X);
+            ball.getVelocity().y = SnapshotDelta.dequantise(snapshot,
+                    SnapshotDelta.BALL_VELOCITY_Y);
+            ballPredictor.advance(ball, gameContext.getWorld(),
+                    getOurPing() / 2);
+        });
+    }
     private boolean isBallHeadingForUs(final float xVol) {
         if (role == Role.LEFT_PADDLE) {
             return xVol < 0;
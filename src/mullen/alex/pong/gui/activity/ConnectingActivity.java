@@ -14,6 +14,7 @@ import mullen.alex.pong.World2D;
 import mullen.alex.pong.engine.PongActivity;
 import mullen.alex.pong.engine.PongEngine;
 import mullen.alex.pong.gui.components.Label;
+import mullen.alex.pong.net.ConnectionThreads;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.PongFrame.Type;
 import mullen.alex.pong.net.Role;
@@ -65,7 +66,8 @@ public class ConnectingActivity implements PongActivity {
         engine = Objects.requireNonNull(eng);
         hostname = Objects.requireNonNull(hostnameStr);
         playerName = Objects.requireNonNull(playerNameStr);
-        connectThread = new Thread(this::connect);
+        connectThread = ConnectionThreads.newThread(
+                "ConnectingActivity::connectThread", this::connect);
         statusLabel = new Label("Connecting");
         statusLabel.setTextColour(Color.WHITE);
         dotDotDotStr = "";
@@ -97,7 +99,9 @@ public class ConnectingActivity implements PongActivity {
             authFrame.args.put("NAME", playerName);
             client.sendFrameToServer(authFrame);
             // Empty.
-            final Thread recvThread = new Thread(this::receiveThreadProcedure);
+            final Thread recvThread = ConnectionThreads.newThread(
+                    "ConnectingActivity::recvThread",
+                    this::receiveThreadProcedure);
             recvThread.start();
         } catch (final IOException e) {
             LOG.log(Level.SEVERE, e.getMessage(), e);
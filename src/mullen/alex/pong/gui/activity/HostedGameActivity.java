@@ -8,6 +8,7 @@ import java.util.Objects;
 import java.util.logging.Logger;
 
 import mullen.alex.jge.input.KeyboardService;
+import mullen.alex.pong.Ball;
 import mullen.alex.pong.Game;
 import mullen.alex.pong.Paddle.Input;
 import mullen.alex.pong.StandardGameBuilder;
@@ -15,12 +16,15 @@ import mullen.alex.pong.World2D;
 import mullen.alex.pong.engine.PongActivity;
 import mullen.alex.pong.engine.PongEngine;
 import mullen.alex.pong.gui.GameRenderer;
-import mullen.alex.pong.net.GameSnapshot;
+import mullen.alex.pong.net.ConnectionThreads;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.PongPlayer;
 import mullen.alex.pong.net.PongFrame.Type;
 import mullen.alex.pong.net.Role;
+import mullen.alex.pong.net.SnapshotDelta;
+import mullen.alex.pong.net.client.InputSender;
 import mullen.alex.pong.net.client.PongClient;
+import mullen.alex.pong.net.client.SnapshotReceiver;
 import mullen.alex.pong.net.server.PongServer;
 
 /**
@@ -50,6 +54,10 @@ public class HostedGameActivity implements PongActivity {
     private final Map<Role, PongPlayer> players;
     /** Holds whether the tab key was pressed last tick. */
     private boolean tabPressed;
+    /** Holds the sender of our paddle inputs to the server. */
+    private final InputSender inputSender;
+    /** Holds the receiver of the server's snapshots. */
+    private final SnapshotReceiver snapshotReceiver;
     /**
      * A class for holding the required constructor arguments required for
      * instantiating the outer class.
@@ -82,6 +90,8 @@ public class HostedGameActivity implements PongActivity {
         engine = Objects.requireNonNull(args.engine);
         server = Objects.requireNonNull(args.server);
         client = Objects.requireNonNull(args.client);
+        inputSender = new InputSender(client);
+        snapshotReceiver = new SnapshotReceiver(inputSender);
         role = Objects.requireNonNull(args.clientRole);
         players = Objects.requireNonNull(args.players);
         gameContext = new StandardGameBuilder().createGame();   // TODO: Hardcoded!
@@ -89,7 +99,8 @@ public class HostedGameActivity implements PongActivity {
     }
     @Override
     public final void onActivityStarted(final Context context) {
-        final Thread recvThread = new Thread(() -> {
+        final Thread recvThread = ConnectionThreads.newThread(
+                "HostedGameActivity::recvThread", () -> {
             boolean continueReceiving = true;
             do {
                 final PongFrame frame = client.recvFrameFromServer();
@@ -110,20 +121,20 @@ public class HostedGameActivity implements PongActivity {
     }
     @Override
     public final void update() {
-        // Send inputs to server.
-        final PongFrame inputFrame = new PongFrame(Type.INPUT);
+        // Send inputs to server if they have changed.
+        final Input input;
         if (role == Role.LEFT_PADDLE) {
-            inputFrame.input = getPaddleInput(KeyEvent.VK_W, KeyEvent.VK_S);
+            input = getPaddleInput(KeyEvent.VK_W, KeyEvent.VK_S);
             // Prediction.
-            gameContext.getLeftPaddle().move(inputFrame.input);
+            gameContext.getLeftPaddle().move(input);
         } else if (role == Role.RIGHT_PADDLE) {
-            inputFrame.input = getPaddleInput(KeyEvent.VK_UP, KeyEvent.VK_DOWN);
+            input = getPaddleInput(KeyEvent.VK_UP, KeyEvent.VK_DOWN);
             // Prediction.
-            gameContext.getRightPaddle().move(inputFrame.input);
+            gameContext.getRightPaddle().move(input);
         } else {
             throw new IllegalStateException("Unhandled role: " + role);
         }
-        client.sendFrameToServer(inputFrame);
+        inputSender.send(input);
         if (engine.getKeyboardService().isPressed(KeyEvent.VK_TAB)) {
             tabPressed = true;
         } else {
@@ -162,7 +173,10 @@ public class HostedGameActivity implements PongActivity {
      */
     private void handleReceivedFrame(final PongFrame frame) {
         if (frame.getType() == Type.SNAPSHOT) {
-            handleSnapshot(frame.snapshot);
+            final int[] snapshot = snapshotReceiver.receive(frame);
+            if (snapshot != null) {
+                handleSnapshot(snapshot);
+            }
         } else if (frame.getType() == Type.PING) {
             handlePing(frame);
         } else {
@@ -172,23 +186,32 @@ public class HostedGameActivity implements PongActivity {
     /**
      * Handles received snapshots.
      *
-     * @param snapshot  the snapshot to process
+     * @param snapshot  the quantised snapshot to process
      */
-    private void handleSnapshot(final GameSnapshot snapshot) {
+    private void handleSnapshot(final int[] snapshot) {
         engine.execute(() -> {
             // Update score.
-            gameContext.setLeftSideScore(snapshot.getLeftSideScore());
-            gameContext.setRightSideScore(snapshot.getRightSideScore());
+            gameContext.setLeftSideScore(
+                    snapshot[SnapshotDelta.LEFT_SCORE]);
+            gameContext.setRightSideScore(
+                    snapshot[SnapshotDelta.RIGHT_SCORE]);
             // Update ball position.
-            gameContext.getBall().getTransform().x = snapshot.getBall().getTransform().x;
-            gameContext.getBall().getTransform().y = snapshot.getBall().getTransform().y;
-            gameContext.getBall().getVelocity().x = snapshot.getBall().getVelocity().x;
-            gameContext.getBall().getVelocity().y = snapshot.getBall().getVelocity().y;
+            final Ball ball = gameContext.getBall();
+            ball.getTransform().x =
+                    SnapshotDelta.dequantise(snapshot, SnapshotDelta.BALL_X);
+            ball.getTransform().y =
+                    SnapshotDelta.dequantise(snapshot, SnapshotDelta.BALL_Y);
+            ball.getVelocity().x = SnapshotDelta.dequantise(snapshot,
+                    SnapshotDelta.BALL_VELOCITY_X);
+            ball.getVelocity().y = SnapshotDelta.dequantise(snapshot,
+                    SnapshotDelta.BALL_VELOCITY_Y);
             // Don't reposition our own paddle since it is currently ahead of the server.
             if (role == Role.LEFT_PADDLE) {
-                gameContext.getRightPaddle().copyFrom(snapshot.getRightPaddle());
+                gameContext.getRightPaddle().getTransform().y =
+                        snapshot[SnapshotDelta.RIGHT_PADDLE_Y];
             } else if (role == Role.RIGHT_PADDLE) {
-                gameContext.getLeftPaddle().copyFrom(snapshot.getLeftPaddle());
+                gameContext.getLeftPaddle().getTransform().y =
+                        snapshot[SnapshotDelta.LEFT_PADDLE_Y];
             } else {
                 throw new IllegalStateException("Unhandled role: " + role);
             }
@@ -16,9 +16,10 @@ import mullen.alex.pong.engine.PongActivity;
 import mullen.alex.pong.engine.PongEngine;
 import mullen.alex.pong.gui.activity.SlideAnimationActivity.SlideDirection;
 import mullen.alex.pong.gui.components.Label;
+import mullen.alex.pong.net.ConnectionThreads;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.Role;
-import mullen.alex.pong.net.SocketConnectionListener;
+import mullen.alex.pong.net.SelectorConnectionListener;
 import mullen.alex.pong.net.StreamConnectionListener;
 import mullen.alex.pong.net.PongFrame.Type;
 import mullen.alex.pong.net.client.PongClient;
@@ -74,7 +75,9 @@ public class WaitingForPlayerActivity implements PongActivity {
         statusLabel = new Label("Waiting for player");
         statusLabel.setTextColour(Color.WHITE);
         dotDotDotStr = "";
-        recvThread = new Thread(this::receiveThreadProcedure);
+        recvThread = ConnectionThreads.newThread(
+                "WaitingForPlayerActivity::recvThread",
+                this::receiveThreadProcedure);
     }
     @Override
     public final void onActivityStarted(Context context) {
@@ -92,9 +95,13 @@ public class WaitingForPlayerActivity implements PongActivity {
         /*
          * Construct a server instance.
          */
-        // We want to use a socket stream listener so create a builder for it.
+        /*
+         * We want to use a selector stream listener so create a builder for
+         * it. A single event loop is plenty for the two players of a hosted
+         * game.
+         */
         final StreamConnectionListener.Builder streamConnectionListener
-                = new SocketConnectionListener.Builder(30000, s -> {
+                = new SelectorConnectionListener.Builder(30000, 1, s -> {
                     /*
                      * Enable TCP_NODELAY on each connected socket so that
                      * frames are sent ASAP.
@@ -0,0 +1,542 @@
+package mullen.alex.pong.net;
+
+import java.awt.geom.Ellipse2D;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import mullen.alex.jge.Vector2f;
+import mullen.alex.pong.Paddle;
+
+/**
+ * Encodes {@link PongFrame}s into a compact binary form and decodes them
+ * back.
+ * <p>
+ * A frame starts with a header byte holding its type, its input and its
+ * role, followed by its tick as a variable length integer and a byte of
+ * flags saying which of the remaining fields follow. An input history is
+ * sent as a plain four byte integer. A snapshot delta is sent as the
+ * number of ticks back its baseline is, or zero if it has none, a byte
+ * masking the fields that changed and how much each changed by, so fields
+ * that did not change take up nothing. Ball positions are quantised to a
+ * sixteenth of a unit and velocities to a 256th. Strings that the protocol
+ * uses, such as the names of events, are sent as a single byte index into a
+ * shared dictionary.
+ * <p>
+ * The <code>snapshot</code> and rectangle fields of a frame are not used by
+ * the protocol and cannot be encoded.
+ * <p>
+ * The codec holds no state so a single instance can be shared.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class BinaryFrameCodec {
+    /**
+     * The most bytes an encoded frame can take up, which keeps its length
+     * within three bytes.
+     */
+    public static final int MAX_FRAME_LENGTH = 64 * 1024;
+    /** The most bytes the length preceding a frame can take up. */
+    public static final int MAX_LENGTH_BYTES = 3;
+    /** The number of fractional steps per unit of a ball's position. */
+    private static final float POSITION_SCALE = 16.0f;
+    /** The number of fractional steps per unit of a ball's velocity. */
+    private static final float VELOCITY_SCALE = 256.0f;
+    /** The mask of the type within the header. */
+    private static final int TYPE_MASK = 0x07;
+    /** The flag within the header saying the input follows. */
+    private static final int HAS_INPUT = 0x08;
+    /** The flag within the header saying the role follows. */
+    private static final int HAS_ROLE = 0x10;
+    /** The shift of the 2-bit input within the header. */
+    private static final int INPUT_SHIFT = 5;
+    /** The mask of the input once shifted. */
+    private static final int INPUT_MASK = 0x03;
+    /** The flag within the header holding the role. */
+    private static final int ROLE_BIT = 0x80;
+    /** The flag saying a ball position and velocity follow. */
+    private static final int HAS_BALL = 0x01;
+    /** The flag saying the pings follow. */
+    private static final int HAS_PINGS = 0x02;
+    /** The flag saying the players follow. */
+    private static final int HAS_PLAYERS = 0x04;
+    /** The flag saying the arguments follow. */
+    private static final int HAS_ARGS = 0x08;
+    /** The flag saying the input history follows. */
+    private static final int HAS_INPUT_HISTORY = 0x10;
+    /** The flag saying the snapshot delta follows. */
+    private static final int HAS_SNAPSHOT_DELTA = 0x20;
+    /** The flag saying the snapshot acknowledgement follows. */
+    private static final int HAS_SNAPSHOT_ACK = 0x40;
+    /** The strings sent as a single byte, indexed from one. */
+    private static final String[] DICTIONARY = {
+        "EVENT",
+        "NAME",
+        "ROLE",
+        "STARTED",
+        "PADDLE_MOVE_EVENT",
+        "BALL_HIT_EVENT",
+        "SCORE_UPDATE_EVENT",
+        "BALL_SPAWN_EVENT",
+        "LEFT_PADDLE",
+        "RIGHT_PADDLE",
+        "REPEAT",
+    };
+    /** Holds each dictionary string mapped to its index. */
+    private static final Map<String, Integer> DICTIONARY_INDEXES;
+    /** Holds the frame types indexed by their ordinal. */
+    private static final PongFrame.Type[] TYPES = PongFrame.Type.values();
+    /** Holds the inputs indexed by their ordinal. */
+    private static final Paddle.Input[] INPUTS = Paddle.Input.values();
+    /** Holds the roles indexed by their ordinal. */
+    private static final Role[] ROLES = Role.values();
+    static {
+        DICTIONARY_INDEXES = new HashMap<>();
+        for (int i = 0; i < DICTIONARY.length; i++) {
+            DICTIONARY_INDEXES.put(DICTIONARY[i], Integer.valueOf(i + 1));
+        }
+    }
+    /**
+     * Creates a new instance.
+     */
+    public BinaryFrameCodec() {
+        // Intentionally empty.
+    }
+    /**
+     * Encodes a frame into the specified buffer.
+     *
+     * @param frame   the frame
+     * @param buffer  the buffer to encode into from its position, which is
+     *                left after the end of the frame
+     *
+     * @throws IllegalArgumentException          if the frame has a field
+     *                                           that cannot be encoded
+     * @throws java.nio.BufferOverflowException  if the buffer is too small
+     */
+    public void encode(final PongFrame frame, final ByteBuffer buffer) {
+        if (frame.snapshot != null || frame.srcPosition != null
+                || frame.destPosition != null
+                || frame.srcPositionFloat != null) {
+            throw new IllegalArgumentException(
+                    "Frame has fields the binary protocol does not carry: "
+                            + frame);
+        }
+        int header = frame.getType().ordinal();
+        if (frame.input != null) {
+            header |= HAS_INPUT | frame.input.ordinal() << INPUT_SHIFT;
+        }
+        if (frame.role != null) {
+            header |= HAS_ROLE;
+            if (frame.role.ordinal() != 0) {
+                header |= ROLE_BIT;
+            }
+        }
+        buffer.put((byte) header);
+        putVarLong(buffer, frame.tick);
+        final boolean hasBall = frame.destPositionFloat != null
+                && frame.velocity != null;
+        final int flags = (hasBall ? HAS_BALL : 0)
+                | (frame.pings != null ? HAS_PINGS : 0)
+                | (frame.players != null ? HAS_PLAYERS : 0)
+                | (frame.args.isEmpty() ? 0 : HAS_ARGS)
+                | (frame.inputHistory != null ? HAS_INPUT_HISTORY : 0)
+                | (frame.snapshotDelta != null ? HAS_SNAPSHOT_DELTA : 0)
+                | (frame.snapshotAck != null ? HAS_SNAPSHOT_ACK : 0);
+        buffer.put((byte) flags);
+        if (frame.inputHistory != null) {
+            buffer.putInt(frame.inputHistory.intValue());
+        }
+        if (frame.snapshotDelta != null) {
+            putSnapshotDelta(buffer, frame.tick, frame.snapshotDelta);
+        }
+        if (frame.snapshotAck != null) {
+            putVarLong(buffer, frame.snapshotAck.longValue());
+        }
+        if (hasBall) {
+            final Ellipse2D.Float position = frame.destPositionFloat;
+            buffer.putShort(quantise(position.x, POSITION_SCALE));
+            buffer.putShort(quantise(position.y, POSITION_SCALE));
+            buffer.putShort(quantise(position.width, POSITION_SCALE));
+            buffer.putShort(quantise(position.height, POSITION_SCALE));
+            putVarLong(buffer, Math.round(frame.velocity.x * VELOCITY_SCALE));
+            putVarLong(buffer, Math.round(frame.velocity.y * VELOCITY_SCALE));
+        }
+        if (frame.pings != null) {
+            buffer.put((byte) frame.pings.size());
+            for (final Map.Entry<Role, Integer> entry
+                    : frame.pings.entrySet()) {
+                buffer.put((byte) entry.getKey().ordinal());
+                putVarLong(buffer, entry.getValue().intValue());
+            }
+        }
+        if (frame.players != null) {
+            buffer.put((byte) frame.players.size());
+            for (final PongPlayer player : frame.players.values()) {
+                buffer.put((byte) player.getRole().ordinal());
+                putString(buffer, player.getName());
+                putVarLong(buffer, player.getPing());
+            }
+        }
+        if (!frame.args.isEmpty()) {
+            buffer.put((byte) frame.args.size());
+            for (final Map.Entry<String, String> entry
+                    : frame.args.entrySet()) {
+                putString(buffer, entry.getKey());
+                putString(buffer, entry.getValue());
+            }
+        }
+    }
+    /**
+     * Encodes a frame preceded by its length into the specified buffer,
+     * ready to be written to a stream.
+     * <p>
+     * Room for the longest length is left before the frame, so the frame
+     * starts after a gap of up to two bytes which should not be sent.
+     *
+     * @param frame   the frame
+     * @param buffer  the buffer to encode into from its position, which is
+     *                left after the end of the frame
+     * @return        the position the length starts at
+     *
+     * @throws IllegalArgumentException          if the frame has a field
+     *                                           that cannot be encoded
+     * @throws java.nio.BufferOverflowException  if the buffer is too small
+     */
+    public int encodeWithLength(final PongFrame frame,
+            final ByteBuffer buffer) {
+        final int start = buffer.position();
+        buffer.position(start + MAX_LENGTH_BYTES);
+        encode(frame, buffer);
+        final int end = buffer.position();
+        final int length = end - start - MAX_LENGTH_BYTES;
+        final int lengthBytes;
+        if (length < 1 << 7) {
+            lengthBytes = 1;
+        } else if (length < 1 << 14) {
+            lengthBytes = 2;
+        } else {
+            lengthBytes = MAX_LENGTH_BYTES;
+        }
+        final int lengthStart = start + MAX_LENGTH_BYTES - lengthBytes;
+        buffer.position(lengthStart);
+        putLength(buffer, length);
+        buffer.position(end);
+        return lengthStart;
+    }
+    /**
+     * Decodes a frame from the specified buffer.
+     *
+     * @param buffer  the buffer to decode from its position, which is left
+     *                after the end of the frame
+     * @return        the frame
+     *
+     * @throws IllegalArgumentException  if the bytes are not a valid frame
+     */
+    public PongFrame decode(final ByteBuffer buffer) {
+        try {
+            final int header = buffer.get() & 0xFF;
+            final int typeOrdinal = header & TYPE_MASK;
+            if (typeOrdinal >= TYPES.length) {
+                throw new IllegalArgumentException(
+                        "Unknown frame type: " + typeOrdinal);
+            }
+            final PongFrame frame = new PongFrame(TYPES[typeOrdinal]);
+            if ((header & HAS_INPUT) != 0) {
+                frame.input = INPUTS[checkIndex(
+                        header >>> INPUT_SHIFT & INPUT_MASK, INPUTS.length)];
+            }
+            if ((header & HAS_ROLE) != 0) {
+                frame.role = ROLES[(header & ROLE_BIT) == 0 ? 0 : 1];
+            }
+            frame.tick = getVarLong(buffer);
+            final int flags = buffer.get();
+            if ((flags & HAS_INPUT_HISTORY) != 0) {
+                frame.inputHistory = Integer.valueOf(buffer.getInt());
+            }
+            if ((flags & HAS_SNAPSHOT_DELTA) != 0) {
+                frame.snapshotDelta = getSnapshotDelta(buffer, frame.tick);
+            }
+            if ((flags & HAS_SNAPSHOT_ACK) != 0) {
+                frame.snapshotAck = Long.valueOf(getVarLong(buffer));
+            }
+            if ((flags & HAS_BALL) != 0) {
+                final float x = buffer.getShort() / POSITION_SCALE;
+                final float y = buffer.getShort() / POSITION_SCALE;
+                final float w = buffer.getShort() / POSITION_SCALE;
+                final float h = buffer.getShort() / POSITION_SCALE;
+                frame.destPositionFloat = new Ellipse2D.Float(x, y, w, h);
+                final float vx = getVarLong(buffer) / VELOCITY_SCALE;
+                final float vy = getVarLong(buffer) / VELOCITY_SCALE;
+                frame.velocity = new Vector2f(vx, vy);
+            }
+            if ((flags & HAS_PINGS) != 0) {
+                frame.pings = new EnumMap<>(Role.class);
+                final int count = buffer.get() & 0xFF;
+                for (int i = 0; i < count; i++) {
+                    final Role role = getRole(buffer);
+                    frame.pings.put(role,
+                            Integer.valueOf((int) getVarLong(buffer)));
+                }
+            }
+            if ((flags & HAS_PLAYERS) != 0) {
+                frame.players = new EnumMap<>(Role.class);
+                final int count = buffer.get() & 0xFF;
+                for (int i = 0; i < count; i++) {
+                    final Role role = getRole(buffer);
+                    final String name = getString(buffer);
+                    frame.players.put(role,
+                            new PongPlayer(name, role, getVarLong(buffer)));
+                }
+            }
+            if ((flags & HAS_ARGS) != 0) {
+                final int count = buffer.get() & 0xFF;
+                for (int i = 0; i < count; i++) {
+                    final String key = getString(buffer);
+                    frame.args.put(key, getString(buffer));
+                }
+            }
+            return frame;
+        } catch (final BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated frame", e);
+        }
+    }
+    /**
+     * Writes the length of a frame that precedes it on a stream, as a
+     * variable length integer.
+     *
+     * @param buffer  the buffer
+     * @param length  the length
+     */
+    public static void putLength(final ByteBuffer buffer, final int length) {
+        int remaining = length;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+    /**
+     * Reads the length of a frame written by
+     * {@link #putLength(ByteBuffer, int)} if all of its bytes are available.
+     *
+     * @param buffer  the buffer, whose position is moved past the length
+     *                only if all of it is available
+     * @return        the length, or <code>-1</code> if more bytes are needed
+     *
+     * @throws IllegalArgumentException  if the length is too long
+     */
+    public static int getLength(final ByteBuffer buffer) {
+        int length = 0;
+        for (int i = buffer.position(), shift = 0; i < buffer.limit();
+                i++, shift += 7) {
+            final byte b = buffer.get(i);
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                buffer.position(i + 1);
+                return checkLength(length);
+            }
+            if (shift >= 14) {
+                break;
+            }
+        }
+        if (buffer.limit() - buffer.position() > 3) {
+            throw new IllegalArgumentException("Malformed frame length");
+        }
+        return -1;
+    }
+    /**
+     * Reads the length of a frame written by
+     * {@link #putLength(ByteBuffer, int)} from a stream, blocking until it
+     * has arrived.
+     *
+     * @param in            the stream
+     * @return              the length, or <code>-1</code> at the end of the
+     *                      stream
+     *
+     * @throws IOException  if an I/O error occurs or the length is too long
+     */
+    public static int readLength(final InputStream in) throws IOException {
+        int length = 0;
+        for (int shift = 0; shift <= 14; shift += 7) {
+            final int b = in.read();
+            if (b < 0) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("End of stream within frame length");
+            }
+            length |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                try {
+                    return checkLength(length);
+                } catch (final IllegalArgumentException e) {
+                    throw new IOException(e.getMessage(), e);
+                }
+            }
+        }
+        throw new IOException("Malformed frame length");
+    }
+    /**
+     * Checks that a frame length is allowed.
+     *
+     * @param length  the length
+     * @return        the length
+     *
+     * @throws IllegalArgumentException  if it is too long
+     */
+    private static int checkLength(final int length) {
+        if (length > MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Frame longer than " + MAX_FRAME_LENGTH + " bytes");
+        }
+        return length;
+    }
+    /**
+     * Writes a snapshot delta.
+     *
+     * @param buffer  the buffer
+     * @param tick    the tick of the frame
+     * @param delta   the delta
+     */
+    private static void putSnapshotDelta(final ByteBuffer buffer,
+            final long tick, final SnapshotDelta delta) {
+        putVarLong(buffer,
+                delta.hasBaseline() ? tick - delta.getBaselineTick() : 0);
+        buffer.put((byte) delta.getMask());
+        for (final int change : delta.getChanges()) {
+            putVarLong(buffer, change);
+        }
+    }
+    /**
+     * Reads a snapshot delta written by
+     * {@link #putSnapshotDelta(ByteBuffer, long, SnapshotDelta)}.
+     *
+     * @param buffer  the buffer
+     * @param tick    the tick of the frame
+     * @return        the delta
+     */
+    private static SnapshotDelta getSnapshotDelta(final ByteBuffer buffer,
+            final long tick) {
+        final long age = getVarLong(buffer);
+        final int mask = buffer.get() & 0xFF;
+        final int[] changes = new int[Integer.bitCount(mask)];
+        for (int i = 0; i < changes.length; i++) {
+            changes[i] = (int) getVarLong(buffer);
+        }
+        return new SnapshotDelta(age == 0 ? SnapshotDelta.NO_BASELINE
+                : tick - age, mask, changes);
+    }
+    /**
+     * Writes a signed integer in as few bytes as its magnitude allows, seven
+     * bits at a time with the sign folded into the lowest bit.
+     *
+     * @param buffer  the buffer
+     * @param value   the value
+     */
+    static void putVarLong(final ByteBuffer buffer, final long value) {
+        long zigZag = value << 1 ^ value >> 63;
+        while ((zigZag & ~0x7FL) != 0) {
+            buffer.put((byte) (zigZag & 0x7F | 0x80));
+            zigZag >>>= 7;
+        }
+        buffer.put((byte) zigZag);
+    }
+    /**
+     * Reads a signed integer written by
+     * {@link #putVarLong(ByteBuffer, long)}.
+     *
+     * @param buffer  the buffer
+     * @return        the value
+     */
+    static long getVarLong(final ByteBuffer buffer) {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            zigZag |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return zigZag >>> 1 ^ -(zigZag & 1);
+            }
+        }
+        throw new IllegalArgumentException("Malformed variable length int");
+    }
+    /**
+     * Writes a string as its dictionary index, or as zero followed by its
+     * UTF-8 bytes and their length if it is not in the dictionary.
+     *
+     * @param buffer  the buffer
+     * @param str     the string
+     */
+    private static void putString(final ByteBuffer buffer, final String str) {
+        final Integer index = DICTIONARY_INDEXES.get(str);
+        if (index != null) {
+            buffer.put(index.byteValue());
+        } else {
+            final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+            buffer.put((byte) 0);
+            putVarLong(buffer, bytes.length);
+            buffer.put(bytes);
+        }
+    }
+    /**
+     * Reads a string written by {@link #putString(ByteBuffer, String)}.
+     *
+     * @param buffer  the buffer
+     * @return        the string
+     */
+    private static String getString(final ByteBuffer buffer) {
+        final int index = buffer.get() & 0xFF;
+        if (index != 0) {
+            return DICTIONARY[checkIndex(index - 1, DICTIONARY.length)];
+        }
+        final int length = (int) getVarLong(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Bad string length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    /**
+     * Reads a role.
+     *
+     * @param buffer  the buffer
+     * @return        the role
+     */
+    private static Role getRole(final ByteBuffer buffer) {
+        return ROLES[checkIndex(buffer.get() & 0xFF, ROLES.length)];
+    }
+    /**
+     * Quantises a coordinate into a short.
+     *
+     * @param value  the coordinate
+     * @param scale  the number of steps per unit
+     * @return       the quantised coordinate, clamped to the range of a
+     *               short
+     */
+    private static short quantise(final float value, final float scale) {
+        return (short) Math.max(Short.MIN_VALUE,
+                Math.min(Short.MAX_VALUE, Math.round(value * scale)));
+    }
+    /**
+     * Checks that a decoded index is within range.
+     *
+     * @param index   the index
+     * @param length  the number of valid indexes
+     * @return        the index
+     *
+     * @throws IllegalArgumentException  if it is out of range
+     */
+    private static int checkIndex(final int index, final int length) {
+        if (index < 0 || index >= length) {
+            throw new IllegalArgumentException("Index out of range: " + index);
+        }
+        return index;
+    }
+}
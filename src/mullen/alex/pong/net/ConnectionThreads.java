@@ -0,0 +1,178 @@
+package mullen.alex.pong.net;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates the named threads that block on connections, such as those that
+ * accept connections or wait for received frames, and keeps count of them.
+ * <p>
+ * In {@link Mode#VIRTUAL virtual} mode the threads are virtual threads, so a
+ * thread blocked on a connection costs a small heap allocated stack rather
+ * than a platform thread. The code the threads run is the same blocking code
+ * in either mode. Virtual threads need a Java 21 or later runtime. They are
+ * looked up reflectively so the code still builds and runs on older
+ * runtimes, where platform threads are used instead.
+ * <p>
+ * The mode defaults to the value of the {@value #MODE_PROPERTY} system
+ * property, which can be <code>platform</code> or <code>virtual</code>. Any
+ * other value is logged and platform threads are used.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class ConnectionThreads {
+    /** The name of the system property that sets the default mode. */
+    public static final String MODE_PROPERTY = "mullen.alex.pong.threads";
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(ConnectionThreads.class.getName());
+    /** Holds <code>Thread.ofVirtual()</code>, if the runtime has it. */
+    private static final Method OF_VIRTUAL;
+    /** Holds <code>Thread.Builder.name(String)</code>. */
+    private static final Method BUILDER_NAME;
+    /** Holds <code>Thread.Builder.unstarted(Runnable)</code>. */
+    private static final Method BUILDER_UNSTARTED;
+    /** Holds the number of threads created that are still running. */
+    private static final AtomicInteger LIVE_THREADS = new AtomicInteger();
+    /** Holds the number of threads created. */
+    private static final AtomicLong CREATED_THREADS = new AtomicLong();
+    /** Holds the mode new threads are created in. */
+    private static volatile Mode mode;
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method unstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class);
+            unstarted = builder.getMethod("unstarted", Runnable.class);
+        } catch (final ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_UNSTARTED = unstarted;
+        setMode(parseMode(System.getProperty(MODE_PROPERTY)));
+    }
+    /**
+     * Prevents instantiation.
+     */
+    private ConnectionThreads() {
+        // Intentionally empty.
+    }
+    /**
+     * Parses the value of the {@value #MODE_PROPERTY} system property.
+     *
+     * @param value  the value, or <code>null</code> if it is not set
+     * @return       the mode, or {@link Mode#PLATFORM} if the value is not
+     *               set or is not a mode
+     */
+    private static Mode parseMode(final String value) {
+        if (value == null) {
+            return Mode.PLATFORM;
+        }
+        try {
+            return Mode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (final IllegalArgumentException e) {
+            LOG.warning("Unknown " + MODE_PROPERTY + " value \"" + value
+                    + "\", using platform threads.");
+            return Mode.PLATFORM;
+        }
+    }
+    /**
+     * Creates a new unstarted thread with the specified name that runs the
+     * specified task, in the current mode.
+     *
+     * @param name  the name of the thread
+     * @param task  the task
+     * @return      the thread
+     */
+    public static Thread newThread(final String name, final Runnable task) {
+        Objects.requireNonNull(task);
+        final Runnable trackedTask = () -> {
+            LIVE_THREADS.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                LIVE_THREADS.decrementAndGet();
+            }
+        };
+        CREATED_THREADS.incrementAndGet();
+        if (mode == Mode.VIRTUAL) {
+            try {
+                final Object builder = BUILDER_NAME.invoke(
+                        OF_VIRTUAL.invoke(null), name);
+                return (Thread) BUILDER_UNSTARTED.invoke(builder, trackedTask);
+            } catch (final ReflectiveOperationException e) {
+                LOG.log(Level.SEVERE, e.getMessage(), e);
+            }
+        }
+        return new Thread(trackedTask, name);
+    }
+    /**
+     * Sets the mode new threads are created in. Virtual mode falls back to
+     * platform mode if the runtime does not support virtual threads.
+     *
+     * @param newMode  the mode
+     */
+    public static void setMode(final Mode newMode) {
+        if (newMode == Mode.VIRTUAL && !isVirtualSupported()) {
+            LOG.warning("Virtual threads are not supported by this runtime, "
+                    + "using platform threads instead.");
+            mode = Mode.PLATFORM;
+        } else {
+            mode = Objects.requireNonNull(newMode);
+        }
+    }
+    /**
+     * Gets the mode new threads are created in.
+     *
+     * @return  the mode
+     */
+    public static Mode getMode() {
+        return mode;
+    }
+    /**
+     * Determines whether the runtime supports virtual threads.
+     *
+     * @return  <code>true</code> if it does; <code>false</code> if not
+     */
+    public static boolean isVirtualSupported() {
+        return OF_VIRTUAL != null;
+    }
+    /**
+     * Gets the number of threads created here that are still running.
+     *
+     * @return  the number of threads
+     */
+    public static int getLiveCount() {
+        return LIVE_THREADS.get();
+    }
+    /**
+     * Gets the number of threads created here.
+     *
+     * @return  the number of threads
+     */
+    public static long getCreatedCount() {
+        return CREATED_THREADS.get();
+    }
+    /**
+     * The kinds of thread that can be created.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public enum Mode {
+        /** Threads are platform threads. */
+        PLATFORM,
+        /** Threads are virtual threads. */
+        VIRTUAL
+    }
+}
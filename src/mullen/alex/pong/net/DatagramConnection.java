@@ -0,0 +1,84 @@
+package mullen.alex.pong.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a connection between two entities that exchange messages in
+ * datagrams, which unlike a {@link StreamConnection} never holds back one
+ * message because another sent before it was lost.
+ * <p>
+ * Each message is sent on one of two {@link Channel}s. Messages sent between
+ * flushes are packed into as few datagrams as they fit in.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public interface DatagramConnection extends Connection {
+    /**
+     * An enum to represent the ways a message can be delivered.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    enum Channel {
+        /**
+         * Messages are sent once and may be lost. A message is discarded if
+         * it arrives after one that was sent later, so they are never
+         * delivered out of order.
+         */
+        UNRELIABLE,
+        /**
+         * Messages are sent again until the other side acknowledges them and
+         * are delivered in the order they were sent.
+         */
+        RELIABLE,
+    }
+    /**
+     * Starts passing received messages to the specified receiver. Messages
+     * that arrive before this has been invoked are not acknowledged, so the
+     * other side sends those on the reliable channel again.
+     *
+     * @param receiver  the receiver
+     */
+    void startReceiving(Receiver receiver);
+    /**
+     * Queues a message to be sent on the specified channel when the
+     * connection is next flushed.
+     *
+     * @param channel  the channel
+     * @param message  the message, which must not be modified afterwards
+     *
+     * @throws IllegalArgumentException  if the message is too long to fit in
+     *                                   a datagram
+     */
+    void send(Channel channel, byte[] message);
+    /**
+     * Sends every message queued since the last flush, along with any
+     * reliable message that is due to be sent again.
+     */
+    void flush();
+    /**
+     * Defines the interface for a receiver of the messages arriving on a
+     * connection.
+     *
+     * @author  Alex Mullen
+     */
+    interface Receiver {
+        /**
+         * Invoked for each message that arrives.
+         * <p>
+         * The buffer may be reused once this returns so its contents must be
+         * consumed or copied before then.
+         *
+         * @param channel  the channel the message was sent on
+         * @param message  the message, between the buffer's position and its
+         *                 limit
+         */
+        void onReceived(Channel channel, ByteBuffer message);
+        /**
+         * Invoked once the connection has been closed by either side or has
+         * timed out.
+         */
+        void onClosed();
+    }
+}
@@ -0,0 +1,51 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+
+/**
+ * Defines the interface for a connection listener that provides an endpoint for
+ * datagram connections to connect to.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public interface DatagramConnectionListener extends ConnectionListener {
+    /**
+     * Defines the interface for a handler that handles each new connection.
+     *
+     * @author  Alex Mullen
+     */
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * Invoked for each new connection, before any message it brought is
+         * passed on.
+         *
+         * @param connection  the connection
+         */
+        void onNewConnection(DatagramConnection connection);
+    }
+    /**
+     * Defines the interface for a builder class for constructing types of
+     * connection listeners.
+     * <p>
+     * This allows callers to inject instances of this into objects and allowing
+     * them objects to inject their own handlers without knowing what the
+     * concrete implementation of listener this is.
+     *
+     * @author  Alex Mullen
+     */
+    @FunctionalInterface
+    interface Builder {
+        /**
+         * Build a <code>DatagramConnectionListener</code> and inject the
+         * specified <code>Handler</code> into it.
+         *
+         * @param handler       the handler to inject
+         * @return              the new <code>DatagramConnectionListener</code>
+         *                      instance
+         * @throws IOException  if an I/O error occurs
+         */
+        DatagramConnectionListener build(Handler handler) throws IOException;
+    }
+}
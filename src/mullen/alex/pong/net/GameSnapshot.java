@@ -11,8 +11,8 @@ import mullen.alex.pong.Paddle;
  *
  */
 public class GameSnapshot {
-//    /** The current tick. */
-//    private final long tick;
+    /** The tick the snapshot was taken at. */
+    private final long tick;
     /** The ball transform. */
     private final Ball ball;
     /** The left paddle transform. */
@@ -32,18 +32,18 @@ public class GameSnapshot {
         ball = new Ball(game.getBall());
         leftPaddle = new Paddle(game.getLeftPaddle());
         rightPaddle = new Paddle(game.getRightPaddle());
-//        tick = game.getTick();
+        tick = game.getTick();
         leftSideScore = game.getLeftSideScore();
         rightSideScore = game.getRightSideScore();
     }
-//    /**
-//     * Gets how many ticks have been performed.
-//     *
-//     * @return  the number of ticks
-//     */
-//    public final long getTick() {
-//        return tick;
-//    }
+    /**
+     * Gets how many ticks had been performed when the snapshot was taken.
+     *
+     * @return  the number of ticks
+     */
+    public final long getTick() {
+        return tick;
+    }
     /**
      * Gets the ball.
      *
@@ -86,7 +86,7 @@ public class GameSnapshot {
     }
     @Override
     public final String toString() {
-        return "GameSnapshot [ball=" + ball
+        return "GameSnapshot [tick=" + tick + ", ball=" + ball
                 + ", leftPaddle=" + leftPaddle + ", rightPaddle=" + rightPaddle
                 + ", leftSideScore=" + leftSideScore
                 + ", rightSideScore=" + rightSideScore + "]";
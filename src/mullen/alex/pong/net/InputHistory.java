@@ -0,0 +1,67 @@
+package mullen.alex.pong.net;
+
+import mullen.alex.pong.Paddle;
+
+/**
+ * Packs the paddle inputs of the last {@value #LENGTH} ticks into a single
+ * integer, two bits per tick, so that an input frame carries every input
+ * made since the frame before it.
+ * <p>
+ * The input of the newest tick is held in the lowest two bits and each
+ * older tick in the two bits above the one after it. Ticks whose input is
+ * not known, such as those before the first tick, are marked as unknown.
+ * <p>
+ * Clients only send input frames when their input changes, so they must
+ * still send one at least every {@value #LENGTH} ticks for the history of
+ * each frame to cover every tick since the last. If a frame is lost the
+ * inputs it carried are then recovered from the next.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class InputHistory {
+    /** The number of ticks a history holds. */
+    public static final int LENGTH = Integer.SIZE / 2;
+    /** The history in which every tick is unknown. */
+    public static final int EMPTY = -1;
+    /** The bits marking the input of a tick as unknown. */
+    private static final int UNKNOWN = 0x03;
+    /** The number of bits each tick takes up. */
+    private static final int BITS = 2;
+    /** Holds the inputs indexed by their ordinal. */
+    private static final Paddle.Input[] INPUTS = Paddle.Input.values();
+    /**
+     * Prevent instantiation.
+     */
+    private InputHistory() {
+        // Intentionally empty.
+    }
+    /**
+     * Adds the input of a new tick to a history, discarding its oldest tick.
+     *
+     * @param history  the history
+     * @param input    the input of the new tick
+     * @return         the new history
+     */
+    public static int push(final int history, final Paddle.Input input) {
+        return history << BITS | input.ordinal();
+    }
+    /**
+     * Gets the input of a tick within a history.
+     *
+     * @param history  the history
+     * @param age      the number of ticks before the newest, from zero up
+     *                 to {@value #LENGTH} exclusive
+     * @return         the input, or <code>null</code> if it is unknown
+     *
+     * @throws IllegalArgumentException  if <code>age</code> is out of range
+     */
+    public static Paddle.Input get(final int history, final int age) {
+        if (age < 0 || age >= LENGTH) {
+            throw new IllegalArgumentException(
+                    "age must be between 0 and " + (LENGTH - 1));
+        }
+        final int bits = history >>> age * BITS & UNKNOWN;
+        return bits == UNKNOWN ? null : INPUTS[bits];
+    }
+}
@@ -0,0 +1,560 @@
+package mullen.alex.pong.net;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import mullen.alex.jge.Vector2f;
+import mullen.alex.pong.Paddle;
+
+/**
+ * Writes and reads {@link PongFrame}s as JSON by hand through
+ * {@link JsonWriter} and {@link JsonReader}, rather than through Gson's
+ * reflection.
+ * <p>
+ * The JSON written is byte for byte the same as <code>new
+ * Gson().toJson(frame)</code>: fields are written in the order they are
+ * declared, <code>null</code> fields and map values are left out and HTML
+ * characters within strings are escaped. Frames are written straight into
+ * the writer given, so no string is built for each one. Only the
+ * <code>snapshot</code> field, which the protocol does not use, is still
+ * handed to Gson.
+ * <p>
+ * The codec holds no state so a single instance can be shared.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class JsonFrameCodec {
+    /** The Gson instance for the snapshot field. */
+    private static final Gson SNAPSHOT_GSON = new Gson();
+    /**
+     * Creates a new instance.
+     */
+    public JsonFrameCodec() {
+        // Intentionally empty.
+    }
+    /**
+     * Writes a frame as JSON to the specified writer. The writer is not
+     * flushed.
+     *
+     * @param frame         the frame
+     * @param out           the writer
+     *
+     * @throws IOException  if an I/O error occurs
+     */
+    public void encode(final PongFrame frame, final Writer out)
+            throws IOException {
+        final JsonWriter writer = new JsonWriter(out);
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+        writer.beginObject();
+        writer.name("tick").value(frame.tick);
+        if (frame.snapshot != null) {
+            writer.name("snapshot");
+            SNAPSHOT_GSON.toJson(frame.snapshot, GameSnapshot.class, writer);
+        }
+        if (frame.snapshotDelta != null) {
+            writeSnapshotDelta(writer.name("snapshotDelta"),
+                    frame.snapshotDelta);
+        }
+        if (frame.snapshotAck != null) {
+            writer.name("snapshotAck").value(frame.snapshotAck.longValue());
+        }
+        if (frame.input != null) {
+            writer.name("input").value(frame.input.name());
+        }
+        if (frame.inputHistory != null) {
+            writer.name("inputHistory").value(frame.inputHistory.intValue());
+        }
+        if (frame.role != null) {
+            writer.name("role").value(frame.role.name());
+        }
+        if (frame.srcPosition != null) {
+            writeRectangle(writer.name("srcPosition"), frame.srcPosition);
+        }
+        if (frame.destPosition != null) {
+            writeRectangle(writer.name("destPosition"), frame.destPosition);
+        }
+        if (frame.srcPositionFloat != null) {
+            writeEllipse(writer.name("srcPositionFloat"),
+                    frame.srcPositionFloat);
+        }
+        if (frame.destPositionFloat != null) {
+            writeEllipse(writer.name("destPositionFloat"),
+                    frame.destPositionFloat);
+        }
+        if (frame.velocity != null) {
+            writer.name("velocity").beginObject();
+            writer.name("x").value(Float.valueOf(frame.velocity.x));
+            writer.name("y").value(Float.valueOf(frame.velocity.y));
+            writer.endObject();
+        }
+        if (frame.players != null) {
+            writer.name("players").beginObject();
+            for (final Map.Entry<Role, PongPlayer> entry
+                    : frame.players.entrySet()) {
+                final PongPlayer player = entry.getValue();
+                writer.name(entry.getKey().name());
+                if (player == null) {
+                    writer.nullValue();
+                } else {
+                    writer.beginObject();
+                    writer.name("name").value(player.getName());
+                    writer.name("role").value(player.getRole().name());
+                    writer.name("ping").value(player.getPing());
+                    writer.endObject();
+                }
+            }
+            writer.endObject();
+        }
+        if (frame.pings != null) {
+            writer.name("pings").beginObject();
+            for (final Map.Entry<Role, Integer> entry
+                    : frame.pings.entrySet()) {
+                writer.name(entry.getKey().name()).value(entry.getValue());
+            }
+            writer.endObject();
+        }
+        writer.name("args").beginObject();
+        for (final Map.Entry<String, String> entry : frame.args.entrySet()) {
+            writer.name(entry.getKey()).value(entry.getValue());
+        }
+        writer.endObject();
+        writer.name("type").value(frame.getType().name());
+        writer.endObject();
+    }
+    /**
+     * Reads the next frame from the specified reader.
+     *
+     * @param reader  the reader, which should be lenient when it holds more
+     *                than one frame
+     * @return        the frame, or <code>null</code> at the end of the
+     *                stream
+     *
+     * @throws JsonSyntaxException  if the JSON is not a valid frame or the
+     *                              stream could not be read
+     */
+    public PongFrame decode(final JsonReader reader) {
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            return readFrame(reader);
+        } catch (final EOFException e) {
+            return null;
+        } catch (final IOException | IllegalStateException
+                | IllegalArgumentException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+    /**
+     * Reads a frame object.
+     *
+     * @param reader        the reader
+     * @return              the frame
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static PongFrame readFrame(final JsonReader reader)
+            throws IOException {
+        long tick = 0;
+        GameSnapshot snapshot = null;
+        SnapshotDelta snapshotDelta = null;
+        Long snapshotAck = null;
+        Paddle.Input input = null;
+        Integer inputHistory = null;
+        Role role = null;
+        Rectangle srcPosition = null;
+        Rectangle destPosition = null;
+        Ellipse2D.Float srcPositionFloat = null;
+        Ellipse2D.Float destPositionFloat = null;
+        Vector2f velocity = null;
+        Map<Role, PongPlayer> players = null;
+        Map<Role, Integer> pings = null;
+        Map<String, String> args = null;
+        PongFrame.Type type = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (name) {
+            case "tick":
+                tick = reader.nextLong();
+                break;
+            case "snapshot":
+                snapshot = SNAPSHOT_GSON.fromJson(reader, GameSnapshot.class);
+                break;
+            case "snapshotDelta":
+                snapshotDelta = readSnapshotDelta(reader);
+                break;
+            case "snapshotAck":
+                snapshotAck = Long.valueOf(reader.nextLong());
+                break;
+            case "input":
+                input = Paddle.Input.valueOf(reader.nextString());
+                break;
+            case "inputHistory":
+                inputHistory = Integer.valueOf(reader.nextInt());
+                break;
+            case "role":
+                role = Role.valueOf(reader.nextString());
+                break;
+            case "srcPosition":
+                srcPosition = readRectangle(reader);
+                break;
+            case "destPosition":
+                destPosition = readRectangle(reader);
+                break;
+            case "srcPositionFloat":
+                srcPositionFloat = readEllipse(reader);
+                break;
+            case "destPositionFloat":
+                destPositionFloat = readEllipse(reader);
+                break;
+            case "velocity":
+                velocity = readVector(reader);
+                break;
+            case "players":
+                players = readPlayers(reader);
+                break;
+            case "pings":
+                pings = readPings(reader);
+                break;
+            case "args":
+                args = readArgs(reader);
+                break;
+            case "type":
+                type = PongFrame.Type.valueOf(reader.nextString());
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        if (type == null) {
+            throw new IllegalStateException("Frame has no type");
+        }
+        final PongFrame frame = new PongFrame(type);
+        frame.tick = tick;
+        frame.snapshot = snapshot;
+        frame.snapshotDelta = snapshotDelta;
+        frame.snapshotAck = snapshotAck;
+        frame.input = input;
+        frame.inputHistory = inputHistory;
+        frame.role = role;
+        frame.srcPosition = srcPosition;
+        frame.destPosition = destPosition;
+        frame.srcPositionFloat = srcPositionFloat;
+        frame.destPositionFloat = destPositionFloat;
+        frame.velocity = velocity;
+        frame.players = players;
+        frame.pings = pings;
+        if (args != null) {
+            frame.args.putAll(args);
+        }
+        return frame;
+    }
+    /**
+     * Writes a rectangle in the form Gson does.
+     *
+     * @param writer        the writer
+     * @param rectangle     the rectangle
+     *
+     * @throws IOException  if an I/O error occurs
+     */
+    private static void writeRectangle(final JsonWriter writer,
+            final Rectangle rectangle) throws IOException {
+        writer.beginObject();
+        writer.name("x").value(rectangle.x);
+        writer.name("y").value(rectangle.y);
+        writer.name("width").value(rectangle.width);
+        writer.name("height").value(rectangle.height);
+        writer.endObject();
+    }
+    /**
+     * Writes an ellipse in the form Gson does.
+     *
+     * @param writer        the writer
+     * @param ellipse       the ellipse
+     *
+     * @throws IOException  if an I/O error occurs
+     */
+    private static void writeEllipse(final JsonWriter writer,
+            final Ellipse2D.Float ellipse) throws IOException {
+        writer.beginObject();
+        writer.name("x").value(Float.valueOf(ellipse.x));
+        writer.name("y").value(Float.valueOf(ellipse.y));
+        writer.name("width").value(Float.valueOf(ellipse.width));
+        writer.name("height").value(Float.valueOf(ellipse.height));
+        writer.endObject();
+    }
+    /**
+     * Writes a snapshot delta in the form Gson does.
+     *
+     * @param writer        the writer
+     * @param delta         the delta
+     *
+     * @throws IOException  if an I/O error occurs
+     */
+    private static void writeSnapshotDelta(final JsonWriter writer,
+            final SnapshotDelta delta) throws IOException {
+        writer.beginObject();
+        writer.name("baselineTick").value(delta.getBaselineTick());
+        writer.name("mask").value(delta.getMask());
+        writer.name("changes").beginArray();
+        for (final int change : delta.getChanges()) {
+            writer.value(change);
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+    /**
+     * Reads a rectangle.
+     *
+     * @param reader        the reader
+     * @return              the rectangle
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Rectangle readRectangle(final JsonReader reader)
+            throws IOException {
+        final Rectangle rectangle = new Rectangle();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "x":
+                rectangle.x = reader.nextInt();
+                break;
+            case "y":
+                rectangle.y = reader.nextInt();
+                break;
+            case "width":
+                rectangle.width = reader.nextInt();
+                break;
+            case "height":
+                rectangle.height = reader.nextInt();
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        return rectangle;
+    }
+    /**
+     * Reads an ellipse.
+     *
+     * @param reader        the reader
+     * @return              the ellipse
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Ellipse2D.Float readEllipse(final JsonReader reader)
+            throws IOException {
+        final Ellipse2D.Float ellipse = new Ellipse2D.Float();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "x":
+                ellipse.x = (float) reader.nextDouble();
+                break;
+            case "y":
+                ellipse.y = (float) reader.nextDouble();
+                break;
+            case "width":
+                ellipse.width = (float) reader.nextDouble();
+                break;
+            case "height":
+                ellipse.height = (float) reader.nextDouble();
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        return ellipse;
+    }
+    /**
+     * Reads a vector.
+     *
+     * @param reader        the reader
+     * @return              the vector
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Vector2f readVector(final JsonReader reader)
+            throws IOException {
+        final Vector2f vector = new Vector2f();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "x":
+                vector.x = (float) reader.nextDouble();
+                break;
+            case "y":
+                vector.y = (float) reader.nextDouble();
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        return vector;
+    }
+    /**
+     * Reads a snapshot delta.
+     *
+     * @param reader        the reader
+     * @return              the delta
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static SnapshotDelta readSnapshotDelta(final JsonReader reader)
+            throws IOException {
+        long baselineTick = SnapshotDelta.NO_BASELINE;
+        int mask = 0;
+        int[] changes = new int[0];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "baselineTick":
+                baselineTick = reader.nextLong();
+                break;
+            case "mask":
+                mask = reader.nextInt();
+                break;
+            case "changes":
+                final int[] read = new int[SnapshotDelta.FIELD_COUNT];
+                int count = 0;
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (count == read.length) {
+                        throw new IOException("Too many snapshot changes");
+                    }
+                    read[count++] = reader.nextInt();
+                }
+                reader.endArray();
+                changes = Arrays.copyOf(read, count);
+                break;
+            default:
+                reader.skipValue();
+                break;
+            }
+        }
+        reader.endObject();
+        return new SnapshotDelta(baselineTick, mask, changes);
+    }
+    /**
+     * Reads the players of a frame.
+     *
+     * @param reader        the reader
+     * @return              the players mapped by their role
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Map<Role, PongPlayer> readPlayers(final JsonReader reader)
+            throws IOException {
+        final Map<Role, PongPlayer> players = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final Role key = Role.valueOf(reader.nextName());
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                players.put(key, null);
+                continue;
+            }
+            String name = null;
+            Role role = null;
+            long ping = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case "name":
+                    name = reader.nextString();
+                    break;
+                case "role":
+                    role = Role.valueOf(reader.nextString());
+                    break;
+                case "ping":
+                    ping = reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+                }
+            }
+            reader.endObject();
+            players.put(key, new PongPlayer(name, role, ping));
+        }
+        reader.endObject();
+        return players;
+    }
+    /**
+     * Reads the pings of a frame.
+     *
+     * @param reader        the reader
+     * @return              the pings mapped by role
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Map<Role, Integer> readPings(final JsonReader reader)
+            throws IOException {
+        final Map<Role, Integer> pings = new LinkedHashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final Role key = Role.valueOf(reader.nextName());
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                pings.put(key, null);
+            } else {
+                pings.put(key, Integer.valueOf(reader.nextInt()));
+            }
+        }
+        reader.endObject();
+        return pings;
+    }
+    /**
+     * Reads the arguments of a frame.
+     *
+     * @param reader        the reader
+     * @return              the arguments
+     *
+     * @throws IOException  if an I/O error occurs or the JSON is malformed
+     */
+    private static Map<String, String> readArgs(final JsonReader reader)
+            throws IOException {
+        final Map<String, String> args = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String key = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                args.put(key, null);
+            } else {
+                args.put(key, reader.nextString());
+            }
+        }
+        reader.endObject();
+        return args;
+    }
+}
@@ -0,0 +1,99 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits a stream of back to back JSON objects into the text of each
+ * complete object as its bytes arrive, without blocking for the rest.
+ * <p>
+ * Only the structure of the JSON is tracked, that is the depth of braces
+ * and whether the bytes are within a string, so the objects still need to be
+ * parsed. Anything between top level objects, such as whitespace, is
+ * skipped.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class JsonObjectFramer {
+    /** The default longest an object can be in bytes. */
+    public static final int DEFAULT_MAX_OBJECT_LENGTH = 1024 * 1024;
+    /** The initial size of the buffer holding a partial object. */
+    private static final int INITIAL_CAPACITY = 1024;
+    /** Holds the longest an object can be in bytes. */
+    private final int maxObjectLength;
+    /** Holds the bytes received but not yet part of a complete object. */
+    private byte[] buffer;
+    /** Holds the number of bytes in the buffer. */
+    private int length;
+    /** Holds the depth of the braces at the end of the buffer. */
+    private int depth;
+    /** Whether the end of the buffer is within a string. */
+    private boolean inString;
+    /** Whether the last byte in the buffer escapes the next. */
+    private boolean escaped;
+    /**
+     * Creates a new instance that allows objects up to the default length.
+     */
+    public JsonObjectFramer() {
+        this(DEFAULT_MAX_OBJECT_LENGTH);
+    }
+    /**
+     * Creates a new instance that allows objects up to the specified length.
+     *
+     * @param maxLength  the longest an object can be in bytes
+     */
+    public JsonObjectFramer(final int maxLength) {
+        maxObjectLength = maxLength;
+        buffer = new byte[INITIAL_CAPACITY];
+    }
+    /**
+     * Consumes the specified bytes, passing the text of each object they
+     * complete to the specified consumer in order.
+     *
+     * @param data          the bytes, between the buffer's position and its
+     *                      limit, which are all consumed
+     * @param consumer      the consumer of each complete object
+     *
+     * @throws IOException  if an object is longer than allowed
+     */
+    public final void feed(final ByteBuffer data,
+            final Consumer<String> consumer) throws IOException {
+        while (data.hasRemaining()) {
+            final byte b = data.get();
+            if (depth == 0 && b != '{') {
+                // Skip anything between objects.
+                continue;
+            }
+            if (length == buffer.length) {
+                if (length >= maxObjectLength) {
+                    throw new IOException("JSON object longer than "
+                            + maxObjectLength + " bytes");
+                }
+                buffer = Arrays.copyOf(buffer,
+                        Math.min(length * 2, maxObjectLength));
+            }
+            buffer[length++] = b;
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{') {
+                depth++;
+            } else if (b == '}' && --depth == 0) {
+                consumer.accept(new String(buffer, 0, length,
+                        StandardCharsets.UTF_8));
+                length = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package mullen.alex.pong.net;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Describes how badly datagrams are treated on their way out of a
+ * {@link UdpConnection}, so that a connection over loopback can be made to
+ * behave like one across the internet.
+ * <p>
+ * Each datagram is dropped with the loss rate given. Those that are not are
+ * held back for the latency given plus a random amount up to the jitter
+ * given, so datagrams can also arrive out of order.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class LinkConditioner {
+    /** The conditioner that sends every datagram straight away. */
+    public static final LinkConditioner NONE = new LinkConditioner(0.0, 0, 0);
+    /** Holds the fraction of datagrams dropped. */
+    private final double lossRate;
+    /** Holds the milliseconds every datagram is held back. */
+    private final long latencyMillis;
+    /** Holds the most milliseconds a datagram is held back on top. */
+    private final long jitterMillis;
+    /**
+     * Creates a new conditioner.
+     *
+     * @param loss     the fraction of datagrams dropped, from 0 to 1
+     * @param latency  the milliseconds every datagram is held back
+     * @param jitter   the most milliseconds a datagram is held back on top of
+     *                 the latency
+     *
+     * @throws IllegalArgumentException  if <code>loss</code> is not between
+     *                                   0 and 1 or <code>latency</code> or
+     *                                   <code>jitter</code> is negative
+     */
+    public LinkConditioner(final double loss, final long latency,
+            final long jitter) {
+        if (!(loss >= 0.0 && loss <= 1.0)) {
+            throw new IllegalArgumentException("loss must be between 0 and 1");
+        }
+        if (latency < 0 || jitter < 0) {
+            throw new IllegalArgumentException(
+                    "latency and jitter must not be negative");
+        }
+        lossRate = loss;
+        latencyMillis = latency;
+        jitterMillis = jitter;
+    }
+    /**
+     * Gets the fraction of datagrams dropped.
+     *
+     * @return  the loss rate
+     */
+    public double getLossRate() {
+        return lossRate;
+    }
+    /**
+     * Gets the milliseconds every datagram is held back.
+     *
+     * @return  the latency
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+    /**
+     * Gets the most milliseconds a datagram is held back on top of the
+     * latency.
+     *
+     * @return  the jitter
+     */
+    public long getJitterMillis() {
+        return jitterMillis;
+    }
+    /**
+     * Determines whether any datagram is ever held back.
+     *
+     * @return  <code>true</code> if some are; <code>false</code> if not
+     */
+    public boolean delays() {
+        return latencyMillis > 0 || jitterMillis > 0;
+    }
+    /**
+     * Decides whether the next datagram is dropped.
+     *
+     * @return  <code>true</code> if it is; <code>false</code> if not
+     */
+    boolean dropsNext() {
+        return lossRate > 0.0
+                && ThreadLocalRandom.current().nextDouble() < lossRate;
+    }
+    /**
+     * Decides how long the next datagram is held back for.
+     *
+     * @return  the milliseconds
+     */
+    long nextDelayMillis() {
+        return latencyMillis + (jitterMillis > 0
+                ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+    }
+    @Override
+    public String toString() {
+        return "LinkConditioner [lossRate=" + lossRate + " latencyMillis="
+                + latencyMillis + " jitterMillis=" + jitterMillis + "]";
+    }
+}
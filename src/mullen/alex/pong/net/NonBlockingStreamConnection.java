@@ -0,0 +1,65 @@
+package mullen.alex.pong.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Represents a stream connection whose bytes are pushed to a receiver as they
+ * arrive and whose sends never block, so that it can be serviced without a
+ * thread of its own.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public interface NonBlockingStreamConnection extends StreamConnection {
+    /**
+     * Starts passing received bytes to the specified receiver. Nothing is
+     * read from the connection until this has been invoked.
+     *
+     * @param receiver  the receiver
+     */
+    void startReceiving(Receiver receiver);
+    /**
+     * Queues the specified bytes to be sent without waiting for them to be
+     * written.
+     *
+     * @param data  the bytes to send, which must not be modified afterwards
+     */
+    void send(byte[] data);
+    /**
+     * Queues the contents of the specified buffers to be sent in order
+     * without waiting for them to be written, writing as many of them as the
+     * connection has room for with a single gathering write.
+     *
+     * @param data  the buffers to send, which must not be modified afterwards
+     */
+    void send(ByteBuffer[] data);
+    /**
+     * Gets the number of bytes that have been sent but not yet written to
+     * the connection.
+     *
+     * @return  the number of bytes
+     */
+    long getPendingBytes();
+    /**
+     * Defines the interface for a receiver of the bytes read from a
+     * connection.
+     *
+     * @author  Alex Mullen
+     */
+    interface Receiver {
+        /**
+         * Invoked each time bytes have been read from the connection.
+         * <p>
+         * The buffer is reused once this returns so its contents must be
+         * consumed or copied before then.
+         *
+         * @param data  the bytes read, between the buffer's position and its
+         *              limit
+         */
+        void onReceived(ByteBuffer data);
+        /**
+         * Invoked once the connection has been closed by either side.
+         */
+        void onClosed();
+    }
+}
@@ -0,0 +1,300 @@
+package mullen.alex.pong.net;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * A bounded queue of encoded frames waiting to be sent on a single
+ * connection.
+ * <p>
+ * Frames are offered to the queue as they are produced and drained all at
+ * once when the connection is flushed, so that everything produced in a tick
+ * can be handed to the I/O layer as a single gathered write. The queue keeps
+ * count of how deep it gets and how many bytes each flush carries.
+ * <p>
+ * A frame can be queued with a tag, which lets frames of the same kind that
+ * are still waiting be found again to be replaced or removed when the
+ * connection falls behind.
+ * <p>
+ * Every method is safe to call from any thread.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class OutboundQueue {
+    /** The default number of frames a queue can hold. */
+    public static final int DEFAULT_CAPACITY = 256;
+    /** Holds the most frames the queue can hold. */
+    private final int capacity;
+    /** Holds the queued frames. */
+    private final Deque<Entry> frames;
+    /** Holds the number of bytes queued. */
+    private long queuedBytes;
+    /** Holds the most frames that have been queued at once. */
+    private int maxDepth;
+    /** Holds the number of frames turned away because the queue was full. */
+    private long rejected;
+    /** Holds the number of queued frames removed before being sent. */
+    private long removed;
+    /** Holds the number of queued frames replaced before being sent. */
+    private long replaced;
+    /** Holds the number of flushes that carried at least one frame. */
+    private long flushes;
+    /** Holds the total bytes carried by every flush. */
+    private long flushedBytes;
+    /** Holds the most bytes carried by a single flush. */
+    private long maxFlushBytes;
+    /**
+     * Creates a new queue that holds up to {@value #DEFAULT_CAPACITY} frames.
+     */
+    public OutboundQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * Creates a new queue that holds up to the specified number of frames.
+     *
+     * @param maxFrames  the most frames the queue can hold
+     *
+     * @throws IllegalArgumentException  if <code>maxFrames</code> is not
+     *                                   positive
+     */
+    public OutboundQueue(final int maxFrames) {
+        if (maxFrames <= 0) {
+            throw new IllegalArgumentException("maxFrames must be positive");
+        }
+        capacity = maxFrames;
+        frames = new ArrayDeque<>(maxFrames);
+    }
+    /**
+     * Adds an encoded frame to the end of the queue if there is room for it.
+     *
+     * @param frame  the bytes of the frame, which must not be modified
+     *               afterwards
+     * @return       <code>true</code> if the frame was queued;
+     *               <code>false</code> if the queue was full
+     */
+    public boolean offer(final byte[] frame) {
+        return offer(frame, null);
+    }
+    /**
+     * Adds an encoded frame with the specified tag to the end of the queue
+     * if there is room for it.
+     *
+     * @param frame  the bytes of the frame, which must not be modified
+     *               afterwards
+     * @param tag    the tag, or <code>null</code> for none
+     * @return       <code>true</code> if the frame was queued;
+     *               <code>false</code> if the queue was full
+     */
+    public synchronized boolean offer(final byte[] frame, final Object tag) {
+        Objects.requireNonNull(frame);
+        if (frames.size() == capacity) {
+            rejected++;
+            return false;
+        }
+        frames.add(new Entry(frame, tag, System.nanoTime()));
+        queuedBytes += frame.length;
+        maxDepth = Math.max(maxDepth, frames.size());
+        return true;
+    }
+    /**
+     * Replaces the frame at the end of the queue if it has the specified
+     * tag, keeping its place and the time it was queued.
+     *
+     * @param frame  the bytes of the new frame, which must not be modified
+     *               afterwards
+     * @param tag    the tag the last frame must have
+     * @return       <code>true</code> if the frame was replaced;
+     *               <code>false</code> if the queue is empty or the last
+     *               frame has a different tag
+     */
+    public synchronized boolean replaceLast(final byte[] frame,
+            final Object tag) {
+        Objects.requireNonNull(frame);
+        final Entry last = frames.peekLast();
+        if (last == null || !Objects.equals(last.tag, tag)) {
+            return false;
+        }
+        queuedBytes += frame.length - last.bytes.length;
+        last.bytes = frame;
+        replaced++;
+        return true;
+    }
+    /**
+     * Removes every queued frame with the specified tag.
+     *
+     * @param tag  the tag
+     * @return     the number of frames removed
+     */
+    public synchronized int removeTagged(final Object tag) {
+        int count = 0;
+        final Iterator<Entry> it = frames.iterator();
+        while (it.hasNext()) {
+            final Entry entry = it.next();
+            if (Objects.equals(entry.tag, tag)) {
+                it.remove();
+                queuedBytes -= entry.bytes.length;
+                count++;
+            }
+        }
+        removed += count;
+        return count;
+    }
+    /**
+     * Removes every queued frame and records them as a single flush.
+     *
+     * @return  a buffer wrapping each frame in the order they were queued,
+     *          or <code>null</code> if the queue was empty
+     */
+    public synchronized ByteBuffer[] drain() {
+        if (frames.isEmpty()) {
+            return null;
+        }
+        final ByteBuffer[] buffers = new ByteBuffer[frames.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(frames.remove().bytes);
+        }
+        flushes++;
+        flushedBytes += queuedBytes;
+        maxFlushBytes = Math.max(maxFlushBytes, queuedBytes);
+        queuedBytes = 0;
+        return buffers;
+    }
+    /**
+     * Removes every queued frame without sending them.
+     */
+    public synchronized void clear() {
+        frames.clear();
+        queuedBytes = 0;
+    }
+    /**
+     * Gets the most frames the queue can hold.
+     *
+     * @return  the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+    /**
+     * Gets the number of frames currently queued.
+     *
+     * @return  the depth
+     */
+    public synchronized int getDepth() {
+        return frames.size();
+    }
+    /**
+     * Gets the number of bytes currently queued.
+     *
+     * @return  the number of bytes
+     */
+    public synchronized long getQueuedBytes() {
+        return queuedBytes;
+    }
+    /**
+     * Gets how long the oldest queued frame has been waiting.
+     *
+     * @return  the time in nanoseconds, or 0 if the queue is empty
+     */
+    public synchronized long getOldestAgeNanos() {
+        final Entry first = frames.peekFirst();
+        return first == null ? 0 : System.nanoTime() - first.queuedAt;
+    }
+    /**
+     * Gets the most frames that have been queued at once.
+     *
+     * @return  the greatest depth
+     */
+    public synchronized int getMaxDepth() {
+        return maxDepth;
+    }
+    /**
+     * Gets the number of frames turned away because the queue was full.
+     *
+     * @return  the number of frames
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+    /**
+     * Gets the number of queued frames removed before being sent.
+     *
+     * @return  the number of frames
+     */
+    public synchronized long getRemovedCount() {
+        return removed;
+    }
+    /**
+     * Gets the number of queued frames replaced before being sent.
+     *
+     * @return  the number of frames
+     */
+    public synchronized long getReplacedCount() {
+        return replaced;
+    }
+    /**
+     * Gets the number of flushes that carried at least one frame.
+     *
+     * @return  the number of flushes
+     */
+    public synchronized long getFlushCount() {
+        return flushes;
+    }
+    /**
+     * Gets the mean number of bytes carried by a flush.
+     *
+     * @return  the mean number of bytes
+     */
+    public synchronized long getMeanFlushBytes() {
+        return flushes == 0 ? 0 : flushedBytes / flushes;
+    }
+    /**
+     * Gets the most bytes carried by a single flush.
+     *
+     * @return  the greatest number of bytes
+     */
+    public synchronized long getMaxFlushBytes() {
+        return maxFlushBytes;
+    }
+    @Override
+    public synchronized String toString() {
+        return "OutboundQueue [depth=" + frames.size()
+                + " maxDepth=" + maxDepth
+                + " rejected=" + rejected
+                + " removed=" + removed
+                + " replaced=" + replaced
+                + " flushes=" + flushes
+                + " meanFlushBytes=" + getMeanFlushBytes()
+                + " maxFlushBytes=" + maxFlushBytes + "]";
+    }
+    /**
+     * A queued frame.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    private static final class Entry {
+        /** Holds the bytes of the frame. */
+        private byte[] bytes;
+        /** Holds the tag of the frame, if it has one. */
+        private final Object tag;
+        /** Holds when the frame was queued. */
+        private final long queuedAt;
+        /**
+         * Creates a new entry.
+         *
+         * @param frameBytes  the bytes of the frame
+         * @param frameTag    the tag of the frame
+         * @param time        when the frame was queued
+         */
+        Entry(final byte[] frameBytes, final Object frameTag,
+                final long time) {
+            bytes = frameBytes;
+            tag = frameTag;
+            queuedAt = time;
+        }
+    }
+}
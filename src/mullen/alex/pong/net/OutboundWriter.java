@@ -0,0 +1,198 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes the frames of an {@link OutboundQueue} to a
+ * {@link StreamConnection} each time it is flushed, without the flushing
+ * thread ever waiting on the connection.
+ * <p>
+ * A {@link NonBlockingStreamConnection} is handed every queued frame as a
+ * single gathered send. Any other stream connection is given a writer thread
+ * that drains the queue and writes it in one go, so only that thread is held
+ * up when the peer stops reading.
+ * <p>
+ * Either way, frames are only drained once everything drained before them
+ * has been written, so a peer that falls behind leaves its backlog in the
+ * queue, where it can be measured and trimmed.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class OutboundWriter {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(OutboundWriter.class.getName());
+    /** The queue being written. */
+    private final OutboundQueue queue;
+    /** The connection, if it does not block. */
+    private final NonBlockingStreamConnection nonBlockingConnection;
+    /** The stream written to, if the connection blocks. */
+    private final OutputStream out;
+    /** The thread that writes, if the connection blocks. */
+    private final Thread writeThread;
+    /** Holds the number of bytes the write thread is writing. */
+    private volatile long writingBytes;
+    /** Whether a flush is waiting for the write thread. */
+    private boolean flushRequested;
+    /** Whether the writer has been closed. */
+    private boolean closed;
+    /**
+     * Creates a new writer of the specified queue to the specified
+     * connection.
+     *
+     * @param connection    the connection
+     * @param frames        the queue
+     * @param name          the name of the write thread, if one is needed
+     *
+     * @throws IOException  if the connection's output stream cannot be
+     *                      acquired
+     */
+    public OutboundWriter(final StreamConnection connection,
+            final OutboundQueue frames, final String name) throws IOException {
+        Objects.requireNonNull(connection);
+        queue = Objects.requireNonNull(frames);
+        if (connection instanceof NonBlockingStreamConnection) {
+            nonBlockingConnection = (NonBlockingStreamConnection) connection;
+            out = null;
+            writeThread = null;
+        } else {
+            nonBlockingConnection = null;
+            out = connection.getOutputStream();
+            writeThread = ConnectionThreads.newThread(name,
+                    this::writeThreadBody);
+        }
+    }
+    /**
+     * Creates a new writer of the specified queue to the specified
+     * non-blocking connection, which needs no write thread.
+     *
+     * @param connection  the connection
+     * @param frames      the queue
+     */
+    public OutboundWriter(final NonBlockingStreamConnection connection,
+            final OutboundQueue frames) {
+        nonBlockingConnection = Objects.requireNonNull(connection);
+        queue = Objects.requireNonNull(frames);
+        out = null;
+        writeThread = null;
+    }
+    /**
+     * Starts the write thread, if there is one.
+     */
+    public void start() {
+        if (writeThread != null) {
+            writeThread.start();
+        }
+    }
+    /**
+     * Hands every frame queued since the last flush to the connection to be
+     * written together.
+     */
+    public void flush() {
+        if (nonBlockingConnection != null) {
+            if (nonBlockingConnection.getPendingBytes() > 0) {
+                return;
+            }
+            final ByteBuffer[] buffers = queue.drain();
+            if (buffers != null) {
+                nonBlockingConnection.send(buffers);
+            }
+        } else {
+            synchronized (this) {
+                flushRequested = true;
+                notifyAll();
+            }
+        }
+    }
+    /**
+     * Gets the number of bytes drained from the queue that have not yet been
+     * written to the connection.
+     *
+     * @return  the number of bytes
+     */
+    public long getUnwrittenBytes() {
+        if (nonBlockingConnection != null) {
+            return nonBlockingConnection.getPendingBytes();
+        }
+        return writingBytes;
+    }
+    /**
+     * Stops the write thread, discarding anything not yet written.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        queue.clear();
+    }
+    @Override
+    public String toString() {
+        return "OutboundWriter [queue=" + queue + "]";
+    }
+    /**
+     * The code for the write thread.
+     */
+    private void writeThreadBody() {
+        try {
+            while (awaitFlush()) {
+                final ByteBuffer[] buffers = queue.drain();
+                if (buffers != null) {
+                    final byte[] bytes = join(buffers);
+                    writingBytes = bytes.length;
+                    out.write(bytes);
+                    out.flush();
+                    writingBytes = 0;
+                }
+            }
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    /**
+     * Waits until a flush is requested or the writer is closed.
+     *
+     * @return                       <code>true</code> if a flush was
+     *                               requested; <code>false</code> if closed
+     * @throws InterruptedException  if interrupted whilst waiting
+     */
+    private synchronized boolean awaitFlush() throws InterruptedException {
+        while (!flushRequested && !closed) {
+            wait();
+        }
+        flushRequested = false;
+        return !closed;
+    }
+    /**
+     * Copies the contents of the specified buffers into a single array so
+     * that they can be written with one call.
+     *
+     * @param buffers  the buffers, each backed by an array
+     * @return         the joined bytes
+     */
+    private static byte[] join(final ByteBuffer[] buffers) {
+        if (buffers.length == 1) {
+            return buffers[0].array();
+        }
+        int length = 0;
+        for (final ByteBuffer buffer : buffers) {
+            length += buffer.remaining();
+        }
+        final byte[] joined = new byte[length];
+        int offset = 0;
+        for (final ByteBuffer buffer : buffers) {
+            final int count = buffer.remaining();
+            buffer.get(joined, offset, count);
+            offset += count;
+        }
+        return joined;
+    }
+}
@@ -36,10 +36,24 @@ public class PongFrame {
         /** Represents a ping reply frame. */
         PING_REPLY,
     }
+    /** The tick of the game the frame was sent at. */
+    public long tick;
     /** The snapshot field of the frame. */
     public GameSnapshot snapshot;
+    /**
+     * The difference between the snapshot of the frame's tick and a
+     * snapshot the client has acknowledged.
+     */
+    public SnapshotDelta snapshotDelta;
+    /** The tick of the newest snapshot the client has received. */
+    public Long snapshotAck;
     /** The input field of the frame. */
     public Paddle.Input input;
+    /**
+     * The inputs of the ticks up to and including that of the frame, as
+     * packed by {@link InputHistory}.
+     */
+    public Integer inputHistory;
     /** The role field of the frame. */
     public Role role;
     /** The field used for transferring a source position. */
@@ -75,9 +89,27 @@ public class PongFrame {
     public final Type getType() {
         return type;
     }
+    /**
+     * Determines whether the frame must reach the other side, in the order it
+     * was sent, or whether it can be lost since the frames after it supersede
+     * it. Inputs, snapshots and paddle moves can be lost.
+     *
+     * @return  <code>true</code> if it must reach the other side;
+     *          <code>false</code> if it can be lost
+     */
+    public final boolean isReliable() {
+        if (type == Type.INPUT || type == Type.SNAPSHOT) {
+            return false;
+        }
+        return !(type == Type.EVENT
+                && "PADDLE_MOVE_EVENT".equals(args.get("EVENT")));
+    }
     @Override
     public final String toString() {
-        return "PongFrame [snapshot=" + snapshot + ", input=" + input
+        return "PongFrame [tick=" + tick + ", snapshot=" + snapshot
+                + ", snapshotDelta=" + snapshotDelta
+                + ", snapshotAck=" + snapshotAck
+                + ", input=" + input + ", inputHistory=" + inputHistory
                 + ", players=" + players + ", pings=" + pings + ", args="
                 + args + ", type=" + type + "]";
     }
@@ -0,0 +1,242 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Encapsulates a non-blocking socket channel that is serviced by a
+ * {@link SelectorEventLoop} shared with other connections.
+ * <p>
+ * Received bytes are pushed to the receiver on the loop thread. Sends are
+ * written straight away when the socket has room, otherwise they are queued
+ * and written by the loop as the socket drains. Several buffers sent
+ * together, or left queued, are written with a single gathering write.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class SelectorConnection implements NonBlockingStreamConnection,
+        SelectorEventLoop.Handler {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(SelectorConnection.class.getName());
+    /** The channel this is encapsulating. */
+    private final SocketChannel channel;
+    /** The loop servicing the channel. */
+    private final SelectorEventLoop loop;
+    /** Holds the sends that could not be written straight away. */
+    private final Queue<ByteBuffer> pendingWrites;
+    /** Whether the connection has been closed. */
+    private final AtomicBoolean closed;
+    /** Holds the receiver of the bytes read. */
+    private volatile Receiver receiver;
+    /** Holds the key of the channel's registration, set on the loop. */
+    private SelectionKey key;
+    /**
+     * Creates a new connection that encapsulates the specified connected
+     * channel and is serviced by the specified loop.
+     *
+     * @param socketChannel  the channel, which must be non-blocking
+     * @param eventLoop      the loop
+     */
+    SelectorConnection(final SocketChannel socketChannel,
+            final SelectorEventLoop eventLoop) {
+        channel = Objects.requireNonNull(socketChannel);
+        loop = Objects.requireNonNull(eventLoop);
+        pendingWrites = new ArrayDeque<>();
+        closed = new AtomicBoolean();
+    }
+    /**
+     * Provides access to the underlying channel.
+     *
+     * @return  the underlying channel this wraps around
+     */
+    public final SocketChannel getChannel() {
+        return channel;
+    }
+    @Override
+    public final void startReceiving(final Receiver bytesReceiver) {
+        receiver = Objects.requireNonNull(bytesReceiver);
+        loop.execute(() -> {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                synchronized (pendingWrites) {
+                    key = loop.register(channel, pendingWrites.isEmpty()
+                            ? SelectionKey.OP_READ
+                            : SelectionKey.OP_READ | SelectionKey.OP_WRITE,
+                            this);
+                }
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+                close();
+            }
+        });
+    }
+    @Override
+    public final void send(final byte[] data) {
+        send(new ByteBuffer[] {ByteBuffer.wrap(data)});
+    }
+    @Override
+    public final void send(final ByteBuffer[] data) {
+        synchronized (pendingWrites) {
+            if (closed.get()) {
+                return;
+            }
+            int first = 0;
+            if (pendingWrites.isEmpty()) {
+                try {
+                    channel.write(data);
+                } catch (final IOException e) {
+                    LOG.log(Level.WARNING, e.getMessage(), e);
+                    close();
+                    return;
+                }
+                while (first < data.length && !data[first].hasRemaining()) {
+                    first++;
+                }
+                if (first == data.length) {
+                    return;
+                }
+            }
+            final boolean wasEmpty = pendingWrites.isEmpty();
+            for (int i = first; i < data.length; i++) {
+                pendingWrites.add(data[i]);
+            }
+            if (wasEmpty) {
+                loop.execute(this::enableWrites);
+            }
+        }
+    }
+    @Override
+    public final long getPendingBytes() {
+        synchronized (pendingWrites) {
+            long count = 0;
+            for (final ByteBuffer buffer : pendingWrites) {
+                count += buffer.remaining();
+            }
+            return count;
+        }
+    }
+    @Override
+    public final void onReady(final SelectionKey readyKey) {
+        if (readyKey.isReadable()) {
+            read();
+        }
+        if (readyKey.isValid() && readyKey.isWritable()) {
+            writePending();
+        }
+    }
+    @Override
+    public final void close() {
+        if (closed.compareAndSet(false, true)) {
+            loop.execute(() -> {
+                if (key != null) {
+                    key.cancel();
+                }
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    LOG.log(Level.WARNING, e.getMessage(), e);
+                }
+                if (receiver != null) {
+                    receiver.onClosed();
+                }
+            });
+        }
+    }
+    /**
+     * Streams are not supported as bytes are pushed to the receiver instead.
+     *
+     * @return              never returns
+     * @throws IOException  always
+     */
+    @Override
+    public final InputStream getInputStream() throws IOException {
+        throw new IOException(
+                "Received bytes are pushed through startReceiving instead.");
+    }
+    @Override
+    public final OutputStream getOutputStream() throws IOException {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) {
+                send(new byte[] {(byte) b});
+            }
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                send(Arrays.copyOfRange(b, off, off + len));
+            }
+        };
+    }
+    @Override
+    public final String toString() {
+        return "SelectorConnection [channel=" + channel + "]";
+    }
+    /**
+     * Reads whatever is available and passes it to the receiver, closing the
+     * connection at the end of the stream.
+     */
+    private void read() {
+        final ByteBuffer buffer = loop.getReadBuffer();
+        buffer.clear();
+        final int count;
+        try {
+            count = channel.read(buffer);
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            close();
+            return;
+        }
+        if (count < 0) {
+            close();
+        } else if (count > 0) {
+            buffer.flip();
+            receiver.onReceived(buffer);
+        }
+    }
+    /**
+     * Asks the loop to say when the channel has room for the pending sends.
+     */
+    private void enableWrites() {
+        if (key != null && key.isValid()) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+    /**
+     * Writes as many of the pending sends as the channel has room for with a
+     * single gathering write.
+     */
+    private void writePending() {
+        synchronized (pendingWrites) {
+            try {
+                channel.write(pendingWrites.toArray(
+                        new ByteBuffer[pendingWrites.size()]));
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+                close();
+                return;
+            }
+            ByteBuffer buffer;
+            while ((buffer = pendingWrites.peek()) != null) {
+                if (buffer.hasRemaining()) {
+                    return;
+                }
+                pendingWrites.remove();
+            }
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+}
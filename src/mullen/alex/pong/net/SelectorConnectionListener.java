@@ -0,0 +1,199 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A server for accepting incoming socket connections that multiplexes every
+ * connection over a small, fixed number of {@link SelectorEventLoop event
+ * loops} rather than giving each one a thread of its own. Accepted
+ * connections are wrapped into a {@link SelectorConnection}.
+ * <p>
+ * Connections are spread over the loops in turn. The first loop also accepts
+ * the incoming connections.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class SelectorConnectionListener implements StreamConnectionListener {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(SelectorConnectionListener.class.getName());
+    /** The maximum backlog length of the queue of incoming connections. */
+    private static final int SOCKET_BACKLOG_LENGTH = 128;
+    /** The handler for handling each accepted connection. */
+    private final Handler handler;
+    /** The channel that accepts connection requests. */
+    private final ServerSocketChannel listenerChannel;
+    /** The socket configure operation. */
+    private final Consumer<Socket> socketConfigurer;
+    /** The loops servicing the connections. */
+    private final SelectorEventLoop[] loops;
+    /** Holds the loop the next accepted connection is given to. */
+    private int nextLoop;
+    /** A status variable to indicate if this is listener is started. */
+    private boolean started;
+    /** A status variable to indicate if this is listener is shutdown. */
+    private volatile boolean shutdown;
+    /**
+     * Instantiates a new instance that will be bound to the specified port
+     * number, services its connections with the specified number of loops
+     * and configures each socket using the given consumer operation.
+     *
+     * @param port                the local port number be bound to
+     * @param loopCount           the number of loops
+     * @param configureOperation  the operation to perform on each accepted
+     *                            socket
+     * @param serverHandler       the handler
+     *
+     * @throws IllegalArgumentException  if <code>loopCount</code> is not
+     *                                   positive
+     * @throws IOException               if an I/O error occurs whilst binding
+     *                                   the channel
+     */
+    public SelectorConnectionListener(final int port, final int loopCount,
+            final Consumer<Socket> configureOperation,
+            final Handler serverHandler) throws IOException {
+        if (loopCount <= 0) {
+            throw new IllegalArgumentException("loopCount must be positive");
+        }
+        handler = Objects.requireNonNull(serverHandler);
+        socketConfigurer = Objects.requireNonNull(configureOperation);
+        loops = new SelectorEventLoop[loopCount];
+        for (int i = 0; i < loopCount; i++) {
+            loops[i] = new SelectorEventLoop(
+                    "SelectorConnectionListener::eventLoop-" + i);
+        }
+        listenerChannel = ServerSocketChannel.open();
+        listenerChannel.bind(new InetSocketAddress(port),
+                SOCKET_BACKLOG_LENGTH);
+        listenerChannel.configureBlocking(false);
+    }
+    @Override
+    public final void start() {
+        if (shutdown) {
+            throw new IllegalStateException("Listener is shutdown");
+        }
+        if (started) {
+            throw new IllegalStateException("Listener is already started");
+        }
+        started = true;
+        for (final SelectorEventLoop loop : loops) {
+            loop.start();
+        }
+        loops[0].execute(() -> {
+            try {
+                loops[0].register(listenerChannel, SelectionKey.OP_ACCEPT,
+                        key -> acceptConnections());
+            } catch (final IOException e) {
+                LOG.log(Level.SEVERE, e.getMessage(), e);
+            }
+        });
+    }
+    /**
+     * Stops accepting connections. The loops carry on servicing the
+     * connections already accepted until each one is closed.
+     */
+    @Override
+    public final void shutdown() {
+        shutdown = true;
+        final Runnable closeListener = () -> {
+            try {
+                listenerChannel.close();
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
+        };
+        if (started) {
+            loops[0].execute(closeListener);
+        } else {
+            closeListener.run();
+        }
+        for (final SelectorEventLoop loop : loops) {
+            loop.shutdownWhenIdle();
+        }
+    }
+    /**
+     * Accepts every pending connection request.
+     */
+    private void acceptConnections() {
+        while (!shutdown) {
+            final SocketChannel acceptedChannel;
+            try {
+                acceptedChannel = listenerChannel.accept();
+                if (acceptedChannel == null) {
+                    return;
+                }
+                acceptedChannel.configureBlocking(false);
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+                return;
+            }
+            // Configure the socket.
+            socketConfigurer.accept(acceptedChannel.socket());
+            final SelectorEventLoop loop = loops[nextLoop];
+            nextLoop = (nextLoop + 1) % loops.length;
+            // Let the handler deal with it.
+            handler.onNewConnection(
+                    new SelectorConnection(acceptedChannel, loop));
+        }
+    }
+    /**
+     * A builder class that builds instances of this.
+     *
+     * @author  Alex Mullen
+     */
+    public static final class Builder implements
+            StreamConnectionListener.Builder {
+        /** The highest value the port number for the listener can be. */
+        private static final int MAX_VALID_PORT = 65535;
+        /** The local port number for the listener to be bound to. */
+        private final int port;
+        /** The number of loops servicing the connections. */
+        private final int loopCount;
+        /** The socket configure operation. */
+        private final Consumer<Socket> configOperation;
+        /**
+         * Creates a new instance for constructing a listener that will be bound
+         * to the specified port, services its connections with the specified
+         * number of loops and performs the given configure operation on each
+         * accepted socket.
+         *
+         * @param listenPort                 the local port number
+         * @param eventLoops                 the number of loops
+         * @param configureOperation         the socket configure operation
+         * @throws IllegalArgumentException  if the port parameter is outside
+         *                                   the specified range of valid port
+         *                                   values, which is between 0 and
+         *                                   65535, inclusive, or if
+         *                                   <code>eventLoops</code> is not
+         *                                   positive
+         */
+        public Builder(final int listenPort, final int eventLoops,
+                final Consumer<Socket> configureOperation) {
+            if (listenPort < 0 || listenPort > MAX_VALID_PORT) {
+                throw new IllegalArgumentException();
+            }
+            if (eventLoops <= 0) {
+                throw new IllegalArgumentException();
+            }
+            port = listenPort;
+            loopCount = eventLoops;
+            configOperation = Objects.requireNonNull(configureOperation);
+        }
+        @Override
+        public StreamConnectionListener build(final Handler h)
+                throws IOException {
+            return new SelectorConnectionListener(port, loopCount,
+                    configOperation, h);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A single thread that waits on a {@link Selector} and services every channel
+ * registered with it.
+ * <p>
+ * Tasks that must touch the selector, such as registering a channel, are
+ * handed to the loop through {@link #execute(Runnable)} and run between
+ * selections.
+ *
+ * @author  Alex Mullen
+ *
+ */
+final class SelectorEventLoop {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(SelectorEventLoop.class.getName());
+    /** The size of the buffer each read is made into. */
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    /** Holds the selector. */
+    private final Selector selector;
+    /** Holds the thread running the loop. */
+    private final Thread thread;
+    /** Holds the tasks waiting to be run by the loop. */
+    private final Queue<Runnable> tasks;
+    /** Holds the buffer shared by every read made by the loop. */
+    private final ByteBuffer readBuffer;
+    /** Whether the loop should stop once its channels are closed. */
+    private volatile boolean shutdown;
+    /**
+     * Creates a new loop that runs on a thread with the specified name.
+     *
+     * @param name          the name of the thread
+     *
+     * @throws IOException  if the selector cannot be opened
+     */
+    SelectorEventLoop(final String name) throws IOException {
+        selector = Selector.open();
+        tasks = new ConcurrentLinkedQueue<>();
+        readBuffer = ByteBuffer.allocateDirect(READ_BUFFER_SIZE);
+        thread = new Thread(this::run, name);
+    }
+    /**
+     * Starts the loop thread.
+     */
+    void start() {
+        thread.start();
+    }
+    /**
+     * Stops the loop once every channel registered with it has been closed.
+     */
+    void shutdownWhenIdle() {
+        shutdown = true;
+        selector.wakeup();
+    }
+    /**
+     * Runs the specified task on the loop thread.
+     *
+     * @param task  the task
+     */
+    void execute(final Runnable task) {
+        tasks.add(task);
+        selector.wakeup();
+    }
+    /**
+     * Registers a channel with the loop's selector.
+     * <p>
+     * <b>Make sure this is only executed within the loop thread.</b>
+     * </p>
+     *
+     * @param channel       the channel, which must be non-blocking
+     * @param ops           the operations to be notified of
+     * @param handler       the handler to notify
+     * @return              the key of the registration
+     *
+     * @throws IOException  if the channel is closed
+     */
+    SelectionKey register(final SelectableChannel channel, final int ops,
+            final Handler handler) throws IOException {
+        return channel.register(selector, ops, handler);
+    }
+    /**
+     * Gets the buffer that reads are made into.
+     * <p>
+     * <b>Make sure this is only used within the loop thread.</b>
+     * </p>
+     *
+     * @return  the buffer
+     */
+    ByteBuffer getReadBuffer() {
+        return readBuffer;
+    }
+    /**
+     * The code for the loop thread.
+     */
+    private void run() {
+        while (!shutdown || hasOpenChannels()) {
+            try {
+                selector.select();
+            } catch (final IOException e) {
+                LOG.log(Level.SEVERE, e.getMessage(), e);
+                break;
+            }
+            runTasks();
+            final Iterator<SelectionKey> keys =
+                    selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                final SelectionKey key = keys.next();
+                keys.remove();
+                if (key.isValid()) {
+                    ((Handler) key.attachment()).onReady(key);
+                }
+            }
+        }
+        runTasks();
+        try {
+            selector.close();
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+    /**
+     * Runs every task waiting to be run.
+     */
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                LOG.log(Level.SEVERE, e.getMessage(), e);
+            }
+        }
+    }
+    /**
+     * Determines whether any channel is still registered with the loop.
+     *
+     * @return  <code>true</code> if a channel is registered;
+     *          <code>false</code> if not
+     */
+    private boolean hasOpenChannels() {
+        for (final SelectionKey key : selector.keys()) {
+            if (key.isValid()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    /**
+     * Defines the interface for a handler of a channel registered with the
+     * loop.
+     *
+     * @author  Alex Mullen
+     */
+    @FunctionalInterface
+    interface Handler {
+        /**
+         * Invoked on the loop thread when the channel is ready for one of
+         * the operations it was registered for.
+         *
+         * @param key  the key of the channel's registration
+         */
+        void onReady(SelectionKey key);
+    }
+}
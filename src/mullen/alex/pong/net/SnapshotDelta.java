@@ -0,0 +1,215 @@
+package mullen.alex.pong.net;
+
+import java.util.Arrays;
+
+/**
+ * The difference between two {@link GameSnapshot}s, which is what a
+ * snapshot frame carries rather than the snapshot itself.
+ * <p>
+ * A snapshot is first quantised into an array of
+ * {@value #FIELD_COUNT} integers: ball positions to a sixteenth of a unit,
+ * ball velocities to a 256th and paddle positions and scores as they are.
+ * A delta then holds only the fields that differ from the quantised
+ * baseline, each as the amount it changed by, along with a mask saying
+ * which fields those are. Between two snapshots close together most fields
+ * are unchanged and the rest change by a little, so a delta encodes in far
+ * fewer bytes than the snapshot.
+ * <p>
+ * The baseline is a snapshot the receiver has said it holds. A delta with
+ * no baseline is taken against a snapshot of all zeros and so holds every
+ * field that is not zero. Since both sides apply the delta to the same
+ * quantised baseline, the state the receiver ends up with is exactly the
+ * quantised state the sender had.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class SnapshotDelta {
+    /** The index of the ball's X position. */
+    public static final int BALL_X = 0;
+    /** The index of the ball's Y position. */
+    public static final int BALL_Y = 1;
+    /** The index of the ball's X velocity. */
+    public static final int BALL_VELOCITY_X = 2;
+    /** The index of the ball's Y velocity. */
+    public static final int BALL_VELOCITY_Y = 3;
+    /** The index of the left paddle's Y position. */
+    public static final int LEFT_PADDLE_Y = 4;
+    /** The index of the right paddle's Y position. */
+    public static final int RIGHT_PADDLE_Y = 5;
+    /** The index of the left side's score. */
+    public static final int LEFT_SCORE = 6;
+    /** The index of the right side's score. */
+    public static final int RIGHT_SCORE = 7;
+    /** The number of fields in a quantised snapshot. */
+    public static final int FIELD_COUNT = 8;
+    /** The baseline tick of a delta that has no baseline. */
+    public static final long NO_BASELINE = -1;
+    /** The number of fractional steps per unit of a ball's position. */
+    private static final float POSITION_SCALE = 16.0f;
+    /** The number of fractional steps per unit of a ball's velocity. */
+    private static final float VELOCITY_SCALE = 256.0f;
+    /** The quantised snapshot of all zeros deltas without a baseline use. */
+    private static final int[] ZEROS = new int[FIELD_COUNT];
+    /** Holds the tick of the baseline, or {@link #NO_BASELINE}. */
+    private final long baselineTick;
+    /** Holds the mask of the fields that changed, a bit per field. */
+    private final int mask;
+    /** Holds how much each field in the mask changed by, in order. */
+    private final int[] changes;
+    /**
+     * Creates a new delta.
+     *
+     * @param baseline    the tick of the baseline, or {@link #NO_BASELINE}
+     * @param changeMask  the mask of the fields that changed, a bit per field
+     * @param amounts     how much each field in the mask changed by, in order
+     *
+     * @throws IllegalArgumentException  if the mask has bits beyond the last
+     *                                   field or the number of amounts does
+     *                                   not match it
+     */
+    public SnapshotDelta(final long baseline, final int changeMask,
+            final int[] amounts) {
+        if ((changeMask & ~((1 << FIELD_COUNT) - 1)) != 0) {
+            throw new IllegalArgumentException(
+                    "Mask has bits beyond the last field: " + changeMask);
+        }
+        if (Integer.bitCount(changeMask) != amounts.length) {
+            throw new IllegalArgumentException(
+                    "Number of amounts does not match the mask");
+        }
+        baselineTick = baseline;
+        mask = changeMask;
+        changes = amounts.clone();
+    }
+    /**
+     * Quantises a snapshot into an array of {@value #FIELD_COUNT} integers
+     * indexed by field.
+     *
+     * @param snapshot  the snapshot
+     * @return          the quantised snapshot
+     */
+    public static int[] quantise(final GameSnapshot snapshot) {
+        final int[] state = new int[FIELD_COUNT];
+        state[BALL_X] = Math.round(
+                snapshot.getBall().getTransform().x * POSITION_SCALE);
+        state[BALL_Y] = Math.round(
+                snapshot.getBall().getTransform().y * POSITION_SCALE);
+        state[BALL_VELOCITY_X] = Math.round(
+                snapshot.getBall().getVelocity().x * VELOCITY_SCALE);
+        state[BALL_VELOCITY_Y] = Math.round(
+                snapshot.getBall().getVelocity().y * VELOCITY_SCALE);
+        state[LEFT_PADDLE_Y] = snapshot.getLeftPaddle().getTransform().y;
+        state[RIGHT_PADDLE_Y] = snapshot.getRightPaddle().getTransform().y;
+        state[LEFT_SCORE] = snapshot.getLeftSideScore();
+        state[RIGHT_SCORE] = snapshot.getRightSideScore();
+        return state;
+    }
+    /**
+     * Gets the value of a field of a quantised snapshot in its original
+     * units.
+     *
+     * @param state  the quantised snapshot
+     * @param field  the index of the field
+     * @return       the value
+     */
+    public static float dequantise(final int[] state, final int field) {
+        switch (field) {
+            case BALL_X:
+            case BALL_Y:
+                return state[field] / POSITION_SCALE;
+            case BALL_VELOCITY_X:
+            case BALL_VELOCITY_Y:
+                return state[field] / VELOCITY_SCALE;
+            default:
+                return state[field];
+        }
+    }
+    /**
+     * Creates the delta that turns a baseline into a state.
+     *
+     * @param baseline      the tick of the baseline, or {@link #NO_BASELINE}
+     * @param baselineState the quantised baseline, or <code>null</code> if
+     *                      there is no baseline
+     * @param state         the quantised state
+     * @return              the delta
+     */
+    public static SnapshotDelta between(final long baseline,
+            final int[] baselineState, final int[] state) {
+        final int[] from = baselineState == null ? ZEROS : baselineState;
+        final int[] amounts = new int[FIELD_COUNT];
+        int changeMask = 0;
+        int count = 0;
+        for (int i = 0; i < FIELD_COUNT; i++) {
+            if (state[i] != from[i]) {
+                changeMask |= 1 << i;
+                amounts[count++] = state[i] - from[i];
+            }
+        }
+        return new SnapshotDelta(baselineState == null ? NO_BASELINE
+                : baseline, changeMask, Arrays.copyOf(amounts, count));
+    }
+    /**
+     * Applies the delta to its baseline.
+     *
+     * @param baselineState  the quantised baseline, or <code>null</code> if
+     *                       the delta has no baseline
+     * @return               the quantised state
+     *
+     * @throws IllegalArgumentException  if the delta has a baseline and none
+     *                                   was given
+     */
+    public int[] apply(final int[] baselineState) {
+        if (baselineState == null && baselineTick != NO_BASELINE) {
+            throw new IllegalArgumentException(
+                    "Delta needs the baseline of tick " + baselineTick);
+        }
+        final int[] state = baselineState == null
+                ? new int[FIELD_COUNT] : baselineState.clone();
+        for (int i = 0, count = 0; i < FIELD_COUNT; i++) {
+            if ((mask & 1 << i) != 0) {
+                state[i] += changes[count++];
+            }
+        }
+        return state;
+    }
+    /**
+     * Gets the tick of the baseline.
+     *
+     * @return  the tick, or {@link #NO_BASELINE} if there is none
+     */
+    public long getBaselineTick() {
+        return baselineTick;
+    }
+    /**
+     * Gets whether the delta has a baseline.
+     *
+     * @return  <code>true</code> if it has a baseline;
+     *          <code>false</code> if it holds the whole snapshot
+     */
+    public boolean hasBaseline() {
+        return baselineTick != NO_BASELINE;
+    }
+    /**
+     * Gets the mask of the fields that changed, a bit per field.
+     *
+     * @return  the mask
+     */
+    public int getMask() {
+        return mask;
+    }
+    /**
+     * Gets how much each field in the mask changed by, in order.
+     *
+     * @return  a copy of the amounts
+     */
+    public int[] getChanges() {
+        return changes.clone();
+    }
+    @Override
+    public String toString() {
+        return "SnapshotDelta [baselineTick=" + baselineTick + ", mask="
+                + Integer.toBinaryString(mask) + ", changes="
+                + Arrays.toString(changes) + "]";
+    }
+}
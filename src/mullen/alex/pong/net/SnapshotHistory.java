@@ -0,0 +1,76 @@
+package mullen.alex.pong.net;
+
+import java.util.Arrays;
+
+/**
+ * Holds the quantised snapshots of the last {@value #CAPACITY} ticks, so
+ * that a {@link SnapshotDelta} can be taken against, or applied to, any
+ * snapshot of those ticks.
+ * <p>
+ * The server keeps one for each client holding the snapshots it sent, and
+ * the client one holding the snapshots it received. A snapshot is held in
+ * the slot of its tick, so it is replaced by that of a tick
+ * {@value #CAPACITY} ticks later.
+ * <p>
+ * <b>Make sure this is only used within a single thread.</b>
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class SnapshotHistory {
+    /** The number of ticks of snapshots held, which is a power of two. */
+    public static final int CAPACITY = 128;
+    /** Holds the mask that turns a tick into a slot index. */
+    private static final int MASK = CAPACITY - 1;
+    /** Holds the tick of the snapshot in each slot, if any. */
+    private final long[] ticks;
+    /** Holds the quantised snapshot in each slot. */
+    private final int[][] states;
+    /** Holds the newest tick put, or {@link SnapshotDelta#NO_BASELINE}. */
+    private long newestTick;
+    /**
+     * Creates a new empty history.
+     */
+    public SnapshotHistory() {
+        ticks = new long[CAPACITY];
+        Arrays.fill(ticks, SnapshotDelta.NO_BASELINE);
+        states = new int[CAPACITY][];
+        newestTick = SnapshotDelta.NO_BASELINE;
+    }
+    /**
+     * Holds the quantised snapshot of the specified tick.
+     *
+     * @param tick   the tick
+     * @param state  the quantised snapshot, which must not be modified
+     *               afterwards
+     */
+    public void put(final long tick, final int[] state) {
+        final int index = (int) tick & MASK;
+        ticks[index] = tick;
+        states[index] = state;
+        newestTick = Math.max(newestTick, tick);
+    }
+    /**
+     * Gets the quantised snapshot of the specified tick.
+     *
+     * @param tick  the tick
+     * @return      the quantised snapshot, or <code>null</code> if none is
+     *              held for the tick
+     */
+    public int[] get(final long tick) {
+        if (tick < 0) {
+            return null;
+        }
+        final int index = (int) tick & MASK;
+        return ticks[index] == tick ? states[index] : null;
+    }
+    /**
+     * Gets the newest tick a snapshot was held for.
+     *
+     * @return  the tick, or {@link SnapshotDelta#NO_BASELINE} if none has
+     *          been
+     */
+    public long getNewestTick() {
+        return newestTick;
+    }
+}
@@ -48,8 +48,9 @@ public class SocketConnectionListener implements StreamConnectionListener {
         handler = Objects.requireNonNull(serverHandler);
         socketConfigurer = Objects.requireNonNull(configureOperation);
         listenerSocket = new ServerSocket(port, SOCKET_BACKLOG_LENGTH);
-        acceptThread = new Thread(this::acceptConnectionsThread,
-                "SocketConnectionListener::acceptConnectionsThread");
+        acceptThread = ConnectionThreads.newThread(
+                "SocketConnectionListener::acceptConnectionsThread",
+                this::acceptConnectionsThread);
     }
     @Override
     public final void start() {
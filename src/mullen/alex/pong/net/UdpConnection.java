@@ -0,0 +1,801 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.UnknownHostException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link DatagramConnection} to a single peer over UDP, sharing the socket
+ * of the {@link UdpEndpoint} that created it.
+ * <p>
+ * Every packet starts with a header holding its sequence number, the
+ * sequence number of the newest packet received from the peer and a
+ * bitfield of which of the {@value #ACK_BITS} packets before that were
+ * received too, so each packet acknowledges many. Messages on the reliable
+ * channel are numbered and sent again in later packets until a packet
+ * carrying them is acknowledged, waiting twice the smoothed round trip time
+ * between attempts, and are delivered in the order they were numbered.
+ * Messages on the unreliable channel are sent once and are discarded if the
+ * packet carrying them arrives after a newer one.
+ * <p>
+ * A packet is sent each time the connection is flushed. Every
+ * {@value #SERVICE_INTERVAL_MILLIS} milliseconds the endpoint also has the
+ * connection send reliable messages that are due again, acknowledge any
+ * reliable message it has received since it last sent a packet, and send an
+ * empty packet if it has sent nothing for a while, so the peer knows it is
+ * still there. A connection that hears nothing from its peer for
+ * {@value #TIMEOUT_SECONDS} seconds is closed.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class UdpConnection implements DatagramConnection {
+    /** The most bytes a packet can take up, which avoids fragmentation. */
+    public static final int MAX_PACKET_BYTES = 1200;
+    /** The number of packets before the newest acknowledged in a packet. */
+    public static final int ACK_BITS = Integer.SIZE;
+    /** The milliseconds between each time connections are serviced. */
+    static final long SERVICE_INTERVAL_MILLIS = 10;
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(UdpConnection.class.getName());
+    /** The value every packet starts with. */
+    private static final short MAGIC = 0x5047;
+    /** The bytes the header of a packet takes up. */
+    private static final int HEADER_BYTES = 11;
+    /** The bytes the header of an unreliable message takes up. */
+    private static final int UNRELIABLE_HEADER_BYTES = 3;
+    /** The bytes the header of a reliable message takes up. */
+    private static final int RELIABLE_HEADER_BYTES = 5;
+    /** The most bytes a message can take up. */
+    public static final int MAX_MESSAGE_BYTES =
+            MAX_PACKET_BYTES - HEADER_BYTES - RELIABLE_HEADER_BYTES;
+    /** The flag within the header saying the peer has closed. */
+    private static final int DISCONNECT_FLAG = 0x01;
+    /** The flag within the header saying acknowledgements follow. */
+    private static final int ACK_FLAG = 0x02;
+    /** The number of times a disconnect is sent, in case some are lost. */
+    private static final int DISCONNECT_REPEATS = 3;
+    /** The mask keeping sequence numbers and message ids to 16 bits. */
+    private static final int SEQUENCE_MASK = 0xFFFF;
+    /** The number of packets sent and received that are remembered. */
+    private static final int PACKET_WINDOW = 256;
+    /** The most reliable messages that can be waiting to be acknowledged. */
+    private static final int RELIABLE_WINDOW = 1024;
+    /** The seconds after which a silent peer is given up on. */
+    private static final long TIMEOUT_SECONDS = 10;
+    /** The nanoseconds after which a silent peer is given up on. */
+    private static final long TIMEOUT_NANOS =
+            TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    /** The nanoseconds without sending after which a packet is sent. */
+    private static final long KEEPALIVE_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(250);
+    /** The round trip time assumed before one has been measured. */
+    private static final long INITIAL_ROUND_TRIP_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(100);
+    /** The fewest nanoseconds before a reliable message is sent again. */
+    private static final long MIN_RESEND_NANOS =
+            TimeUnit.MILLISECONDS.toNanos(20);
+    /** The most nanoseconds before a reliable message is sent again. */
+    private static final long MAX_RESEND_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** The channels indexed by their ordinal. */
+    private static final Channel[] CHANNELS = Channel.values();
+    /** Holds the endpoint whose socket this shares. */
+    private final UdpEndpoint endpoint;
+    /** Holds the address of the peer. */
+    private final SocketAddress remoteAddress;
+    /** Holds the buffer packets are written into. */
+    private final ByteBuffer packet;
+    /** Holds the packets sent, indexed by sequence number. */
+    private final SentPacket[] sentPackets;
+    /** Holds the sequence numbers received, indexed by sequence number. */
+    private final int[] receivedSequences;
+    /** Holds the reliable messages not yet acknowledged, indexed by id. */
+    private final ReliableMessage[] reliableOut;
+    /** Holds reliable messages received ahead of their turn, by id. */
+    private final byte[][] reliableIn;
+    /** Holds the unreliable messages queued since the last flush. */
+    private final List<byte[]> unreliableOut;
+    /** Holds the receiver, once receiving has started. */
+    private volatile Receiver receiver;
+    /** Holds the sequence number of the next packet sent. */
+    private int localSequence;
+    /** Holds the newest sequence number received, or -1 before any. */
+    private int remoteSequence;
+    /** Holds the id of the next reliable message queued. */
+    private int nextSendId;
+    /** Holds the id of the oldest reliable message not acknowledged. */
+    private int oldestUnackedId;
+    /** Holds the id of the next reliable message to deliver. */
+    private int nextReceiveId;
+    /** Holds the bytes of reliable messages not acknowledged. */
+    private long unackedBytes;
+    /** Holds whether a received reliable message is unacknowledged. */
+    private boolean ackOwed;
+    /** Holds whether the peer stopped acknowledging reliable messages. */
+    private boolean overflowed;
+    /** Holds whether the connection has been closed. */
+    private boolean closed;
+    /** Holds the packet being written, if one is. */
+    private SentPacket openPacket;
+    /** Holds the smoothed round trip time. */
+    private long roundTripNanos;
+    /** Holds when a packet was last sent. */
+    private long lastSentNanos;
+    /** Holds when a packet was last received. */
+    private long lastReceivedNanos;
+    /** Holds the number of packets sent. */
+    private long packetsSent;
+    /** Holds the number of packets received. */
+    private long packetsReceived;
+    /** Holds the number of packets sent that were never acknowledged. */
+    private long packetsLost;
+    /** Holds the number of packets received more than once. */
+    private long duplicates;
+    /** Holds the number of times a reliable message was sent again. */
+    private long resends;
+    /** Holds the number of unreliable messages that arrived too late. */
+    private long stale;
+    /**
+     * Creates a new connection to the specified peer through the specified
+     * endpoint.
+     *
+     * @param udpEndpoint  the endpoint
+     * @param address      the address of the peer
+     */
+    UdpConnection(final UdpEndpoint udpEndpoint, final SocketAddress address) {
+        endpoint = Objects.requireNonNull(udpEndpoint);
+        remoteAddress = Objects.requireNonNull(address);
+        packet = ByteBuffer.allocate(MAX_PACKET_BYTES);
+        sentPackets = new SentPacket[PACKET_WINDOW];
+        for (int i = 0; i < sentPackets.length; i++) {
+            sentPackets[i] = new SentPacket();
+        }
+        receivedSequences = new int[PACKET_WINDOW];
+        Arrays.fill(receivedSequences, -1);
+        reliableOut = new ReliableMessage[RELIABLE_WINDOW];
+        reliableIn = new byte[RELIABLE_WINDOW][];
+        unreliableOut = new ArrayList<>();
+        remoteSequence = -1;
+        roundTripNanos = INITIAL_ROUND_TRIP_NANOS;
+        lastReceivedNanos = System.nanoTime();
+        lastSentNanos = lastReceivedNanos - KEEPALIVE_NANOS;
+    }
+    /**
+     * Creates a new connection to the server at the specified host and port,
+     * through a socket of its own.
+     *
+     * @param hostname  the remote host name or IP address
+     * @param port      the remote port
+     * @param link      the conditioner applied to every packet sent
+     * @return          the connection
+     *
+     * @throws UnknownHostException  if the IP address of the host could not be
+     *                               determined
+     * @throws IOException           if an I/O error occurs
+     */
+    @SuppressWarnings("resource")
+    public static UdpConnection connect(final String hostname, final int port,
+            final LinkConditioner link)
+                    throws UnknownHostException, IOException {
+        final InetSocketAddress address =
+                new InetSocketAddress(hostname, port);
+        if (address.isUnresolved()) {
+            throw new UnknownHostException(hostname);
+        }
+        final DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.connect(address);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+        final UdpEndpoint endpoint = new UdpEndpoint(channel, link, null);
+        final UdpConnection connection = endpoint.register(address);
+        endpoint.start();
+        return connection;
+    }
+    @Override
+    public void startReceiving(final Receiver packetReceiver) {
+        receiver = Objects.requireNonNull(packetReceiver);
+    }
+    @Override
+    public synchronized void send(final Channel channel,
+            final byte[] message) {
+        Objects.requireNonNull(channel);
+        if (message.length > MAX_MESSAGE_BYTES) {
+            throw new IllegalArgumentException("Message of " + message.length
+                    + " bytes is longer than " + MAX_MESSAGE_BYTES);
+        }
+        if (closed) {
+            return;
+        }
+        if (channel == Channel.UNRELIABLE) {
+            unreliableOut.add(message);
+        } else if (distance(nextSendId, oldestUnackedId) >= RELIABLE_WINDOW
+                - 1) {
+            overflowed = true;
+        } else {
+            reliableOut[nextSendId % RELIABLE_WINDOW] =
+                    new ReliableMessage(nextSendId, message);
+            unackedBytes += message.length;
+            nextSendId = nextSendId + 1 & SEQUENCE_MASK;
+        }
+    }
+    @Override
+    public void flush() {
+        if (isOverflowed()) {
+            LOG.warning("Closing " + this + " as its peer stopped"
+                    + " acknowledging reliable messages");
+            close();
+            return;
+        }
+        transmit(System.nanoTime(), false);
+    }
+    @Override
+    public void close() {
+        close(true);
+    }
+    /**
+     * Gets the address of the peer.
+     *
+     * @return  the address
+     */
+    public SocketAddress getRemoteAddress() {
+        return remoteAddress;
+    }
+    /**
+     * Gets the smoothed round trip time measured from acknowledgements.
+     *
+     * @return  the round trip time in nanoseconds
+     */
+    public synchronized long getRoundTripNanos() {
+        return roundTripNanos;
+    }
+    /**
+     * Gets the bytes of reliable messages the peer has not yet
+     * acknowledged.
+     *
+     * @return  the number of bytes
+     */
+    public synchronized long getUnackedBytes() {
+        return unackedBytes;
+    }
+    /**
+     * Gets how long ago the oldest reliable message the peer has not yet
+     * acknowledged was queued.
+     *
+     * @return  the age in nanoseconds, or zero if every message has been
+     *          acknowledged
+     */
+    public synchronized long getOldestUnackedAgeNanos() {
+        final ReliableMessage oldest =
+                reliableOut[oldestUnackedId % RELIABLE_WINDOW];
+        return oldest == null ? 0 : System.nanoTime() - oldest.queuedAt;
+    }
+    /**
+     * Gets the number of packets sent.
+     *
+     * @return  the number of packets
+     */
+    public synchronized long getPacketsSent() {
+        return packetsSent;
+    }
+    /**
+     * Gets the number of packets received, not counting duplicates.
+     *
+     * @return  the number of packets
+     */
+    public synchronized long getPacketsReceived() {
+        return packetsReceived;
+    }
+    /**
+     * Gets the number of packets sent that the peer never acknowledged,
+     * counted once {@value #PACKET_WINDOW} more have been sent.
+     *
+     * @return  the number of packets
+     */
+    public synchronized long getPacketsLost() {
+        return packetsLost;
+    }
+    /**
+     * Gets the number of times a reliable message was sent again.
+     *
+     * @return  the number of times
+     */
+    public synchronized long getResendCount() {
+        return resends;
+    }
+    /**
+     * Gets the number of unreliable messages discarded because they arrived
+     * after a newer packet.
+     *
+     * @return  the number of messages
+     */
+    public synchronized long getStaleCount() {
+        return stale;
+    }
+    @Override
+    public synchronized String toString() {
+        return "UdpConnection [remoteAddress=" + remoteAddress
+                + " rtt=" + TimeUnit.NANOSECONDS.toMillis(roundTripNanos)
+                + "ms sent=" + packetsSent
+                + " received=" + packetsReceived
+                + " lost=" + packetsLost
+                + " duplicates=" + duplicates
+                + " resends=" + resends
+                + " stale=" + stale
+                + " unackedBytes=" + unackedBytes + "]";
+    }
+    /**
+     * Determines whether a datagram looks like one of our packets.
+     *
+     * @param data  the datagram
+     * @return      <code>true</code> if it does; <code>false</code> if not
+     */
+    static boolean isPacket(final ByteBuffer data) {
+        return data.remaining() >= HEADER_BYTES
+                && data.getShort(data.position()) == MAGIC;
+    }
+    /**
+     * Determines whether a packet says its sender has closed.
+     *
+     * @param data  the packet
+     * @return      <code>true</code> if it does; <code>false</code> if not
+     */
+    static boolean isDisconnect(final ByteBuffer data) {
+        return (data.get(data.position() + 2) & DISCONNECT_FLAG) != 0;
+    }
+    /**
+     * Handles a packet received from the peer, delivering the messages it
+     * carries that are due.
+     * <p>
+     * <b>Make sure this is only executed by the endpoint's receive
+     * thread.</b>
+     *
+     * @param data  the packet, which is only valid until this returns
+     * @param now   the time it was received
+     */
+    void onPacket(final ByteBuffer data, final long now) {
+        final Receiver r = receiver;
+        if (r == null) {
+            // Not acknowledged, so the peer sends it again.
+            return;
+        }
+        final List<Object> deliveries = new ArrayList<>();
+        final boolean disconnect;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                disconnect = readPacket(data, now, deliveries);
+            } catch (final BufferUnderflowException
+                    | IllegalArgumentException e) {
+                LOG.log(Level.FINE, "Malformed packet from " + remoteAddress,
+                        e);
+                return;
+            }
+        }
+        for (int i = 0; i < deliveries.size(); i += 2) {
+            r.onReceived((Channel) deliveries.get(i),
+                    (ByteBuffer) deliveries.get(i + 1));
+        }
+        if (disconnect) {
+            close(false);
+        }
+    }
+    /**
+     * Sends whatever is due, closing the connection if the peer has been
+     * silent for too long.
+     * <p>
+     * <b>Make sure this is only executed by the endpoint's service
+     * thread.</b>
+     *
+     * @param now  the current time
+     */
+    void service(final long now) {
+        final boolean timedOut;
+        synchronized (this) {
+            timedOut = !closed && now - lastReceivedNanos > TIMEOUT_NANOS;
+        }
+        if (timedOut) {
+            LOG.info("Closing " + this + " as its peer went silent");
+            close(false);
+        } else {
+            transmit(now, true);
+        }
+    }
+    /**
+     * Closes the connection, telling the peer if asked to.
+     *
+     * @param notifyPeer  whether to tell the peer
+     */
+    private void close(final boolean notifyPeer) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (notifyPeer) {
+                final long now = System.nanoTime();
+                for (int i = 0; i < DISCONNECT_REPEATS; i++) {
+                    beginPacket(DISCONNECT_FLAG);
+                    finishPacket(now);
+                }
+            }
+            closed = true;
+        }
+        endpoint.unregister(this);
+        final Receiver r = receiver;
+        if (r != null) {
+            r.onClosed();
+        }
+    }
+    /**
+     * Gets whether the peer stopped acknowledging reliable messages.
+     *
+     * @return  <code>true</code> if it did; <code>false</code> if not
+     */
+    private synchronized boolean isOverflowed() {
+        return overflowed;
+    }
+    /**
+     * Sends the reliable messages that are due and the unreliable messages
+     * queued, packed into as few packets as they fit in. When servicing,
+     * messages queued since the last flush are left for the next flush, so
+     * that they go out together at the rate the connection is flushed.
+     *
+     * @param now      the current time
+     * @param service  whether this is the service thread, which only sends
+     *                 messages due again and sends a packet if one is owed
+     *                 even though there is nothing to send
+     */
+    private synchronized void transmit(final long now, final boolean service) {
+        if (closed) {
+            return;
+        }
+        final long resendNanos = Math.max(MIN_RESEND_NANOS,
+                Math.min(MAX_RESEND_NANOS, roundTripNanos * 2));
+        for (int id = oldestUnackedId; id != nextSendId;
+                id = id + 1 & SEQUENCE_MASK) {
+            final ReliableMessage message = reliableOut[id % RELIABLE_WINDOW];
+            if (message == null || !message.sent && service
+                    || message.sent && now - message.sentAt < resendNanos) {
+                continue;
+            }
+            reserve(RELIABLE_HEADER_BYTES + message.data.length, now);
+            packet.put((byte) Channel.RELIABLE.ordinal());
+            packet.putShort((short) id);
+            packet.putShort((short) message.data.length);
+            packet.put(message.data);
+            openPacket.addMessage(id);
+            if (message.sent) {
+                resends++;
+            }
+            message.sent = true;
+            message.sentAt = now;
+        }
+        if (!service) {
+            for (final byte[] message : unreliableOut) {
+                reserve(UNRELIABLE_HEADER_BYTES + message.length, now);
+                packet.put((byte) Channel.UNRELIABLE.ordinal());
+                packet.putShort((short) message.length);
+                packet.put(message);
+            }
+            unreliableOut.clear();
+        }
+        if (openPacket == null && service
+                && (ackOwed || now - lastSentNanos >= KEEPALIVE_NANOS)) {
+            beginPacket(0);
+        }
+        if (openPacket != null) {
+            finishPacket(now);
+        }
+    }
+    /**
+     * Makes sure the packet being written has room for the specified number
+     * of bytes, sending it and beginning another if it does not.
+     *
+     * @param bytes  the number of bytes
+     * @param now    the current time
+     */
+    private void reserve(final int bytes, final long now) {
+        if (openPacket != null && packet.remaining() < bytes) {
+            finishPacket(now);
+        }
+        if (openPacket == null) {
+            beginPacket(0);
+        }
+    }
+    /**
+     * Begins writing a packet, headed with the latest acknowledgements.
+     *
+     * @param flags  the flags of the packet
+     */
+    private void beginPacket(final int flags) {
+        openPacket = sentPackets[localSequence % PACKET_WINDOW];
+        if (openPacket.sequence >= 0 && !openPacket.acked) {
+            packetsLost++;
+        }
+        openPacket.reset(localSequence);
+        int ackBits = 0;
+        if (remoteSequence >= 0) {
+            for (int i = 0; i < ACK_BITS; i++) {
+                final int sequence = remoteSequence - 1 - i & SEQUENCE_MASK;
+                if (receivedSequences[sequence % PACKET_WINDOW] == sequence) {
+                    ackBits |= 1 << i;
+                }
+            }
+        }
+        packet.clear();
+        packet.putShort(MAGIC);
+        packet.put((byte) (remoteSequence >= 0 ? flags | ACK_FLAG : flags));
+        packet.putShort((short) localSequence);
+        packet.putShort((short) Math.max(0, remoteSequence));
+        packet.putInt(ackBits);
+    }
+    /**
+     * Sends the packet being written.
+     *
+     * @param now  the current time
+     */
+    private void finishPacket(final long now) {
+        openPacket.sentAt = now;
+        openPacket = null;
+        packet.flip();
+        endpoint.transmit(packet, remoteAddress);
+        localSequence = localSequence + 1 & SEQUENCE_MASK;
+        packetsSent++;
+        lastSentNanos = now;
+        ackOwed = false;
+    }
+    /**
+     * Reads a packet, collecting the messages it carries that are due in
+     * pairs of channel and message.
+     *
+     * @param data        the packet
+     * @param now         the time it was received
+     * @param deliveries  the list the messages due are added to
+     * @return            <code>true</code> if the peer has closed;
+     *                    <code>false</code> if not
+     */
+    private boolean readPacket(final ByteBuffer data, final long now,
+            final List<Object> deliveries) {
+        data.getShort();
+        final int flags = data.get();
+        final int sequence = data.getShort() & SEQUENCE_MASK;
+        final int ack = data.getShort() & SEQUENCE_MASK;
+        final int ackBits = data.getInt();
+        final boolean newest = remoteSequence < 0
+                || isNewer(sequence, remoteSequence);
+        if (!newest && (distance(remoteSequence, sequence) >= PACKET_WINDOW
+                || receivedSequences[sequence % PACKET_WINDOW] == sequence)) {
+            duplicates++;
+            return false;
+        }
+        if (newest) {
+            if (remoteSequence >= 0) {
+                // Forget what was held where the packets skipped over go.
+                final int skipped = Math.min(PACKET_WINDOW,
+                        distance(sequence, remoteSequence)) - 1;
+                for (int i = 1; i <= skipped; i++) {
+                    receivedSequences[(sequence - i & SEQUENCE_MASK)
+                            % PACKET_WINDOW] = -1;
+                }
+            }
+            remoteSequence = sequence;
+        }
+        receivedSequences[sequence % PACKET_WINDOW] = sequence;
+        packetsReceived++;
+        lastReceivedNanos = now;
+        if ((flags & ACK_FLAG) != 0) {
+            readAcks(ack, ackBits, now);
+        }
+        if ((flags & DISCONNECT_FLAG) != 0) {
+            return true;
+        }
+        while (data.hasRemaining()) {
+            final int channelOrdinal = data.get();
+            if (channelOrdinal < 0 || channelOrdinal >= CHANNELS.length) {
+                throw new IllegalArgumentException(
+                        "Unknown channel: " + channelOrdinal);
+            }
+            if (CHANNELS[channelOrdinal] == Channel.RELIABLE) {
+                readReliable(data, deliveries);
+            } else {
+                final ByteBuffer message = slice(data);
+                if (newest) {
+                    deliveries.add(Channel.UNRELIABLE);
+                    deliveries.add(message);
+                } else {
+                    stale++;
+                }
+            }
+        }
+        return false;
+    }
+    /**
+     * Reads a reliable message, collecting it and any held back behind it if
+     * it is the one due next.
+     *
+     * @param data        the packet positioned at the message id
+     * @param deliveries  the list the messages due are added to
+     */
+    private void readReliable(final ByteBuffer data,
+            final List<Object> deliveries) {
+        final int id = data.getShort() & SEQUENCE_MASK;
+        final ByteBuffer message = slice(data);
+        ackOwed = true;
+        if (distance(id, nextReceiveId) >= RELIABLE_WINDOW) {
+            // Already delivered.
+            return;
+        }
+        if (reliableIn[id % RELIABLE_WINDOW] == null) {
+            final byte[] copy = new byte[message.remaining()];
+            message.get(copy);
+            reliableIn[id % RELIABLE_WINDOW] = copy;
+        }
+        byte[] due;
+        while ((due = reliableIn[nextReceiveId % RELIABLE_WINDOW]) != null) {
+            reliableIn[nextReceiveId % RELIABLE_WINDOW] = null;
+            nextReceiveId = nextReceiveId + 1 & SEQUENCE_MASK;
+            deliveries.add(Channel.RELIABLE);
+            deliveries.add(ByteBuffer.wrap(due));
+        }
+    }
+    /**
+     * Marks the packets acknowledged by the peer, along with the reliable
+     * messages they carried, and measures the round trip time from them.
+     *
+     * @param ack      the newest sequence number the peer received
+     * @param ackBits  which of the packets before that it received
+     * @param now      the current time
+     */
+    private void readAcks(final int ack, final int ackBits, final long now) {
+        for (int i = -1; i < ACK_BITS; i++) {
+            if (i >= 0 && (ackBits & 1 << i) == 0) {
+                continue;
+            }
+            final int sequence = ack - 1 - i & SEQUENCE_MASK;
+            final SentPacket sent = sentPackets[sequence % PACKET_WINDOW];
+            if (sent.sequence != sequence || sent.acked) {
+                continue;
+            }
+            sent.acked = true;
+            if (sent.messageCount > 0) {
+                // Only reliable messages are acknowledged without delay.
+                roundTripNanos += (now - sent.sentAt - roundTripNanos) / 8;
+            }
+            for (int m = 0; m < sent.messageCount; m++) {
+                final int id = sent.messageIds[m];
+                final ReliableMessage message =
+                        reliableOut[id % RELIABLE_WINDOW];
+                if (message != null && message.id == id) {
+                    reliableOut[id % RELIABLE_WINDOW] = null;
+                    unackedBytes -= message.data.length;
+                }
+            }
+        }
+        while (oldestUnackedId != nextSendId
+                && reliableOut[oldestUnackedId % RELIABLE_WINDOW] == null) {
+            oldestUnackedId = oldestUnackedId + 1 & SEQUENCE_MASK;
+        }
+    }
+    /**
+     * Reads the length of a message and slices the message out of a packet.
+     *
+     * @param data  the packet positioned at the length
+     * @return      the message
+     */
+    private static ByteBuffer slice(final ByteBuffer data) {
+        final int length = data.getShort() & SEQUENCE_MASK;
+        if (length > data.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        final ByteBuffer message = data.slice();
+        message.limit(length);
+        data.position(data.position() + length);
+        return message;
+    }
+    /**
+     * Determines whether one sequence number is newer than another, allowing
+     * for them wrapping around.
+     *
+     * @param a  the sequence number
+     * @param b  the sequence number to compare with
+     * @return   <code>true</code> if <code>a</code> is newer;
+     *           <code>false</code> if not
+     */
+    private static boolean isNewer(final int a, final int b) {
+        final int d = distance(a, b);
+        return d != 0 && d <= SEQUENCE_MASK / 2;
+    }
+    /**
+     * Gets how far one sequence number is ahead of another, allowing for
+     * them wrapping around.
+     *
+     * @param newer  the sequence number ahead
+     * @param older  the sequence number behind
+     * @return       the distance
+     */
+    private static int distance(final int newer, final int older) {
+        return newer - older & SEQUENCE_MASK;
+    }
+    /**
+     * Holds what is remembered about a packet sent.
+     *
+     * @author  Alex Mullen
+     */
+    private static final class SentPacket {
+        /** Holds the sequence number, or -1 before any packet is sent. */
+        int sequence = -1;
+        /** Holds when the packet was sent. */
+        long sentAt;
+        /** Holds whether the peer acknowledged the packet. */
+        boolean acked;
+        /** Holds the ids of the reliable messages the packet carried. */
+        int[] messageIds = new int[8];
+        /** Holds the number of reliable messages the packet carried. */
+        int messageCount;
+        /**
+         * Reuses this for a new packet.
+         *
+         * @param packetSequence  the sequence number of the new packet
+         */
+        void reset(final int packetSequence) {
+            sequence = packetSequence;
+            acked = false;
+            messageCount = 0;
+        }
+        /**
+         * Records a reliable message the packet carries.
+         *
+         * @param id  the message id
+         */
+        void addMessage(final int id) {
+            if (messageCount == messageIds.length) {
+                messageIds = Arrays.copyOf(messageIds, messageCount * 2);
+            }
+            messageIds[messageCount++] = id;
+        }
+    }
+    /**
+     * Holds a reliable message waiting to be acknowledged.
+     *
+     * @author  Alex Mullen
+     */
+    private static final class ReliableMessage {
+        /** Holds the message id. */
+        final int id;
+        /** Holds the message. */
+        final byte[] data;
+        /** Holds when the message was queued. */
+        final long queuedAt;
+        /** Holds whether the message has been sent. */
+        boolean sent;
+        /** Holds when the message was last sent. */
+        long sentAt;
+        /**
+         * Creates a new instance.
+         *
+         * @param messageId  the message id
+         * @param message    the message
+         */
+        ReliableMessage(final int messageId, final byte[] message) {
+            id = messageId;
+            data = message;
+            queuedAt = System.nanoTime();
+        }
+    }
+}
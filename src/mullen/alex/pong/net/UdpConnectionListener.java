@@ -0,0 +1,121 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.DatagramChannel;
+import java.util.Objects;
+
+/**
+ * A server for accepting peers that send packets to a UDP port, each of which
+ * is wrapped into a {@link UdpConnection}.
+ * <p>
+ * There is no handshake: the first packet from a new address creates its
+ * connection.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class UdpConnectionListener implements DatagramConnectionListener {
+    /** The endpoint owning the socket. */
+    private final UdpEndpoint endpoint;
+    /** A status variable to indicate if this is listener is shutdown. */
+    private volatile boolean shutdown;
+    /**
+     * Instantiates a new instance that will be bound to the specified port
+     * number and passes every packet it sends through the given conditioner.
+     *
+     * @param port           the local port number be bound to
+     * @param link           the conditioner applied to every packet sent
+     * @param serverHandler  the handler
+     *
+     * @throws IOException   if an I/O error occurs whilst binding the socket
+     */
+    @SuppressWarnings("resource")
+    public UdpConnectionListener(final int port, final LinkConditioner link,
+            final Handler serverHandler) throws IOException {
+        Objects.requireNonNull(serverHandler);
+        final DatagramChannel channel = DatagramChannel.open();
+        try {
+            channel.bind(new InetSocketAddress(port));
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+        endpoint = new UdpEndpoint(channel, link, serverHandler);
+    }
+    @Override
+    public final void start() {
+        if (shutdown) {
+            throw new IllegalStateException("Listener is shutdown");
+        }
+        endpoint.start();
+    }
+    /**
+     * Shuts down this listener, which closes every connection it accepted
+     * since they share its socket.
+     */
+    @Override
+    public final void shutdown() {
+        shutdown = true;
+        endpoint.close();
+    }
+    /**
+     * Gets the number of packets the conditioner dropped.
+     *
+     * @return  the number of packets
+     */
+    public final long getDroppedCount() {
+        return endpoint.getDroppedCount();
+    }
+    /**
+     * A builder class that builds instances of this.
+     *
+     * @author  Alex Mullen
+     */
+    public static final class Builder implements
+            DatagramConnectionListener.Builder {
+        /** The highest value the port number for the listener can be. */
+        private static final int MAX_VALID_PORT = 65535;
+        /** The local port number for the listener to be bound to. */
+        private final int port;
+        /** The conditioner applied to every packet sent. */
+        private final LinkConditioner conditioner;
+        /**
+         * Creates a new instance for constructing a listener that will be bound
+         * to the specified port.
+         *
+         * @param listenPort                 the local port number
+         * @throws IllegalArgumentException  if the port parameter is outside
+         *                                   the specified range of valid port
+         *                                   values, which is between 0 and
+         *                                   65535, inclusive
+         */
+        public Builder(final int listenPort) {
+            this(listenPort, LinkConditioner.NONE);
+        }
+        /**
+         * Creates a new instance for constructing a listener that will be bound
+         * to the specified port and pass every packet it sends through the
+         * given conditioner.
+         *
+         * @param listenPort                 the local port number
+         * @param link                       the conditioner
+         * @throws IllegalArgumentException  if the port parameter is outside
+         *                                   the specified range of valid port
+         *                                   values, which is between 0 and
+         *                                   65535, inclusive
+         */
+        public Builder(final int listenPort, final LinkConditioner link) {
+            if (listenPort < 0 || listenPort > MAX_VALID_PORT) {
+                throw new IllegalArgumentException();
+            }
+            port = listenPort;
+            conditioner = Objects.requireNonNull(link);
+        }
+        @Override
+        public DatagramConnectionListener build(final Handler h)
+                throws IOException {
+            return new UdpConnectionListener(port, conditioner, h);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package mullen.alex.pong.net;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Owns a UDP socket and the {@link UdpConnection}s that share it, one per
+ * peer.
+ * <p>
+ * A receive thread hands each packet to the connection of the peer that sent
+ * it. Packets from an unknown peer create a new connection if the endpoint
+ * has a handler to announce it to, and are ignored otherwise. A service
+ * thread has every connection send whatever is due every
+ * {@value UdpConnection#SERVICE_INTERVAL_MILLIS} milliseconds. Packets sent
+ * pass through a {@link LinkConditioner}, which may drop them or hand them
+ * to a delay thread to be sent later.
+ * <p>
+ * An endpoint without a handler belongs to a single client connection and
+ * is closed along with it.
+ *
+ * @author  Alex Mullen
+ *
+ */
+final class UdpEndpoint {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(UdpEndpoint.class.getName());
+    /** Holds the socket. */
+    private final DatagramChannel channel;
+    /** Holds the conditioner applied to packets sent. */
+    private final LinkConditioner conditioner;
+    /** Holds the handler of new connections, if new peers are accepted. */
+    private final DatagramConnectionListener.Handler handler;
+    /** Holds the connections by the address of their peer. */
+    private final Map<SocketAddress, UdpConnection> connections;
+    /** Holds the thread that receives packets. */
+    private final Thread receiveThread;
+    /** Holds the thread that services the connections. */
+    private final Thread serviceThread;
+    /** Holds the executor sending delayed packets, if any are delayed. */
+    private final ScheduledExecutorService delayer;
+    /** Holds the number of packets the conditioner dropped. */
+    private final AtomicLong dropped;
+    /** Holds whether the endpoint has been closed. */
+    private volatile boolean closed;
+    /**
+     * Creates a new endpoint around the specified socket.
+     *
+     * @param datagramChannel  the socket, which must be bound or connected
+     * @param link             the conditioner applied to packets sent
+     * @param newConnHandler   the handler to announce connections from new
+     *                         peers to, or <code>null</code> to ignore new
+     *                         peers
+     */
+    UdpEndpoint(final DatagramChannel datagramChannel,
+            final LinkConditioner link,
+            final DatagramConnectionListener.Handler newConnHandler) {
+        channel = Objects.requireNonNull(datagramChannel);
+        conditioner = Objects.requireNonNull(link);
+        handler = newConnHandler;
+        connections = new ConcurrentHashMap<>();
+        dropped = new AtomicLong();
+        receiveThread = ConnectionThreads.newThread(
+                "UdpEndpoint::receiveThread", this::receiveThreadBody);
+        serviceThread = ConnectionThreads.newThread(
+                "UdpEndpoint::serviceThread", this::serviceThreadBody);
+        delayer = conditioner.delays()
+                ? Executors.newSingleThreadScheduledExecutor(r ->
+                        ConnectionThreads.newThread(
+                                "UdpEndpoint::delayThread", r))
+                : null;
+    }
+    /**
+     * Starts receiving packets and servicing connections.
+     */
+    void start() {
+        receiveThread.start();
+        serviceThread.start();
+    }
+    /**
+     * Creates and registers a connection to the specified peer.
+     *
+     * @param address  the address of the peer
+     * @return         the connection
+     */
+    UdpConnection register(final SocketAddress address) {
+        final UdpConnection connection = new UdpConnection(this, address);
+        connections.put(address, connection);
+        return connection;
+    }
+    /**
+     * Unregisters a connection that has closed, closing the endpoint if it
+     * belonged to that connection alone.
+     *
+     * @param connection  the connection
+     */
+    void unregister(final UdpConnection connection) {
+        connections.remove(connection.getRemoteAddress(), connection);
+        if (handler == null && connections.isEmpty()) {
+            close();
+        }
+    }
+    /**
+     * Sends a packet to the specified peer through the conditioner.
+     *
+     * @param packet   the packet, which may be reused once this returns
+     * @param address  the address of the peer
+     */
+    void transmit(final ByteBuffer packet, final SocketAddress address) {
+        if (conditioner.dropsNext()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        final long delay = delayer == null ? 0 : conditioner.nextDelayMillis();
+        if (delay == 0) {
+            sendNow(packet, address);
+            return;
+        }
+        final ByteBuffer copy = ByteBuffer.allocate(packet.remaining());
+        copy.put(packet).flip();
+        try {
+            delayer.schedule(() -> sendNow(copy, address), delay,
+                    TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            // Closed whilst the packet was on its way out.
+        }
+    }
+    /**
+     * Gets the number of packets the conditioner dropped.
+     *
+     * @return  the number of packets
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+    /**
+     * Closes every connection and then the socket.
+     */
+    void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        for (final UdpConnection connection
+                : new ArrayList<>(connections.values())) {
+            connection.close();
+        }
+        if (delayer != null) {
+            delayer.shutdown();
+            try {
+                delayer.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        serviceThread.interrupt();
+    }
+    /**
+     * Sends a packet straight away.
+     *
+     * @param packet   the packet
+     * @param address  the address of the peer
+     */
+    private void sendNow(final ByteBuffer packet,
+            final SocketAddress address) {
+        try {
+            channel.send(packet, address);
+        } catch (final ClosedChannelException e) {
+            // Closed whilst the packet was on its way out.
+        } catch (final IOException e) {
+            LOG.log(Level.FINE, e.getMessage(), e);
+        }
+    }
+    /**
+     * The code for the receive thread.
+     */
+    private void receiveThreadBody() {
+        final ByteBuffer buffer =
+                ByteBuffer.allocate(UdpConnection.MAX_PACKET_BYTES);
+        while (!closed) {
+            final SocketAddress address;
+            buffer.clear();
+            try {
+                address = channel.receive(buffer);
+            } catch (final ClosedChannelException e) {
+                break;
+            } catch (final IOException e) {
+                // Such as the peer of a connected socket being unreachable.
+                LOG.log(Level.FINE, e.getMessage(), e);
+                continue;
+            }
+            buffer.flip();
+            if (address == null || !UdpConnection.isPacket(buffer)) {
+                continue;
+            }
+            UdpConnection connection = connections.get(address);
+            if (connection == null) {
+                if (handler == null || UdpConnection.isDisconnect(buffer)) {
+                    continue;
+                }
+                connection = register(address);
+                handler.onNewConnection(connection);
+            }
+            connection.onPacket(buffer, System.nanoTime());
+        }
+    }
+    /**
+     * The code for the service thread.
+     */
+    private void serviceThreadBody() {
+        while (!closed) {
+            try {
+                Thread.sleep(UdpConnection.SERVICE_INTERVAL_MILLIS);
+            } catch (final InterruptedException e) {
+                break;
+            }
+            final long now = System.nanoTime();
+            for (final UdpConnection connection : connections.values()) {
+                connection.service(now);
+            }
+        }
+    }
+}
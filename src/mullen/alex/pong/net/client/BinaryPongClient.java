@@ -0,0 +1,102 @@
+package mullen.alex.pong.net.client;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mullen.alex.pong.net.BinaryFrameCodec;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.StreamConnection;
+
+/**
+ * A {@link PongClient} implementation that communicates across a
+ * {@link StreamConnection} using the compact binary protocol of
+ * {@link BinaryFrameCodec}, each frame being preceded by its length.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class BinaryPongClient implements PongClient {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(BinaryPongClient.class.getName());
+    /** The codec shared by every client. */
+    private static final BinaryFrameCodec CODEC = new BinaryFrameCodec();
+    /** The connection. */
+    private final StreamConnection connection;
+    /** The stream frames are read from. */
+    private final DataInputStream in;
+    /** The stream frames are written to. */
+    private final OutputStream out;
+    /** The buffer received frames are read into. */
+    private final byte[] recvBuffer;
+    /** The buffer frames are encoded into before being sent. */
+    private final ByteBuffer sendBuffer;
+    /**
+     * Creates a new instance that communicates across the specified
+     * connection.
+     *
+     * @param streamConnection  the connection
+     *
+     * @throws IOException      if an exception occurs acquiring the streams
+     */
+    public BinaryPongClient(final StreamConnection streamConnection)
+            throws IOException {
+        connection = Objects.requireNonNull(streamConnection);
+        in = new DataInputStream(
+                new BufferedInputStream(connection.getInputStream()));
+        out = new BufferedOutputStream(connection.getOutputStream());
+        recvBuffer = new byte[BinaryFrameCodec.MAX_FRAME_LENGTH];
+        sendBuffer = ByteBuffer.allocate(BinaryFrameCodec.MAX_LENGTH_BYTES
+                + BinaryFrameCodec.MAX_FRAME_LENGTH);
+    }
+    @Override
+    public final PongFrame recvFrameFromServer() {
+        try {
+            final int length = BinaryFrameCodec.readLength(in);
+            if (length < 0) {
+                return null;
+            }
+            in.readFully(recvBuffer, 0, length);
+            return CODEC.decode(ByteBuffer.wrap(recvBuffer, 0, length));
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            return null;
+        }
+    }
+    @Override
+    public final synchronized void sendFrameToServer(final PongFrame frame) {
+        sendBuffer.clear();
+        final int start = CODEC.encodeWithLength(frame, sendBuffer);
+        try {
+            out.write(sendBuffer.array(), start, sendBuffer.position() - start);
+            out.flush();
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+    @Override
+    public final void close() {
+        try {
+            out.close();
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        try {
+            in.close();
+        } catch (final IOException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        connection.close();
+    }
+    @Override
+    public final String toString() {
+        return "BinaryPongClient [connection=" + connection + "]";
+    }
+}
@@ -0,0 +1,110 @@
+package mullen.alex.pong.net.client;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mullen.alex.pong.net.BinaryFrameCodec;
+import mullen.alex.pong.net.DatagramConnection;
+import mullen.alex.pong.net.DatagramConnection.Channel;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
+
+/**
+ * A {@link PongClient} implementation that communicates across a
+ * {@link DatagramConnection} using the compact binary protocol of
+ * {@link BinaryFrameCodec}, each frame being preceded by its length.
+ * <p>
+ * Frames that {@link PongFrame#isReliable() can be lost} are sent on the
+ * unreliable channel and every other frame on the reliable channel. Each
+ * frame is sent straight away. Received frames are queued by the thread that
+ * receives the connection's datagrams until they are asked for.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class DatagramPongClient implements PongClient,
+        DatagramConnection.Receiver {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(DatagramPongClient.class.getName());
+    /** The codec shared by every client. */
+    private static final BinaryFrameCodec CODEC = new BinaryFrameCodec();
+    /** The frame queued to say the connection has closed. */
+    private static final PongFrame CLOSED = new PongFrame(Type.EVENT);
+    /** The connection. */
+    private final DatagramConnection connection;
+    /** Holds the frames received but not yet asked for. */
+    private final BlockingQueue<PongFrame> received;
+    /** The buffer frames are encoded into before being sent. */
+    private final ByteBuffer sendBuffer;
+    /**
+     * Creates a new instance that communicates across the specified
+     * connection.
+     *
+     * @param datagramConnection  the connection
+     */
+    public DatagramPongClient(final DatagramConnection datagramConnection) {
+        connection = Objects.requireNonNull(datagramConnection);
+        received = new LinkedBlockingQueue<>();
+        sendBuffer = ByteBuffer.allocate(BinaryFrameCodec.MAX_LENGTH_BYTES
+                + BinaryFrameCodec.MAX_FRAME_LENGTH);
+        connection.startReceiving(this);
+    }
+    @Override
+    public final PongFrame recvFrameFromServer() {
+        try {
+            final PongFrame frame = received.take();
+            if (frame == CLOSED) {
+                // Leave it for any later call.
+                received.add(CLOSED);
+                return null;
+            }
+            return frame;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+    @Override
+    public final synchronized void sendFrameToServer(final PongFrame frame) {
+        sendBuffer.clear();
+        final int start = CODEC.encodeWithLength(frame, sendBuffer);
+        // The connection holds on to reliable frames, so send a copy.
+        connection.send(frame.isReliable()
+                ? Channel.RELIABLE : Channel.UNRELIABLE,
+                Arrays.copyOfRange(sendBuffer.array(), start,
+                        sendBuffer.position()));
+        connection.flush();
+    }
+    @Override
+    public final void onReceived(final Channel channel,
+            final ByteBuffer message) {
+        try {
+            final int length = BinaryFrameCodec.getLength(message);
+            if (length != message.remaining()) {
+                throw new IllegalArgumentException(
+                        "Frame length does not match its message");
+            }
+            received.add(CODEC.decode(message));
+        } catch (final IllegalArgumentException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+    @Override
+    public final void onClosed() {
+        received.add(CLOSED);
+    }
+    @Override
+    public final void close() {
+        connection.close();
+    }
+    @Override
+    public final String toString() {
+        return "DatagramPongClient [connection=" + connection + "]";
+    }
+}
@@ -0,0 +1,111 @@
+package mullen.alex.pong.net.client;
+
+import java.util.Objects;
+
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.net.InputHistory;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
+import mullen.alex.pong.net.SnapshotDelta;
+
+/**
+ * Sends the paddle input of each tick to the server, but only sends an
+ * input frame when the input has changed or once every
+ * {@value InputHistory#LENGTH} ticks otherwise.
+ * <p>
+ * Each frame is stamped with the tick it was sent on and carries the
+ * {@link InputHistory} of the ticks before it, so the server can fill in the
+ * ticks no frame was sent for and recover the inputs of a frame that was
+ * lost from the one after it.
+ * <p>
+ * Each frame also acknowledges the newest snapshot received from the
+ * server, which the server takes its next snapshot delta against. Since
+ * frames go out at least every {@value InputHistory#LENGTH} ticks, the
+ * acknowledged snapshot is never far behind.
+ * <p>
+ * <b>Make sure this is only used within a single thread, other than
+ * {@link #acknowledgeSnapshot(long)}.</b>
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class InputSender {
+    /** Holds the client the frames are sent through. */
+    private final PongClient client;
+    /** Holds the tick the next input is made on. */
+    private long tick;
+    /** Holds the inputs of the last ticks. */
+    private int history;
+    /** Holds the input last sent, or <code>null</code> if none has been. */
+    private Paddle.Input lastSentInput;
+    /** Holds the tick an input frame was last sent on. */
+    private long lastSentTick;
+    /** Holds the number of input frames sent. */
+    private long framesSent;
+    /** Holds the tick of the newest snapshot received. */
+    private volatile long snapshotAck;
+    /**
+     * Creates a new instance that sends inputs through the specified client.
+     *
+     * @param pongClient  the client
+     */
+    public InputSender(final PongClient pongClient) {
+        client = Objects.requireNonNull(pongClient);
+        history = InputHistory.EMPTY;
+        snapshotAck = SnapshotDelta.NO_BASELINE;
+    }
+    /**
+     * Records the input of the current tick and sends it to the server if
+     * it has changed or the server has not been sent one for too long.
+     *
+     * @param input  the input
+     */
+    public void send(final Paddle.Input input) {
+        Objects.requireNonNull(input);
+        history = InputHistory.push(history, input);
+        if (input != lastSentInput
+                || tick - lastSentTick >= InputHistory.LENGTH) {
+            final PongFrame frame = new PongFrame(Type.INPUT);
+            frame.tick = tick;
+            frame.input = input;
+            frame.inputHistory = Integer.valueOf(history);
+            final long ack = snapshotAck;
+            if (ack != SnapshotDelta.NO_BASELINE) {
+                frame.snapshotAck = Long.valueOf(ack);
+            }
+            client.sendFrameToServer(frame);
+            lastSentInput = input;
+            lastSentTick = tick;
+            framesSent++;
+        }
+        tick++;
+    }
+    /**
+     * Records that the snapshot of the specified tick has been received, so
+     * that the next frame sent acknowledges it. This can be executed by any
+     * single thread, such as the one receiving frames.
+     *
+     * @param tick  the tick of the snapshot
+     */
+    public void acknowledgeSnapshot(final long tick) {
+        if (tick > snapshotAck) {
+            snapshotAck = tick;
+        }
+    }
+    /**
+     * Gets the number of ticks an input has been recorded for.
+     *
+     * @return  the number of ticks
+     */
+    public long getTickCount() {
+        return tick;
+    }
+    /**
+     * Gets the number of input frames sent.
+     *
+     * @return  the number of frames
+     */
+    public long getFramesSentCount() {
+        return framesSent;
+    }
+}
@@ -12,11 +12,11 @@ import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
 
+import mullen.alex.pong.net.JsonFrameCodec;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.StreamConnection;
 
@@ -33,14 +33,14 @@ public class JsonPongClient implements PongClient {
             Logger.getLogger(JsonPongClient.class.getName());
     /** The character encoding this connection reads and writes in. */
     private static final Charset CONNECTION_CHARSET = StandardCharsets.UTF_8;
+    /** The codec shared by every client. */
+    private static final JsonFrameCodec CODEC = new JsonFrameCodec();
     /** The connection. */
     private final StreamConnection connection;
     /** The JSON reader instance for reading the JSON tokens from the stream. */
     private final JsonReader jsonReader;
     /** The writer instance for writing the JSON to the stream. */
     private final Writer writer;
-    /** The Gson instance to use for parsing and writing JSON frames. */
-    private final Gson gson;
     /**
      * Creates a new instance that uses the given stream connection.
      *
@@ -55,13 +55,13 @@ public class JsonPongClient implements PongClient {
                 new BufferedReader(
                         new InputStreamReader(connection.getInputStream(),
                                 CONNECTION_CHARSET)));
-        gson = new Gson();
+        jsonReader.setLenient(true);
     }
     @Override
     public final PongFrame recvFrameFromServer() {
         PongFrame frame = null;
         try {
-            frame = gson.fromJson(jsonReader, PongFrame.class);
+            frame = CODEC.decode(jsonReader);
         } catch (final JsonSyntaxException | JsonIOException e) {
             LOG.log(Level.WARNING, e.getMessage(), e);
 //            close(); // feels dirty having this here.
@@ -70,11 +70,13 @@ public class JsonPongClient implements PongClient {
     }
     @Override
     public final void sendFrameToServer(final PongFrame frame) {
-        try {
-            writer.write(gson.toJson(frame));
-            writer.flush();
-        } catch (final IOException e) {
-            LOG.log(Level.WARNING, e.getMessage(), e);
+        synchronized (writer) {
+            try {
+                CODEC.encode(frame, writer);
+                writer.flush();
+            } catch (final IOException e) {
+                LOG.log(Level.WARNING, e.getMessage(), e);
+            }
         }
     }
     @Override
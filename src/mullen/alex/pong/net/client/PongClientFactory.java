@@ -7,8 +7,10 @@ import java.net.UnknownHostException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import mullen.alex.pong.net.LinkConditioner;
 import mullen.alex.pong.net.SocketConnection;
 import mullen.alex.pong.net.StreamConnection;
+import mullen.alex.pong.net.UdpConnection;
 import mullen.alex.pong.net.server.PongServer;
 
 /**
@@ -54,10 +56,86 @@ public final class PongClientFactory {
      *
      * @throws IOException           if an I/O error occurs
      */
-    @SuppressWarnings("resource")
     public static PongClient createAndConnect(final String hostname,
             final int port)
                     throws UnknownHostException, IOException {
+        return connect(hostname, port, JsonPongClient::new);
+    }
+    /**
+     * Creates a new client that communicates with a server that resides at the
+     * specified host and port using the compact binary protocol.
+     *
+     * @param hostname  the remote host name or IP address
+     * @param port      the remote port
+     * @return          the created client instance
+     *
+     * @throws UnknownHostException  if the IP address of the host could not be
+     *                               determined
+     *
+     * @throws IOException           if an I/O error occurs
+     */
+    public static PongClient createAndConnectBinary(final String hostname,
+            final int port)
+                    throws UnknownHostException, IOException {
+        return connect(hostname, port, BinaryPongClient::new);
+    }
+    /**
+     * Creates a new client that communicates with a server that resides at the
+     * specified host and port using the compact binary protocol over UDP.
+     *
+     * @param hostname  the remote host name or IP address
+     * @param port      the remote port
+     * @return          the created client instance
+     *
+     * @throws UnknownHostException  if the IP address of the host could not be
+     *                               determined
+     *
+     * @throws IOException           if an I/O error occurs
+     */
+    public static PongClient createAndConnectDatagram(final String hostname,
+            final int port)
+                    throws UnknownHostException, IOException {
+        return createAndConnectDatagram(hostname, port, LinkConditioner.NONE);
+    }
+    /**
+     * Creates a new client that communicates with a server that resides at the
+     * specified host and port using the compact binary protocol over UDP,
+     * passing every datagram it sends through the specified conditioner.
+     *
+     * @param hostname  the remote host name or IP address
+     * @param port      the remote port
+     * @param link      the conditioner
+     * @return          the created client instance
+     *
+     * @throws UnknownHostException  if the IP address of the host could not be
+     *                               determined
+     *
+     * @throws IOException           if an I/O error occurs
+     */
+    public static PongClient createAndConnectDatagram(final String hostname,
+            final int port, final LinkConditioner link)
+                    throws UnknownHostException, IOException {
+        return new DatagramPongClient(
+                UdpConnection.connect(hostname, port, link));
+    }
+    /**
+     * Connects a socket to the specified host and port then wraps it into a
+     * client using the specified constructor.
+     *
+     * @param hostname     the remote host name or IP address
+     * @param port         the remote port
+     * @param constructor  the client constructor
+     * @return             the created client instance
+     *
+     * @throws UnknownHostException  if the IP address of the host could not be
+     *                               determined
+     *
+     * @throws IOException           if an I/O error occurs
+     */
+    @SuppressWarnings("resource")
+    private static PongClient connect(final String hostname, final int port,
+            final ClientConstructor constructor)
+                    throws UnknownHostException, IOException {
         final Socket connectSocket = new Socket(hostname, port);
         // Disable Nagle's algorithm on the socket.
         try {
@@ -75,7 +153,7 @@ public final class PongClientFactory {
         // Wrap the socket into a StreamConnection instance.
         final StreamConnection connection = new SocketConnection(connectSocket);
         try {
-            return new JsonPongClient(connection);
+            return constructor.create(connection);
         } catch (final IOException e2) {
             LOG.log(Level.SEVERE, e2.getMessage(), e2);
             // Close the connection which in turn closes the socket we created.
@@ -83,4 +161,21 @@ public final class PongClientFactory {
             throw e2;
         }
     }
+    /**
+     * Defines the interface for constructing a client around a connection.
+     *
+     * @author  Alex Mullen
+     */
+    @FunctionalInterface
+    private interface ClientConstructor {
+        /**
+         * Creates a client that communicates across the specified
+         * connection.
+         *
+         * @param connection    the connection
+         * @return              the client
+         * @throws IOException  if an I/O error occurs
+         */
+        PongClient create(StreamConnection connection) throws IOException;
+    }
 }
@@ -3,6 +3,7 @@ package mullen.alex.pong.net.client;
 import java.util.Objects;
 
 import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.server.EncodedFrame;
 import mullen.alex.pong.net.server.PongClientConnection;
 import mullen.alex.pong.net.server.PongServer;
 
@@ -50,6 +51,14 @@ public class ReferencePongClient implements PongClient, PongClientConnection {
         }
     }
     @Override
+    public final void sendFrameToClient(final EncodedFrame frame) {
+        sendFrameToClient(frame.getFrame());
+    }
+    @Override
+    public final void flush() {
+        // Frames are handed over as they are sent so nothing is queued.
+    }
+    @Override
     public final void sendFrameToServer(final PongFrame frame) {
         serverInstance.onReceivedFrame(this, frame);
     }
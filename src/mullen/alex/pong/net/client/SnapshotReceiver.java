@@ -0,0 +1,92 @@
+package mullen.alex.pong.net.client;
+
+import java.util.Objects;
+
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.SnapshotDelta;
+import mullen.alex.pong.net.SnapshotHistory;
+
+/**
+ * Turns the snapshot frames received from the server back into quantised
+ * snapshots by applying each {@link SnapshotDelta} to the snapshot it was
+ * taken against, and acknowledges each snapshot through an
+ * {@link InputSender}.
+ * <p>
+ * A snapshot older than the newest one received is ignored, since it has
+ * been superseded. A delta against a snapshot no longer held is ignored
+ * too. The server only takes deltas against snapshots this has
+ * acknowledged, so that only happens if the snapshots stop arriving for
+ * longer than {@value SnapshotHistory#CAPACITY} ticks, after which the
+ * server soon sends a whole one.
+ * <p>
+ * <b>Make sure this is only used within a single thread.</b>
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class SnapshotReceiver {
+    /** Holds the sender the snapshots are acknowledged through. */
+    private final InputSender inputSender;
+    /** Holds the snapshots received. */
+    private final SnapshotHistory history;
+    /** Holds the number of snapshots received and applied. */
+    private long received;
+    /** Holds the number of snapshots ignored. */
+    private long ignored;
+    /**
+     * Creates a new instance that acknowledges snapshots through the
+     * specified sender.
+     *
+     * @param sender  the sender
+     */
+    public SnapshotReceiver(final InputSender sender) {
+        inputSender = Objects.requireNonNull(sender);
+        history = new SnapshotHistory();
+    }
+    /**
+     * Receives a snapshot frame.
+     *
+     * @param frame  the frame
+     * @return       the quantised snapshot of the frame's tick, or
+     *               <code>null</code> if it was ignored
+     */
+    public int[] receive(final PongFrame frame) {
+        final SnapshotDelta delta = frame.snapshotDelta;
+        if (delta == null || frame.tick <= history.getNewestTick()) {
+            ignored++;
+            return null;
+        }
+        final int[] baseline = history.get(delta.getBaselineTick());
+        if (baseline == null && delta.hasBaseline()) {
+            ignored++;
+            return null;
+        }
+        final int[] state = delta.apply(baseline);
+        history.put(frame.tick, state);
+        inputSender.acknowledgeSnapshot(frame.tick);
+        received++;
+        return state;
+    }
+    /**
+     * Gets the number of snapshots received and applied.
+     *
+     * @return  the number of snapshots
+     */
+    public long getReceivedCount() {
+        return received;
+    }
+    /**
+     * Gets the number of snapshots ignored because they were superseded or
+     * their baseline was no longer held.
+     *
+     * @return  the number of snapshots
+     */
+    public long getIgnoredCount() {
+        return ignored;
+    }
+    @Override
+    public String toString() {
+        return "SnapshotReceiver [newestTick=" + history.getNewestTick()
+                + " received=" + received + " ignored=" + ignored + "]";
+    }
+}
@@ -0,0 +1,218 @@
+package mullen.alex.pong.net.server;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mullen.alex.pong.net.BinaryFrameCodec;
+import mullen.alex.pong.net.ConnectionThreads;
+import mullen.alex.pong.net.NonBlockingStreamConnection;
+import mullen.alex.pong.net.OutboundQueue;
+import mullen.alex.pong.net.OutboundWriter;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.StreamConnection;
+
+/**
+ * A {@link PongClientConnection} implementation that communicates across a
+ * {@link StreamConnection} using the compact binary protocol of
+ * {@link BinaryFrameCodec}, each frame being preceded by its length.
+ * <p>
+ * A blocking stream connection is given a thread that waits for received
+ * frames, as {@link JsonPongClientConnection} does. A
+ * {@link NonBlockingStreamConnection} has its frames decoded on the thread
+ * that services it instead. Either way frames sent are queued and written
+ * together each time the connection is flushed, by an
+ * {@link OutboundWriter}.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class BinaryPongClientConnection implements PongClientConnection,
+        NonBlockingStreamConnection.Receiver {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(BinaryPongClientConnection.class.getName());
+    /** The codec shared by every connection. */
+    private static final BinaryFrameCodec CODEC = new BinaryFrameCodec();
+    /** The most bytes a frame and its length can take up. */
+    private static final int MAX_ENCODED_LENGTH =
+            BinaryFrameCodec.MAX_LENGTH_BYTES
+                    + BinaryFrameCodec.MAX_FRAME_LENGTH;
+    /** The connection. */
+    private final StreamConnection connection;
+    /** Holds the handler. */
+    private final Handler handler;
+    /** The buffer holding received bytes that are not yet a frame. */
+    private final ByteBuffer recvBuffer;
+    /** The thread that waits for frames, if the connection blocks. */
+    private final Thread receiveFrameThread;
+    /** Holds the frames waiting to be sent. */
+    private final OutboundQueue outbound;
+    /** Holds the outbox applying the slow consumer policy. */
+    private final ClientOutbox outbox;
+    /** Holds the writer of the queued frames to the connection. */
+    private final OutboundWriter outboundWriter;
+    /**
+     * Creates a new instance that uses the given stream connection and handler.
+     *
+     * @param streamConnection   the connection
+     * @param connectionHandler  the handler
+     *
+     * @throws IOException       if an exception occurs
+     */
+    public BinaryPongClientConnection(final StreamConnection streamConnection,
+            final Handler connectionHandler) throws IOException {
+        this(streamConnection, connectionHandler, SlowConsumerPolicy.DEFAULT);
+    }
+    /**
+     * Creates a new instance that uses the given stream connection, handler
+     * and slow consumer policy.
+     *
+     * @param streamConnection    the connection
+     * @param connectionHandler   the handler
+     * @param slowConsumerPolicy  the policy for when the client falls behind
+     *
+     * @throws IOException        if an exception occurs
+     */
+    public BinaryPongClientConnection(final StreamConnection streamConnection,
+            final Handler connectionHandler,
+            final SlowConsumerPolicy slowConsumerPolicy) throws IOException {
+        connection = Objects.requireNonNull(streamConnection);
+        handler = Objects.requireNonNull(connectionHandler);
+        recvBuffer = ByteBuffer.allocate(MAX_ENCODED_LENGTH);
+        outbound = new OutboundQueue();
+        outbox = new ClientOutbox(slowConsumerPolicy, outbound,
+                EncodedFrame::getBinaryBytes);
+        outboundWriter = new OutboundWriter(connection, outbound,
+                "BinaryPongClientConnection::writeThread");
+        if (connection instanceof NonBlockingStreamConnection) {
+            receiveFrameThread = null;
+        } else {
+            receiveFrameThread = ConnectionThreads.newThread(
+                    "BinaryPongClientConnection::receiveThread",
+                    this::receiveThreadBody);
+        }
+    }
+    /**
+     * Starts receiving frames, which is not done within the constructor so
+     * that no frame is handled before the connection has been announced.
+     */
+    final void initialise() {
+        outboundWriter.start();
+        if (receiveFrameThread == null) {
+            ((NonBlockingStreamConnection) connection).startReceiving(this);
+        } else {
+            receiveFrameThread.start();
+        }
+    }
+    /**
+     * Gets the queue of frames waiting to be sent, which keeps count of its
+     * depth and of the bytes sent by each flush.
+     *
+     * @return  the queue
+     */
+    public final OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+    /**
+     * The code for the receive thread.
+     */
+    private void receiveThreadBody() {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(connection.getInputStream()))) {
+            final byte[] frameBytes = recvBuffer.array();
+            int length;
+            while ((length = BinaryFrameCodec.readLength(in)) >= 0) {
+                in.readFully(frameBytes, 0, length);
+                handler.onReceivedFrame(this,
+                        CODEC.decode(ByteBuffer.wrap(frameBytes, 0, length)));
+            }
+        } catch (final IOException | IllegalArgumentException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+        connection.close();
+        outboundWriter.close();
+        handler.onDisconnected(this);
+    }
+    @Override
+    public final void onReceived(final ByteBuffer data) {
+        try {
+            while (data.hasRemaining()) {
+                final int count = Math.min(data.remaining(),
+                        recvBuffer.remaining());
+                final ByteBuffer chunk = data.duplicate();
+                chunk.limit(chunk.position() + count);
+                recvBuffer.put(chunk);
+                data.position(data.position() + count);
+                decodeReceivedFrames();
+            }
+        } catch (final IllegalArgumentException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            connection.close();
+        }
+    }
+    /**
+     * Decodes and handles every complete frame in the receive buffer, then
+     * moves any partial frame to the start of the buffer.
+     */
+    private void decodeReceivedFrames() {
+        recvBuffer.flip();
+        while (recvBuffer.hasRemaining()) {
+            final int start = recvBuffer.position();
+            final int length = BinaryFrameCodec.getLength(recvBuffer);
+            if (length < 0 || recvBuffer.remaining() < length) {
+                recvBuffer.position(start);
+                break;
+            }
+            final ByteBuffer frameBytes = recvBuffer.slice();
+            frameBytes.limit(length);
+            recvBuffer.position(recvBuffer.position() + length);
+            handler.onReceivedFrame(this, CODEC.decode(frameBytes));
+        }
+        recvBuffer.compact();
+    }
+    @Override
+    public final void onClosed() {
+        outboundWriter.close();
+        handler.onDisconnected(this);
+    }
+    @Override
+    public final void close() {
+        connection.close();
+        outboundWriter.close();
+        if (receiveFrameThread != null
+                && receiveFrameThread != Thread.currentThread()) {
+            // Wait for receive thread to finish.
+            try {
+                receiveFrameThread.join();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.log(Level.SEVERE, e.getMessage(), e);
+            }
+        }
+    }
+    @Override
+    public final void sendFrameToClient(final PongFrame frame) {
+        sendFrameToClient(new EncodedFrame(frame));
+    }
+    @Override
+    public final void sendFrameToClient(final EncodedFrame frame) {
+        outbox.offer(frame);
+    }
+    @Override
+    public final void flush() {
+        outboundWriter.flush();
+        if (outbox.isTooSlow(outboundWriter)) {
+            LOG.warning("Disconnecting slow client " + this + ": " + outbound);
+            close();
+        }
+    }
+    @Override
+    public final String toString() {
+        return "BinaryPongClientConnection [connection=" + connection + "]";
+    }
+}
@@ -0,0 +1,156 @@
+package mullen.alex.pong.net.server;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import mullen.alex.pong.net.OutboundQueue;
+import mullen.alex.pong.net.OutboundWriter;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
+
+/**
+ * Queues the frames sent to a single client according to a
+ * {@link SlowConsumerPolicy}, and decides when the client has fallen so far
+ * behind that it should be disconnected.
+ * <p>
+ * Snapshots and paddle moves are tagged as they are queued so that, whilst
+ * they are still waiting, a newer snapshot can replace older ones and a
+ * paddle move identical to the one queued before it can be merged into it.
+ * A merged paddle move carries the number of moves it stands for in its
+ * {@value #REPEAT_ARG} argument. Every other frame is reliable, so the
+ * client is disconnected rather than have one of them dropped.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class ClientOutbox {
+    /** The argument holding how many moves a paddle move stands for. */
+    public static final String REPEAT_ARG = "REPEAT";
+    /** The tag of queued snapshots. */
+    private static final Object SNAPSHOT_TAG = Type.SNAPSHOT;
+    /** The tag of queued paddle moves. */
+    private static final Object PADDLE_MOVE_TAG = "PADDLE_MOVE_EVENT";
+    /** Holds the number of clients disconnected for being too slow. */
+    private static final AtomicLong DISCONNECTED = new AtomicLong();
+    /** Holds the policy. */
+    private final SlowConsumerPolicy policy;
+    /** Holds the queue of frames waiting to be sent. */
+    private final OutboundQueue queue;
+    /** Holds the function encoding frames into the connection's format. */
+    private final Function<EncodedFrame, byte[]> encoder;
+    /** Holds the paddle move last queued, if nothing has been since. */
+    private PongFrame lastMove;
+    /** Holds the number of moves the last paddle move stands for. */
+    private int lastMoveRepeat;
+    /** Holds whether a reliable frame could not be queued. */
+    private volatile boolean overflowed;
+    /** Holds whether the client has been found to be too slow. */
+    private boolean tooSlow;
+    /**
+     * Creates a new outbox.
+     *
+     * @param slowConsumerPolicy  the policy
+     * @param outboundQueue       the queue of frames waiting to be sent
+     * @param frameEncoder        the function encoding frames into the bytes
+     *                            the connection sends
+     */
+    ClientOutbox(final SlowConsumerPolicy slowConsumerPolicy,
+            final OutboundQueue outboundQueue,
+            final Function<EncodedFrame, byte[]> frameEncoder) {
+        policy = Objects.requireNonNull(slowConsumerPolicy);
+        queue = Objects.requireNonNull(outboundQueue);
+        encoder = Objects.requireNonNull(frameEncoder);
+    }
+    /**
+     * Queues a frame, replacing or merging it with those still waiting if
+     * the policy allows.
+     *
+     * @param frame  the frame
+     */
+    synchronized void offer(final EncodedFrame frame) {
+        final PongFrame pongFrame = frame.getFrame();
+        if (policy.coalescesPaddleMoves() && isPaddleMove(pongFrame)) {
+            offerPaddleMove(frame);
+            return;
+        }
+        lastMove = null;
+        if (pongFrame.getType() == Type.SNAPSHOT) {
+            if (policy.dropsStaleSnapshots()) {
+                queue.removeTagged(SNAPSHOT_TAG);
+            }
+            // A snapshot that does not fit is superseded by the next one.
+            queue.offer(encoder.apply(frame), SNAPSHOT_TAG);
+        } else if (!queue.offer(encoder.apply(frame))) {
+            overflowed = true;
+        }
+    }
+    /**
+     * Determines whether the client has fallen far enough behind that it
+     * should be disconnected, counting it the first time it has.
+     *
+     * @param writer  the writer of the queue
+     * @return        <code>true</code> if the client is too slow;
+     *                <code>false</code> if not
+     */
+    synchronized boolean isTooSlow(final OutboundWriter writer) {
+        if (!tooSlow && (overflowed
+                || queue.getQueuedBytes() + writer.getUnwrittenBytes()
+                        > policy.getMaxBacklogBytes()
+                || queue.getOldestAgeNanos() > TimeUnit.MILLISECONDS.toNanos(
+                        policy.getMaxBacklogMillis()))) {
+            tooSlow = true;
+            DISCONNECTED.incrementAndGet();
+        }
+        return tooSlow;
+    }
+    /**
+     * Gets the number of clients disconnected for being too slow.
+     *
+     * @return  the number of clients
+     */
+    public static long getDisconnectedCount() {
+        return DISCONNECTED.get();
+    }
+    /**
+     * Queues a paddle move, merging it into the last frame queued if that
+     * was an identical paddle move that is still waiting.
+     *
+     * @param frame  the paddle move
+     */
+    private void offerPaddleMove(final EncodedFrame frame) {
+        final PongFrame move = frame.getFrame();
+        if (lastMove != null && lastMove.role == move.role
+                && lastMove.input == move.input) {
+            final PongFrame merged = new PongFrame(Type.EVENT);
+            merged.tick = move.tick;
+            merged.role = move.role;
+            merged.input = move.input;
+            merged.args.putAll(move.args);
+            merged.args.put(REPEAT_ARG,
+                    Integer.toString(lastMoveRepeat + 1));
+            if (queue.replaceLast(encoder.apply(new EncodedFrame(merged)),
+                    PADDLE_MOVE_TAG)) {
+                lastMoveRepeat++;
+                return;
+            }
+        }
+        if (queue.offer(encoder.apply(frame), PADDLE_MOVE_TAG)) {
+            lastMove = move;
+            lastMoveRepeat = 1;
+        } else {
+            overflowed = true;
+        }
+    }
+    /**
+     * Determines whether a frame is a paddle move event.
+     *
+     * @param frame  the frame
+     * @return       <code>true</code> if it is; <code>false</code> if not
+     */
+    private static boolean isPaddleMove(final PongFrame frame) {
+        return frame.getType() == Type.EVENT
+                && PADDLE_MOVE_TAG.equals(frame.args.get("EVENT"));
+    }
+}
@@ -0,0 +1,116 @@
+package mullen.alex.pong.net.server;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import mullen.alex.pong.net.BinaryFrameCodec;
+import mullen.alex.pong.net.DatagramConnection;
+import mullen.alex.pong.net.DatagramConnection.Channel;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.UdpConnection;
+
+/**
+ * A {@link PongClientConnection} implementation that communicates across a
+ * {@link DatagramConnection} using the compact binary protocol of
+ * {@link BinaryFrameCodec}, each frame being preceded by its length.
+ * <p>
+ * Frames that {@link PongFrame#isReliable() can be lost} are sent on the
+ * unreliable channel and every other frame on the reliable channel, so a lost
+ * snapshot never holds back the frames after it. Frames are decoded on the
+ * thread that receives the connection's datagrams. There is no queue of
+ * frames to fall behind on, so the {@link SlowConsumerPolicy} is applied to
+ * the reliable frames the client has not yet acknowledged instead.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class DatagramPongClientConnection implements PongClientConnection,
+        DatagramConnection.Receiver {
+    /** The logger instance for this class. */
+    private static final Logger LOG =
+            Logger.getLogger(DatagramPongClientConnection.class.getName());
+    /** The codec shared by every connection. */
+    private static final BinaryFrameCodec CODEC = new BinaryFrameCodec();
+    /** The connection. */
+    private final DatagramConnection connection;
+    /** Holds the handler. */
+    private final Handler handler;
+    /** Holds the policy for when the client falls behind. */
+    private final SlowConsumerPolicy policy;
+    /**
+     * Creates a new instance that uses the given datagram connection, handler
+     * and slow consumer policy.
+     *
+     * @param datagramConnection  the connection
+     * @param connectionHandler   the handler
+     * @param slowConsumerPolicy  the policy for when the client falls behind
+     */
+    public DatagramPongClientConnection(
+            final DatagramConnection datagramConnection,
+            final Handler connectionHandler,
+            final SlowConsumerPolicy slowConsumerPolicy) {
+        connection = Objects.requireNonNull(datagramConnection);
+        handler = Objects.requireNonNull(connectionHandler);
+        policy = Objects.requireNonNull(slowConsumerPolicy);
+    }
+    /**
+     * Starts receiving frames, which is not done within the constructor so
+     * that no frame is handled before the connection has been announced.
+     */
+    final void initialise() {
+        connection.startReceiving(this);
+    }
+    @Override
+    public final void onReceived(final Channel channel,
+            final ByteBuffer message) {
+        try {
+            final int length = BinaryFrameCodec.getLength(message);
+            if (length != message.remaining()) {
+                throw new IllegalArgumentException(
+                        "Frame length does not match its message");
+            }
+            handler.onReceivedFrame(this, CODEC.decode(message));
+        } catch (final IllegalArgumentException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+        }
+    }
+    @Override
+    public final void onClosed() {
+        handler.onDisconnected(this);
+    }
+    @Override
+    public final void close() {
+        connection.close();
+    }
+    @Override
+    public final void sendFrameToClient(final PongFrame frame) {
+        sendFrameToClient(new EncodedFrame(frame));
+    }
+    @Override
+    public final void sendFrameToClient(final EncodedFrame frame) {
+        connection.send(frame.getFrame().isReliable()
+                ? Channel.RELIABLE : Channel.UNRELIABLE,
+                frame.getBinaryBytes());
+    }
+    @Override
+    public final void flush() {
+        connection.flush();
+        if (connection instanceof UdpConnection) {
+            final UdpConnection udpConnection = (UdpConnection) connection;
+            if (udpConnection.getUnackedBytes() > policy.getMaxBacklogBytes()
+                    || udpConnection.getOldestUnackedAgeNanos()
+                            > TimeUnit.MILLISECONDS.toNanos(
+                                    policy.getMaxBacklogMillis())) {
+                LOG.warning("Disconnecting slow client " + this);
+                close();
+            }
+        }
+    }
+    @Override
+    public final String toString() {
+        return "DatagramPongClientConnection [connection=" + connection + "]";
+    }
+}
@@ -0,0 +1,112 @@
+package mullen.alex.pong.net.server;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import mullen.alex.pong.net.DatagramConnection;
+import mullen.alex.pong.net.DatagramConnectionListener;
+
+/**
+ * A {@link PongClientConnectionListener} implementation that listens for and
+ * produces {@link DatagramPongClientConnection} type connections.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class DatagramPongClientConnectionListener implements
+        PongClientConnectionListener, DatagramConnectionListener.Handler {
+    /** Holds the raw datagram connection listener. */
+    private final DatagramConnectionListener connectionListener;
+    /** Holds the connection handler. */
+    private final PongClientConnectionListener.Handler newConnectionHandler;
+    /** Holds the connection event handler. */
+    private final PongClientConnection.Handler connectionEventHandler;
+    /** Holds the slow consumer policy given to new connections. */
+    private final SlowConsumerPolicy slowConsumerPolicy;
+    /**
+     * Creates a new instance using the specified listener builder, connection
+     * listener event handler, connection event handler and slow consumer
+     * policy.
+     *
+     * @param listenerBuilder   the listener implementation builder
+     * @param connHandler       the listener connection handler
+     * @param connEventHandler  the connection event handler to inject into new
+     *                          connections
+     * @param policy            the slow consumer policy to give new
+     *                          connections
+     *
+     * @throws IOException  if an exception occurs whilst building the listener
+     */
+    public DatagramPongClientConnectionListener(
+            final DatagramConnectionListener.Builder listenerBuilder,
+            final PongClientConnectionListener.Handler connHandler,
+            final PongClientConnection.Handler connEventHandler,
+            final SlowConsumerPolicy policy) throws IOException {
+        newConnectionHandler = Objects.requireNonNull(connHandler);
+        connectionEventHandler = Objects.requireNonNull(connEventHandler);
+        slowConsumerPolicy = Objects.requireNonNull(policy);
+        connectionListener = listenerBuilder.build(this);
+    }
+    @Override
+    public final void start() {
+        connectionListener.start();
+    }
+    @Override
+    public final void shutdown() {
+        connectionListener.shutdown();
+    }
+    @Override
+    public final void onNewConnection(final DatagramConnection connection) {
+        final DatagramPongClientConnection datagramConnection =
+                new DatagramPongClientConnection(connection,
+                        connectionEventHandler, slowConsumerPolicy);
+        newConnectionHandler.onNewConnection(datagramConnection);
+        datagramConnection.initialise();
+    }
+    /**
+     * A builder class for deferring the construction of this client listener to
+     * another class without that class knowing the concrete details about the
+     * listener.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public static class Builder implements
+                PongClientConnectionListener.Builder {
+        /** Holds the datagram connection listener builder we use. */
+        private final DatagramConnectionListener.Builder
+                datagramListenerBuilder;
+        /** Holds the slow consumer policy given to new connections. */
+        private final SlowConsumerPolicy slowConsumerPolicy;
+        /**
+         * Creates a new instance that will use the specified builder.
+         *
+         * @param listenerBuilder  the datagram connection listener builder
+         */
+        public Builder(
+                final DatagramConnectionListener.Builder listenerBuilder) {
+            this(listenerBuilder, SlowConsumerPolicy.DEFAULT);
+        }
+        /**
+         * Creates a new instance that will use the specified builder and give
+         * new connections the specified slow consumer policy.
+         *
+         * @param listenerBuilder  the datagram connection listener builder
+         * @param policy           the slow consumer policy
+         */
+        public Builder(final DatagramConnectionListener.Builder listenerBuilder,
+                final SlowConsumerPolicy policy) {
+            datagramListenerBuilder = Objects.requireNonNull(listenerBuilder);
+            slowConsumerPolicy = Objects.requireNonNull(policy);
+        }
+        @Override
+        public final PongClientConnectionListener build(
+                final PongClientConnectionListener.Handler newConnHandler,
+                final PongClientConnection.Handler connEventHandler)
+                throws IOException {
+            return new DatagramPongClientConnectionListener(
+                    datagramListenerBuilder, newConnHandler, connEventHandler,
+                    slowConsumerPolicy);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package mullen.alex.pong.net.server;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import mullen.alex.pong.net.BinaryFrameCodec;
+import mullen.alex.pong.net.JsonFrameCodec;
+import mullen.alex.pong.net.PongFrame;
+
+/**
+ * Holds a frame that is being broadcast along with the bytes it encodes to
+ * in each wire format, so that it is encoded once however many connections
+ * it is sent to.
+ * <p>
+ * Each format is only encoded the first time a connection asks for it. The
+ * bytes are then shared by every connection and are never modified, so the
+ * frame itself must not be modified once it has been broadcast.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class EncodedFrame {
+    /** The JSON codec shared by every frame. */
+    private static final JsonFrameCodec JSON_CODEC = new JsonFrameCodec();
+    /** The binary codec shared by every frame. */
+    private static final BinaryFrameCodec BINARY_CODEC =
+            new BinaryFrameCodec();
+    /** The buffer each thread encodes binary frames into. */
+    private static final ThreadLocal<ByteBuffer> BINARY_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(
+                    BinaryFrameCodec.MAX_LENGTH_BYTES
+                            + BinaryFrameCodec.MAX_FRAME_LENGTH));
+    /** The frame. */
+    private final PongFrame frame;
+    /** The frame encoded as JSON, once it has been. */
+    private byte[] json;
+    /** The frame encoded as binary with its length, once it has been. */
+    private byte[] binary;
+    /**
+     * Creates a new instance that holds the specified frame.
+     *
+     * @param pongFrame  the frame
+     */
+    public EncodedFrame(final PongFrame pongFrame) {
+        frame = Objects.requireNonNull(pongFrame);
+    }
+    /**
+     * Gets the frame.
+     *
+     * @return  the frame
+     */
+    public PongFrame getFrame() {
+        return frame;
+    }
+    /**
+     * Gets the frame encoded as JSON by {@link JsonFrameCodec}, encoding it
+     * if this is the first time.
+     *
+     * @return  the UTF-8 bytes, which must not be modified
+     */
+    synchronized byte[] getJsonBytes() {
+        if (json == null) {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+                JSON_CODEC.encode(frame, writer);
+            } catch (final IOException e) {
+                // Writing to memory does not fail.
+                throw new IllegalStateException(e);
+            }
+            json = out.toByteArray();
+        }
+        return json;
+    }
+    /**
+     * Gets the frame encoded by {@link BinaryFrameCodec} and preceded by its
+     * length, encoding it if this is the first time.
+     *
+     * @return  the bytes, which must not be modified
+     *
+     * @throws IllegalArgumentException  if the frame has a field the binary
+     *                                   protocol cannot encode
+     */
+    synchronized byte[] getBinaryBytes() {
+        if (binary == null) {
+            final ByteBuffer buffer = BINARY_BUFFER.get();
+            buffer.clear();
+            final int start = BINARY_CODEC.encodeWithLength(frame, buffer);
+            binary = Arrays.copyOfRange(buffer.array(), start,
+                    buffer.position());
+        }
+        return binary;
+    }
+    @Override
+    public String toString() {
+        return "EncodedFrame [frame=" + frame + "]";
+    }
+}
@@ -1,25 +1,19 @@
 package mullen.alex.pong.net.server;
 
-import java.awt.Point;
 import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Random;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
-import mullen.alex.jge.Vector2f;
-import mullen.alex.pong.Ball;
-import mullen.alex.pong.BallCollisionDetector;
-import mullen.alex.pong.BallCollisionDetector.Collision;
-import mullen.alex.pong.BallCollisionDetector.Collision.With;
-import mullen.alex.pong.BallCollisionDetector.WorldCollision;
-import mullen.alex.pong.BallCollisionDetector.WorldCollision.Edge;
-import mullen.alex.pong.BallCollisionResolver;
 import mullen.alex.pong.Game;
+import mullen.alex.pong.GameSimulation;
 import mullen.alex.pong.Paddle;
-import mullen.alex.pong.World2D;
+import mullen.alex.pong.net.GameSnapshot;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.Role;
+import mullen.alex.pong.net.SnapshotDelta;
 import mullen.alex.pong.net.PongFrame.Type;
 import mullen.alex.pong.net.server.PongServer.ServerState;
 
@@ -30,33 +24,52 @@ import mullen.alex.pong.net.server.PongServer.ServerState;
  * @author  Alex Mullen
  *
  */
-public class GameRunningState implements ServerState {
+public class GameRunningState implements ServerState,
+        GameSimulation.Listener {
     /** The frequency in seconds to send ping clients. */
     private static final int PING_FREQUENCY_SECONDS = 1;
-    /** The server instance. */
-    private final PongServer server;
+    /** The match instance. */
+    private final PongMatch match;
     /** The repeating ping task. */
     private final ScheduledFuture<?> pingTask;
     /** Holds the game simulation. */
     private final Game game;
+    /** Holds the simulation that steps the game each tick. */
+    private final GameSimulation simulation;
+    /**
+     * Holds how far the current step has been made, in parts of a step of
+     * which there are as many as ticks per second.
+     */
+    private int stepProgress;
+    /**
+     * Holds the tick of the last snapshot sent. A snapshot is only sent once
+     * per tick since a client holds one snapshot for each.
+     */
+    private long lastSnapshotTick = SnapshotDelta.NO_BASELINE;
     /**
      * Creates a new instance that references the fields from the specified
-     * server instance.
+     * match instance.
      *
-     * @param serverInstance  the server instance to use
+     * @param matchInstance  the match instance to use
      */
-    GameRunningState(final PongServer serverInstance) {
-        server = Objects.requireNonNull(serverInstance);
-        game = server.gameBuilder.createGame();
-        pingTask = server.executor.scheduleWithFixedDelay(this::pingAllClients,
+    GameRunningState(final PongMatch matchInstance) {
+        match = Objects.requireNonNull(matchInstance);
+        game = match.gameBuilder.createGame();
+        simulation = new GameSimulation(game, this);
+        // Discard any inputs sent before the game started.
+        for (final PongClientBundle bundle : match.connections.values()) {
+            bundle.inputs.clear();
+        }
+        pingTask = match.executor.scheduleWithFixedDelay(this::pingAllClients,
                 0, PING_FREQUENCY_SECONDS, TimeUnit.SECONDS);
     }
     @Override
     public final void shutdown() {
-        server.changeState(new ShuttingDownState(server));
+        match.changeState(new ShuttingDownState(match));
         pingTask.cancel(true);
-        server.connectionListener.shutdown();
-        server.connections.keySet().forEach(conn -> conn.close());
+        match.stopTicking();
+        match.connections.keySet().forEach(conn -> conn.close());
+        match.finishIfAllDisconnected();
     }
     @Override
     public final void onNewConnection(final PongClientConnection connection) {
@@ -66,12 +79,12 @@ public class GameRunningState implements ServerState {
     }
     @Override
     public final void onDisconnected(final PongClientConnection client) {
-        server.connections.remove(client);
+        match.connections.remove(client);
         /*
          * We need to check if we still have the minimum number of
          * authorised connections to play the game.
          */
-        if (server.connections.values().stream()
+        if (match.connections.values().stream()
                 .filter(bundle -> bundle.authorised)
                 .count() < 2) {
             shutdown();
@@ -80,14 +93,13 @@ public class GameRunningState implements ServerState {
     @Override
     public final void onReceivedFrame(final PongClientConnection client,
             final PongFrame frame) {
-        final PongClientBundle clientBundle = server.connections.get(client);
-        if (frame.getType() == Type.INPUT) {
-            clientBundle.inputs.add(frame.input);
-        } else if (frame.getType() == Type.PING_REPLY) {
+        final PongClientBundle clientBundle = match.connections.get(client);
+        if (frame.getType() == Type.PING_REPLY) {
             final long ping = System.currentTimeMillis()
                     - clientBundle.lastPingSentTime;
             PongServer.LOG.info("Received ping reply from client "
-                    + client + " which took: " + ping + "ms");
+                    + client + " which took: " + ping + "ms, inputs: "
+                    + clientBundle.inputBuffer);
             clientBundle.ping = ping;
             clientBundle.pingRepliesReceived++;
             if (clientBundle.pingRepliesReceived != clientBundle.pingsSent) {
@@ -103,129 +115,137 @@ public class GameRunningState implements ServerState {
             PongServer.LOG.warning("Received unexpected frame: " + frame);
         }
     }
+    /**
+     * Moves the game on by a tick's share of a second. The game is stepped
+     * {@value TickRates#GAME_STEPS_PER_SECOND} times a second whatever the
+     * tick rate, so a tick may make part of a step or several steps. The
+     * inputs are applied and the tick counter advanced once per whole step,
+     * which keeps the ticks of inputs, events and snapshots in steps, as the
+     * clients count them.
+     */
     @Override
     public final void tick() {
-        applyQueuedInputs();
-        game.getBall().move();
-        checkForAndHandleAnyCollisions();
+        final int tickRate = match.server.tickRates.getTicksPerSecond();
+        int remaining = TickRates.GAME_STEPS_PER_SECOND;
+        while (remaining > 0) {
+            if (stepProgress == 0) {
+                applyQueuedInputs();
+            }
+            final int portion = Math.min(remaining, tickRate - stepProgress);
+            simulation.move((float) portion / tickRate);
+            stepProgress += portion;
+            remaining -= portion;
+            if (stepProgress == tickRate) {
+                stepProgress = 0;
+                game.setTick(game.getTick() + 1);
+            }
+        }
+        if (match.isSendDue() && game.getTick() > lastSnapshotTick) {
+            sendSnapshots();
+        }
+    }
+    @Override
+    public final void onBallHitPaddle(final Paddle paddle) {
+        broadcastBallHitEvent();
+    }
+    @Override
+    public final void onScoreChanged() {
+        broadcastScoreUpdateEvent();
     }
-    private void checkForAndHandleAnyCollisions() {
-        final BallCollisionDetector collDetector = game.getCollisionDetector();
-        final BallCollisionResolver collResolver = game.getCollisionResolver();
-        Collision collision = collDetector.check(game);
-        while (collision != null) {
-            if (collision.getWith() == With.WORLD) {
-                final WorldCollision wc = (WorldCollision) collision;
-                if (wc.getEdge() == Edge.LEFT) {
-                    // Right side has scored.
-                    game.setRightSideScore(game.getRightSideScore() + 1);
-                    broadcastScoreUpdateEvent();
-                    centreBallWithRandomVelocity();
-                    broadcastBallSpawnEvent();
-                } else if (wc.getEdge() == Edge.RIGHT) {
-                    // Left side has scored.
-                    game.setLeftSideScore(game.getLeftSideScore() + 1);
-                    broadcastScoreUpdateEvent();
-                    centreBallWithRandomVelocity();
-                    broadcastBallSpawnEvent();
-                } else {
-                    // We hit the top or bottom edge so resolve.
-                    collResolver.resolve(collision);
-                }
-            } else {
-                collResolver.resolve(collision);
-                if (collision.getWith() == With.PADDLE) {
-                    broadcastBallHitEvent();
-                }
+    @Override
+    public final void onBallSpawned() {
+        broadcastBallSpawnEvent();
+    }
+    /**
+     * Applies the next input of each client into our simulation of the game
+     * for the current tick.
+     */
+    private void applyQueuedInputs() {
+        for (final PongClientBundle bundle : match.connections.values()) {
+            if (bundle.role == Role.LEFT_PADDLE) {
+                applyQueuedInputs(bundle, game.getLeftPaddle());
+            } else if (bundle.role == Role.RIGHT_PADDLE) {
+                applyQueuedInputs(bundle, game.getRightPaddle());
+            } else if (bundle.role != null) {
+                PongServer.LOG.severe("Unknown role: " + bundle.role);
             }
-            // Check if collisions have been resolved.
-            collision = collDetector.check(game);
         }
     }
     /**
-     * Centres the ball and gives it a random direction velocity.
+     * Moves the inputs a single client has sent into its jitter buffer and
+     * applies the one due this tick, if any, to its paddle.
+     *
+     * @param bundle  the client's data bundle
+     * @param paddle  the client's paddle
      */
-    private void centreBallWithRandomVelocity() {
-        final Ball ball = game.getBall();
-        final World2D world = game.getWorld();
-        final Random rng = game.getRng();
-        // Centre the ball.
-        final Point centre = world.getCentre();
-        ball.getTransform().x = centre.x - ball.getTransform().width / 2;
-        ball.getTransform().y = centre.y - ball.getTransform().width / 2;
-        final Vector2f startVector =
-                new Vector2f(ball.getTransform().x, ball.getTransform().y);
-        Vector2f endVector;
-        // Randomly decide to initially direct the ball left or right.
-        if (rng.nextBoolean()) {
-            // Left. Multiply the world height by two to allow initial bounces.
-            endVector = new Vector2f(0.0f, rng.nextInt(world.getHeight() * 2));
-        } else {
-            // Right. Multiply the world height by two to allow initial bounces.
-            endVector = new Vector2f(
-                    world.getWidth(), rng.nextInt(world.getHeight() * 2));
+    private void applyQueuedInputs(final PongClientBundle bundle,
+            final Paddle paddle) {
+        final long serverTick = game.getTick();
+        while (!bundle.inputs.isEmpty()) {
+            bundle.inputBuffer.add(bundle.inputs.peekTick(),
+                    bundle.inputs.peekHistory(), serverTick);
+            bundle.inputs.remove();
+        }
+        final Paddle.Input input = bundle.inputBuffer.next();
+        if (input != null) {
+            paddle.move(input);
+            broadcastPaddleMoveEvent(bundle.role, input);
         }
-        final Vector2f dirVector = endVector.subtract(startVector);
-        ball.getVelocity().x = dirVector.x;
-        ball.getVelocity().y = dirVector.y;
     }
     /**
-     * Applies all queued inputs into our simulation of the game for the
-     * current tick.
+     * Sends each client a snapshot of the game as a delta against the newest
+     * snapshot it has acknowledged, or the whole snapshot if that is too old
+     * to still be held.
      */
-    private void applyQueuedInputs() {
-        server.connections.entrySet()
-        .stream()
-        .filter(entry -> entry.getValue().role != null)
-        .forEach(entry -> {
-            if (Role.LEFT_PADDLE == entry.getValue().role) {
-                while (!entry.getValue().inputs.isEmpty()) {
-                    game.getLeftPaddle().move(entry.getValue().inputs.peek());
-                    broadcastPaddleMoveEvent(Role.LEFT_PADDLE, entry.getValue().inputs.poll());
-                }
-            } else if (Role.RIGHT_PADDLE == entry.getValue().role) {
-                while (!entry.getValue().inputs.isEmpty()) {
-                    game.getRightPaddle().move(entry.getValue().inputs.peek());
-                    broadcastPaddleMoveEvent(Role.RIGHT_PADDLE, entry.getValue().inputs.poll());
-                }
-            } else {
-                PongServer.LOG.severe("Unknown role: " + entry.getValue().role);
-            }
-        });
+    private void sendSnapshots() {
+        final long tick = game.getTick();
+        lastSnapshotTick = tick;
+        final int[] state = SnapshotDelta.quantise(new GameSnapshot(game));
+        for (final Map.Entry<PongClientConnection, PongClientBundle> entry
+                : match.connections.entrySet()) {
+            final PongClientBundle bundle = entry.getValue();
+            final long ackTick = bundle.inputs.getSnapshotAck();
+            final PongFrame frame = new PongFrame(Type.SNAPSHOT);
+            frame.tick = tick;
+            frame.snapshotDelta = SnapshotDelta.between(ackTick,
+                    bundle.snapshots.get(ackTick), state);
+            entry.getKey().sendFrameToClient(frame);
+            bundle.snapshots.put(tick, state);
+        }
     }
     private void broadcastPaddleMoveEvent(final Role role,
             final Paddle.Input input) {
         final PongFrame frame = new PongFrame(Type.EVENT);
+        frame.tick = game.getTick();
         frame.args.put("EVENT", "PADDLE_MOVE_EVENT");
         frame.role = role;
         frame.input = input;
-        server.connections.keySet().parallelStream().forEach(
-                c -> c.sendFrameToClient(frame));
+        match.broadcast(frame);
     }
     private void broadcastBallHitEvent() {
         final PongFrame frame = new PongFrame(Type.EVENT);
+        frame.tick = game.getTick();
         frame.args.put("EVENT", "BALL_HIT_EVENT");
         frame.destPositionFloat = game.getBall().getTransform();
         frame.velocity = game.getBall().getVelocity();
-        server.connections.keySet().parallelStream().forEach(
-                c -> c.sendFrameToClient(frame));
+        match.broadcast(frame);
     }
     private void broadcastScoreUpdateEvent() {
         final PongFrame frame = new PongFrame(Type.EVENT);
+        frame.tick = game.getTick();
         frame.args.put("EVENT", "SCORE_UPDATE_EVENT");
         frame.pings = new EnumMap<>(Role.class);
         frame.pings.put(Role.LEFT_PADDLE, Integer.valueOf(game.getLeftSideScore()));
         frame.pings.put(Role.RIGHT_PADDLE, Integer.valueOf(game.getRightSideScore()));
-        server.connections.keySet().parallelStream().forEach(
-                c -> c.sendFrameToClient(frame));
+        match.broadcast(frame);
     }
     private void broadcastBallSpawnEvent() {
         final PongFrame frame = new PongFrame(Type.EVENT);
+        frame.tick = game.getTick();
         frame.args.put("EVENT", "BALL_SPAWN_EVENT");
         frame.destPositionFloat = game.getBall().getTransform();
         frame.velocity = game.getBall().getVelocity();
-        server.connections.keySet().parallelStream().forEach(
-                c -> c.sendFrameToClient(frame));
+        match.broadcast(frame);
     }
     @Override
     public final void start() {
@@ -233,37 +253,48 @@ public class GameRunningState implements ServerState {
                 "Cannot invoke start on an already started server.");
     }
     /**
-     * Sends a ping frame to every connected client.
+     * Broadcasts a ping frame to every connected client and updates each
+     * bundle's data relating to the time the ping was sent and how many ping
+     * frames sent.
+     * <p>
+     * This runs as a repeating task, which an escaping exception would
+     * silently cancel, so any exception is logged instead.
+     * </p>
      */
     private void pingAllClients() {
-        server.connections.keySet().parallelStream().forEach(this::sendPing);
+        try {
+            sendPings();
+        } catch (final RuntimeException e) {
+            PongServer.LOG.log(Level.SEVERE, "Failed to ping clients.", e);
+        }
     }
     /**
-     * Sends a ping to the specified client and updates the bundle data
-     * relating to the time the ping was sent and how many ping frames sent.
-     *
-     * @param client  the client to ping
+     * Sends the ping frame for {@link #pingAllClients()}. A player who has
+     * disconnected is given a ping of zero, since clients expect one for
+     * each role.
      */
-    private void sendPing(final PongClientConnection client) {
+    private void sendPings() {
         final PongFrame pingFrame = new PongFrame(Type.PING);
-        final PongClientBundle clientBundle = server.connections.get(client);
-        final int leftPlayerPing = (int) server.connections.entrySet()
-              .stream()
-              .filter(entry -> entry.getValue().role == Role.LEFT_PADDLE)
-              .findFirst().get().getValue().ping;
-        final int rightPlayerPing = (int) server.connections.entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().role == Role.RIGHT_PADDLE)
-                .findFirst().get().getValue().ping;
+        pingFrame.tick = game.getTick();
         // Transfer the ping for each player role within the frame.
         pingFrame.pings = new EnumMap<>(Role.class);
-        pingFrame.pings.put(
-                Role.LEFT_PADDLE, Integer.valueOf(leftPlayerPing));
-        pingFrame.pings.put(
-                Role.RIGHT_PADDLE, Integer.valueOf(rightPlayerPing));
+        pingFrame.pings.put(Role.LEFT_PADDLE, Integer.valueOf(0));
+        pingFrame.pings.put(Role.RIGHT_PADDLE, Integer.valueOf(0));
+        for (final PongClientBundle clientBundle
+                : match.connections.values()) {
+            if (clientBundle.role != null) {
+                pingFrame.pings.put(clientBundle.role,
+                        Integer.valueOf((int) clientBundle.ping));
+            }
+        }
         // Send and update bundle data.
-        client.sendFrameToClient(pingFrame);
-        clientBundle.pingsSent++;
-        clientBundle.lastPingSentTime = System.currentTimeMillis();
+        match.broadcast(pingFrame);
+        final long sentTime = System.currentTimeMillis();
+        for (final PongClientBundle clientBundle
+                : match.connections.values()) {
+            clientBundle.pingsSent++;
+            clientBundle.lastPingSentTime = sentTime;
+        }
+        match.flush();
     }
 }
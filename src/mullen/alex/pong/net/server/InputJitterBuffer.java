@@ -0,0 +1,295 @@
+package mullen.alex.pong.net.server;
+
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.net.InputHistory;
+
+/**
+ * Holds back the inputs of a single player so that they can be applied at
+ * a steady rate of at most one per simulated tick, however unevenly they
+ * arrive.
+ * <p>
+ * Each input is stamped with the client tick it was made on. Inputs are
+ * played out in client tick order once enough of them have been buffered to
+ * reach the target depth. The target depth follows the jitter measured from
+ * how far the gap between client and server ticks strays from input to
+ * input, so a steady connection is barely delayed and an erratic one is
+ * delayed enough to smooth it out. A burst of inputs is therefore spread
+ * over the ticks that follow rather than moving the paddle all at once.
+ * <p>
+ * Clients only send inputs when they change, or every
+ * {@value InputHistory#LENGTH} ticks if they do not, with each carrying the
+ * {@link InputHistory} of the ticks before it. The history fills in the
+ * ticks no input was sent for, including those of an input that was lost.
+ * Once every tick heard of has been played out, the newest input is played
+ * again, as it cannot have changed without the client saying so, until
+ * {@value InputHistory#LENGTH} ticks have gone by without word from the
+ * client. The buffer has then run dry and stops playing until it has
+ * refilled to the target depth.
+ * <p>
+ * If the buffer holds more than the target depth, inputs of
+ * {@link Paddle.Input#NONE}, which would not move the paddle anyway, are
+ * skipped so that the delay shrinks back. Inputs that arrive after their
+ * tick has been played out are discarded, though the newest of them is
+ * still played from then on, and the buffer waits up to the target depth
+ * of ticks so that the inputs after them are not late too.
+ * <p>
+ * <b>Make sure this is only used within the thread of the player's
+ * match.</b>
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class InputJitterBuffer {
+    /** The fewest inputs held back before playing. */
+    public static final int MIN_DEPTH = 1;
+    /** The most inputs held back before playing. */
+    public static final int MAX_DEPTH = 32;
+    /** The number of inputs the buffer can hold, a power of two. */
+    private static final int CAPACITY = 64;
+    /** The mask that turns a tick into a slot index. */
+    private static final int MASK = CAPACITY - 1;
+    /** The number of jitters the target depth allows for. */
+    private static final double JITTER_MULTIPLIER = 2.0;
+    /** The weight given to each new jitter measurement. */
+    private static final double JITTER_GAIN = 1.0 / 16.0;
+    /** Holds the buffered inputs, indexed by client tick. */
+    private final Paddle.Input[] inputs;
+    /** Holds the client tick of the input in each slot. */
+    private final long[] ticks;
+    /** Holds the client tick to play out next, or -1 before any input. */
+    private long nextTick;
+    /** Holds the newest client tick heard of. */
+    private long newestTick;
+    /** Holds the input of the newest client tick heard of. */
+    private Paddle.Input newestInput;
+    /** Holds the input last played out. */
+    private Paddle.Input lastPlayed;
+    /** Holds whether inputs are being played out. */
+    private boolean playing;
+    /** Holds the number of ticks to wait before playing the next input. */
+    private int stall;
+    /** Holds the gap between server and client tick of the last input. */
+    private long lastOffset;
+    /** Holds the smoothed jitter in ticks. */
+    private double jitter;
+    /** Holds the number of inputs to hold back before playing. */
+    private int targetDepth;
+    /** Holds the number of inputs played out. */
+    private long played;
+    /** Holds the number of ticks the buffer was empty whilst playing. */
+    private long underruns;
+    /** Holds the number of inputs skipped to shrink the delay. */
+    private long skipped;
+    /** Holds the number of inputs that arrived too late to be played. */
+    private long late;
+    /** Holds the number of ticks played out before their input arrived. */
+    private long assumed;
+    /**
+     * Creates a new empty buffer.
+     */
+    public InputJitterBuffer() {
+        inputs = new Paddle.Input[CAPACITY];
+        ticks = new long[CAPACITY];
+        nextTick = -1;
+        newestTick = -1;
+        targetDepth = MIN_DEPTH;
+    }
+    /**
+     * Buffers the inputs of an input history that have not yet been played
+     * out and updates the jitter from when it arrived.
+     *
+     * @param clientTick  the client tick the newest input was made on
+     * @param history     the input history up to and including the tick
+     * @param serverTick  the server tick the history arrived on
+     */
+    public void add(final long clientTick, final int history,
+            final long serverTick) {
+        final Paddle.Input input = InputHistory.get(history, 0);
+        if (input == null) {
+            return;
+        }
+        measureJitter(serverTick - clientTick);
+        if (clientTick > newestTick) {
+            newestTick = clientTick;
+            newestInput = input;
+        }
+        if (nextTick < 0) {
+            nextTick = clientTick;
+        } else if (clientTick < nextTick) {
+            // Wait for the inputs to catch up so the next is not late too.
+            stall = (int) Math.max(stall,
+                    Math.min(nextTick - clientTick, targetDepth));
+            late++;
+            return;
+        }
+        if (clientTick - nextTick >= CAPACITY) {
+            // Too far ahead to hold, so give up on the oldest inputs.
+            final long newNextTick = clientTick - CAPACITY + 1;
+            skipped += newNextTick - nextTick;
+            nextTick = newNextTick;
+        }
+        for (int age = 0; age < InputHistory.LENGTH
+                && clientTick - age >= nextTick; age++) {
+            final Paddle.Input pastInput = InputHistory.get(history, age);
+            if (pastInput != null) {
+                final int slot = (int) (clientTick - age) & MASK;
+                inputs[slot] = pastInput;
+                ticks[slot] = clientTick - age;
+            }
+        }
+    }
+    /**
+     * Plays out the input for the current simulated tick.
+     *
+     * @return  the input, or <code>null</code> if there is none to apply
+     *          this tick
+     */
+    public Paddle.Input next() {
+        if (nextTick < 0) {
+            return null;
+        }
+        if (!playing) {
+            if (getDepth() < targetDepth) {
+                return null;
+            }
+            playing = true;
+        }
+        if (stall > 0) {
+            stall--;
+            return lastPlayed;
+        }
+        while (getDepth() > targetDepth) {
+            final Paddle.Input input = get(nextTick);
+            if (input != null && input != Paddle.Input.NONE) {
+                break;
+            }
+            nextTick++;
+            skipped++;
+        }
+        if (nextTick > newestTick) {
+            if (nextTick - newestTick > InputHistory.LENGTH) {
+                // The client should have sent an input by now.
+                underruns++;
+                playing = false;
+                return null;
+            }
+            nextTick++;
+            assumed++;
+            lastPlayed = newestInput;
+            return newestInput;
+        }
+        final Paddle.Input input = get(nextTick);
+        nextTick++;
+        if (input != null) {
+            played++;
+            lastPlayed = input;
+        } else {
+            // Lost along with the history that would have filled it in.
+            assumed++;
+        }
+        return lastPlayed;
+    }
+    /**
+     * Gets the number of client ticks buffered but not yet played out.
+     *
+     * @return  the depth
+     */
+    public int getDepth() {
+        return nextTick < 0 ? 0 : (int) Math.max(0, newestTick - nextTick + 1);
+    }
+    /**
+     * Gets the number of inputs held back before playing, as tuned from the
+     * measured jitter.
+     *
+     * @return  the target depth
+     */
+    public int getTargetDepth() {
+        return targetDepth;
+    }
+    /**
+     * Gets the smoothed jitter measured between inputs.
+     *
+     * @return  the jitter in ticks
+     */
+    public double getJitter() {
+        return jitter;
+    }
+    /**
+     * Gets the number of ticks played out with the input of the tick before
+     * because their own input had not arrived.
+     *
+     * @return  the number of ticks
+     */
+    public long getAssumedCount() {
+        return assumed;
+    }
+    /**
+     * Gets the number of inputs played out.
+     *
+     * @return  the number of inputs
+     */
+    public long getPlayedCount() {
+        return played;
+    }
+    /**
+     * Gets the number of ticks the buffer was empty whilst playing.
+     *
+     * @return  the number of ticks
+     */
+    public long getUnderrunCount() {
+        return underruns;
+    }
+    /**
+     * Gets the number of inputs skipped to shrink the delay.
+     *
+     * @return  the number of inputs
+     */
+    public long getSkippedCount() {
+        return skipped;
+    }
+    /**
+     * Gets the number of inputs that arrived too late to be played.
+     *
+     * @return  the number of inputs
+     */
+    public long getLateCount() {
+        return late;
+    }
+    @Override
+    public String toString() {
+        return "InputJitterBuffer [depth=" + getDepth()
+                + " targetDepth=" + targetDepth
+                + " jitter=" + String.format("%.2f", Double.valueOf(jitter))
+                + " played=" + played
+                + " underruns=" + underruns
+                + " skipped=" + skipped
+                + " late=" + late
+                + " assumed=" + assumed + "]";
+    }
+    /**
+     * Gets the buffered input of the specified client tick.
+     *
+     * @param clientTick  the client tick
+     * @return            the input, or <code>null</code> if none was
+     *                    received for that tick
+     */
+    private Paddle.Input get(final long clientTick) {
+        final int slot = (int) clientTick & MASK;
+        return ticks[slot] == clientTick ? inputs[slot] : null;
+    }
+    /**
+     * Updates the jitter from the gap between server and client tick of an
+     * input that has just arrived, and retunes the target depth from it.
+     *
+     * @param offset  the server tick minus the client tick
+     */
+    private void measureJitter(final long offset) {
+        if (nextTick >= 0) {
+            final long variation = Math.abs(offset - lastOffset);
+            jitter += (variation - jitter) * JITTER_GAIN;
+            targetDepth = (int) Math.max(MIN_DEPTH, Math.min(MAX_DEPTH,
+                    Math.round(jitter * JITTER_MULTIPLIER) + MIN_DEPTH));
+        }
+        lastOffset = offset;
+    }
+}
@@ -0,0 +1,204 @@
+package mullen.alex.pong.net.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import mullen.alex.pong.net.InputHistory;
+import mullen.alex.pong.net.SnapshotDelta;
+
+/**
+ * A bounded ring buffer of the paddle inputs received from a single client,
+ * each held as the {@link InputHistory} of the frame it arrived in along
+ * with the client tick that frame was sent on, written by the thread that
+ * receives the client's frames and read by the thread that ticks its match.
+ * <p>
+ * There must only ever be one thread offering inputs and one thread polling
+ * them. With that the mailbox needs no locks, and neither offering nor
+ * polling allocates. Inputs offered whilst the mailbox is full are dropped
+ * and counted.
+ * <p>
+ * The input frames also acknowledge the newest snapshot the client has
+ * received, so the mailbox holds that too for the match to take its next
+ * snapshot delta against.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class InputMailbox {
+    /** The default number of inputs a mailbox can hold. */
+    public static final int DEFAULT_CAPACITY = 128;
+    /** Holds the input history in each slot, which number a power of two. */
+    private final int[] slots;
+    /** Holds the client tick of the input in each slot. */
+    private final long[] ticks;
+    /** Holds the mask that turns a position into a slot index. */
+    private final int mask;
+    /** Holds the position of the next input to poll. */
+    private final AtomicLong head;
+    /** Holds the position of the next input to offer. */
+    private final AtomicLong tail;
+    /** Holds the number of inputs dropped because the mailbox was full. */
+    private final AtomicLong overflows;
+    /** Holds the tick of the newest snapshot the client has received. */
+    private volatile long snapshotAck;
+    /**
+     * Creates a new mailbox that holds up to {@value #DEFAULT_CAPACITY}
+     * inputs.
+     */
+    public InputMailbox() {
+        this(DEFAULT_CAPACITY);
+    }
+    /**
+     * Creates a new mailbox that holds at least the specified number of
+     * inputs, rounded up to a power of two.
+     *
+     * @param minCapacity  the fewest inputs the mailbox must hold
+     *
+     * @throws IllegalArgumentException  if <code>minCapacity</code> is not
+     *                                   positive or too large
+     */
+    public InputMailbox(final int minCapacity) {
+        if (minCapacity <= 0 || minCapacity > 1 << 30) {
+            throw new IllegalArgumentException(
+                    "minCapacity must be between 1 and 2^30");
+        }
+        final int capacity = Integer.highestOneBit(minCapacity - 1) << 1;
+        slots = new int[Math.max(1, capacity)];
+        ticks = new long[slots.length];
+        mask = slots.length - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+        overflows = new AtomicLong();
+        snapshotAck = SnapshotDelta.NO_BASELINE;
+    }
+    /**
+     * Adds an input if there is room for it.
+     * <p>
+     * <b>Make sure this is only executed by the producing thread.</b>
+     * </p>
+     *
+     * @param tick     the client tick the input was made on
+     * @param history  the input history up to and including the tick
+     * @return         <code>true</code> if the input was added;
+     *                 <code>false</code> if the mailbox was full
+     */
+    public boolean offer(final long tick, final int history) {
+        final long position = tail.get();
+        if (position - head.get() == slots.length) {
+            overflows.incrementAndGet();
+            return false;
+        }
+        slots[(int) position & mask] = history;
+        ticks[(int) position & mask] = tick;
+        tail.lazySet(position + 1);
+        return true;
+    }
+    /**
+     * Records that the client has received the snapshot of the specified
+     * tick, unless it has said it received a newer one.
+     * <p>
+     * <b>Make sure this is only executed by the producing thread.</b>
+     * </p>
+     *
+     * @param tick  the tick of the snapshot
+     */
+    public void acknowledgeSnapshot(final long tick) {
+        if (tick > snapshotAck) {
+            snapshotAck = tick;
+        }
+    }
+    /**
+     * Gets the tick of the newest snapshot the client has received.
+     *
+     * @return  the tick, or {@link SnapshotDelta#NO_BASELINE} if it has not
+     *          received any
+     */
+    public long getSnapshotAck() {
+        return snapshotAck;
+    }
+    /**
+     * Gets the client tick of the oldest input without removing it.
+     * <p>
+     * <b>Make sure this is only executed by the consuming thread.</b>
+     * </p>
+     *
+     * @return  the tick, which is meaningless if the mailbox is empty
+     */
+    public long peekTick() {
+        return ticks[(int) head.get() & mask];
+    }
+    /**
+     * Gets the input history of the oldest input without removing it.
+     * <p>
+     * <b>Make sure this is only executed by the consuming thread.</b>
+     * </p>
+     *
+     * @return  the history, which is meaningless if the mailbox is empty
+     */
+    public int peekHistory() {
+        return slots[(int) head.get() & mask];
+    }
+    /**
+     * Removes the oldest input.
+     * <p>
+     * <b>Make sure this is only executed by the consuming thread.</b>
+     * </p>
+     *
+     * @return  <code>true</code> if an input was removed;
+     *          <code>false</code> if the mailbox is empty
+     */
+    public boolean remove() {
+        final long position = head.get();
+        if (position == tail.get()) {
+            return false;
+        }
+        head.lazySet(position + 1);
+        return true;
+    }
+    /**
+     * Removes every input.
+     * <p>
+     * <b>Make sure this is only executed by the consuming thread.</b>
+     * </p>
+     */
+    public void clear() {
+        head.lazySet(tail.get());
+    }
+    /**
+     * Determines whether there are no inputs waiting to be polled.
+     *
+     * @return  <code>true</code> if the mailbox is empty;
+     *          <code>false</code> if not
+     */
+    public boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+    /**
+     * Gets the number of inputs waiting to be polled.
+     *
+     * @return  the number of inputs
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+    /**
+     * Gets the most inputs the mailbox can hold.
+     *
+     * @return  the capacity
+     */
+    public int getCapacity() {
+        return slots.length;
+    }
+    /**
+     * Gets the number of inputs dropped because the mailbox was full.
+     *
+     * @return  the number of inputs
+     */
+    public long getOverflowCount() {
+        return overflows.get();
+    }
+    @Override
+    public String toString() {
+        return "InputMailbox [size=" + size() + " capacity=" + slots.length
+                + " overflows=" + overflows.get() + "]";
+    }
+}
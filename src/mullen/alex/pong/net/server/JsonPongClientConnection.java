@@ -1,28 +1,31 @@
 package mullen.alex.pong.net.server;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonIOException;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.stream.JsonReader;
 
+import mullen.alex.pong.net.ConnectionThreads;
+import mullen.alex.pong.net.JsonFrameCodec;
+import mullen.alex.pong.net.OutboundQueue;
+import mullen.alex.pong.net.OutboundWriter;
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.StreamConnection;
 
 /**
  * A {@link PongClientConnection} implementation that communicates across a
  * {@link StreamConnection} using JSON.
+ * <p>
+ * Frames sent are queued and written by a thread of their own each time the
+ * connection is flushed, so the sender is never held up by the stream.
  *
  * @author  Alex Mullen
  *
@@ -33,6 +36,8 @@ public class JsonPongClientConnection implements PongClientConnection {
             Logger.getLogger(JsonPongClientConnection.class.getName());
     /** The character encoding this connection reads and writes in. */
     private static final Charset CONNECTION_CHARSET = StandardCharsets.UTF_8;
+    /** The codec shared by every connection. */
+    private static final JsonFrameCodec CODEC = new JsonFrameCodec();
     /** The connection. */
     private final StreamConnection connection;
     /** Holds the handler. */
@@ -41,10 +46,12 @@ public class JsonPongClientConnection implements PongClientConnection {
     private final Thread receiveFrameThread;
     /** The JSON reader instance for reading the JSON tokens from the stream. */
     private final JsonReader jsonReader;
-    /** The writer instance for writing the JSON to the stream. */
-    private final Writer writer;
-    /** The Gson instance to use for parsing and writing JSON frames. */
-    private final Gson gson;
+    /** Holds the frames waiting to be sent. */
+    private final OutboundQueue outbound;
+    /** Holds the outbox applying the slow consumer policy. */
+    private final ClientOutbox outbox;
+    /** Holds the writer of the queued frames to the stream. */
+    private final OutboundWriter outboundWriter;
     /**
      * Creates a new instance that uses the given stream connection and handler.
      *
@@ -55,24 +62,54 @@ public class JsonPongClientConnection implements PongClientConnection {
      */
     public JsonPongClientConnection(final StreamConnection streamConnection,
             final Handler connectionHandler) throws IOException {
+        this(streamConnection, connectionHandler, SlowConsumerPolicy.DEFAULT);
+    }
+    /**
+     * Creates a new instance that uses the given stream connection, handler
+     * and slow consumer policy.
+     *
+     * @param streamConnection    the connection
+     * @param connectionHandler   the handler
+     * @param slowConsumerPolicy  the policy for when the client falls behind
+     *
+     * @throws IOException        if an exception occurs
+     */
+    public JsonPongClientConnection(final StreamConnection streamConnection,
+            final Handler connectionHandler,
+            final SlowConsumerPolicy slowConsumerPolicy) throws IOException {
         connection = Objects.requireNonNull(streamConnection);
         handler = Objects.requireNonNull(connectionHandler);
-        writer = new BufferedWriter(new OutputStreamWriter(
-                connection.getOutputStream(), CONNECTION_CHARSET));
+        outbound = new OutboundQueue();
+        outbox = new ClientOutbox(slowConsumerPolicy, outbound,
+                EncodedFrame::getJsonBytes);
+        outboundWriter = new OutboundWriter(connection, outbound,
+                "JsonPongClientConnection::writeThread");
         jsonReader = new JsonReader(
                 new BufferedReader(
                         new InputStreamReader(connection.getInputStream(),
                                 CONNECTION_CHARSET)));
-        gson = new Gson();
-        receiveFrameThread = new Thread(this::receiveThreadBody);
+        jsonReader.setLenient(true);
+        receiveFrameThread = ConnectionThreads.newThread(
+                "JsonPongClientConnection::receiveThread",
+                this::receiveThreadBody);
     }
     /**
-     * Initialises the receive thread since it is bad practice to start threads
-     * within constructors.
+     * Initialises the receive and write threads since it is bad practice to
+     * start threads within constructors.
      */
     final void initialise() {
+        outboundWriter.start();
         receiveFrameThread.start();
     }
+    /**
+     * Gets the queue of frames waiting to be sent, which keeps count of its
+     * depth and of the bytes sent by each flush.
+     *
+     * @return  the queue
+     */
+    public final OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
     /**
      * The code for the receive thread.
      */
@@ -80,8 +117,7 @@ public class JsonPongClientConnection implements PongClientConnection {
         boolean continueLoop = true;
         do {
             try {
-                final PongFrame frame =
-                        gson.fromJson(jsonReader, PongFrame.class);
+                final PongFrame frame = CODEC.decode(jsonReader);
                 // EOF check.
                 if (frame == null) {
                     continueLoop = false;
@@ -101,11 +137,7 @@ public class JsonPongClientConnection implements PongClientConnection {
      * have no effect.
      */
     private void shutdownAndCleanup() {
-        try {
-            writer.close();
-        } catch (final IOException e) {
-            LOG.log(Level.WARNING, e.getMessage(), e);
-        }
+        outboundWriter.close();
         try {
             jsonReader.close();
         } catch (final IOException e) {
@@ -126,11 +158,18 @@ public class JsonPongClientConnection implements PongClientConnection {
     }
     @Override
     public final void sendFrameToClient(final PongFrame frame) {
-        try {
-            writer.write(gson.toJson(frame));
-            writer.flush();
-        } catch (final IOException e) {
-            LOG.log(Level.WARNING, e.getMessage(), e);
+        sendFrameToClient(new EncodedFrame(frame));
+    }
+    @Override
+    public final void sendFrameToClient(final EncodedFrame frame) {
+        outbox.offer(frame);
+    }
+    @Override
+    public final void flush() {
+        outboundWriter.flush();
+        if (outbox.isTooSlow(outboundWriter)) {
+            LOG.warning("Disconnecting slow client " + this + ": " + outbound);
+            close();
         }
     }
     @Override
@@ -5,12 +5,15 @@ import java.util.Objects;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import mullen.alex.pong.net.NonBlockingStreamConnection;
 import mullen.alex.pong.net.StreamConnection;
 import mullen.alex.pong.net.StreamConnectionListener;
 
 /**
  * A {@link PongClientConnectionListener} implementation that listens for and
- * produces {@link JsonPongClientConnection} type connections.
+ * produces {@link JsonPongClientConnection} type connections, or
+ * {@link NonBlockingJsonPongClientConnection} type connections for stream
+ * connections that are {@link NonBlockingStreamConnection non-blocking}.
  *
  * @author  Alex Mullen
  *
@@ -26,6 +29,8 @@ public class JsonPongClientConnectionListener implements
     private final PongClientConnectionListener.Handler newConnectionHandler;
     /** Holds the connection event handler. */
     private final PongClientConnection.Handler connectionEventHandler;
+    /** Holds the slow consumer policy given to new connections. */
+    private final SlowConsumerPolicy slowConsumerPolicy;
     /**
      * Creates a new instance using the specified listener builder, connection
      * listener event handler and the connection event handler.
@@ -42,9 +47,32 @@ public class JsonPongClientConnectionListener implements
             final PongClientConnectionListener.Handler connHandler,
             final PongClientConnection.Handler connEventHandler)
                     throws IOException {
-        connectionListener = listenerBuilder.build(this);
+        this(listenerBuilder, connHandler, connEventHandler,
+                SlowConsumerPolicy.DEFAULT);
+    }
+    /**
+     * Creates a new instance using the specified listener builder, connection
+     * listener event handler, connection event handler and slow consumer
+     * policy.
+     *
+     * @param listenerBuilder   the listener implementation builder
+     * @param connHandler       the listener connection handler
+     * @param connEventHandler  the connection event handler to inject into new
+     *                          connections
+     * @param policy            the slow consumer policy to give new
+     *                          connections
+     *
+     * @throws IOException  if an exception occurs whilst building the listener
+     */
+    public JsonPongClientConnectionListener(
+            final StreamConnectionListener.Builder listenerBuilder,
+            final PongClientConnectionListener.Handler connHandler,
+            final PongClientConnection.Handler connEventHandler,
+            final SlowConsumerPolicy policy) throws IOException {
         newConnectionHandler = Objects.requireNonNull(connHandler);
         connectionEventHandler = Objects.requireNonNull(connEventHandler);
+        slowConsumerPolicy = Objects.requireNonNull(policy);
+        connectionListener = listenerBuilder.build(this);
     }
     @Override
     public final void start() {
@@ -56,10 +84,19 @@ public class JsonPongClientConnectionListener implements
     }
     @Override
     public final void onNewConnection(final StreamConnection connection) {
+        if (connection instanceof NonBlockingStreamConnection) {
+            final NonBlockingJsonPongClientConnection jsonConnection =
+                    new NonBlockingJsonPongClientConnection(
+                            (NonBlockingStreamConnection) connection,
+                            connectionEventHandler, slowConsumerPolicy);
+            newConnectionHandler.onNewConnection(jsonConnection);
+            jsonConnection.initialise();
+            return;
+        }
         try {
             final JsonPongClientConnection jsonConnection =
                     new JsonPongClientConnection(connection,
-                            connectionEventHandler);
+                            connectionEventHandler, slowConsumerPolicy);
             newConnectionHandler.onNewConnection(jsonConnection);
             jsonConnection.initialise();
         } catch (final IOException e) {
@@ -78,13 +115,27 @@ public class JsonPongClientConnectionListener implements
                 PongClientConnectionListener.Builder {
         /** Holds the stream connection listener builder we use. */
         private final StreamConnectionListener.Builder streamListenerBuilder;
+        /** Holds the slow consumer policy given to new connections. */
+        private final SlowConsumerPolicy slowConsumerPolicy;
         /**
          * Creates a new instance that will use the specified builder.
          *
          * @param listenerBuilder  the stream connection listener builder
          */
         public Builder(final StreamConnectionListener.Builder listenerBuilder) {
+            this(listenerBuilder, SlowConsumerPolicy.DEFAULT);
+        }
+        /**
+         * Creates a new instance that will use the specified builder and give
+         * new connections the specified slow consumer policy.
+         *
+         * @param listenerBuilder  the stream connection listener builder
+         * @param policy           the slow consumer policy
+         */
+        public Builder(final StreamConnectionListener.Builder listenerBuilder,
+                final SlowConsumerPolicy policy) {
             streamListenerBuilder = listenerBuilder;
+            slowConsumerPolicy = Objects.requireNonNull(policy);
         }
         @Override
         public final PongClientConnectionListener build(
@@ -92,7 +143,7 @@ public class JsonPongClientConnectionListener implements
                 final PongClientConnection.Handler connEventHandler)
                 throws IOException {
             return new JsonPongClientConnectionListener(streamListenerBuilder,
-                    newConnHandler, connEventHandler);
+                    newConnHandler, connEventHandler, slowConsumerPolicy);
         }
     }
 }
@@ -0,0 +1,148 @@
+package mullen.alex.pong.net.server;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+
+import mullen.alex.pong.net.JsonFrameCodec;
+import mullen.alex.pong.net.JsonObjectFramer;
+import mullen.alex.pong.net.NonBlockingStreamConnection;
+import mullen.alex.pong.net.OutboundQueue;
+import mullen.alex.pong.net.OutboundWriter;
+import mullen.alex.pong.net.PongFrame;
+
+/**
+ * A {@link PongClientConnection} implementation that communicates across a
+ * {@link NonBlockingStreamConnection} using JSON.
+ * <p>
+ * Unlike {@link JsonPongClientConnection} this has no thread of its own.
+ * Frames are parsed on the thread that services the underlying connection as
+ * soon as all of their bytes have arrived. Frames sent are queued and handed
+ * to the connection as a single gathered send each time this is flushed, by
+ * an {@link OutboundWriter}.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class NonBlockingJsonPongClientConnection implements
+        PongClientConnection, NonBlockingStreamConnection.Receiver {
+    /** The logger instance for this class. */
+    private static final Logger LOG = Logger.getLogger(
+            NonBlockingJsonPongClientConnection.class.getName());
+    /** The codec shared by every connection. */
+    private static final JsonFrameCodec CODEC = new JsonFrameCodec();
+    /** The connection. */
+    private final NonBlockingStreamConnection connection;
+    /** Holds the handler. */
+    private final Handler handler;
+    /** Holds the framer that splits the received bytes into frames. */
+    private final JsonObjectFramer framer;
+    /** Holds the frames waiting to be sent. */
+    private final OutboundQueue outbound;
+    /** Holds the outbox applying the slow consumer policy. */
+    private final ClientOutbox outbox;
+    /** Holds the writer of the queued frames to the connection. */
+    private final OutboundWriter outboundWriter;
+    /**
+     * Creates a new instance that uses the given connection and handler.
+     *
+     * @param streamConnection   the connection
+     * @param connectionHandler  the handler
+     */
+    public NonBlockingJsonPongClientConnection(
+            final NonBlockingStreamConnection streamConnection,
+            final Handler connectionHandler) {
+        this(streamConnection, connectionHandler, SlowConsumerPolicy.DEFAULT);
+    }
+    /**
+     * Creates a new instance that uses the given connection, handler and
+     * slow consumer policy.
+     *
+     * @param streamConnection    the connection
+     * @param connectionHandler   the handler
+     * @param slowConsumerPolicy  the policy for when the client falls behind
+     */
+    public NonBlockingJsonPongClientConnection(
+            final NonBlockingStreamConnection streamConnection,
+            final Handler connectionHandler,
+            final SlowConsumerPolicy slowConsumerPolicy) {
+        connection = Objects.requireNonNull(streamConnection);
+        handler = Objects.requireNonNull(connectionHandler);
+        framer = new JsonObjectFramer();
+        outbound = new OutboundQueue();
+        outbox = new ClientOutbox(slowConsumerPolicy, outbound,
+                EncodedFrame::getJsonBytes);
+        outboundWriter = new OutboundWriter(connection, outbound);
+    }
+    /**
+     * Starts receiving frames, which is not done within the constructor so
+     * that no frame is handled before the connection has been announced.
+     */
+    final void initialise() {
+        connection.startReceiving(this);
+    }
+    /**
+     * Gets the queue of frames waiting to be sent, which keeps count of its
+     * depth and of the bytes sent by each flush.
+     *
+     * @return  the queue
+     */
+    public final OutboundQueue getOutboundQueue() {
+        return outbound;
+    }
+    @Override
+    public final void onReceived(final ByteBuffer data) {
+        try {
+            framer.feed(data, this::onReceivedJson);
+        } catch (final IOException | JsonSyntaxException e) {
+            LOG.log(Level.WARNING, e.getMessage(), e);
+            connection.close();
+        }
+    }
+    @Override
+    public final void onClosed() {
+        outbound.clear();
+        handler.onDisconnected(this);
+    }
+    @Override
+    public final void close() {
+        connection.close();
+        outbound.clear();
+    }
+    @Override
+    public final void sendFrameToClient(final PongFrame frame) {
+        sendFrameToClient(new EncodedFrame(frame));
+    }
+    @Override
+    public final void sendFrameToClient(final EncodedFrame frame) {
+        outbox.offer(frame);
+    }
+    @Override
+    public final void flush() {
+        outboundWriter.flush();
+        if (outbox.isTooSlow(outboundWriter)) {
+            LOG.warning("Disconnecting slow client " + this + ": " + outbound);
+            close();
+        }
+    }
+    @Override
+    public final String toString() {
+        return "NonBlockingJsonPongClientConnection [connection="
+                + connection + "]";
+    }
+    /**
+     * Parses a complete JSON frame and passes it to the handler.
+     *
+     * @param json  the JSON text of the frame
+     */
+    private void onReceivedJson(final String json) {
+        handler.onReceivedFrame(this,
+                CODEC.decode(new JsonReader(new StringReader(json))));
+    }
+}
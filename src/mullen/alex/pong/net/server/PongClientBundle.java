@@ -1,10 +1,9 @@
 package mullen.alex.pong.net.server;
 
-import java.util.ArrayDeque;
-import java.util.Queue;
+import java.util.Objects;
 
-import mullen.alex.pong.Paddle;
 import mullen.alex.pong.net.Role;
+import mullen.alex.pong.net.SnapshotHistory;
 
 /**
  * Holds the bundle of data about a Pong client connection.
@@ -28,11 +27,20 @@ public class PongClientBundle {
     /** Holds the role assigned to this client. */
     public Role role;
     /** Holds received and pending inputs for this client. */
-    public Queue<Paddle.Input> inputs;
+    public final InputMailbox inputs;
+    /** Holds the inputs waiting to be applied, one per tick. */
+    public final InputJitterBuffer inputBuffer;
+    /** Holds the snapshots sent to this client. */
+    public final SnapshotHistory snapshots;
     /**
-     * Creates a new instance.
+     * Creates a new instance whose inputs are received into the specified
+     * mailbox.
+     *
+     * @param mailbox  the client's input mailbox
      */
-    public PongClientBundle() {
-        inputs = new ArrayDeque<>();
+    public PongClientBundle(final InputMailbox mailbox) {
+        inputs = Objects.requireNonNull(mailbox);
+        inputBuffer = new InputJitterBuffer();
+        snapshots = new SnapshotHistory();
     }
 }
@@ -12,11 +12,27 @@ import mullen.alex.pong.net.PongFrame;
  */
 public interface PongClientConnection extends Connection {
     /**
-     * Sends a frame to this client.
+     * Queues a frame to be sent to this client when it is next
+     * {@link #flush() flushed}.
      *
      * @param frame  the frame to send
      */
     void sendFrameToClient(PongFrame frame);
+    /**
+     * Queues a frame that is being broadcast to this client, reusing the
+     * bytes it has already been encoded to by any other client using the
+     * same wire format.
+     *
+     * @param frame  the encoded frame to send
+     */
+    void sendFrameToClient(EncodedFrame frame);
+    /**
+     * Hands every frame queued since the last flush to the I/O layer to be
+     * written together, without waiting for them to be written. A client
+     * that has fallen too far behind under its {@link SlowConsumerPolicy} is
+     * disconnected instead.
+     */
+    void flush();
     /**
      * Defines an interface for implementing a class that handles events and
      * actions relating to the pong client connection.
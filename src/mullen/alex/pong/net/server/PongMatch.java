@@ -0,0 +1,247 @@
+package mullen.alex.pong.net.server;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.server.PongServer.ServerState;
+
+/**
+ * Represents a single match hosted by a {@link PongServer}, with its own
+ * connections, state machine and game.
+ * <p>
+ * A match is only ever accessed from the thread of the
+ * {@link TickScheduler} shard it is assigned to, apart from the set of
+ * connections the server has assigned it, which only the server thread
+ * uses, so it needs no locking of its own. Beyond its game and connections, a match holds little more than its
+ * state and the task scheduled for its pings, since its ticks are batched
+ * with the other matches of its shard, which keeps the cost of each
+ * concurrent match small.
+ * <p>
+ * Frames produced by a tick are only flushed to the clients every
+ * {@link TickRates#getTicksPerSend()} ticks, so those of the ticks in between
+ * are sent together.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class PongMatch {
+    /** The number of connections a match is played between. */
+    static final int PLAYER_COUNT = 2;
+    /** The server hosting this match. */
+    final PongServer server;
+    /** The game builder to use for creating the match's game. */
+    final Game.Builder gameBuilder;
+    /** The executor of the shard this match runs on. */
+    final ScheduledExecutorService executor;
+    /** Holds the shard that ticks this match. */
+    private final TickScheduler.Shard shard;
+    /** Holds the connections and their associated information. */
+    final Map<PongClientConnection, PongClientBundle> connections;
+    /**
+     * Holds the connections the server has assigned to this match that are
+     * still connected, which is only used on the server thread.
+     */
+    final Set<PongClientConnection> assigned;
+    /** Holds the current state pattern state for this match. */
+    private ServerState state;
+    /** Holds whether the match has finished. */
+    private boolean finished;
+    /** Holds the number of ticks since the clients were last sent to. */
+    private int ticksSinceSend;
+    /** Holds whether the clients are sent to at the end of this tick. */
+    private boolean sendDue;
+    /**
+     * Creates a new instance hosted by the specified server that runs on the
+     * specified shard.
+     *
+     * @param hostServer   the server hosting the match
+     * @param tickShard    the shard the match runs on
+     */
+    PongMatch(final PongServer hostServer,
+            final TickScheduler.Shard tickShard) {
+        server = Objects.requireNonNull(hostServer);
+        shard = Objects.requireNonNull(tickShard);
+        gameBuilder = server.gameBuilder;
+        executor = shard.executor;
+        connections = new HashMap<>();
+        assigned = new HashSet<>();
+        state = new InitialState();
+    }
+    /**
+     * Starts the match so that it accepts connections.
+     */
+    final void start() {
+        executor.execute(() -> state.start());
+    }
+    /**
+     * Shuts the match down by closing all its connections.
+     */
+    final void shutdown() {
+        executor.execute(() -> state.shutdown());
+    }
+    /**
+     * Handles a new connection being assigned to this match.
+     *
+     * @param connection  the connection
+     */
+    final void onNewConnection(final PongClientConnection connection) {
+        executor.execute(() -> {
+            state.onNewConnection(connection);
+            flush();
+        });
+    }
+    /**
+     * Handles a connection of this match being lost.
+     *
+     * @param client  the client connection that was lost
+     */
+    final void onDisconnected(final PongClientConnection client) {
+        executor.execute(() -> {
+            state.onDisconnected(client);
+            flush();
+        });
+    }
+    /**
+     * Handles a frame being received from a connection of this match.
+     *
+     * @param client  the client the frame originated from
+     * @param frame   the frame
+     */
+    final void onReceivedFrame(final PongClientConnection client,
+            final PongFrame frame) {
+        executor.execute(() -> {
+            state.onReceivedFrame(client, frame);
+            flush();
+        });
+    }
+    /**
+     * Performs a tick, then flushes the frames produced since the last
+     * flush if a send is due.
+     * <p>
+     * <b>Make sure this is only executed within the shard thread.</b>
+     * </p>
+     */
+    final void tick() {
+        sendDue = ++ticksSinceSend >= server.tickRates.getTicksPerSend();
+        state.tick();
+        if (sendDue) {
+            ticksSinceSend = 0;
+            flush();
+        }
+    }
+    /**
+     * Determines whether the clients are sent to at the end of the current
+     * tick, so that what is only worth sending then, such as a snapshot, is
+     * only produced then.
+     * <p>
+     * <b>Make sure this is only executed within the shard thread.</b>
+     * </p>
+     *
+     * @return  <code>true</code> if a send is due;
+     *          <code>false</code> if not
+     */
+    final boolean isSendDue() {
+        return sendDue;
+    }
+    /**
+     * Flushes every connection of this match so that the frames queued for
+     * each go out together in a single write.
+     * <p>
+     * <b>Make sure this is only executed within the shard thread.</b>
+     * </p>
+     */
+    final void flush() {
+        for (final PongClientConnection connection : connections.keySet()) {
+            connection.flush();
+        }
+    }
+    /**
+     * Queues a frame for every connection of this match. The frame is encoded
+     * at most once for each wire format in use, rather than once for each
+     * connection, so it must not be modified afterwards.
+     *
+     * @param frame  the frame to send
+     */
+    final void broadcast(final PongFrame frame) {
+        final EncodedFrame encoded = new EncodedFrame(frame);
+        for (final PongClientConnection connection : connections.keySet()) {
+            connection.sendFrameToClient(encoded);
+        }
+    }
+    /**
+     * Changes the match's state.
+     *
+     * @param newState  the state to change to
+     */
+    final void changeState(final ServerState newState) {
+        PongServer.LOG.info("changing state to: "
+                + newState.getClass().getSimpleName());
+        state = newState;
+    }
+    /**
+     * Starts ticking the match as part of its shard's batches.
+     */
+    final void startTicking() {
+        shard.add(this);
+    }
+    /**
+     * Stops ticking the match if it has been started.
+     */
+    final void stopTicking() {
+        shard.remove(this);
+    }
+    /**
+     * Finishes the match if none of its connections remain, telling the
+     * server it no longer needs hosting.
+     */
+    final void finishIfAllDisconnected() {
+        if (connections.isEmpty() && !finished) {
+            finished = true;
+            stopTicking();
+            changeState(new ShutdownState());
+            shard.release();
+            server.onMatchFinished(this);
+        }
+    }
+    /**
+     * Represents the state after the match has being instantiated.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public class InitialState implements ServerState {
+        @Override
+        public final void start() {
+            changeState(
+                    new WaitingForConnectionsToBeReadyState(PongMatch.this));
+        }
+        @Override
+        public final void shutdown() {
+            throw new IllegalStateException();
+        }
+        @Override
+        public final void onNewConnection(
+                final PongClientConnection connection) {
+            throw new IllegalStateException();
+        }
+        @Override
+        public final void onDisconnected(final PongClientConnection client) {
+            throw new IllegalStateException();
+        }
+        @Override
+        public final void onReceivedFrame(final PongClientConnection client,
+                final PongFrame frame) {
+            throw new IllegalStateException();
+        }
+        @Override
+        public final void tick() {
+            throw new IllegalStateException();
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package mullen.alex.pong.net.server;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -11,10 +15,35 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import mullen.alex.pong.Game;
+import mullen.alex.pong.net.InputHistory;
 import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
 
 /**
  * The pong server that coordinates the game between opponents.
+ * <p>
+ * A server hosts one or more {@link PongMatch matches}. New connections join
+ * the match currently being formed and once that match has a connection for
+ * each player, a new one is formed for the connections that follow, up to
+ * the server's match limit.
+ * Each match runs its own state machine and game and is torn down on its own
+ * when its connections are gone. A server limited to a single match shuts
+ * itself down once that match is over.
+ * <p>
+ * The server thread only assigns connections to matches and forwards their
+ * events. Each match runs on the {@link TickScheduler} shard it is assigned
+ * to, with one shard per available processor up to the match limit.
+ * <p>
+ * Input frames skip the server thread altogether. Each connection is given
+ * an {@link InputMailbox} when it is accepted, which the thread receiving
+ * its frames writes inputs straight into and its match drains each tick.
+ * <p>
+ * Matches tick and send to their clients at the separate rates of the
+ * server's {@link TickRates}. Each send, a match sends its clients a
+ * snapshot of its game, as a
+ * {@link mullen.alex.pong.net.SnapshotDelta delta} against the newest
+ * snapshot each client has acknowledged, along with the frames produced
+ * since the last send.
  *
  * @author  Alex Mullen
  *
@@ -25,18 +54,30 @@ public class PongServer implements PongClientConnectionListener.Handler,
     static final Logger LOG = Logger.getLogger(PongServer.class.getName());
     /** The game builder to use for creating a game. */
     final Game.Builder gameBuilder;
+    /** The rates matches tick and send to their clients at. */
+    final TickRates tickRates;
     /** The single thread executor service AKA the server thread. */
     final ScheduledExecutorService executor;
     /** Holds the connection listener that listens for connections. */
     final PongClientConnectionListener connectionListener;
-    /** Holds the connections and their associated information. */
-    final Map<PongClientConnection, PongClientBundle> connections;
-    /** Holds the current state pattern state for this server. */
-    private ServerState state;
+    /** Holds the scheduler whose shards the matches run on. */
+    final TickScheduler tickScheduler;
+    /** Holds the match that each connection belongs to. */
+    private final Map<PongClientConnection, PongMatch> matchesByConnection;
+    /** Holds the input mailbox of each connection. */
+    private final Map<PongClientConnection, InputMailbox> mailboxes;
+    /** Holds the matches that have not yet finished. */
+    private final Set<PongMatch> matches;
+    /** Holds the most matches that can be hosted at once. */
+    private final int maxMatches;
+    /** Holds the match new connections are assigned to. */
+    private PongMatch formingMatch;
+    /** Holds whether the server has been told to shutdown. */
+    private boolean shuttingDown;
     private Object shutdownLock;
     /**
      * Creates a new instance using the specified connection listener
-     * builder and game builder.
+     * builder and game builder that hosts a single match.
      *
      * @param builder        the connection listener builder
      * @param gb             the game builder
@@ -47,18 +88,72 @@ public class PongServer implements PongClientConnectionListener.Handler,
     public PongServer(final PongClientConnectionListener.Builder builder,
             final Game.Builder gb)
                     throws IOException {
+        this(builder, gb, 1);
+    }
+    /**
+     * Creates a new instance using the specified connection listener
+     * builder and game builder that hosts up to the specified number of
+     * matches at once.
+     *
+     * @param builder        the connection listener builder
+     * @param gb             the game builder
+     * @param matchLimit     the most matches to host at once
+     *
+     * @throws IllegalArgumentException  if <code>matchLimit</code> is not
+     *                                   positive
+     * @throws IOException               if an I/O exception occurs whilst
+     *                                   constructing the connection listener
+     */
+    public PongServer(final PongClientConnectionListener.Builder builder,
+            final Game.Builder gb, final int matchLimit)
+                    throws IOException {
+        this(builder, gb, matchLimit, TickRates.DEFAULT);
+    }
+    /**
+     * Creates a new instance using the specified connection listener
+     * builder and game builder that hosts up to the specified number of
+     * matches at once, ticking and sending to clients at the specified
+     * rates.
+     *
+     * @param builder        the connection listener builder
+     * @param gb             the game builder
+     * @param matchLimit     the most matches to host at once
+     * @param rates          the tick and send rates
+     *
+     * @throws IllegalArgumentException  if <code>matchLimit</code> is not
+     *                                   positive
+     * @throws IOException               if an I/O exception occurs whilst
+     *                                   constructing the connection listener
+     */
+    public PongServer(final PongClientConnectionListener.Builder builder,
+            final Game.Builder gb, final int matchLimit,
+            final TickRates rates) throws IOException {
+        if (matchLimit <= 0) {
+            throw new IllegalArgumentException("matchLimit must be positive");
+        }
         gameBuilder = Objects.requireNonNull(gb);
-        connectionListener = builder.build(this, this);
-        connections = new HashMap<>();
+        tickRates = Objects.requireNonNull(rates);
+        maxMatches = matchLimit;
+        matchesByConnection = new HashMap<>();
+        mailboxes = new ConcurrentHashMap<>();
+        matches = new HashSet<>();
         executor = Executors.newSingleThreadScheduledExecutor();
-        state = new InitialState();
+        tickScheduler = new TickScheduler(
+                Math.min(matchLimit,
+                        Runtime.getRuntime().availableProcessors()),
+                tickRates.getTicksPerSecond());
+        connectionListener = builder.build(this, this);
         shutdownLock = new Object();
     }
     /**
      * Start the server.
      */
     public final void start() {
-        executor.execute(state::start);
+        executor.execute(() -> {
+            tickScheduler.start();
+            formNewMatch();
+            connectionListener.start();
+        });
     }
     /**
      * Shutdown the server.
@@ -88,7 +183,7 @@ public class PongServer implements PongClientConnectionListener.Handler,
     at java.lang.Thread.run(Thread.java:745)
                  */
 
-                executor.execute(state::shutdown);
+                executor.execute(this::shutdownMatches);
         //        executor.shutdown();
                 try {
                     if (!executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS)) {
@@ -102,35 +197,137 @@ public class PongServer implements PongClientConnectionListener.Handler,
         }
     }
     /**
-     * Performs a tick.
-     */
-    final void tick() {
-        executor.execute(state::tick);
-    }
-    /**
-     * Changes the server's state.
+     * Gets the number of matches that have not yet finished.
      * <p>
      * <b>Make sure this is only executed within the executor thread.</b>
      * </p>
      *
-     * @param newState  the state to change to
+     * @return  the number of matches
+     */
+    final int getMatchCount() {
+        return matches.size();
+    }
+    /**
+     * Gets the input mailbox of the specified connection.
+     *
+     * @param connection  the connection
+     * @return            the mailbox, or <code>null</code> if the
+     *                    connection is not connected
+     */
+    final InputMailbox getInputMailbox(final PongClientConnection connection) {
+        return mailboxes.get(connection);
+    }
+    /**
+     * Handles a match finishing by no longer hosting it. The server shuts
+     * down once its last match finishes if it is shutting down or only
+     * hosts a single match, otherwise the freed slot is used to form a new
+     * match if one is not already forming.
+     *
+     * @param match  the match that finished
+     */
+    final void onMatchFinished(final PongMatch match) {
+        executor.execute(() -> {
+            matches.remove(match);
+            for (final PongClientConnection connection : match.assigned) {
+                matchesByConnection.remove(connection);
+            }
+            match.assigned.clear();
+            if (match == formingMatch) {
+                formingMatch = null;
+            }
+            if ((shuttingDown || maxMatches == 1) && matches.isEmpty()) {
+                LOG.info("all matches finished, shutting down");
+                stopServices();
+            } else if (formingMatch == null && !shuttingDown) {
+                formNewMatch();
+            }
+        });
+    }
+    /**
+     * Stops listening for connections and stops the shards and the server
+     * thread once their remaining tasks have run.
+     */
+    private void stopServices() {
+        connectionListener.shutdown();
+        tickScheduler.shutdown();
+        executor.shutdown();
+    }
+    /**
+     * Creates a new match for new connections to be assigned to.
+     */
+    private void formNewMatch() {
+        formingMatch = new PongMatch(this, tickScheduler.assign());
+        matches.add(formingMatch);
+        formingMatch.start();
+    }
+    /**
+     * Shuts down every match that has not yet finished.
      */
-    final void changeState(final ServerState newState) {
-        LOG.info("changing state to: " + newState.getClass().getSimpleName());
-        state = newState;
+    private void shutdownMatches() {
+        shuttingDown = true;
+        if (matches.isEmpty()) {
+            stopServices();
+        }
+        // Copy since matches without connections finish straight away.
+        for (final PongMatch match : new ArrayList<>(matches)) {
+            match.shutdown();
+        }
     }
     @Override
     public final void onNewConnection(final PongClientConnection connection) {
-        executor.execute(() -> state.onNewConnection(connection));
+        mailboxes.put(connection, new InputMailbox());
+        executor.execute(() -> {
+            if (formingMatch == null) {
+                LOG.info("rejecting connection: " + connection);
+                connection.close();
+            } else {
+                matchesByConnection.put(connection, formingMatch);
+                formingMatch.assigned.add(connection);
+                formingMatch.onNewConnection(connection);
+                if (formingMatch.assigned.size() == PongMatch.PLAYER_COUNT) {
+                    // Full, so the connections that follow need a new one.
+                    formingMatch = null;
+                    if (!shuttingDown && matches.size() < maxMatches) {
+                        formNewMatch();
+                    }
+                }
+            }
+        });
     }
     @Override
     public final void onDisconnected(final PongClientConnection client) {
-        executor.execute(() -> state.onDisconnected(client));
+        mailboxes.remove(client);
+        executor.execute(() -> {
+            final PongMatch match = matchesByConnection.remove(client);
+            if (match != null) {
+                match.assigned.remove(client);
+                match.onDisconnected(client);
+            }
+        });
     }
     @Override
     public final void onReceivedFrame(final PongClientConnection client,
             final PongFrame frame) {
-        executor.execute(() -> state.onReceivedFrame(client, frame));
+        if (frame.getType() == Type.INPUT) {
+            final InputMailbox mailbox = mailboxes.get(client);
+            if (mailbox != null && frame.snapshotAck != null) {
+                mailbox.acknowledgeSnapshot(frame.snapshotAck.longValue());
+            }
+            if (mailbox != null && frame.inputHistory != null) {
+                mailbox.offer(frame.tick, frame.inputHistory.intValue());
+            } else if (mailbox != null && frame.input != null) {
+                // A frame without a history only says what its own tick was.
+                mailbox.offer(frame.tick,
+                        InputHistory.push(InputHistory.EMPTY, frame.input));
+            }
+            return;
+        }
+        executor.execute(() -> {
+            final PongMatch match = matchesByConnection.get(client);
+            if (match != null) {
+                match.onReceivedFrame(client, frame);
+            }
+        });
     }
     /**
      * Represents the state of the server using the state pattern.
@@ -172,40 +369,4 @@ public class PongServer implements PongClientConnectionListener.Handler,
         void onReceivedFrame(PongClientConnection client,
                 PongFrame frame);
     }
-    /**
-     * Represents the state after the server instance has being instantiated.
-     *
-     * @author  Alex Mullen
-     *
-     */
-    public class InitialState implements ServerState {
-        @Override
-        public final void start() {
-            changeState(
-                    new WaitingForConnectionsToBeReadyState(PongServer.this));
-            connectionListener.start();
-        }
-        @Override
-        public final void shutdown() {
-            throw new IllegalStateException();
-        }
-        @Override
-        public final void onNewConnection(
-                final PongClientConnection connection) {
-            throw new IllegalStateException();
-        }
-        @Override
-        public final void onDisconnected(final PongClientConnection client) {
-            throw new IllegalStateException();
-        }
-        @Override
-        public final void onReceivedFrame(final PongClientConnection client,
-                final PongFrame frame) {
-            throw new IllegalStateException();
-        }
-        @Override
-        public final void tick() {
-            throw new IllegalStateException();
-        }
-    }
 }
@@ -13,25 +13,22 @@ import mullen.alex.pong.net.server.PongServer.ServerState;
  *
  */
 public class ShuttingDownState implements ServerState {
-    /** The server instance. */
-    private final PongServer server;
+    /** The match instance. */
+    private final PongMatch match;
     /**
      * Creates a new instance that references the fields from the specified
-     * server instance.
+     * match instance.
      *
-     * @param serverInstance  the server instance to use
+     * @param matchInstance  the match instance to use
      */
-    ShuttingDownState(final PongServer serverInstance) {
-        server = Objects.requireNonNull(serverInstance);
+    ShuttingDownState(final PongMatch matchInstance) {
+        match = Objects.requireNonNull(matchInstance);
     }
     @Override
     public final void onDisconnected(final PongClientConnection client) {
-        server.connections.remove(client);
+        match.connections.remove(client);
         // If all connections have disconnected, shutdown.
-        if (server.connections.isEmpty()) {
-            server.changeState(new ShutdownState());
-            server.executor.shutdown();
-        }
+        match.finishIfAllDisconnected();
     }
     @Override
     public final void onReceivedFrame(final PongClientConnection client,
@@ -41,8 +38,8 @@ public class ShuttingDownState implements ServerState {
     }
     @Override
     public final void onNewConnection(final PongClientConnection connection) {
-        throw new IllegalStateException(
-                "Cannot accept connections whilst shutting down.");
+        // The match is closing so turn the connection away.
+        connection.close();
     }
     @Override
     public final void start() {
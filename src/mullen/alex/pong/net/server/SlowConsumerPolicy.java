@@ -0,0 +1,106 @@
+package mullen.alex.pong.net.server;
+
+/**
+ * Describes how a {@link PongClientConnection} treats a client that reads
+ * its frames more slowly than the server produces them.
+ * <p>
+ * Frames a client has not yet been sent build up in its
+ * {@link mullen.alex.pong.net.OutboundQueue}. Whilst they do, a newer
+ * snapshot can replace any snapshot still queued, since only the latest
+ * state matters, and consecutive identical paddle moves can be merged into a
+ * single frame that carries how many times the move was made. Every other
+ * frame is reliable and is never dropped. A client is disconnected once its
+ * unsent frames reach a number of bytes or the oldest of them has waited for
+ * a length of time, so that it cannot hold on to an unbounded amount of
+ * memory.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class SlowConsumerPolicy {
+    /** The policy connections use unless they are given another. */
+    public static final SlowConsumerPolicy DEFAULT =
+            new SlowConsumerPolicy(true, true, 256 * 1024, 5000);
+    /** Holds whether newer snapshots replace queued ones. */
+    private final boolean dropStaleSnapshots;
+    /** Holds whether consecutive identical paddle moves are merged. */
+    private final boolean coalescePaddleMoves;
+    /** Holds the most unsent bytes before disconnecting. */
+    private final long maxBacklogBytes;
+    /** Holds the longest a frame can wait before disconnecting. */
+    private final long maxBacklogMillis;
+    /**
+     * Creates a new policy.
+     *
+     * @param dropStale         whether a newer snapshot replaces any snapshot
+     *                          still queued
+     * @param coalesceMoves     whether consecutive identical paddle moves
+     *                          still queued are merged
+     * @param maxBytes          the most unsent bytes a client can have before
+     *                          it is disconnected
+     * @param maxMillis         the longest in milliseconds a frame can wait
+     *                          to be sent before the client is disconnected
+     *
+     * @throws IllegalArgumentException  if <code>maxBytes</code> or
+     *                                   <code>maxMillis</code> is not
+     *                                   positive
+     */
+    public SlowConsumerPolicy(final boolean dropStale,
+            final boolean coalesceMoves, final long maxBytes,
+            final long maxMillis) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        if (maxMillis <= 0) {
+            throw new IllegalArgumentException("maxMillis must be positive");
+        }
+        dropStaleSnapshots = dropStale;
+        coalescePaddleMoves = coalesceMoves;
+        maxBacklogBytes = maxBytes;
+        maxBacklogMillis = maxMillis;
+    }
+    /**
+     * Gets whether a newer snapshot replaces any snapshot still queued.
+     *
+     * @return  <code>true</code> if stale snapshots are dropped;
+     *          <code>false</code> if not
+     */
+    public boolean dropsStaleSnapshots() {
+        return dropStaleSnapshots;
+    }
+    /**
+     * Gets whether consecutive identical paddle moves still queued are
+     * merged.
+     *
+     * @return  <code>true</code> if paddle moves are coalesced;
+     *          <code>false</code> if not
+     */
+    public boolean coalescesPaddleMoves() {
+        return coalescePaddleMoves;
+    }
+    /**
+     * Gets the most unsent bytes a client can have before it is
+     * disconnected.
+     *
+     * @return  the number of bytes
+     */
+    public long getMaxBacklogBytes() {
+        return maxBacklogBytes;
+    }
+    /**
+     * Gets the longest a frame can wait to be sent before the client is
+     * disconnected.
+     *
+     * @return  the time in milliseconds
+     */
+    public long getMaxBacklogMillis() {
+        return maxBacklogMillis;
+    }
+    @Override
+    public String toString() {
+        return "SlowConsumerPolicy [dropStaleSnapshots=" + dropStaleSnapshots
+                + ", coalescePaddleMoves=" + coalescePaddleMoves
+                + ", maxBacklogBytes=" + maxBacklogBytes
+                + ", maxBacklogMillis=" + maxBacklogMillis + "]";
+    }
+}
@@ -0,0 +1,97 @@
+package mullen.alex.pong.net.server;
+
+/**
+ * Describes how often a {@link PongServer} ticks its matches and how often
+ * it sends each client what those ticks produced.
+ * <p>
+ * The frames a match produces between sends, such as events, paddle moves
+ * and snapshots, wait in each client's queue and go out together when the
+ * match is next flushed, in a single write for a stream connection or as
+ * few datagrams as they fit in. Waiting lets identical paddle moves be
+ * merged and older snapshots be replaced before they are sent, and a
+ * snapshot is only taken on the ticks a send happens, so a lower send rate
+ * costs each client less bandwidth and fewer system calls at the price of
+ * up to one send interval of extra latency.
+ * <p>
+ * Sends happen every so many whole ticks, so the send rate must divide the
+ * tick rate. Frames sent in reply to a client, such as during the lobby, and
+ * pings are still flushed straight away.
+ * <p>
+ * The game is stepped {@value #GAME_STEPS_PER_SECOND} times a second
+ * whatever the tick rate, since that is the rate clients step theirs and
+ * the rate a paddle input is made for. Each tick moves the ball
+ * {@value #GAME_STEPS_PER_SECOND} divided by the tick rate steps and paddle
+ * inputs are applied once per step, so a higher tick rate moves the ball in
+ * smaller steps without changing the speed the game plays at.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class TickRates {
+    /** The number of times a second the game is stepped. */
+    public static final int GAME_STEPS_PER_SECOND = 60;
+    /** The number of sends per second by default. */
+    public static final int DEFAULT_SEND_RATE = 20;
+    /** The rates a server uses unless it is given others. */
+    public static final TickRates DEFAULT = new TickRates(
+            TickScheduler.DEFAULT_TICK_RATE, DEFAULT_SEND_RATE);
+    /** Holds the number of ticks per second. */
+    private final int ticksPerSecond;
+    /** Holds the number of sends per second. */
+    private final int sendsPerSecond;
+    /** Holds the number of ticks between sends. */
+    private final int ticksPerSend;
+    /**
+     * Creates new rates.
+     *
+     * @param tickRate  the number of ticks per second
+     * @param sendRate  the number of sends per second, which must divide the
+     *                  tick rate
+     *
+     * @throws IllegalArgumentException  if either rate is not positive or
+     *                                   the send rate does not divide the
+     *                                   tick rate
+     */
+    public TickRates(final int tickRate, final int sendRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tickRate must be positive");
+        }
+        if (sendRate <= 0 || tickRate % sendRate != 0) {
+            throw new IllegalArgumentException(
+                    "sendRate must be positive and divide tickRate");
+        }
+        ticksPerSecond = tickRate;
+        sendsPerSecond = sendRate;
+        ticksPerSend = tickRate / sendRate;
+    }
+    /**
+     * Gets the number of ticks per second.
+     *
+     * @return  the number of ticks
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+    /**
+     * Gets the number of sends per second.
+     *
+     * @return  the number of sends
+     */
+    public int getSendsPerSecond() {
+        return sendsPerSecond;
+    }
+    /**
+     * Gets the number of ticks between sends.
+     *
+     * @return  the number of ticks
+     */
+    public int getTicksPerSend() {
+        return ticksPerSend;
+    }
+    @Override
+    public String toString() {
+        return "TickRates [ticksPerSecond=" + ticksPerSecond
+                + ", sendsPerSecond=" + sendsPerSecond
+                + ", ticksPerSend=" + ticksPerSend + "]";
+    }
+}
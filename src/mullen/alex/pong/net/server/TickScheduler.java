@@ -0,0 +1,367 @@
+package mullen.alex.pong.net.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Ticks the matches of a server in batches spread over a fixed number of
+ * shards, each with a single worker thread.
+ * <p>
+ * Every match is assigned to a shard when it is created and stays there, so
+ * everything a match does, from handling its frames to ticking its game,
+ * happens on the same thread. Each shard ticks all its running matches one
+ * after another from a single repeating task rather than each match having a
+ * task of its own, and records how long each batch took and how late it
+ * started. A match whose tick throws is shut down on its own, leaving the
+ * other matches of its shard ticking.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class TickScheduler {
+    /** The default number of ticks per second. */
+    public static final int DEFAULT_TICK_RATE = 60;
+    /** Holds the shards. */
+    private final Shard[] shards;
+    /** Holds the time between ticks in nanoseconds. */
+    private final long tickPeriodNanos;
+    /**
+     * Creates a new instance with the specified number of shards and rate.
+     *
+     * @param shardCount      the number of shards
+     * @param ticksPerSecond  the number of ticks per second
+     *
+     * @throws IllegalArgumentException  if either argument is not positive
+     */
+    public TickScheduler(final int shardCount, final int ticksPerSecond) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException(
+                    "ticksPerSecond must be positive");
+        }
+        tickPeriodNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+    /**
+     * Starts each shard ticking its matches.
+     */
+    public final void start() {
+        for (final Shard shard : shards) {
+            shard.start();
+        }
+    }
+    /**
+     * Stops each shard once the tasks already given to it have run, then
+     * logs the metrics of each shard.
+     */
+    public final void shutdown() {
+        for (final Shard shard : shards) {
+            shard.executor.shutdown();
+            PongServer.LOG.info(shard.getMetrics().toString());
+        }
+    }
+    /**
+     * Gets the number of shards.
+     *
+     * @return  the number of shards
+     */
+    public final int getShardCount() {
+        return shards.length;
+    }
+    /**
+     * Gets a snapshot of the metrics of the specified shard.
+     *
+     * @param index  the index of the shard
+     * @return       the metrics
+     */
+    public final Metrics getShardMetrics(final int index) {
+        return shards[index].getMetrics();
+    }
+    /**
+     * Assigns a new match to the shard with the fewest matches.
+     *
+     * @return  the shard
+     */
+    final Shard assign() {
+        Shard least = shards[0];
+        for (final Shard shard : shards) {
+            if (shard.assigned.get() < least.assigned.get()) {
+                least = shard;
+            }
+        }
+        least.assigned.incrementAndGet();
+        return least;
+    }
+    /**
+     * A single worker thread and the running matches it ticks.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    final class Shard {
+        /** Holds the executor that all of the shard's matches run on. */
+        final ScheduledExecutorService executor;
+        /** Holds the index of the shard. */
+        private final int index;
+        /** Holds the number of matches assigned to the shard. */
+        private final AtomicInteger assigned;
+        /** Holds the matches being ticked, only used on the shard thread. */
+        private final List<PongMatch> ticking;
+        /** Holds the metrics, guarded by the shard's own lock. */
+        private final Metrics metrics;
+        /** Holds when the next batch is due to start. */
+        private long nextDeadline;
+        /**
+         * Creates a new shard.
+         *
+         * @param shardIndex  the index of the shard
+         */
+        Shard(final int shardIndex) {
+            index = shardIndex;
+            assigned = new AtomicInteger();
+            ticking = new ArrayList<>();
+            metrics = new Metrics(shardIndex);
+            executor = Executors.newSingleThreadScheduledExecutor(
+                    r -> new Thread(r, "TickShard-" + shardIndex));
+        }
+        /**
+         * Starts ticking the shard's matches at the scheduler's rate.
+         */
+        void start() {
+            executor.execute(() -> nextDeadline = System.nanoTime());
+            executor.scheduleAtFixedRate(this::tickAll, 0, tickPeriodNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+        /**
+         * Starts ticking the specified match as part of each batch.
+         * <p>
+         * <b>Make sure this is only executed within the shard thread.</b>
+         * </p>
+         *
+         * @param match  the match
+         */
+        void add(final PongMatch match) {
+            if (!ticking.contains(match)) {
+                ticking.add(match);
+            }
+        }
+        /**
+         * Stops ticking the specified match.
+         * <p>
+         * <b>Make sure this is only executed within the shard thread.</b>
+         * </p>
+         *
+         * @param match  the match
+         */
+        void remove(final PongMatch match) {
+            ticking.remove(match);
+        }
+        /**
+         * Releases the shard's slot held by a match that has finished.
+         */
+        void release() {
+            assigned.decrementAndGet();
+        }
+        /**
+         * Ticks every running match in turn and records how long it took.
+         */
+        private void tickAll() {
+            final long start = System.nanoTime();
+            final long lateness = Math.max(0, start - nextDeadline);
+            // Iterate backwards since a tick may finish and remove a match.
+            for (int i = ticking.size() - 1; i >= 0; i--) {
+                if (i < ticking.size()) {
+                    tick(ticking.get(i));
+                }
+            }
+            final long duration = System.nanoTime() - start;
+            nextDeadline += tickPeriodNanos;
+            synchronized (metrics) {
+                metrics.record(duration, lateness, duration > tickPeriodNanos,
+                        ticking.size());
+            }
+        }
+        /**
+         * Ticks a single match. A match whose tick throws is stopped and shut
+         * down, since an exception escaping the batch would cancel the
+         * repeating task and so stop every match of the shard.
+         *
+         * @param match  the match
+         */
+        private void tick(final PongMatch match) {
+            try {
+                match.tick();
+            } catch (final RuntimeException e) {
+                PongServer.LOG.log(Level.SEVERE, "Tick failed on " + this
+                        + ", shutting down the match.", e);
+                ticking.remove(match);
+                match.shutdown();
+            }
+        }
+        /**
+         * Gets a snapshot of the shard's metrics.
+         *
+         * @return  the metrics
+         */
+        Metrics getMetrics() {
+            synchronized (metrics) {
+                return new Metrics(metrics);
+            }
+        }
+        @Override
+        public String toString() {
+            return "TickShard-" + index;
+        }
+    }
+    /**
+     * Holds the tick metrics of a single shard.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public static final class Metrics {
+        /** Holds the index of the shard. */
+        private final int shard;
+        /** Holds the number of batches ticked. */
+        private long batches;
+        /** Holds the total time spent ticking in nanoseconds. */
+        private long totalDurationNanos;
+        /** Holds the longest batch in nanoseconds. */
+        private long maxDurationNanos;
+        /** Holds the number of batches that took longer than a tick. */
+        private long overruns;
+        /** Holds the total time batches started late in nanoseconds. */
+        private long totalLatenessNanos;
+        /** Holds the latest a batch has started in nanoseconds. */
+        private long maxLatenessNanos;
+        /** Holds the number of matches ticked in the last batch. */
+        private int matches;
+        /**
+         * Creates empty metrics for the specified shard.
+         *
+         * @param shardIndex  the index of the shard
+         */
+        Metrics(final int shardIndex) {
+            shard = shardIndex;
+        }
+        /**
+         * Creates a copy of the specified metrics.
+         *
+         * @param other  the metrics to copy
+         */
+        Metrics(final Metrics other) {
+            shard = other.shard;
+            batches = other.batches;
+            totalDurationNanos = other.totalDurationNanos;
+            maxDurationNanos = other.maxDurationNanos;
+            overruns = other.overruns;
+            totalLatenessNanos = other.totalLatenessNanos;
+            maxLatenessNanos = other.maxLatenessNanos;
+            matches = other.matches;
+        }
+        /**
+         * Records a batch.
+         *
+         * @param duration      how long the batch took in nanoseconds
+         * @param lateness      how late the batch started in nanoseconds
+         * @param overrun       whether the batch took longer than a tick
+         * @param matchesTicked the number of matches ticked
+         */
+        void record(final long duration, final long lateness,
+                final boolean overrun, final int matchesTicked) {
+            batches++;
+            totalDurationNanos += duration;
+            maxDurationNanos = Math.max(maxDurationNanos, duration);
+            if (overrun) {
+                overruns++;
+            }
+            totalLatenessNanos += lateness;
+            maxLatenessNanos = Math.max(maxLatenessNanos, lateness);
+            matches = matchesTicked;
+        }
+        /**
+         * Gets the index of the shard.
+         *
+         * @return  the index
+         */
+        public int getShard() {
+            return shard;
+        }
+        /**
+         * Gets the number of batches ticked.
+         *
+         * @return  the number of batches
+         */
+        public long getBatchCount() {
+            return batches;
+        }
+        /**
+         * Gets the mean time taken to tick a batch.
+         *
+         * @return  the mean duration in nanoseconds
+         */
+        public long getMeanDurationNanos() {
+            return batches == 0 ? 0 : totalDurationNanos / batches;
+        }
+        /**
+         * Gets the longest time taken to tick a batch.
+         *
+         * @return  the longest duration in nanoseconds
+         */
+        public long getMaxDurationNanos() {
+            return maxDurationNanos;
+        }
+        /**
+         * Gets the number of batches that took longer than a tick.
+         *
+         * @return  the number of overruns
+         */
+        public long getOverrunCount() {
+            return overruns;
+        }
+        /**
+         * Gets the mean time batches started after they were due.
+         *
+         * @return  the mean lateness in nanoseconds
+         */
+        public long getMeanLatenessNanos() {
+            return batches == 0 ? 0 : totalLatenessNanos / batches;
+        }
+        /**
+         * Gets the latest a batch has started after it was due.
+         *
+         * @return  the greatest lateness in nanoseconds
+         */
+        public long getMaxLatenessNanos() {
+            return maxLatenessNanos;
+        }
+        /**
+         * Gets the number of matches ticked in the last batch.
+         *
+         * @return  the number of matches
+         */
+        public int getMatchCount() {
+            return matches;
+        }
+        @Override
+        public String toString() {
+            return "shard " + shard + ": batches=" + batches
+                    + " matches=" + matches
+                    + " meanDurationUs=" + getMeanDurationNanos() / 1000
+                    + " maxDurationUs=" + maxDurationNanos / 1000
+                    + " overruns=" + overruns
+                    + " meanLatenessUs=" + getMeanLatenessNanos() / 1000
+                    + " maxLatenessUs=" + maxLatenessNanos / 1000;
+        }
+    }
+}
@@ -4,7 +4,6 @@ import java.util.ArrayDeque;
 import java.util.EnumMap;
 import java.util.Objects;
 import java.util.Queue;
-import java.util.concurrent.TimeUnit;
 
 import mullen.alex.pong.net.PongFrame;
 import mullen.alex.pong.net.PongFrame.Type;
@@ -20,41 +19,59 @@ import mullen.alex.pong.net.server.PongServer.ServerState;
  *
  */
 public class WaitingForConnectionsToBeReadyState implements ServerState {
-    /** How often the server updates the game state per second. */
-    private static final int TICK_RATE = 60;
     /** The number of initial ping frames to send during hand-shake. */
     private static final int INITIAL_PINGS_TO_SEND = 10;
-    /** The server instance. */
-    private final PongServer server;
+    /** The match instance. */
+    private final PongMatch match;
+    /** Holds whether the match has had a connection for each player. */
+    private boolean full;
     /**
      * Creates a new instance that references the fields from the specified
-     * server instance.
+     * match instance.
      *
-     * @param serverInstance  the server instance to use
+     * @param matchInstance  the match instance to use
      */
-    WaitingForConnectionsToBeReadyState(final PongServer serverInstance) {
-        server = Objects.requireNonNull(serverInstance);
+    WaitingForConnectionsToBeReadyState(final PongMatch matchInstance) {
+        match = Objects.requireNonNull(matchInstance);
     }
     @Override
     public final void shutdown() {
-        server.changeState(new ShuttingDownState(server));
-        server.connectionListener.shutdown();
-        server.connections.keySet().forEach(conn -> conn.close());
+        match.changeState(new ShuttingDownState(match));
+        match.connections.keySet().forEach(conn -> conn.close());
+        match.finishIfAllDisconnected();
     }
     @Override
     public final void onNewConnection(final PongClientConnection connection) {
         PongServer.LOG.info("client connected: " + connection);
-        server.connections.put(connection, new PongClientBundle());
+        final InputMailbox mailbox = match.server.getInputMailbox(connection);
+        if (mailbox == null) {
+            // Already disconnected.
+            return;
+        }
+        if (match.connections.size() == PongMatch.PLAYER_COUNT) {
+            PongServer.LOG.severe("Match is already full. Closing connection: "
+                    + connection);
+            connection.close();
+            return;
+        }
+        match.connections.put(connection, new PongClientBundle(mailbox));
+        full = match.connections.size() == PongMatch.PLAYER_COUNT;
     }
     @Override
     public final void onDisconnected(final PongClientConnection client) {
         PongServer.LOG.info("client disconnected: " + client);
-        server.connections.remove(client);
+        if (match.connections.remove(client) != null && full) {
+            /*
+             * The server no longer assigns connections to a full match, so
+             * it can never start. Close it so its slot can be used again.
+             */
+            shutdown();
+        }
     }
     @Override
     public final void onReceivedFrame(final PongClientConnection client,
             final PongFrame frame) {
-        final PongClientBundle clientBundle = server.connections.get(client);
+        final PongClientBundle clientBundle = match.connections.get(client);
         /*
          * Make sure it is an authorisation frame if not authorised as that
          * should be the first frame sent.
@@ -103,13 +120,11 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
             } else if (bundle.pingRepliesReceived < INITIAL_PINGS_TO_SEND) {
                 sendPing(client);
             } else if (isReadyToStart()) {
-                
-                server.changeState(new GameRunningState(server));
+                match.changeState(new GameRunningState(match));
                 assignRolesToClients();
                 sendStartEventToClients();
                 // Start the simulation.
-                server.executor.scheduleAtFixedRate(
-                        server::tick, 0, 1000 / TICK_RATE, TimeUnit.MILLISECONDS);
+                match.startTicking();
             }
         } else {
             PongServer.LOG.severe("Received unexpected frame from client: "
@@ -125,8 +140,9 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
         final Queue<Role> roles = new ArrayDeque<>();
         roles.add(Role.LEFT_PADDLE);
         roles.add(Role.RIGHT_PADDLE);
-        server.connections.values()
+        match.connections.values()
             .stream()
+            .filter(WaitingForConnectionsToBeReadyState::isReady)
             .limit(roles.size())
             .forEach(clientBundle -> clientBundle.role = roles.remove());
     }
@@ -134,7 +150,7 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
      * Sends the "STARTED" event frame to the clients.
      */
     private void sendStartEventToClients() {
-        server.connections.entrySet().parallelStream().forEach(
+        match.connections.entrySet().parallelStream().forEach(
                 conn -> sendStartEventToClient(conn.getKey(), conn.getValue()));
     }
     /**
@@ -149,14 +165,14 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
         startedEventFrame.args.put("EVENT", "STARTED");
         startedEventFrame.args.put("ROLE", bundle.role.name());
         startedEventFrame.players = new EnumMap<>(Role.class);
-        final PongClientBundle leftPaddleBundle = server.connections.entrySet()
+        final PongClientBundle leftPaddleBundle = match.connections.entrySet()
                 .stream()
                 .filter(entry -> entry.getValue().role == Role.LEFT_PADDLE)
                 .findFirst().get().getValue(); // !!!check
         startedEventFrame.players.put(Role.LEFT_PADDLE,
                 new PongPlayer(leftPaddleBundle.name, Role.LEFT_PADDLE,
                         leftPaddleBundle.ping));
-        final PongClientBundle rightPaddleBundle = server.connections.entrySet()
+        final PongClientBundle rightPaddleBundle = match.connections.entrySet()
                 .stream()
                 .filter(entry -> entry.getValue().role == Role.RIGHT_PADDLE)
                 .findFirst().get().getValue(); // !!!check
@@ -173,7 +189,7 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
      */
     private void sendPing(final PongClientConnection client) {
         final PongFrame pingFrame = new PongFrame(Type.PING);
-        final PongClientBundle clientBundle = server.connections.get(client);
+        final PongClientBundle clientBundle = match.connections.get(client);
         client.sendFrameToClient(pingFrame);
         clientBundle.pingsSent++;
         clientBundle.lastPingSentTime = System.currentTimeMillis();
@@ -190,12 +206,23 @@ public class WaitingForConnectionsToBeReadyState implements ServerState {
          * If we have the required number of connections ready then
          * we can start the game.
          */
-        final long connectionsReady = server.connections.values()
+        final long connectionsReady = match.connections.values()
                 .stream()
-                .filter(bundle -> bundle.authorised
-                        && bundle.pingRepliesReceived == INITIAL_PINGS_TO_SEND)
+                .filter(WaitingForConnectionsToBeReadyState::isReady)
                 .count();
-        return connectionsReady == 2;
+        return connectionsReady == PongMatch.PLAYER_COUNT;
+    }
+    /**
+     * Determines whether a client has authorised and replied to all the
+     * initial pings.
+     *
+     * @param bundle  the client's data bundle
+     * @return        <code>true</code> if the client is ready;
+     *                <code>false</code> if not
+     */
+    private static boolean isReady(final PongClientBundle bundle) {
+        return bundle.authorised
+                && bundle.pingRepliesReceived == INITIAL_PINGS_TO_SEND;
     }
     @Override
     public final void start() {
@@ -0,0 +1,119 @@
+package mullen.alex.pong.sim;
+
+import java.util.Objects;
+
+import mullen.alex.pong.FixedPointGameBuilder;
+import mullen.alex.pong.Game;
+import mullen.alex.pong.StandardGameBuilder;
+
+/**
+ * Checks that the steady-state tick of a game allocates nothing, so that
+ * garbage creeping back into the tick is caught rather than only reported.
+ * <p>
+ * A game is warmed up, then simulated by a {@link HeadlessGameRunner} for a
+ * run and for a run twice as long. Whatever is allocated once per run, such
+ * as by measuring, is the same for both, so the difference between them is
+ * what the extra ticks allocated.
+ * <p>
+ * Run on its own, the standard and fixed-point games are checked and the
+ * exit status is 1 if either of them fails. The only argument, which is
+ * optional, is the number of ticks per run.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class AllocationCheck {
+    /** Holds the number of ticks per run by default. */
+    private static final long DEFAULT_TICKS = 1_000_000;
+    /** Holds the seed of the fixed-point games checked. */
+    private static final long SEED = 1;
+    /** Holds the builder of the game checked. */
+    private final Game.Builder gameBuilder;
+    /** Holds the number of ticks per run. */
+    private final long ticks;
+    /**
+     * Creates a new instance that checks games created by the specified
+     * builder.
+     *
+     * @param builder      the game builder
+     * @param ticksPerRun  the number of ticks per run
+     *
+     * @throws IllegalArgumentException  if <code>ticksPerRun</code> is not
+     *                                   positive
+     */
+    public AllocationCheck(final Game.Builder builder,
+            final long ticksPerRun) {
+        if (ticksPerRun <= 0) {
+            throw new IllegalArgumentException("ticksPerRun must be positive");
+        }
+        gameBuilder = Objects.requireNonNull(builder);
+        ticks = ticksPerRun;
+    }
+    /**
+     * Checks the standard and fixed-point games, printing the result of
+     * each.
+     *
+     * @param args  the number of ticks per run
+     */
+    public static void main(final String[] args) {
+        final long ticks =
+                args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+        final boolean passed =
+                report("standard", new AllocationCheck(
+                        new StandardGameBuilder(), ticks))
+                & report("fixed-point", new AllocationCheck(
+                        new FixedPointGameBuilder(SEED), ticks));
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+    /**
+     * Measures the bytes the steady-state tick allocates.
+     *
+     * @return  the mean number of bytes per tick, or <code>-1</code> if the
+     *          JVM is unable to measure allocation
+     */
+    public double measureBytesPerTick() {
+        final PaddleController controller = new BallFollowingPaddleController();
+        final HeadlessGameRunner runner =
+                new HeadlessGameRunner(gameBuilder, controller, controller);
+        final Game game = gameBuilder.createGame();
+        runner.run(game, ticks);
+        final long single = runner.run(game, ticks).getAllocatedBytes();
+        final long twice = runner.run(game, ticks * 2).getAllocatedBytes();
+        if (single < 0 || twice < 0) {
+            return -1;
+        }
+        return (twice - single) / (double) ticks;
+    }
+    /**
+     * Determines whether the steady-state tick allocates nothing. A JVM that
+     * is unable to measure allocation passes.
+     *
+     * @return  <code>true</code> if it allocates nothing;
+     *          <code>false</code> if it allocates
+     */
+    public boolean passes() {
+        return measureBytesPerTick() <= 0;
+    }
+    /**
+     * Runs a check and prints its result.
+     *
+     * @param name   the name of the game checked
+     * @param check  the check
+     * @return       <code>true</code> if it passed; <code>false</code> if not
+     */
+    private static boolean report(final String name,
+            final AllocationCheck check) {
+        final double bytesPerTick = check.measureBytesPerTick();
+        if (bytesPerTick < 0) {
+            System.out.printf("%-12s SKIPPED (allocation not measurable)%n",
+                    name);
+            return true;
+        }
+        final boolean passed = bytesPerTick <= 0;
+        System.out.printf("%-12s %s (%.3f bytes/tick)%n", name,
+                passed ? "PASS" : "FAIL", bytesPerTick);
+        return passed;
+    }
+}
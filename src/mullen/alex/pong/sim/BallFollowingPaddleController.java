@@ -0,0 +1,41 @@
+package mullen.alex.pong.sim;
+
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.Paddle.Input;
+
+/**
+ * A {@link PaddleController} implementation that simply moves the paddle
+ * towards the current vertical position of the ball.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class BallFollowingPaddleController implements PaddleController {
+    /**
+     * Creates a new instance.
+     */
+    public BallFollowingPaddleController() {
+        // Intentionally empty.
+    }
+    @Override
+    public final Input nextInput(final Game game, final Paddle paddle) {
+        final Ellipse2D.Float ballTransform = game.getBall().getTransform();
+        final Rectangle paddleTransform = paddle.getTransform();
+        final float ballCentreY = ballTransform.y + ballTransform.height / 2;
+        final float paddleCentreY =
+                paddleTransform.y + paddleTransform.height / 2.0f;
+        // Do not chase the ball within a single move to avoid jittering.
+        final float deadZone = paddle.getSpeed();
+        Input input = Input.NONE;
+        if (ballCentreY < paddleCentreY - deadZone) {
+            input = Input.MOVE_UP;
+        } else if (ballCentreY > paddleCentreY + deadZone) {
+            input = Input.MOVE_DOWN;
+        }
+        return input;
+    }
+}
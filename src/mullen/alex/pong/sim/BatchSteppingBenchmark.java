@@ -0,0 +1,183 @@
+package mullen.alex.pong.sim;
+
+import java.awt.geom.Ellipse2D;
+import java.util.Random;
+
+import mullen.alex.pong.Ball;
+import mullen.alex.pong.BallStore;
+import mullen.alex.pong.World2D;
+
+/**
+ * Measures how quickly balls can be moved and bounced off the top and bottom
+ * of the world, as {@link Ball} objects one at a time and as a batch through
+ * {@link BallStore#moveAndBounceAll(World2D)}.
+ * <p>
+ * The batch is faster than the objects mainly because it keeps each ball's
+ * step rather than working it out with a square root and two divisions every
+ * step. Whether the JIT uses vector instructions for any of the loops is not
+ * checked here. To show how the batch's
+ * loop compares with another loop over the same kind of arrays, they are
+ * also stepped by a branch-free loop that selects each ball's position and
+ * flips its velocity and step whether it bounced or not.
+ * <p>
+ * Arguments, all optional, are the number of balls and the number of steps
+ * per run.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class BatchSteppingBenchmark {
+    /** Holds the number of balls stepped by default. */
+    private static final int DEFAULT_BALLS = 4096;
+    /** Holds the number of steps per run by default. */
+    private static final int DEFAULT_STEPS = 20_000;
+    /** Holds the number of runs made, the first of which warm up the JIT. */
+    private static final int RUNS = 5;
+    /** Holds the diameter of each ball. */
+    private static final float DIAMETER = 19.2f;
+    /** Holds the speed of each ball. */
+    private static final int SPEED = 2;
+    /** Holds the seed used to place the balls. */
+    private static final long SEED = 1;
+    /** Holds the index of the array of X coordinates of the centres. */
+    private static final int X = 0;
+    /** Holds the index of the array of Y coordinates of the centres. */
+    private static final int Y = 1;
+    /** Holds the index of the array of Y velocity components. */
+    private static final int VELOCITY_Y = 2;
+    /** Holds the index of the array of steps along the X axis. */
+    private static final int STEP_X = 3;
+    /** Holds the index of the array of steps along the Y axis. */
+    private static final int STEP_Y = 4;
+    /** Holds the index of the array of radii. */
+    private static final int RADIUS = 5;
+    /** Holds the number of arrays the branch-free loop steps. */
+    private static final int ARRAY_COUNT = 6;
+    /**
+     * Prevents instantiation.
+     */
+    private BatchSteppingBenchmark() {
+        // Intentionally empty.
+    }
+    /**
+     * Runs the benchmark and prints the ball steps per second of each way.
+     *
+     * @param args  the number of balls followed by the steps per run
+     */
+    public static void main(final String[] args) {
+        final int ballCount =
+                args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_BALLS;
+        final int steps =
+                args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_STEPS;
+        final World2D world = new World2D(1024, 768);
+        final Ball[] balls = new Ball[ballCount];
+        final BallStore store = new BallStore(ballCount);
+        final float[][] arrays = new float[ARRAY_COUNT][ballCount];
+        final Random rng = new Random(SEED);
+        for (int i = 0; i < ballCount; i++) {
+            final float x = rng.nextInt(world.getWidth());
+            final float y = rng.nextInt(world.getHeight() - (int) DIAMETER);
+            final float vx = rng.nextFloat() * 2 - 1;
+            final float vy = rng.nextFloat() * 2 - 1;
+            balls[i] = new Ball(vx, vy, SPEED);
+            balls[i].getTransform().setFrame(x, y, DIAMETER, DIAMETER);
+            store.add(x + DIAMETER / 2, y + DIAMETER / 2, DIAMETER / 2,
+                    vx, vy, SPEED);
+            final float length = (float) Math.sqrt(vx * vx + vy * vy);
+            arrays[X][i] = x + DIAMETER / 2;
+            arrays[Y][i] = y + DIAMETER / 2;
+            arrays[VELOCITY_Y][i] = vy;
+            arrays[STEP_X][i] = vx / length * SPEED;
+            arrays[STEP_Y][i] = vy / length * SPEED;
+            arrays[RADIUS][i] = DIAMETER / 2;
+        }
+        double objectRate = 0;
+        double branchFreeRate = 0;
+        double batchRate = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int step = 0; step < steps; step++) {
+                moveAndBounce(balls, world);
+            }
+            objectRate = rate(ballCount, steps, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int step = 0; step < steps; step++) {
+                moveAndBounce(arrays, world);
+            }
+            branchFreeRate =
+                    rate(ballCount, steps, System.nanoTime() - start);
+            start = System.nanoTime();
+            for (int step = 0; step < steps; step++) {
+                store.moveAndBounceAll(world);
+            }
+            batchRate = rate(ballCount, steps, System.nanoTime() - start);
+        }
+        System.out.printf("balls: %d, steps: %d%n", ballCount, steps);
+        System.out.printf("objects:     %.0f ball steps/s%n", objectRate);
+        System.out.printf("branch-free: %.0f ball steps/s (%.1fx)%n",
+                branchFreeRate, branchFreeRate / objectRate);
+        System.out.printf("batch:       %.0f ball steps/s (%.1fx)%n",
+                batchRate, batchRate / objectRate);
+    }
+    /**
+     * Moves each ball and bounces it off the top or bottom of the world in
+     * the same way as the game's basic collision resolver.
+     *
+     * @param balls  the balls
+     * @param world  the world
+     */
+    private static void moveAndBounce(final Ball[] balls, final World2D world) {
+        for (final Ball ball : balls) {
+            ball.move();
+            final Ellipse2D.Float transform = ball.getTransform();
+            if (transform.y < 0) {
+                transform.y = 0;
+                ball.getVelocity().y = -ball.getVelocity().y;
+            } else if (transform.y + transform.height > world.getHeight()) {
+                transform.y = world.getHeight() - transform.height;
+                ball.getVelocity().y = -ball.getVelocity().y;
+            }
+        }
+    }
+    /**
+     * Moves each ball held in arrays by its kept step and bounces it off the
+     * top or bottom of the world without branching, writing every ball's
+     * velocity and step whether it bounced or not.
+     *
+     * @param arrays  the arrays, indexed by {@link #X} and the like
+     * @param world   the world
+     */
+    private static void moveAndBounce(final float[][] arrays,
+            final World2D world) {
+        final float height = world.getHeight();
+        final float[] px = arrays[X];
+        final float[] py = arrays[Y];
+        final float[] pvy = arrays[VELOCITY_Y];
+        final float[] sx = arrays[STEP_X];
+        final float[] sy = arrays[STEP_Y];
+        final float[] pr = arrays[RADIUS];
+        for (int i = 0; i < px.length; i++) {
+            px[i] += sx[i];
+            final float r = pr[i];
+            final float newY = py[i] + sy[i];
+            final boolean top = newY - r < 0;
+            final boolean bottom = newY + r > height;
+            py[i] = top ? r : bottom ? height - r : newY;
+            final float flip = top | bottom ? -1.0f : 1.0f;
+            pvy[i] *= flip;
+            sy[i] *= flip;
+        }
+    }
+    /**
+     * Gets the number of ball steps made per second.
+     *
+     * @param ballCount  the number of balls
+     * @param steps      the number of steps
+     * @param nanos      the time taken in nanoseconds
+     * @return           the rate
+     */
+    private static double rate(final int ballCount, final int steps,
+            final long nanos) {
+        return (double) ballCount * steps / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,101 @@
+package mullen.alex.pong.sim;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import mullen.alex.pong.GridBallCollisionDetector;
+import mullen.alex.pong.ObstacleGameBuilder;
+
+/**
+ * Measures how the cost of a tick grows with the number of static obstacles
+ * in the arena, with and without the broadphase grid.
+ * <p>
+ * Each obstacle count is run twice: once with
+ * {@link GridBallCollisionDetector#DEFAULT_CELL_SIZE} cells and once with a
+ * single cell covering the whole world, which tests every obstacle on every
+ * check. Arguments, all optional, are the ticks per run and the obstacle
+ * counts to try.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class BroadphaseBenchmark {
+    /** Holds the number of ticks simulated per run by default. */
+    private static final long DEFAULT_TICKS = 200_000;
+    /** Holds the obstacle counts tried by default. */
+    private static final int[] DEFAULT_COUNTS = {2, 10, 100, 1000, 10000};
+    /** Holds the cell size that makes the grid a single cell. */
+    private static final int SINGLE_CELL_SIZE = 1024;
+    /** Holds the width and height of each obstacle. */
+    private static final int OBSTACLE_SIZE = 4;
+    /** Holds the seed used to place the obstacles. */
+    private static final long SEED = 1;
+    /**
+     * Prevents instantiation.
+     */
+    private BroadphaseBenchmark() {
+        // Intentionally empty.
+    }
+    /**
+     * Runs the benchmark and prints a row per obstacle count.
+     *
+     * @param args  the ticks per run followed by the obstacle counts
+     */
+    public static void main(final String[] args) {
+        final long ticks =
+                args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 1) {
+            counts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                counts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        final PaddleController controller = new BallFollowingPaddleController();
+        System.out.printf("%10s %16s %16s%n", "obstacles", "grid ticks/s",
+                "brute ticks/s");
+        for (final int count : counts) {
+            final List<Rectangle> obstacles = placeObstacles(count);
+            final double grid = measure(new ObstacleGameBuilder(obstacles,
+                    GridBallCollisionDetector.DEFAULT_CELL_SIZE), controller,
+                    ticks);
+            final double brute = measure(new ObstacleGameBuilder(obstacles,
+                    SINGLE_CELL_SIZE), controller, ticks);
+            System.out.printf("%10d %16.0f %16.0f%n", count, grid, brute);
+        }
+    }
+    /**
+     * Simulates a game twice, to let the JIT settle, and gets the rate of the
+     * second run.
+     *
+     * @param builder     the builder of the game
+     * @param controller  the controller for both paddles
+     * @param ticks       the number of ticks per run
+     * @return            the ticks simulated per second
+     */
+    private static double measure(final ObstacleGameBuilder builder,
+            final PaddleController controller, final long ticks) {
+        final HeadlessGameRunner runner =
+                new HeadlessGameRunner(builder, controller, controller);
+        runner.run(ticks);
+        return runner.run(ticks).getTicksPerSecond();
+    }
+    /**
+     * Places obstacles at random between the paddles.
+     *
+     * @param count  the number of obstacles
+     * @return       the obstacles
+     */
+    private static List<Rectangle> placeObstacles(final int count) {
+        final Random rng = new Random(SEED);
+        final List<Rectangle> obstacles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            obstacles.add(new Rectangle(160 + rng.nextInt(700),
+                    rng.nextInt(768 - OBSTACLE_SIZE), OBSTACLE_SIZE,
+                    OBSTACLE_SIZE));
+        }
+        return obstacles;
+    }
+}
@@ -0,0 +1,174 @@
+package mullen.alex.pong.sim;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.Gson;
+
+import mullen.alex.pong.net.ConnectionThreads;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
+import mullen.alex.pong.net.SocketConnectionListener;
+import mullen.alex.pong.net.server.JsonPongClientConnectionListener;
+import mullen.alex.pong.net.server.PongClientConnection;
+import mullen.alex.pong.net.server.PongClientConnectionListener;
+
+/**
+ * Measures the cost of holding many connections open through
+ * {@link SocketConnectionListener} and the JSON client connections, each of
+ * which blocks a thread waiting for frames, in one
+ * {@link ConnectionThreads.Mode}.
+ * <p>
+ * Every client sends a frame per round and the time taken for all of them to
+ * be handled is measured, which is dominated by waking the blocked threads.
+ * The platform thread count and resident memory are reported once every
+ * connection is open. Run once per mode, in separate processes, to compare
+ * them.
+ * <p>
+ * Arguments, all optional, are the mode, the number of connections, the
+ * number of rounds and the port to listen on.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class ConnectionThreadsBenchmark {
+    /** Holds the number of connections by default. */
+    private static final int DEFAULT_CONNECTIONS = 2000;
+    /** Holds the number of rounds by default. */
+    private static final int DEFAULT_ROUNDS = 20;
+    /** Holds the port listened on by default. */
+    private static final int DEFAULT_PORT = 31001;
+    /**
+     * Prevents instantiation.
+     */
+    private ConnectionThreadsBenchmark() {
+        // Intentionally empty.
+    }
+    /**
+     * Runs the benchmark and prints the measurements.
+     *
+     * @param args          the mode, the number of connections, the number of
+     *                      rounds and the port
+     *
+     * @throws IOException           if a connection cannot be made
+     * @throws InterruptedException  if interrupted whilst waiting
+     */
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        ConnectionThreads.setMode(args.length > 0
+                ? ConnectionThreads.Mode.valueOf(args[0].toUpperCase())
+                : ConnectionThreads.getMode());
+        final int connections = args.length > 1
+                ? Integer.parseInt(args[1]) : DEFAULT_CONNECTIONS;
+        final int rounds =
+                args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_ROUNDS;
+        final int port =
+                args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_PORT;
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicInteger received = new AtomicInteger();
+        final PongClientConnectionListener listener =
+                new JsonPongClientConnectionListener(
+                        new SocketConnectionListener.Builder(port, s -> { }),
+                        connection -> accepted.incrementAndGet(),
+                        new PongClientConnection.Handler() {
+                            @Override
+                            public void onReceivedFrame(
+                                    final PongClientConnection client,
+                                    final PongFrame frame) {
+                                received.incrementAndGet();
+                            }
+                            @Override
+                            public void onDisconnected(
+                                    final PongClientConnection client) {
+                                // Intentionally empty.
+                            }
+                        });
+        listener.start();
+        final long rssBefore = getResidentKib();
+        final long connectStart = System.nanoTime();
+        final Socket[] sockets = new Socket[connections];
+        for (int i = 0; i < connections; i++) {
+            sockets[i] = new Socket(InetAddress.getLoopbackAddress(), port);
+        }
+        waitFor(accepted, connections);
+        final long connectNanos = System.nanoTime() - connectStart;
+        System.gc();
+        final long rssAfter = getResidentKib();
+        final byte[] frame = new Gson().toJson(new PongFrame(Type.PING_REPLY))
+                .getBytes(StandardCharsets.UTF_8);
+        final long roundsStart = System.nanoTime();
+        for (int round = 1; round <= rounds; round++) {
+            for (final Socket socket : sockets) {
+                final OutputStream out = socket.getOutputStream();
+                out.write(frame);
+                out.flush();
+            }
+            waitFor(received, round * connections);
+        }
+        final long roundNanos = (System.nanoTime() - roundsStart) / rounds;
+        System.out.printf("mode=%s connections=%d%n",
+                ConnectionThreads.getMode(), connections);
+        System.out.printf("  connection threads live:   %d%n",
+                ConnectionThreads.getLiveCount());
+        System.out.printf("  platform threads:          %d%n",
+                ManagementFactory.getThreadMXBean().getThreadCount());
+        System.out.printf("  resident memory growth:    %d KiB (%.1f KiB per"
+                + " connection)%n", rssAfter - rssBefore,
+                (rssAfter - rssBefore) / (double) connections);
+        System.out.printf("  time to connect all:       %.1f ms%n",
+                connectNanos / 1e6);
+        System.out.printf("  time per round:            %.2f ms (%.1f us per"
+                + " frame)%n", roundNanos / 1e6,
+                roundNanos / 1e3 / connections);
+        for (final Socket socket : sockets) {
+            socket.close();
+        }
+        listener.shutdown();
+    }
+    /**
+     * Waits until the specified counter reaches the specified value.
+     *
+     * @param counter  the counter
+     * @param target   the value
+     *
+     * @throws InterruptedException  if interrupted whilst waiting
+     */
+    private static void waitFor(final AtomicInteger counter, final int target)
+            throws InterruptedException {
+        while (counter.get() < target) {
+            Thread.sleep(1);
+        }
+    }
+    /**
+     * Gets the resident memory of this process, where the platform reports
+     * it.
+     *
+     * @return  the resident memory in KiB, or zero if it is not reported
+     */
+    private static long getResidentKib() {
+        final Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(status)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (final IOException e) {
+            return 0;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,226 @@
+package mullen.alex.pong.sim;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.net.LinkConditioner;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.PongFrame.Type;
+import mullen.alex.pong.net.UdpConnectionListener;
+import mullen.alex.pong.net.client.PongClient;
+import mullen.alex.pong.net.client.PongClientFactory;
+import mullen.alex.pong.net.server.DatagramPongClientConnectionListener;
+import mullen.alex.pong.net.server.PongClientConnection;
+import mullen.alex.pong.net.server.PongClientConnectionListener;
+
+/**
+ * Plays a stream of frames between a server and a client over UDP on the
+ * loopback interface, with both sides passing the datagrams they send through
+ * a {@link LinkConditioner}, and checks what arrives.
+ * <p>
+ * Each tick the server sends a paddle move on the unreliable channel and the
+ * client sends an input, and every tenth tick the server also sends a score
+ * update on the reliable channel. Unreliable frames must never arrive out of
+ * order. Every reliable frame must arrive, in order, and how long each took
+ * is measured.
+ * <p>
+ * Arguments, all optional, are the loss rate, the latency and jitter in
+ * milliseconds, the number of ticks, the milliseconds per tick and the port
+ * to listen on.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class DatagramLoopbackBenchmark {
+    /** Holds the loss rate by default. */
+    private static final double DEFAULT_LOSS = 0.1;
+    /** Holds the latency by default. */
+    private static final long DEFAULT_LATENCY_MILLIS = 20;
+    /** Holds the jitter by default. */
+    private static final long DEFAULT_JITTER_MILLIS = 10;
+    /** Holds the number of ticks by default. */
+    private static final int DEFAULT_TICKS = 1000;
+    /** Holds the milliseconds per tick by default. */
+    private static final long DEFAULT_TICK_MILLIS = 5;
+    /** Holds the port listened on by default. */
+    private static final int DEFAULT_PORT = 31002;
+    /** Holds the number of ticks between reliable frames. */
+    private static final int RELIABLE_INTERVAL = 10;
+    /** Holds the milliseconds given for the last frames to arrive. */
+    private static final long SETTLE_MILLIS = 2000;
+    /**
+     * Prevents instantiation.
+     */
+    private DatagramLoopbackBenchmark() {
+        // Intentionally empty.
+    }
+    /**
+     * Runs the benchmark and prints the measurements.
+     *
+     * @param args          the loss rate, latency, jitter, number of ticks,
+     *                      milliseconds per tick and port
+     *
+     * @throws IOException           if a connection cannot be made
+     * @throws InterruptedException  if interrupted whilst waiting
+     */
+    public static void main(final String[] args)
+            throws IOException, InterruptedException {
+        final double loss =
+                args.length > 0 ? Double.parseDouble(args[0]) : DEFAULT_LOSS;
+        final long latency = args.length > 1
+                ? Long.parseLong(args[1]) : DEFAULT_LATENCY_MILLIS;
+        final long jitter = args.length > 2
+                ? Long.parseLong(args[2]) : DEFAULT_JITTER_MILLIS;
+        final int ticks =
+                args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_TICKS;
+        final long tickMillis = args.length > 4
+                ? Long.parseLong(args[4]) : DEFAULT_TICK_MILLIS;
+        final int port =
+                args.length > 5 ? Integer.parseInt(args[5]) : DEFAULT_PORT;
+        final LinkConditioner link =
+                new LinkConditioner(loss, latency, jitter);
+        final AtomicReference<PongClientConnection> accepted =
+                new AtomicReference<>();
+        final AtomicInteger inputsReceived = new AtomicInteger();
+        final PongClientConnectionListener listener =
+                new DatagramPongClientConnectionListener.Builder(
+                        new UdpConnectionListener.Builder(port, link)).build(
+                        accepted::set,
+                        new PongClientConnection.Handler() {
+                            @Override
+                            public void onReceivedFrame(
+                                    final PongClientConnection client,
+                                    final PongFrame frame) {
+                                inputsReceived.incrementAndGet();
+                            }
+                            @Override
+                            public void onDisconnected(
+                                    final PongClientConnection client) {
+                                // Intentionally empty.
+                            }
+                        });
+        listener.start();
+        final PongClient client = PongClientFactory.createAndConnectDatagram(
+                "localhost", port, link);
+        final Checker checker = new Checker(client);
+        final Thread checkThread = new Thread(checker,
+                "DatagramLoopbackBenchmark::checkThread");
+        checkThread.start();
+        // The server learns of the client from its first keepalive.
+        while (accepted.get() == null) {
+            Thread.sleep(1);
+        }
+        final PongClientConnection connection = accepted.get();
+        int reliableSent = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            final PongFrame move = new PongFrame(Type.EVENT);
+            move.tick = tick;
+            move.args.put("EVENT", "PADDLE_MOVE_EVENT");
+            connection.sendFrameToClient(move);
+            if (tick % RELIABLE_INTERVAL == 0) {
+                final PongFrame score = new PongFrame(Type.EVENT);
+                score.tick = tick;
+                score.args.put("EVENT", "SCORE_UPDATE_EVENT");
+                score.args.put("SENT", Long.toString(System.nanoTime()));
+                connection.sendFrameToClient(score);
+                reliableSent++;
+            }
+            connection.flush();
+            client.sendFrameToServer(createInput(tick));
+            Thread.sleep(tickMillis);
+        }
+        final long deadline = System.currentTimeMillis() + SETTLE_MILLIS;
+        while (checker.reliableReceived < reliableSent
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        System.out.printf("%s ticks=%d%n", link, ticks);
+        System.out.printf("  unreliable delivered:  %d of %d (%.1f%%),"
+                + " %d out of order%n", checker.unreliableReceived, ticks,
+                100.0 * checker.unreliableReceived / ticks,
+                checker.unreliableOutOfOrder);
+        System.out.printf("  inputs delivered:      %d of %d%n",
+                inputsReceived.get(), ticks);
+        System.out.printf("  reliable delivered:    %d of %d, %d out of"
+                + " order%n", checker.reliableReceived, reliableSent,
+                checker.reliableOutOfOrder);
+        System.out.printf("  reliable latency:      %.1f ms mean, %.1f ms"
+                + " max%n", checker.reliableReceived == 0 ? 0.0
+                        : checker.reliableNanos / 1e6
+                                / checker.reliableReceived,
+                checker.reliableMaxNanos / 1e6);
+        System.out.printf("  server connection:     %s%n", connection);
+        System.out.printf("  client connection:     %s%n", client);
+        client.close();
+        listener.shutdown();
+        checkThread.join();
+    }
+    /**
+     * Creates an input frame for the specified tick.
+     *
+     * @param tick  the tick
+     * @return      the frame
+     */
+    private static PongFrame createInput(final long tick) {
+        final PongFrame frame = new PongFrame(Type.INPUT);
+        frame.tick = tick;
+        frame.input = Paddle.Input.NONE;
+        return frame;
+    }
+    /**
+     * Receives the frames the server sends and checks their order.
+     *
+     * @author  Alex Mullen
+     */
+    private static final class Checker implements Runnable {
+        /** Holds the client. */
+        private final PongClient client;
+        /** Holds the number of unreliable frames received. */
+        private volatile int unreliableReceived;
+        /** Holds the number of unreliable frames received out of order. */
+        private volatile int unreliableOutOfOrder;
+        /** Holds the number of reliable frames received. */
+        private volatile int reliableReceived;
+        /** Holds the number of reliable frames received out of order. */
+        private volatile int reliableOutOfOrder;
+        /** Holds the total nanoseconds reliable frames took to arrive. */
+        private volatile long reliableNanos;
+        /** Holds the most nanoseconds a reliable frame took to arrive. */
+        private volatile long reliableMaxNanos;
+        /**
+         * Creates a new instance.
+         *
+         * @param pongClient  the client
+         */
+        Checker(final PongClient pongClient) {
+            client = pongClient;
+        }
+        @Override
+        public void run() {
+            long lastUnreliableTick = -1;
+            long lastReliableTick = -RELIABLE_INTERVAL;
+            PongFrame frame;
+            while ((frame = client.recvFrameFromServer()) != null) {
+                if (frame.isReliable()) {
+                    final long nanos = System.nanoTime()
+                            - Long.parseLong(frame.args.get("SENT"));
+                    if (frame.tick != lastReliableTick + RELIABLE_INTERVAL) {
+                        reliableOutOfOrder++;
+                    }
+                    lastReliableTick = frame.tick;
+                    reliableNanos += nanos;
+                    reliableMaxNanos = Math.max(reliableMaxNanos, nanos);
+                    reliableReceived++;
+                } else {
+                    if (frame.tick <= lastUnreliableTick) {
+                        unreliableOutOfOrder++;
+                    }
+                    lastUnreliableTick = frame.tick;
+                    unreliableReceived++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package mullen.alex.pong.sim;
+
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.GameSimulation;
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.Paddle.Input;
+
+/**
+ * Replays a game from a schedule of paddle inputs, jumping the ball straight
+ * from one collision to the next rather than stepping every tick.
+ * <p>
+ * This suits replays, look-ahead for bots and catching up a simulation that
+ * has fallen behind, where thousands of idle ticks should cost little more
+ * than the collisions that happen within them. That only holds fully for a
+ * fixed-point game, whose ball jumps the idle ticks in one go, as a
+ * floating-point ball still adds its step once per idle tick.
+ * <p>
+ * An input scheduled for a tick is held by its paddle from that tick onwards
+ * until another input is scheduled for the same paddle.
+ *
+ * @author  Alex Mullen
+ *
+ * @see GameSimulation#fastForward(long, Input, Input)
+ */
+public class FastForwardSimulation {
+    /** Holds the simulation being fast-forwarded. */
+    private final GameSimulation simulation;
+    /** Holds the inputs yet to be applied, ordered by tick. */
+    private final PriorityQueue<ScheduledInput> schedule;
+    /** Holds the number of inputs that have been scheduled. */
+    private long inputsScheduled;
+    /** Holds the input currently held by the left paddle. */
+    private Input leftInput;
+    /** Holds the input currently held by the right paddle. */
+    private Input rightInput;
+    /**
+     * Creates a new instance that fast-forwards the specified simulation.
+     *
+     * @param gameSimulation  the simulation
+     *
+     * @throws NullPointerException  if <code>gameSimulation</code> is
+     *                               <code>null</code>
+     */
+    public FastForwardSimulation(final GameSimulation gameSimulation) {
+        simulation = Objects.requireNonNull(gameSimulation);
+        schedule = new PriorityQueue<>();
+        leftInput = Input.NONE;
+        rightInput = Input.NONE;
+    }
+    /**
+     * Schedules a paddle to start holding an input from the specified tick.
+     *
+     * @param tick    the tick the input is first applied within
+     * @param paddle  the paddle, which must belong to the simulated game
+     * @param input   the input
+     *
+     * @throws IllegalArgumentException  if <code>tick</code> has already
+     *                                   been simulated or <code>paddle</code>
+     *                                   does not belong to the game
+     * @throws NullPointerException      if <code>input</code> is
+     *                                   <code>null</code>
+     */
+    public final void scheduleInput(final long tick, final Paddle paddle,
+            final Input input) {
+        final Game game = simulation.getGame();
+        if (tick < game.getTick()) {
+            throw new IllegalArgumentException(
+                    "Cannot schedule an input for a tick already simulated.");
+        }
+        if (paddle != game.getLeftPaddle() && paddle != game.getRightPaddle()) {
+            throw new IllegalArgumentException(
+                    "Paddle does not belong to the simulated game.");
+        }
+        schedule.add(new ScheduledInput(tick, inputsScheduled++, paddle,
+                Objects.requireNonNull(input)));
+    }
+    /**
+     * Advances the simulation until the specified number of ticks have been
+     * simulated, applying the scheduled inputs as their ticks are reached.
+     *
+     * @param tick  the tick count to advance to
+     *
+     * @throws IllegalArgumentException  if <code>tick</code> has already
+     *                                   been simulated
+     */
+    public final void advanceTo(final long tick) {
+        final Game game = simulation.getGame();
+        if (tick < game.getTick()) {
+            throw new IllegalArgumentException(
+                    "Cannot advance to a tick already simulated.");
+        }
+        while (game.getTick() < tick) {
+            applyInputsDue(game);
+            long nextChange = tick;
+            if (!schedule.isEmpty()) {
+                nextChange = Math.min(nextChange, schedule.peek().tick);
+            }
+            simulation.fastForward(nextChange - game.getTick(),
+                    leftInput, rightInput);
+        }
+        applyInputsDue(game);
+    }
+    /**
+     * Makes the paddles hold the inputs scheduled up to the current tick.
+     *
+     * @param game  the simulated game
+     */
+    private void applyInputsDue(final Game game) {
+        while (!schedule.isEmpty() && schedule.peek().tick <= game.getTick()) {
+            final ScheduledInput scheduled = schedule.remove();
+            if (scheduled.paddle == game.getLeftPaddle()) {
+                leftInput = scheduled.input;
+            } else {
+                rightInput = scheduled.input;
+            }
+        }
+    }
+    /**
+     * Holds an input scheduled for a paddle.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    private static final class ScheduledInput
+            implements Comparable<ScheduledInput> {
+        /** The tick the input is first applied within. */
+        final long tick;
+        /** The order the input was scheduled in, for breaking ties. */
+        final long sequence;
+        /** The paddle the input is for. */
+        final Paddle paddle;
+        /** The input. */
+        final Input input;
+        /**
+         * Creates a new instance.
+         *
+         * @param t  the tick
+         * @param s  the sequence number
+         * @param p  the paddle
+         * @param i  the input
+         */
+        ScheduledInput(final long t, final long s, final Paddle p,
+                final Input i) {
+            tick = t;
+            sequence = s;
+            paddle = p;
+            input = i;
+        }
+        @Override
+        public int compareTo(final ScheduledInput other) {
+            final int byTick = Long.compare(tick, other.tick);
+            if (byTick != 0) {
+                return byTick;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package mullen.alex.pong.sim;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Objects;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.GameSimulation;
+import mullen.alex.pong.Paddle;
+
+/**
+ * Runs games headless as fast as possible, with no engine, server, renderer or
+ * wall-clock pacing, and reports how quickly the ticks were simulated.
+ * <p>
+ * Each tick performs the same move, collide and resolve pipeline as the
+ * server, with the paddle inputs decided by a {@link PaddleController} per
+ * side.
+ * <p>
+ * Where the JVM supports it, the bytes allocated by the run are also measured
+ * so that garbage creeping back into the steady-state tick is visible.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class HeadlessGameRunner {
+    /** Holds the builder used to create each simulated game. */
+    private final Game.Builder gameBuilder;
+    /** Holds the controller for the left paddle. */
+    private final PaddleController leftController;
+    /** Holds the controller for the right paddle. */
+    private final PaddleController rightController;
+    /**
+     * Creates a new instance that simulates games created by the specified
+     * builder, controlling the paddles with the specified controllers.
+     *
+     * @param builder  the game builder
+     * @param left     the controller for the left paddle
+     * @param right    the controller for the right paddle
+     *
+     * @throws NullPointerException  if any argument is <code>null</code>
+     */
+    public HeadlessGameRunner(final Game.Builder builder,
+            final PaddleController left, final PaddleController right) {
+        gameBuilder = Objects.requireNonNull(builder);
+        leftController = Objects.requireNonNull(left);
+        rightController = Objects.requireNonNull(right);
+    }
+    /**
+     * Creates a new game and simulates it for the specified number of ticks.
+     *
+     * @param ticks  the number of ticks to simulate
+     * @return       the report describing the run
+     *
+     * @throws IllegalArgumentException  if <code>ticks</code> is negative
+     */
+    public final SimulationReport run(final long ticks) {
+        return run(gameBuilder.createGame(), ticks);
+    }
+    /**
+     * Simulates the specified game for the specified number of ticks.
+     *
+     * @param game   the game to simulate
+     * @param ticks  the number of ticks to simulate
+     * @return       the report describing the run
+     *
+     * @throws IllegalArgumentException  if <code>ticks</code> is negative
+     */
+    public final SimulationReport run(final Game game, final long ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("ticks must not be negative");
+        }
+        final GameSimulation simulation =
+                new GameSimulation(game, new GameSimulation.NullListener());
+        final Paddle leftPaddle = game.getLeftPaddle();
+        final Paddle rightPaddle = game.getRightPaddle();
+        final long startAllocatedBytes = getAllocatedBytes();
+        final long startTime = System.nanoTime();
+        for (long i = 0; i < ticks; i++) {
+            simulation.tick(leftController.nextInput(game, leftPaddle),
+                    rightController.nextInput(game, rightPaddle));
+        }
+        final long elapsedNanos = System.nanoTime() - startTime;
+        final long endAllocatedBytes = getAllocatedBytes();
+        final SimulationReport report = new SimulationReport(ticks,
+                elapsedNanos, game.getLeftSideScore(),
+                game.getRightSideScore());
+        if (startAllocatedBytes >= 0 && endAllocatedBytes >= 0) {
+            report.setAllocatedBytes(endAllocatedBytes - startAllocatedBytes);
+        }
+        return report;
+    }
+    /**
+     * Gets the total number of bytes the current thread has allocated, if the
+     * JVM supports measuring it.
+     *
+     * @return  the number of bytes or <code>-1</code> if not supported
+     */
+    private static long getAllocatedBytes() {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sunThreadBean =
+                    (com.sun.management.ThreadMXBean) threadBean;
+            if (sunThreadBean.isThreadAllocatedMemorySupported()
+                    && sunThreadBean.isThreadAllocatedMemoryEnabled()) {
+                return sunThreadBean.getThreadAllocatedBytes(
+                        Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
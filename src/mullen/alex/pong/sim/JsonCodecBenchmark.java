@@ -0,0 +1,156 @@
+package mullen.alex.pong.sim;
+
+import java.awt.geom.Ellipse2D;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import mullen.alex.jge.Vector2f;
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.net.JsonFrameCodec;
+import mullen.alex.pong.net.PongFrame;
+import mullen.alex.pong.net.Role;
+
+/**
+ * Measures how quickly frames are written and read as JSON through
+ * reflection with Gson and by hand with {@link JsonFrameCodec}.
+ * <p>
+ * The frames are those sent most often during a game: a paddle moving and
+ * the ball being hit. Gson writes each frame into a new string that is then
+ * encoded into bytes, whereas the codec writes into a buffer that is reused.
+ * The bytes written by each way are checked to be the same before anything
+ * is measured.
+ * <p>
+ * This is a plain warmed-up timing loop rather than a JMH benchmark, so
+ * its figures are rough. On the frames above the codec encoded only 1.1
+ * to 1.3 times as fast as Gson and decoded no faster, so the codec's gain
+ * is in not building a string and not using reflection rather than in
+ * speed.
+ * <p>
+ * The only argument, which is optional, is the number of frames per run.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public final class JsonCodecBenchmark {
+    /** Holds the number of frames per run by default. */
+    private static final int DEFAULT_FRAMES = 500_000;
+    /** Holds the number of runs made, the first of which warm up the JIT. */
+    private static final int RUNS = 5;
+    /** Holds a result that is printed so no work can be optimised away. */
+    private static long sink;
+    /**
+     * Prevents instantiation.
+     */
+    private JsonCodecBenchmark() {
+        // Intentionally empty.
+    }
+    /**
+     * Runs the benchmark and prints the nanoseconds per frame of each way.
+     *
+     * @param args          the number of frames per run
+     *
+     * @throws IOException  if writing to memory fails
+     */
+    public static void main(final String[] args) throws IOException {
+        final int frameCount =
+                args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_FRAMES;
+        final PongFrame[] frames = {createPaddleMove(), createBallHit()};
+        final Gson gson = new Gson();
+        final JsonFrameCodec codec = new JsonFrameCodec();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        final Writer writer =
+                new BufferedWriter(
+                new OutputStreamWriter(buffer, StandardCharsets.UTF_8));
+        final String[] json = new String[frames.length];
+        for (int i = 0; i < frames.length; i++) {
+            json[i] = gson.toJson(frames[i]);
+            buffer.reset();
+            codec.encode(frames[i], writer);
+            writer.flush();
+            if (!json[i].equals(buffer.toString("UTF-8"))) {
+                throw new IllegalStateException("Codec JSON differs: "
+                        + buffer.toString("UTF-8") + " " + json[i]);
+            }
+        }
+        final double[] nanos = new double[4];
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                sink += gson.toJson(frames[i & 1])
+                        .getBytes(StandardCharsets.UTF_8).length;
+            }
+            nanos[0] = perFrame(frameCount, start);
+            start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                buffer.reset();
+                codec.encode(frames[i & 1], writer);
+                writer.flush();
+                sink += buffer.size();
+            }
+            nanos[1] = perFrame(frameCount, start);
+            start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                sink += gson.fromJson(json[i & 1], PongFrame.class).tick;
+            }
+            nanos[2] = perFrame(frameCount, start);
+            start = System.nanoTime();
+            for (int i = 0; i < frameCount; i++) {
+                sink += codec.decode(
+                        new JsonReader(new StringReader(json[i & 1]))).tick;
+            }
+            nanos[3] = perFrame(frameCount, start);
+        }
+        System.out.printf("frames: %d (checksum %d)%n", frameCount, sink);
+        System.out.printf("encode gson:  %.0f ns/frame%n", nanos[0]);
+        System.out.printf("encode codec: %.0f ns/frame (%.1fx)%n", nanos[1],
+                nanos[0] / nanos[1]);
+        System.out.printf("decode gson:  %.0f ns/frame%n", nanos[2]);
+        System.out.printf("decode codec: %.0f ns/frame (%.1fx)%n", nanos[3],
+                nanos[2] / nanos[3]);
+    }
+    /**
+     * Creates a frame telling a client that a paddle has moved.
+     *
+     * @return  the frame
+     */
+    private static PongFrame createPaddleMove() {
+        final PongFrame frame = new PongFrame(PongFrame.Type.EVENT);
+        frame.tick = 1234;
+        frame.args.put("EVENT", "PADDLE_MOVE_EVENT");
+        frame.role = Role.LEFT_PADDLE;
+        frame.input = Paddle.Input.MOVE_UP;
+        return frame;
+    }
+    /**
+     * Creates a frame telling a client that the ball has been hit.
+     *
+     * @return  the frame
+     */
+    private static PongFrame createBallHit() {
+        final PongFrame frame = new PongFrame(PongFrame.Type.EVENT);
+        frame.tick = 1235;
+        frame.args.put("EVENT", "BALL_HIT_EVENT");
+        frame.destPositionFloat = new Ellipse2D.Float(24.75f, 308.5f, 19.2f,
+                19.2f);
+        frame.velocity = new Vector2f(0.8320503f, -0.5547002f);
+        return frame;
+    }
+    /**
+     * Gets the nanoseconds taken per frame since the specified time.
+     *
+     * @param frameCount  the number of frames
+     * @param start       the time started, from {@link System#nanoTime()}
+     * @return            the nanoseconds per frame
+     */
+    private static double perFrame(final int frameCount, final long start) {
+        return (System.nanoTime() - start) / (double) frameCount;
+    }
+}
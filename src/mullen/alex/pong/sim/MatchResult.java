@@ -0,0 +1,107 @@
+package mullen.alex.pong.sim;
+
+/**
+ * Describes the outcome of a single match played by a
+ * {@link TournamentRunner}.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class MatchResult {
+    /** Holds the index of the match within its tournament. */
+    private final int matchIndex;
+    /** Holds the seed the match's random number generator was given. */
+    private final long seed;
+    /** Holds the number of ticks the match lasted. */
+    private final long ticks;
+    /** Holds the score for the left side at the end of the match. */
+    private final int leftSideScore;
+    /** Holds the score for the right side at the end of the match. */
+    private final int rightSideScore;
+    /**
+     * An enumeration of the possible outcomes of a match.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public enum Outcome {
+        /** The left side finished with the higher score. */
+        LEFT_WON,
+        /** The right side finished with the higher score. */
+        RIGHT_WON,
+        /** Both sides finished with the same score. */
+        DRAW
+    }
+    /**
+     * Creates a new instance populated with the specified values.
+     *
+     * @param index       the index of the match within its tournament
+     * @param rngSeed     the seed the match's random number generator was
+     *                    given
+     * @param tickCount   the number of ticks the match lasted
+     * @param leftScore   the score for the left side
+     * @param rightScore  the score for the right side
+     */
+    public MatchResult(final int index, final long rngSeed,
+            final long tickCount, final int leftScore, final int rightScore) {
+        matchIndex = index;
+        seed = rngSeed;
+        ticks = tickCount;
+        leftSideScore = leftScore;
+        rightSideScore = rightScore;
+    }
+    /**
+     * Gets the index of the match within its tournament.
+     *
+     * @return  the index
+     */
+    public final int getMatchIndex() {
+        return matchIndex;
+    }
+    /**
+     * Gets the seed the match's random number generator was given, which
+     * replays the match exactly when given to the same builder and policies.
+     *
+     * @return  the seed
+     */
+    public final long getSeed() {
+        return seed;
+    }
+    /**
+     * Gets the number of ticks the match lasted.
+     *
+     * @return  the number of ticks
+     */
+    public final long getTicks() {
+        return ticks;
+    }
+    /**
+     * Gets the left side's score at the end of the match.
+     *
+     * @return  the score
+     */
+    public final int getLeftSideScore() {
+        return leftSideScore;
+    }
+    /**
+     * Gets the right side's score at the end of the match.
+     *
+     * @return  the score
+     */
+    public final int getRightSideScore() {
+        return rightSideScore;
+    }
+    /**
+     * Gets the outcome of the match.
+     *
+     * @return  the outcome
+     */
+    public final Outcome getOutcome() {
+        if (leftSideScore > rightSideScore) {
+            return Outcome.LEFT_WON;
+        } else if (rightSideScore > leftSideScore) {
+            return Outcome.RIGHT_WON;
+        }
+        return Outcome.DRAW;
+    }
+}
@@ -0,0 +1,24 @@
+package mullen.alex.pong.sim;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.Paddle;
+
+/**
+ * Defines an interface for a class that decides the input to apply to a
+ * paddle each tick, such as a bot.
+ *
+ * @author  Alex Mullen
+ *
+ */
+@FunctionalInterface
+public interface PaddleController {
+    /**
+     * Gets the input to apply to the specified paddle for the next tick.
+     *
+     * @param game    the game being played
+     * @param paddle  the paddle being controlled
+     *
+     * @return  the input
+     */
+    Paddle.Input nextInput(Game game, Paddle paddle);
+}
@@ -0,0 +1,73 @@
+package mullen.alex.pong.sim;
+
+import java.awt.Rectangle;
+
+import mullen.alex.pong.BallInterceptPredictor;
+import mullen.alex.pong.Game;
+import mullen.alex.pong.Paddle;
+import mullen.alex.pong.Paddle.Input;
+import mullen.alex.pong.World2D;
+
+/**
+ * A {@link PaddleController} implementation that predicts where the ball will
+ * reach its paddle and moves there ahead of time, lining the paddle up so the
+ * ball hits a chosen deflection segment.
+ * <p>
+ * Whilst the ball is heading away, the paddle returns to the middle of the
+ * world. Each decision costs a single prediction however far away the ball
+ * is, rather than any simulated ticks.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class PredictingPaddleController implements PaddleController {
+    /** Holds the predictor used to find where the ball will arrive. */
+    private final BallInterceptPredictor predictor;
+    /** Holds the deflection segment the paddle aims to hit the ball with. */
+    private final int targetSegment;
+    /**
+     * Creates a new instance that aims to hit the ball with the middle of the
+     * paddle.
+     */
+    public PredictingPaddleController() {
+        this(BallInterceptPredictor.getSegmentCount() / 2);
+    }
+    /**
+     * Creates a new instance that aims to hit the ball with the specified
+     * deflection segment.
+     *
+     * @param segment  the segment, numbered from the top of the paddle
+     *
+     * @throws IllegalArgumentException  if <code>segment</code> is not a
+     *                                   valid segment
+     */
+    public PredictingPaddleController(final int segment) {
+        if (segment < 0
+                || segment >= BallInterceptPredictor.getSegmentCount()) {
+            throw new IllegalArgumentException("Invalid segment: " + segment);
+        }
+        predictor = new BallInterceptPredictor();
+        targetSegment = segment;
+    }
+    @Override
+    public final Input nextInput(final Game game, final Paddle paddle) {
+        final World2D world = game.getWorld();
+        final Rectangle paddleTransform = paddle.getTransform();
+        final int targetY;
+        if (predictor.predict(game.getBall(), world, paddle)) {
+            targetY = predictor.getPaddleYForSegment(paddle, world,
+                    targetSegment);
+        } else {
+            targetY = world.getCentreY() - paddleTransform.height / 2;
+        }
+        // Do not chase the target within a single move to avoid jittering.
+        final int deadZone = paddle.getSpeed() / 2;
+        Input input = Input.NONE;
+        if (targetY < paddleTransform.y - deadZone) {
+            input = Input.MOVE_UP;
+        } else if (targetY > paddleTransform.y + deadZone) {
+            input = Input.MOVE_DOWN;
+        }
+        return input;
+    }
+}
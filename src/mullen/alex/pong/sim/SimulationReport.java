@@ -0,0 +1,121 @@
+package mullen.alex.pong.sim;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes the outcome and throughput of a headless simulation run.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class SimulationReport {
+    /** Holds the number of ticks simulated. */
+    private final long ticks;
+    /** Holds how long the ticks took to simulate in nanoseconds. */
+    private final long elapsedNanos;
+    /** Holds the score for the left side at the end of the run. */
+    private final int leftSideScore;
+    /** Holds the score for the right side at the end of the run. */
+    private final int rightSideScore;
+    /** Holds how many bytes the run allocated, or -1 if not measured. */
+    private long allocatedBytes;
+    /**
+     * Creates a new instance populated with the specified values.
+     *
+     * @param tickCount   the number of ticks simulated
+     * @param nanos       how long the ticks took to simulate in nanoseconds
+     * @param leftScore   the score for the left side
+     * @param rightScore  the score for the right side
+     */
+    public SimulationReport(final long tickCount, final long nanos,
+            final int leftScore, final int rightScore) {
+        ticks = tickCount;
+        elapsedNanos = nanos;
+        leftSideScore = leftScore;
+        rightSideScore = rightScore;
+        allocatedBytes = -1;
+    }
+    /**
+     * Gets the number of ticks simulated.
+     *
+     * @return  the number of ticks
+     */
+    public final long getTicks() {
+        return ticks;
+    }
+    /**
+     * Gets how long the ticks took to simulate.
+     *
+     * @return  the elapsed time in nanoseconds
+     */
+    public final long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    /**
+     * Gets the throughput of the run.
+     *
+     * @return  the number of ticks simulated per second
+     */
+    public final double getTicksPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return ticks * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+    /**
+     * Gets the score for the left side at the end of the run.
+     *
+     * @return  the score
+     */
+    public final int getLeftSideScore() {
+        return leftSideScore;
+    }
+    /**
+     * Gets the score for the right side at the end of the run.
+     *
+     * @return  the score
+     */
+    public final int getRightSideScore() {
+        return rightSideScore;
+    }
+    /**
+     * Gets how many bytes were allocated whilst simulating.
+     *
+     * @return  the number of bytes or <code>-1</code> if it was not measured
+     */
+    public final long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+    /**
+     * Sets how many bytes were allocated whilst simulating.
+     *
+     * @param bytes  the number of bytes
+     */
+    public final void setAllocatedBytes(final long bytes) {
+        allocatedBytes = bytes;
+    }
+    /**
+     * Gets the average number of bytes allocated per tick.
+     *
+     * @return  the number of bytes per tick or <code>-1</code> if it was not
+     *          measured
+     */
+    public final double getAllocatedBytesPerTick() {
+        if (allocatedBytes < 0) {
+            return -1;
+        }
+        if (ticks == 0) {
+            return 0.0;
+        }
+        return allocatedBytes / (double) ticks;
+    }
+    @Override
+    public final String toString() {
+        return "SimulationReport [ticks=" + ticks + ", elapsedNanos="
+                + elapsedNanos + ", ticksPerSecond="
+                + String.format("%.0f", Double.valueOf(getTicksPerSecond()))
+                + ", allocatedBytes=" + allocatedBytes
+                + ", leftSideScore=" + leftSideScore + ", rightSideScore="
+                + rightSideScore + "]";
+    }
+}
@@ -0,0 +1,100 @@
+package mullen.alex.pong.sim;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mullen.alex.pong.sim.MatchResult.Outcome;
+
+/**
+ * Describes the aggregated outcome of the matches played by a
+ * {@link TournamentRunner}.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class TournamentResult {
+    /** Holds the seed the tournament was run with. */
+    private final long seed;
+    /** Holds the result of each match, in match order. */
+    private final List<MatchResult> matches;
+    /** Holds how long the tournament took to play in nanoseconds. */
+    private final long elapsedNanos;
+    /** Holds the number of matches won by each outcome. */
+    private final int[] outcomeCounts;
+    /** Holds the total number of ticks played across every match. */
+    private final long totalTicks;
+    /**
+     * Creates a new instance aggregating the specified match results.
+     *
+     * @param tournamentSeed  the seed the tournament was run with
+     * @param results         the result of each match, in match order
+     * @param nanos           how long the tournament took in nanoseconds
+     */
+    public TournamentResult(final long tournamentSeed,
+            final List<MatchResult> results, final long nanos) {
+        seed = tournamentSeed;
+        matches = Collections.unmodifiableList(results);
+        elapsedNanos = nanos;
+        outcomeCounts = new int[Outcome.values().length];
+        long ticks = 0;
+        for (final MatchResult match : results) {
+            outcomeCounts[match.getOutcome().ordinal()]++;
+            ticks += match.getTicks();
+        }
+        totalTicks = ticks;
+    }
+    /**
+     * Gets the seed the tournament was run with.
+     *
+     * @return  the seed
+     */
+    public final long getSeed() {
+        return seed;
+    }
+    /**
+     * Gets the result of each match.
+     *
+     * @return  an unmodifiable list of the results, in match order
+     */
+    public final List<MatchResult> getMatches() {
+        return matches;
+    }
+    /**
+     * Gets how many matches ended with the specified outcome.
+     *
+     * @param outcome  the outcome
+     * @return         the number of matches
+     */
+    public final int getCount(final Outcome outcome) {
+        return outcomeCounts[outcome.ordinal()];
+    }
+    /**
+     * Gets the total number of ticks played across every match.
+     *
+     * @return  the number of ticks
+     */
+    public final long getTotalTicks() {
+        return totalTicks;
+    }
+    /**
+     * Gets how long the tournament took to play in nanoseconds.
+     *
+     * @return  the time in nanoseconds
+     */
+    public final long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    /**
+     * Gets the throughput of the tournament across every thread.
+     *
+     * @return  the number of ticks played per second
+     */
+    public final double getTicksPerSecond() {
+        if (elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return totalTicks * (double) TimeUnit.SECONDS.toNanos(1)
+                / elapsedNanos;
+    }
+}
@@ -0,0 +1,159 @@
+package mullen.alex.pong.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import mullen.alex.pong.Game;
+import mullen.alex.pong.GameSimulation;
+import mullen.alex.pong.Paddle;
+
+/**
+ * Plays many headless matches in parallel across every core and aggregates
+ * their results.
+ * <p>
+ * Each match gets its own game from the builder and its own controllers from
+ * the policies, so nothing is shared between the threads playing them. The
+ * seed of each match is drawn up front from a {@link SplittableRandom}
+ * seeded by the tournament seed and then given to the match's own random
+ * number generator. Running a tournament again with the same seed therefore
+ * plays exactly the same matches no matter how they are scheduled across the
+ * threads, and any single match can be replayed from its seed.
+ *
+ * @author  Alex Mullen
+ *
+ */
+public class TournamentRunner {
+    /** Holds the builder used to create the game of each match. */
+    private final Game.Builder gameBuilder;
+    /** Holds the policy supplying a controller for each left paddle. */
+    private final Supplier<? extends PaddleController> leftPolicy;
+    /** Holds the policy supplying a controller for each right paddle. */
+    private final Supplier<? extends PaddleController> rightPolicy;
+    /** Holds the score that ends a match once either side reaches it. */
+    private final int winningScore;
+    /** Holds the number of ticks after which a match is ended regardless. */
+    private final long maxTicks;
+    /** Holds the number of threads to play matches on. */
+    private final int parallelism;
+    /**
+     * A class for holding the required constructor arguments required for
+     * instantiating the outer class.
+     *
+     * @author  Alex Mullen
+     *
+     */
+    public static class ConstructorArgs {
+        /** The builder used to create the game of each match. */
+        public Game.Builder gameBuilder;
+        /** The policy supplying a controller for each left paddle. */
+        public Supplier<? extends PaddleController> leftPolicy;
+        /** The policy supplying a controller for each right paddle. */
+        public Supplier<? extends PaddleController> rightPolicy;
+        /** The score that ends a match once either side reaches it. */
+        public int winningScore = 11;
+        /** The number of ticks after which a match is ended regardless. */
+        public long maxTicks = 1_000_000;
+        /** The number of threads to play matches on. */
+        public int parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    /**
+     * Creates a new instance that uses the specified arguments.
+     *
+     * @param args  the arguments
+     *
+     * @throws IllegalArgumentException  if the winning score, maximum ticks
+     *                                   or parallelism are not positive
+     * @throws NullPointerException      if <code>args</code> or any of its
+     *                                   fields are <code>null</code>
+     */
+    public TournamentRunner(final ConstructorArgs args) {
+        Objects.requireNonNull(args);
+        gameBuilder = Objects.requireNonNull(args.gameBuilder);
+        leftPolicy = Objects.requireNonNull(args.leftPolicy);
+        rightPolicy = Objects.requireNonNull(args.rightPolicy);
+        if (args.winningScore <= 0 || args.maxTicks <= 0
+                || args.parallelism <= 0) {
+            throw new IllegalArgumentException("winningScore, maxTicks and "
+                    + "parallelism must be positive");
+        }
+        winningScore = args.winningScore;
+        maxTicks = args.maxTicks;
+        parallelism = args.parallelism;
+    }
+    /**
+     * Plays the specified number of matches and waits for them all to
+     * finish.
+     *
+     * @param matchCount  the number of matches to play
+     * @param seed        the seed the match seeds are drawn from
+     * @return            the aggregated results
+     *
+     * @throws IllegalArgumentException  if <code>matchCount</code> is
+     *                                   negative
+     * @throws InterruptedException      if interrupted whilst waiting
+     */
+    public final TournamentResult run(final int matchCount, final long seed)
+            throws InterruptedException {
+        if (matchCount < 0) {
+            throw new IllegalArgumentException(
+                    "matchCount must not be negative");
+        }
+        // Draw every seed before any match starts so scheduling is irrelevant.
+        final SplittableRandom seeds = new SplittableRandom(seed);
+        final List<Callable<MatchResult>> matches = new ArrayList<>(matchCount);
+        for (int i = 0; i < matchCount; i++) {
+            final int matchIndex = i;
+            final long matchSeed = seeds.nextLong();
+            matches.add(() -> playMatch(matchIndex, matchSeed));
+        }
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final long startTime = System.nanoTime();
+            final List<Future<MatchResult>> futures = pool.invokeAll(matches);
+            final List<MatchResult> results = new ArrayList<>(matchCount);
+            for (final Future<MatchResult> future : futures) {
+                results.add(future.get());
+            }
+            return new TournamentResult(seed, results,
+                    System.nanoTime() - startTime);
+        } catch (final ExecutionException e) {
+            throw new IllegalStateException("A match failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    /**
+     * Plays a single match on the calling thread.
+     *
+     * @param matchIndex  the index of the match within the tournament
+     * @param matchSeed   the seed for the match's random number generator
+     * @return            the result of the match
+     */
+    public final MatchResult playMatch(final int matchIndex,
+            final long matchSeed) {
+        final Game game = gameBuilder.createGame();
+        game.getRng().setSeed(matchSeed);
+        final PaddleController leftController = leftPolicy.get();
+        final PaddleController rightController = rightPolicy.get();
+        final GameSimulation simulation =
+                new GameSimulation(game, new GameSimulation.NullListener());
+        final Paddle leftPaddle = game.getLeftPaddle();
+        final Paddle rightPaddle = game.getRightPaddle();
+        long ticks = 0;
+        while (ticks < maxTicks && game.getLeftSideScore() < winningScore
+                && game.getRightSideScore() < winningScore) {
+            simulation.tick(leftController.nextInput(game, leftPaddle),
+                    rightController.nextInput(game, rightPaddle));
+            ticks++;
+        }
+        return new MatchResult(matchIndex, matchSeed, ticks,
+                game.getLeftSideScore(), game.getRightSideScore());
+    }
+}
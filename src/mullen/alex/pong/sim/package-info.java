@@ -0,0 +1,7 @@
+/**
+ * @author  Alex Mullen
+ *
+ * The package for running game simulations headless, without a renderer,
+ * engine or server.
+ */
+package mullen.alex.pong.sim;